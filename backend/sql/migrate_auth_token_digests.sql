@@ -0,0 +1,30 @@
+-- Migrate the auth table from raw JWT columns to SHA-256 token digests
+-- Run once against an existing database before deploying the digest-based Auth entity.
+-- Existing sessions stay valid: their digests are computed from the stored tokens.
+
+\c oems_db;
+
+BEGIN;
+
+ALTER TABLE auth ADD COLUMN IF NOT EXISTS access_token_hash bytea;
+ALTER TABLE auth ADD COLUMN IF NOT EXISTS refresh_token_hash bytea;
+
+UPDATE auth
+SET access_token_hash = sha256(convert_to(access_token, 'UTF8')),
+    refresh_token_hash = sha256(convert_to(refresh_token, 'UTF8'))
+WHERE access_token_hash IS NULL;
+
+ALTER TABLE auth ALTER COLUMN access_token_hash SET NOT NULL;
+ALTER TABLE auth ALTER COLUMN refresh_token_hash SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_auth_access_token;
+DROP INDEX IF EXISTS idx_auth_refresh_token;
+ALTER TABLE auth DROP COLUMN IF EXISTS access_token;
+ALTER TABLE auth DROP COLUMN IF EXISTS refresh_token;
+
+CREATE INDEX IF NOT EXISTS idx_auth_access_token_hash ON auth (access_token_hash);
+CREATE INDEX IF NOT EXISTS idx_auth_refresh_token_hash ON auth (refresh_token_hash);
+
+COMMIT;
+
+SELECT 'Auth token digest migration complete' AS status;
@@ -0,0 +1,49 @@
+-- Add the driver_daily_stats rollup behind the driver earnings and performance endpoints
+-- Run once against an existing database. The backfill rebuilds trip counters and earnings from the
+-- trips table; online time before the migration is not recorded anywhere and starts at zero.
+-- Set the session time zone to app.driver-stats.time-zone so days match the application's.
+
+\c oems_db;
+
+BEGIN;
+
+SET LOCAL TIME ZONE 'Asia/Kolkata';
+
+ALTER TABLE drivers ADD COLUMN IF NOT EXISTS online_since timestamp(6) with time zone;
+
+CREATE TABLE IF NOT EXISTS driver_daily_stats (
+    driver_id uuid NOT NULL,
+    stat_date date NOT NULL,
+    trips_completed integer NOT NULL DEFAULT 0,
+    trips_cancelled integer NOT NULL DEFAULT 0,
+    driver_cancellations integer NOT NULL DEFAULT 0,
+    gross_earnings numeric(12,2) NOT NULL DEFAULT 0,
+    commission numeric(12,2) NOT NULL DEFAULT 0,
+    distance_km numeric(10,2) NOT NULL DEFAULT 0,
+    online_seconds bigint NOT NULL DEFAULT 0,
+    updated_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (driver_id, stat_date)
+);
+
+-- Rebuild from finished trips; commission uses the default rate of 0.15
+INSERT INTO driver_daily_stats (driver_id, stat_date, trips_completed, trips_cancelled, driver_cancellations,
+                                gross_earnings, commission, distance_km, online_seconds, updated_at)
+SELECT t.driver_id,
+       COALESCE(t.ended_at, t.cancelled_at, t.updated_at)::date,
+       COUNT(*) FILTER (WHERE t.status = 'COMPLETED'),
+       COUNT(*) FILTER (WHERE t.status = 'CANCELLED'),
+       COUNT(*) FILTER (WHERE t.status = 'CANCELLED' AND t.cancelled_by = 'DRIVER'),
+       COALESCE(SUM(COALESCE(t.actual_fare, t.estimated_fare)) FILTER (WHERE t.status = 'COMPLETED'), 0),
+       COALESCE(SUM(ROUND(COALESCE(t.actual_fare, t.estimated_fare) * 0.15, 2)) FILTER (WHERE t.status = 'COMPLETED'), 0),
+       COALESCE(SUM(COALESCE(t.actual_distance, t.estimated_distance)) FILTER (WHERE t.status = 'COMPLETED'), 0),
+       0,
+       now()
+FROM trips t
+WHERE t.driver_id IS NOT NULL
+  AND t.status IN ('COMPLETED', 'CANCELLED')
+GROUP BY t.driver_id, COALESCE(t.ended_at, t.cancelled_at, t.updated_at)::date
+ON CONFLICT (driver_id, stat_date) DO NOTHING;
+
+COMMIT;
+
+SELECT 'Driver daily stats migration complete' AS status;
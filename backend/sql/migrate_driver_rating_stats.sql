@@ -0,0 +1,64 @@
+-- Add the driver_rating_stats aggregate behind drivers.average_rating and the matching engine's decayed rating
+-- Run once against an existing database; safe to re-run to rebuild the aggregate from the ratings table
+-- (for example after a crash lost ratings that had not been flushed yet).
+-- The decay uses the default half-life of 30 days (app.ratings.half-life-days).
+
+\c oems_db;
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS driver_rating_stats (
+    driver_id uuid PRIMARY KEY,
+    rating_sum bigint NOT NULL DEFAULT 0,
+    rating_count bigint NOT NULL DEFAULT 0,
+    stars_1 bigint NOT NULL DEFAULT 0,
+    stars_2 bigint NOT NULL DEFAULT 0,
+    stars_3 bigint NOT NULL DEFAULT 0,
+    stars_4 bigint NOT NULL DEFAULT 0,
+    stars_5 bigint NOT NULL DEFAULT 0,
+    decayed_sum double precision NOT NULL DEFAULT 0,
+    decayed_weight double precision NOT NULL DEFAULT 0,
+    decayed_at timestamp(6) with time zone NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL
+);
+
+INSERT INTO driver_rating_stats (driver_id, rating_sum, rating_count, stars_1, stars_2, stars_3, stars_4, stars_5,
+                                 decayed_sum, decayed_weight, decayed_at, updated_at)
+SELECT r.driver_id,
+       SUM(r.customer_rating),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE r.customer_rating = 1),
+       COUNT(*) FILTER (WHERE r.customer_rating = 2),
+       COUNT(*) FILTER (WHERE r.customer_rating = 3),
+       COUNT(*) FILTER (WHERE r.customer_rating = 4),
+       COUNT(*) FILTER (WHERE r.customer_rating = 5),
+       SUM(r.customer_rating * EXP(-LN(2) / (30 * 86400.0) * EXTRACT(EPOCH FROM now() - r.customer_rated_at))),
+       SUM(EXP(-LN(2) / (30 * 86400.0) * EXTRACT(EPOCH FROM now() - r.customer_rated_at))),
+       now(),
+       now()
+FROM ratings r
+WHERE r.customer_rated_at IS NOT NULL
+GROUP BY r.driver_id
+ON CONFLICT (driver_id) DO UPDATE SET
+    rating_sum = EXCLUDED.rating_sum,
+    rating_count = EXCLUDED.rating_count,
+    stars_1 = EXCLUDED.stars_1,
+    stars_2 = EXCLUDED.stars_2,
+    stars_3 = EXCLUDED.stars_3,
+    stars_4 = EXCLUDED.stars_4,
+    stars_5 = EXCLUDED.stars_5,
+    decayed_sum = EXCLUDED.decayed_sum,
+    decayed_weight = EXCLUDED.decayed_weight,
+    decayed_at = EXCLUDED.decayed_at,
+    updated_at = EXCLUDED.updated_at;
+
+UPDATE drivers d SET
+    average_rating = ROUND(s.rating_sum::numeric / s.rating_count, 2),
+    total_ratings = s.rating_count,
+    updated_at = now()
+FROM driver_rating_stats s
+WHERE s.driver_id = d.id AND s.rating_count > 0;
+
+COMMIT;
+
+SELECT 'Driver rating stats migration complete' AS status;
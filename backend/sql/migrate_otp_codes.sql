@@ -0,0 +1,21 @@
+-- Index otp_codes for the latest-code lookup and the expiry purge, and drop codes that have expired
+-- Run once against an existing database. Until now codes were never deleted, so the table may be
+-- large; the index builds run CONCURRENTLY and therefore outside a transaction.
+
+\c oems_db;
+
+-- Latest code of a phone, answered from the index alone (phone, id DESC, with code and expiry included).
+-- Ordering by id relies on otp_codes.id staying an identity column, issued in order by Postgres.
+DROP INDEX CONCURRENTLY IF EXISTS idx_otp_codes_phone_id;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_otp_codes_phone_id
+    ON otp_codes (phone, id DESC) INCLUDE (code, expires_at);
+
+-- Scheduled purge of expired codes
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_otp_codes_expires_at ON otp_codes (expires_at);
+
+-- Expired codes can never verify again; later purges keep the table small
+DELETE FROM otp_codes WHERE expires_at < now();
+
+VACUUM (ANALYZE) otp_codes;
+
+SELECT 'OTP codes migration complete' AS status;
@@ -0,0 +1,13 @@
+-- Add otp_send_limits, the per-phone OTP send buckets shared by every instance
+-- Run once against an existing database before deploying with app.security.otp.store=database.
+-- Until now each instance kept its own buckets in memory, so nothing needs to be carried over.
+
+\c oems_db;
+
+CREATE TABLE IF NOT EXISTS otp_send_limits (
+    phone varchar(255) PRIMARY KEY,
+    tokens double precision NOT NULL,
+    refilled_at_ms bigint NOT NULL
+);
+
+SELECT 'OTP send limits migration complete' AS status;
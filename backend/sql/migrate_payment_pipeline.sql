@@ -0,0 +1,19 @@
+-- Add the optimistic-lock version and idempotency key used by the asynchronous payment pipeline
+-- Run once against an existing database before deploying the payment processor.
+-- Hibernate would add the version column as nullable; existing rows need a starting version.
+
+\c oems_db;
+
+BEGIN;
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS idempotency_key varchar(100);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_payments_idempotency_key ON payments (idempotency_key);
+
+-- Recovery sweep looks up payments stuck in PROCESSING by age
+CREATE INDEX IF NOT EXISTS idx_payments_status_updated_at ON payments (status, updated_at);
+
+COMMIT;
+
+SELECT 'Payment pipeline migration complete' AS status;
@@ -0,0 +1,28 @@
+-- Move trip_events from an identity column to a pooled sequence
+-- Run once against an existing database before deploying the batching configuration.
+-- Hibernate now takes ids from trip_events_seq in blocks of 50 and hands them out itself, so the
+-- sequence must start past the current ids, and the old column default has to go: a row taking
+-- its id from the default could collide with a block an instance already holds.
+-- otp_codes keeps its identity column; the latest code of a phone is found by the highest id,
+-- which only holds while ids are issued in order across instances.
+
+\c oems_db;
+
+BEGIN;
+
+LOCK TABLE trip_events IN EXCLUSIVE MODE;
+
+CREATE SEQUENCE IF NOT EXISTS trip_events_seq INCREMENT BY 50;
+SELECT setval('trip_events_seq', COALESCE(max(id), 0) + 50) FROM trip_events;
+ALTER TABLE trip_events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE trip_events ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS trip_events_id_seq;
+
+COMMIT;
+
+-- Ids from different instances' blocks interleave, so a booking's history is read in time order
+DROP INDEX CONCURRENTLY IF EXISTS idx_trip_events_booking_id;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trip_events_booking_id
+    ON trip_events (booking_id, occurred_at, id);
+
+SELECT 'Pooled id migration complete' AS status;
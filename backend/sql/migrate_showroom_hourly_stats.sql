@@ -0,0 +1,60 @@
+-- Add the showroom_hourly_stats cube behind the showroom admin analytics and reports
+-- Run once against an existing database. The backfill attributes each finished trip to the nearest
+-- active showroom within 25 km of its pickup point (app.analytics.showroom-radius-km), as the
+-- application does, using an equirectangular distance that is accurate at city scale.
+-- Set the session time zone to app.analytics.time-zone so hours match the application's.
+
+\c oems_db;
+
+BEGIN;
+
+SET LOCAL TIME ZONE 'Asia/Kolkata';
+
+CREATE TABLE IF NOT EXISTS showroom_hourly_stats (
+    showroom_id uuid NOT NULL,
+    bucket_start timestamp(6) with time zone NOT NULL,
+    vehicle_type varchar(20) NOT NULL,
+    trips_completed integer NOT NULL DEFAULT 0,
+    trips_cancelled integer NOT NULL DEFAULT 0,
+    revenue numeric(12,2) NOT NULL DEFAULT 0,
+    trip_seconds bigint NOT NULL DEFAULT 0,
+    updated_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (showroom_id, bucket_start, vehicle_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_showroom_hourly_stats_bucket_start ON showroom_hourly_stats (bucket_start);
+
+-- Rebuild the retention window (120 days) from finished trips
+INSERT INTO showroom_hourly_stats (showroom_id, bucket_start, vehicle_type, trips_completed, trips_cancelled,
+                                   revenue, trip_seconds, updated_at)
+SELECT s.id,
+       date_trunc('hour', f.finished_at),
+       b.vehicle_type,
+       COUNT(*) FILTER (WHERE t.status = 'COMPLETED'),
+       COUNT(*) FILTER (WHERE t.status = 'CANCELLED'),
+       COALESCE(SUM(COALESCE(t.actual_fare, t.estimated_fare)) FILTER (WHERE t.status = 'COMPLETED'), 0),
+       COALESCE(SUM(GREATEST(EXTRACT(EPOCH FROM f.finished_at - t.started_at), 0)::bigint)
+                FILTER (WHERE t.status = 'COMPLETED'), 0),
+       now()
+FROM trips t
+JOIN bookings b ON b.id = t.booking_id
+CROSS JOIN LATERAL (SELECT COALESCE(t.ended_at, t.cancelled_at, t.updated_at) AS finished_at) f
+CROSS JOIN LATERAL (
+    SELECT sr.id, 111.32 * sqrt(power(sr.latitude - t.pickup_latitude, 2)
+           + power((sr.longitude - t.pickup_longitude) * cos(radians(t.pickup_latitude)), 2)) AS distance_km
+    FROM showrooms sr
+    WHERE sr.status = 'ACTIVE'
+      AND sr.latitude BETWEEN t.pickup_latitude - 0.25 AND t.pickup_latitude + 0.25
+    ORDER BY distance_km
+    LIMIT 1
+) s
+WHERE t.status IN ('COMPLETED', 'CANCELLED')
+  AND t.driver_id IS NOT NULL
+  AND s.distance_km <= 25
+  AND f.finished_at >= date_trunc('day', now()) - interval '119 days'
+GROUP BY s.id, date_trunc('hour', f.finished_at), b.vehicle_type
+ON CONFLICT (showroom_id, bucket_start, vehicle_type) DO NOTHING;
+
+COMMIT;
+
+SELECT 'Showroom hourly stats migration complete' AS status;
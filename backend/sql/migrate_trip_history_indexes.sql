@@ -0,0 +1,14 @@
+-- Composite indexes for keyset-paginated customer and driver trip history
+-- Pages seek on (started_at, id) within one customer or driver, newest first.
+-- The single-column customer_id / driver_id indexes are prefixes of the new ones and are dropped.
+-- CONCURRENTLY keeps the trips table writable during the build, so this runs outside a transaction.
+
+\c oems_db;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_customer_started_at ON trips (customer_id, started_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_driver_started_at ON trips (driver_id, started_at);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_trips_customer_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_trips_driver_id;
+
+SELECT 'Trip history indexes created' AS status;
@@ -0,0 +1,36 @@
+-- Add optimistic-lock versions to bookings and trips, and the trip_events transition log
+-- Run once against an existing database before deploying the state machine entities.
+-- Hibernate would add the version columns as nullable; existing rows need a starting version.
+
+\c oems_db;
+
+BEGIN;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS trip_events (
+    id bigserial PRIMARY KEY,
+    booking_id uuid NOT NULL,
+    trip_id uuid,
+    subject varchar(10) NOT NULL,
+    from_status varchar(30),
+    to_status varchar(30) NOT NULL,
+    actor varchar(10) NOT NULL,
+    reason varchar(500),
+    subject_version bigint,
+    occurred_at timestamp(6) with time zone NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_trip_events_booking_id ON trip_events (booking_id, id);
+CREATE INDEX IF NOT EXISTS idx_trip_events_occurred_at ON trip_events (occurred_at);
+
+-- Seed the log with the current status of trips that predate it
+INSERT INTO trip_events (booking_id, trip_id, subject, from_status, to_status, actor, reason, subject_version, occurred_at)
+SELECT t.booking_id, t.id, 'TRIP', NULL, t.status, 'SYSTEM', 'Backfilled by migration', t.version, t.updated_at
+FROM trips t
+WHERE NOT EXISTS (SELECT 1 FROM trip_events e WHERE e.trip_id = t.id);
+
+COMMIT;
+
+SELECT 'Trip state machine migration complete' AS status;
@@ -1,8 +1,14 @@
 package com.example.backend.oems.config;
 
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.backend.oems.entity.Vehicle;
+
 /**
  * Application configuration properties
  */
@@ -13,11 +19,28 @@ public class AppProperties {
     private Security security = new Security();
     private Twilio twilio = new Twilio();
     private Cors cors = new Cors();
+    private Matching matching = new Matching();
+    private LocationIngestion locationIngestion = new LocationIngestion();
+    private Geo geo = new Geo();
+    private RequestLog requestLog = new RequestLog();
+    private Fares fares = new Fares();
+    private Surge surge = new Surge();
+    private TripStream tripStream = new TripStream();
+    private Dispatch dispatch = new Dispatch();
+    private DriverStats driverStats = new DriverStats();
+    private Ratings ratings = new Ratings();
+    private Dashboard dashboard = new Dashboard();
+    private Analytics analytics = new Analytics();
+    private PaymentExport paymentExport = new PaymentExport();
+    private Payments payments = new Payments();
+    private RateLimit rateLimit = new RateLimit();
+    private UserCache userCache = new UserCache();
     private String environment = "development";
     
     public static class Security {
         private Jwt jwt = new Jwt();
         private Otp otp = new Otp();
+        private TokenCache tokenCache = new TokenCache();
         
         public static class Jwt {
             private String secret;
@@ -31,10 +54,45 @@ public class AppProperties {
         }
         
         public static class Otp {
-            private long expiration = 300000; // 5 minutes
+            private long expiration = 180000; // 3 minutes
+            private String store = "database"; // database (shared by all instances) or memory
+            private int sendLimit = 3;
+            private long sendWindowMs = 3600000; // 1 hour
+            private int rateLimitMaxKeys = 100000; // phones tracked by the memory store's limiter
+            private long purgeIntervalMs = 600000; // 10 minutes
+            private int purgeBatchSize = 5000;
             
             public long getExpiration() { return expiration; }
             public void setExpiration(long expiration) { this.expiration = expiration; }
+            
+            public String getStore() { return store; }
+            public void setStore(String store) { this.store = store; }
+            
+            public int getSendLimit() { return sendLimit; }
+            public void setSendLimit(int sendLimit) { this.sendLimit = sendLimit; }
+            
+            public long getSendWindowMs() { return sendWindowMs; }
+            public void setSendWindowMs(long sendWindowMs) { this.sendWindowMs = sendWindowMs; }
+            
+            public int getRateLimitMaxKeys() { return rateLimitMaxKeys; }
+            public void setRateLimitMaxKeys(int rateLimitMaxKeys) { this.rateLimitMaxKeys = rateLimitMaxKeys; }
+            
+            public long getPurgeIntervalMs() { return purgeIntervalMs; }
+            public void setPurgeIntervalMs(long purgeIntervalMs) { this.purgeIntervalMs = purgeIntervalMs; }
+            
+            public int getPurgeBatchSize() { return purgeBatchSize; }
+            public void setPurgeBatchSize(int purgeBatchSize) { this.purgeBatchSize = purgeBatchSize; }
+        }
+        
+        public static class TokenCache {
+            private int maxSize = 100000;
+            private long ttlMs = 60000; // 1 minute
+            
+            public int getMaxSize() { return maxSize; }
+            public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+            
+            public long getTtlMs() { return ttlMs; }
+            public void setTtlMs(long ttlMs) { this.ttlMs = ttlMs; }
         }
         
         public Jwt getJwt() { return jwt; }
@@ -42,6 +100,9 @@ public class AppProperties {
         
         public Otp getOtp() { return otp; }
         public void setOtp(Otp otp) { this.otp = otp; }
+        
+        public TokenCache getTokenCache() { return tokenCache; }
+        public void setTokenCache(TokenCache tokenCache) { this.tokenCache = tokenCache; }
     }
     
     public static class Twilio {
@@ -82,6 +143,488 @@ public class AppProperties {
         public void setAllowCredentials(boolean allowCredentials) { this.allowCredentials = allowCredentials; }
     }
     
+    public static class Matching {
+        private double cellSizeDegrees = 0.01; // ~1.1 km grid cells
+        private double searchRadiusKm = 5.0;
+        private long staleAfterMs = 120000; // 2 minutes without a ping
+        private long sweepIntervalMs = 15000;
+        private double ratingPenaltyKm = 0.5; // extra distance per star below 5 when ranking candidates
+        
+        public double getCellSizeDegrees() { return cellSizeDegrees; }
+        public void setCellSizeDegrees(double cellSizeDegrees) { this.cellSizeDegrees = cellSizeDegrees; }
+        
+        public double getSearchRadiusKm() { return searchRadiusKm; }
+        public void setSearchRadiusKm(double searchRadiusKm) { this.searchRadiusKm = searchRadiusKm; }
+        
+        public long getStaleAfterMs() { return staleAfterMs; }
+        public void setStaleAfterMs(long staleAfterMs) { this.staleAfterMs = staleAfterMs; }
+        
+        public long getSweepIntervalMs() { return sweepIntervalMs; }
+        public void setSweepIntervalMs(long sweepIntervalMs) { this.sweepIntervalMs = sweepIntervalMs; }
+        
+        public double getRatingPenaltyKm() { return ratingPenaltyKm; }
+        public void setRatingPenaltyKm(double ratingPenaltyKm) { this.ratingPenaltyKm = ratingPenaltyKm; }
+    }
+    
+    public static class LocationIngestion {
+        private int bufferCapacity = 65536;
+        private long flushIntervalMs = 1000;
+        private int batchSize = 500;
+        
+        public int getBufferCapacity() { return bufferCapacity; }
+        public void setBufferCapacity(int bufferCapacity) { this.bufferCapacity = bufferCapacity; }
+        
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    }
+    
+    public static class Geo {
+        private boolean showroomCacheEnabled = true;
+        private long showroomCacheRefreshMs = 300000; // 5 minutes
+        
+        public boolean isShowroomCacheEnabled() { return showroomCacheEnabled; }
+        public void setShowroomCacheEnabled(boolean showroomCacheEnabled) { this.showroomCacheEnabled = showroomCacheEnabled; }
+        
+        public long getShowroomCacheRefreshMs() { return showroomCacheRefreshMs; }
+        public void setShowroomCacheRefreshMs(long showroomCacheRefreshMs) { this.showroomCacheRefreshMs = showroomCacheRefreshMs; }
+    }
+    
+    public static class RequestLog {
+        private Sink sink = Sink.JDBC;
+        private File file = new File();
+        private int queueCapacity = 16384;
+        private long flushIntervalMs = 500;
+        private int batchSize = 200;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private long blockTimeoutMs = 50;
+        
+        public enum OverflowPolicy {
+            DROP,  // Discard the entry and count it
+            BLOCK  // Wait up to blockTimeoutMs for space, then discard
+        }
+        
+        public enum Sink {
+            JDBC,  // Postgres logs table
+            FILE   // Local memory-mapped segment files
+        }
+        
+        public static class File {
+            private String directory = "./data/request-logs";
+            private int segmentSizeMb = 64;
+            private int maxSegments = 32;
+            
+            public String getDirectory() { return directory; }
+            public void setDirectory(String directory) { this.directory = directory; }
+            
+            public int getSegmentSizeMb() { return segmentSizeMb; }
+            public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+            
+            public int getMaxSegments() { return maxSegments; }
+            public void setMaxSegments(int maxSegments) { this.maxSegments = maxSegments; }
+        }
+        
+        public Sink getSink() { return sink; }
+        public void setSink(Sink sink) { this.sink = sink; }
+        
+        public File getFile() { return file; }
+        public void setFile(File file) { this.file = file; }
+        
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        
+        public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) { this.overflowPolicy = overflowPolicy; }
+        
+        public long getBlockTimeoutMs() { return blockTimeoutMs; }
+        public void setBlockTimeoutMs(long blockTimeoutMs) { this.blockTimeoutMs = blockTimeoutMs; }
+    }
+    
+    public static class Fares {
+        private double roadDistanceFactor = 1.3; // road route vs straight line
+        private double averageSpeedKmh = 24.0;   // city traffic
+        private Map<Vehicle.VehicleType, Tariff> tariffs = defaultTariffs();
+        
+        public static class Tariff {
+            private double baseFare;
+            private double perKm;
+            private double perMinute;
+            private double minimumFare;
+            private double platformFee;
+            private double taxRate;
+            
+            public Tariff() {}
+            
+            public Tariff(double baseFare, double perKm, double perMinute, double minimumFare,
+                          double platformFee, double taxRate) {
+                this.baseFare = baseFare;
+                this.perKm = perKm;
+                this.perMinute = perMinute;
+                this.minimumFare = minimumFare;
+                this.platformFee = platformFee;
+                this.taxRate = taxRate;
+            }
+            
+            public double getBaseFare() { return baseFare; }
+            public void setBaseFare(double baseFare) { this.baseFare = baseFare; }
+            
+            public double getPerKm() { return perKm; }
+            public void setPerKm(double perKm) { this.perKm = perKm; }
+            
+            public double getPerMinute() { return perMinute; }
+            public void setPerMinute(double perMinute) { this.perMinute = perMinute; }
+            
+            public double getMinimumFare() { return minimumFare; }
+            public void setMinimumFare(double minimumFare) { this.minimumFare = minimumFare; }
+            
+            public double getPlatformFee() { return platformFee; }
+            public void setPlatformFee(double platformFee) { this.platformFee = platformFee; }
+            
+            public double getTaxRate() { return taxRate; }
+            public void setTaxRate(double taxRate) { this.taxRate = taxRate; }
+        }
+        
+        private static Map<Vehicle.VehicleType, Tariff> defaultTariffs() {
+            Map<Vehicle.VehicleType, Tariff> tariffs = new EnumMap<>(Vehicle.VehicleType.class);
+            tariffs.put(Vehicle.VehicleType.BIKE, new Tariff(15, 5, 0.5, 30, 5, 0.05));
+            tariffs.put(Vehicle.VehicleType.AUTO_RICKSHAW, new Tariff(25, 8, 0.75, 50, 5, 0.05));
+            tariffs.put(Vehicle.VehicleType.HATCHBACK, new Tariff(40, 10, 1.0, 80, 10, 0.05));
+            tariffs.put(Vehicle.VehicleType.SEDAN, new Tariff(50, 13, 1.5, 110, 10, 0.05));
+            tariffs.put(Vehicle.VehicleType.SUV, new Tariff(70, 17, 2.0, 150, 15, 0.05));
+            tariffs.put(Vehicle.VehicleType.PREMIUM, new Tariff(100, 22, 2.5, 220, 20, 0.05));
+            tariffs.put(Vehicle.VehicleType.LUXURY, new Tariff(150, 30, 3.0, 300, 25, 0.05));
+            return tariffs;
+        }
+        
+        public double getRoadDistanceFactor() { return roadDistanceFactor; }
+        public void setRoadDistanceFactor(double roadDistanceFactor) { this.roadDistanceFactor = roadDistanceFactor; }
+        
+        public double getAverageSpeedKmh() { return averageSpeedKmh; }
+        public void setAverageSpeedKmh(double averageSpeedKmh) { this.averageSpeedKmh = averageSpeedKmh; }
+        
+        public Map<Vehicle.VehicleType, Tariff> getTariffs() { return tariffs; }
+        public void setTariffs(Map<Vehicle.VehicleType, Tariff> tariffs) { this.tariffs = tariffs; }
+    }
+    
+    public static class Surge {
+        private boolean enabled = true;
+        private double cellSizeDegrees = 0.02;  // ~2.2 km surge zones
+        private long windowMs = 300000;         // demand counted over the last 5 minutes
+        private int windowBuckets = 10;
+        private long recomputeIntervalMs = 5000;
+        private int minDemand = 3;              // requests in a zone before it can surge
+        private double demandSupplyThreshold = 1.0;
+        private double sensitivity = 0.5;       // multiplier added per request per driver above threshold
+        private double maxMultiplier = 3.0;
+        private double step = 0.1;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public double getCellSizeDegrees() { return cellSizeDegrees; }
+        public void setCellSizeDegrees(double cellSizeDegrees) { this.cellSizeDegrees = cellSizeDegrees; }
+        
+        public long getWindowMs() { return windowMs; }
+        public void setWindowMs(long windowMs) { this.windowMs = windowMs; }
+        
+        public int getWindowBuckets() { return windowBuckets; }
+        public void setWindowBuckets(int windowBuckets) { this.windowBuckets = windowBuckets; }
+        
+        public long getRecomputeIntervalMs() { return recomputeIntervalMs; }
+        public void setRecomputeIntervalMs(long recomputeIntervalMs) { this.recomputeIntervalMs = recomputeIntervalMs; }
+        
+        public int getMinDemand() { return minDemand; }
+        public void setMinDemand(int minDemand) { this.minDemand = minDemand; }
+        
+        public double getDemandSupplyThreshold() { return demandSupplyThreshold; }
+        public void setDemandSupplyThreshold(double demandSupplyThreshold) { this.demandSupplyThreshold = demandSupplyThreshold; }
+        
+        public double getSensitivity() { return sensitivity; }
+        public void setSensitivity(double sensitivity) { this.sensitivity = sensitivity; }
+        
+        public double getMaxMultiplier() { return maxMultiplier; }
+        public void setMaxMultiplier(double maxMultiplier) { this.maxMultiplier = maxMultiplier; }
+        
+        public double getStep() { return step; }
+        public void setStep(double step) { this.step = step; }
+    }
+    
+    public static class TripStream {
+        private long timeoutMs = 1800000;       // clients reconnect after 30 minutes
+        private long heartbeatIntervalMs = 20000;
+        private int maxSubscribersPerTrip = 8;
+        
+        public long getTimeoutMs() { return timeoutMs; }
+        public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+        
+        public long getHeartbeatIntervalMs() { return heartbeatIntervalMs; }
+        public void setHeartbeatIntervalMs(long heartbeatIntervalMs) { this.heartbeatIntervalMs = heartbeatIntervalMs; }
+        
+        public int getMaxSubscribersPerTrip() { return maxSubscribersPerTrip; }
+        public void setMaxSubscribersPerTrip(int maxSubscribersPerTrip) { this.maxSubscribersPerTrip = maxSubscribersPerTrip; }
+    }
+    
+    public static class Dispatch {
+        private long offerTimeoutMs = 15000;    // time a driver has to answer an offer
+        private int waveSize = 1;               // drivers offered at once; 1 offers in sequence
+        private int maxOffers = 10;             // drivers tried per booking before giving up
+        private long searchTimeoutMs = 120000;  // 2 minutes to find a driver
+        private long retryIntervalMs = 5000;    // wait before searching again when nobody is nearby
+        private long sweepIntervalMs = 60000;   // how often bookings whose search was lost are closed
+        private long tickMs = 100;
+        private int wheelSize = 512;
+        
+        public long getOfferTimeoutMs() { return offerTimeoutMs; }
+        public void setOfferTimeoutMs(long offerTimeoutMs) { this.offerTimeoutMs = offerTimeoutMs; }
+        
+        public int getWaveSize() { return waveSize; }
+        public void setWaveSize(int waveSize) { this.waveSize = waveSize; }
+        
+        public int getMaxOffers() { return maxOffers; }
+        public void setMaxOffers(int maxOffers) { this.maxOffers = maxOffers; }
+        
+        public long getSearchTimeoutMs() { return searchTimeoutMs; }
+        public void setSearchTimeoutMs(long searchTimeoutMs) { this.searchTimeoutMs = searchTimeoutMs; }
+        
+        public long getRetryIntervalMs() { return retryIntervalMs; }
+        public void setRetryIntervalMs(long retryIntervalMs) { this.retryIntervalMs = retryIntervalMs; }
+        
+        public long getSweepIntervalMs() { return sweepIntervalMs; }
+        public void setSweepIntervalMs(long sweepIntervalMs) { this.sweepIntervalMs = sweepIntervalMs; }
+        
+        public long getTickMs() { return tickMs; }
+        public void setTickMs(long tickMs) { this.tickMs = tickMs; }
+        
+        public int getWheelSize() { return wheelSize; }
+        public void setWheelSize(int wheelSize) { this.wheelSize = wheelSize; }
+    }
+    
+    public static class DriverStats {
+        private double commissionRate = 0.15;   // platform share of each completed fare
+        private String timeZone = "Asia/Kolkata"; // day boundaries of the daily rollup
+        private int maxWindowDays = 366;
+        
+        public double getCommissionRate() { return commissionRate; }
+        public void setCommissionRate(double commissionRate) { this.commissionRate = commissionRate; }
+        
+        public String getTimeZone() { return timeZone; }
+        public void setTimeZone(String timeZone) { this.timeZone = timeZone; }
+        
+        public int getMaxWindowDays() { return maxWindowDays; }
+        public void setMaxWindowDays(int maxWindowDays) { this.maxWindowDays = maxWindowDays; }
+    }
+    
+    public static class Ratings {
+        private long flushIntervalMs = 5000;
+        private long refreshIntervalMs = 300000;
+        private double halfLifeDays = 30;       // a rating counts half as much after this long
+        private double priorWeight = 3;         // pseudo-ratings at 5 stars blended into the decayed average
+        
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        
+        public long getRefreshIntervalMs() { return refreshIntervalMs; }
+        public void setRefreshIntervalMs(long refreshIntervalMs) { this.refreshIntervalMs = refreshIntervalMs; }
+        
+        public double getHalfLifeDays() { return halfLifeDays; }
+        public void setHalfLifeDays(double halfLifeDays) { this.halfLifeDays = halfLifeDays; }
+        
+        public double getPriorWeight() { return priorWeight; }
+        public void setPriorWeight(double priorWeight) { this.priorWeight = priorWeight; }
+    }
+    
+    public static class Dashboard {
+        private long reconcileIntervalMs = 600000; // recount from the database every 10 minutes
+        
+        public long getReconcileIntervalMs() { return reconcileIntervalMs; }
+        public void setReconcileIntervalMs(long reconcileIntervalMs) { this.reconcileIntervalMs = reconcileIntervalMs; }
+    }
+    
+    public static class Analytics {
+        private String timeZone = "Asia/Kolkata"; // hour and day boundaries of the showroom cube
+        private int retentionDays = 120;        // days of hourly buckets kept in memory
+        private double showroomRadiusKm = 25.0; // trips are attributed to the nearest showroom within this radius
+        private long refreshIntervalMs = 300000;
+        
+        public String getTimeZone() { return timeZone; }
+        public void setTimeZone(String timeZone) { this.timeZone = timeZone; }
+        
+        public int getRetentionDays() { return retentionDays; }
+        public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+        
+        public double getShowroomRadiusKm() { return showroomRadiusKm; }
+        public void setShowroomRadiusKm(double showroomRadiusKm) { this.showroomRadiusKm = showroomRadiusKm; }
+        
+        public long getRefreshIntervalMs() { return refreshIntervalMs; }
+        public void setRefreshIntervalMs(long refreshIntervalMs) { this.refreshIntervalMs = refreshIntervalMs; }
+    }
+    
+    public static class PaymentExport {
+        private int fetchSize = 1000;           // rows per cursor round trip
+        private int rowGroupSize = 8192;        // rows buffered per columnar row group
+        private int maxRangeDays = 366;
+        
+        public int getFetchSize() { return fetchSize; }
+        public void setFetchSize(int fetchSize) { this.fetchSize = fetchSize; }
+        
+        public int getRowGroupSize() { return rowGroupSize; }
+        public void setRowGroupSize(int rowGroupSize) { this.rowGroupSize = rowGroupSize; }
+        
+        public int getMaxRangeDays() { return maxRangeDays; }
+        public void setMaxRangeDays(int maxRangeDays) { this.maxRangeDays = maxRangeDays; }
+    }
+    
+    public static class Payments {
+        private String gateway = "simulator";
+        private String currency = "INR";
+        private int queueCapacity = 20000;      // payments waiting for a gateway call
+        private int maxConcurrentCharges = 64;  // gateway calls in flight at once
+        private int dispatchBatchSize = 200;    // payments loaded per query before charging
+        private long dispatchIntervalMs = 100;
+        private int settlementBatchSize = 200;  // results written per transaction
+        private long settlementIntervalMs = 250;
+        private int maxAttempts = 3;            // gateway calls per charge on retryable errors
+        private long retryBackoffMs = 500;
+        private long stuckAfterMs = 600000;     // PROCESSING this long without a result is resubmitted
+        private long recoveryIntervalMs = 60000;
+        private Simulator simulator = new Simulator();
+        
+        public static class Simulator {
+            private long latencyMs = 200;
+            private double declineRate = 0.02;  // share of idempotency keys that are declined
+            private double errorRate = 0.01;    // share of calls that fail with a retryable error
+            
+            public long getLatencyMs() { return latencyMs; }
+            public void setLatencyMs(long latencyMs) { this.latencyMs = latencyMs; }
+            
+            public double getDeclineRate() { return declineRate; }
+            public void setDeclineRate(double declineRate) { this.declineRate = declineRate; }
+            
+            public double getErrorRate() { return errorRate; }
+            public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+        }
+        
+        public String getGateway() { return gateway; }
+        public void setGateway(String gateway) { this.gateway = gateway; }
+        
+        public String getCurrency() { return currency; }
+        public void setCurrency(String currency) { this.currency = currency; }
+        
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        
+        public int getMaxConcurrentCharges() { return maxConcurrentCharges; }
+        public void setMaxConcurrentCharges(int maxConcurrentCharges) { this.maxConcurrentCharges = maxConcurrentCharges; }
+        
+        public int getDispatchBatchSize() { return dispatchBatchSize; }
+        public void setDispatchBatchSize(int dispatchBatchSize) { this.dispatchBatchSize = dispatchBatchSize; }
+        
+        public long getDispatchIntervalMs() { return dispatchIntervalMs; }
+        public void setDispatchIntervalMs(long dispatchIntervalMs) { this.dispatchIntervalMs = dispatchIntervalMs; }
+        
+        public int getSettlementBatchSize() { return settlementBatchSize; }
+        public void setSettlementBatchSize(int settlementBatchSize) { this.settlementBatchSize = settlementBatchSize; }
+        
+        public long getSettlementIntervalMs() { return settlementIntervalMs; }
+        public void setSettlementIntervalMs(long settlementIntervalMs) { this.settlementIntervalMs = settlementIntervalMs; }
+        
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        
+        public long getRetryBackoffMs() { return retryBackoffMs; }
+        public void setRetryBackoffMs(long retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
+        
+        public long getStuckAfterMs() { return stuckAfterMs; }
+        public void setStuckAfterMs(long stuckAfterMs) { this.stuckAfterMs = stuckAfterMs; }
+        
+        public long getRecoveryIntervalMs() { return recoveryIntervalMs; }
+        public void setRecoveryIntervalMs(long recoveryIntervalMs) { this.recoveryIntervalMs = recoveryIntervalMs; }
+        
+        public Simulator getSimulator() { return simulator; }
+        public void setSimulator(Simulator simulator) { this.simulator = simulator; }
+    }
+    
+    public static class RateLimit {
+        private boolean enabled = true;
+        private int maxKeysPerPolicy = 100000;
+        private Map<String, Policy> policies = defaultPolicies();
+        
+        public enum KeyType { IP, PRINCIPAL }
+        
+        public static class Policy {
+            private String path;            // path pattern, e.g. /api/rides/**
+            private String methods = "";    // comma-separated; empty matches every method
+            private KeyType key = KeyType.IP; // PRINCIPAL falls back to IP for anonymous requests
+            private int capacity;           // burst size; 0 disables the policy
+            private long refillMs;          // time for an empty bucket to refill completely
+            
+            public Policy() {}
+            
+            public Policy(String path, String methods, KeyType key, int capacity, long refillMs) {
+                this.path = path;
+                this.methods = methods;
+                this.key = key;
+                this.capacity = capacity;
+                this.refillMs = refillMs;
+            }
+            
+            public String getPath() { return path; }
+            public void setPath(String path) { this.path = path; }
+            
+            public String getMethods() { return methods; }
+            public void setMethods(String methods) { this.methods = methods; }
+            
+            public KeyType getKey() { return key; }
+            public void setKey(KeyType key) { this.key = key; }
+            
+            public int getCapacity() { return capacity; }
+            public void setCapacity(int capacity) { this.capacity = capacity; }
+            
+            public long getRefillMs() { return refillMs; }
+            public void setRefillMs(long refillMs) { this.refillMs = refillMs; }
+        }
+        
+        private static Map<String, Policy> defaultPolicies() {
+            Map<String, Policy> policies = new LinkedHashMap<>();
+            policies.put("auth", new Policy("/api/auth/**", "", KeyType.IP, 60, 60000));
+            policies.put("otp-send", new Policy("/api/auth/send-otp", "POST", KeyType.IP, 10, 600000));
+            policies.put("otp-verify", new Policy("/api/auth/verify-otp", "POST", KeyType.IP, 10, 300000));
+            policies.put("rides", new Policy("/api/rides/**", "", KeyType.PRINCIPAL, 120, 60000));
+            policies.put("ride-estimate", new Policy("/api/rides/estimate", "POST", KeyType.PRINCIPAL, 20, 60000));
+            policies.put("ride-book", new Policy("/api/rides/book", "POST", KeyType.PRINCIPAL, 5, 60000));
+            policies.put("payments", new Policy("/api/payments/**", "", KeyType.PRINCIPAL, 30, 60000));
+            return policies;
+        }
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public int getMaxKeysPerPolicy() { return maxKeysPerPolicy; }
+        public void setMaxKeysPerPolicy(int maxKeysPerPolicy) { this.maxKeysPerPolicy = maxKeysPerPolicy; }
+        
+        public Map<String, Policy> getPolicies() { return policies; }
+        public void setPolicies(Map<String, Policy> policies) { this.policies = policies; }
+    }
+    
+    public static class UserCache {
+        private int maxSize = 50000;
+        private long ttlMs = 300000; // 5 minutes
+        
+        public int getMaxSize() { return maxSize; }
+        public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+        
+        public long getTtlMs() { return ttlMs; }
+        public void setTtlMs(long ttlMs) { this.ttlMs = ttlMs; }
+    }
+    
     public Security getSecurity() { return security; }
     public void setSecurity(Security security) { this.security = security; }
     
@@ -91,6 +634,54 @@ public class AppProperties {
     public Cors getCors() { return cors; }
     public void setCors(Cors cors) { this.cors = cors; }
     
+    public Matching getMatching() { return matching; }
+    public void setMatching(Matching matching) { this.matching = matching; }
+    
+    public LocationIngestion getLocationIngestion() { return locationIngestion; }
+    public void setLocationIngestion(LocationIngestion locationIngestion) { this.locationIngestion = locationIngestion; }
+    
+    public Geo getGeo() { return geo; }
+    public void setGeo(Geo geo) { this.geo = geo; }
+    
+    public RequestLog getRequestLog() { return requestLog; }
+    public void setRequestLog(RequestLog requestLog) { this.requestLog = requestLog; }
+    
+    public Fares getFares() { return fares; }
+    public void setFares(Fares fares) { this.fares = fares; }
+    
+    public Surge getSurge() { return surge; }
+    public void setSurge(Surge surge) { this.surge = surge; }
+    
+    public TripStream getTripStream() { return tripStream; }
+    public void setTripStream(TripStream tripStream) { this.tripStream = tripStream; }
+    
+    public Dispatch getDispatch() { return dispatch; }
+    public void setDispatch(Dispatch dispatch) { this.dispatch = dispatch; }
+    
+    public DriverStats getDriverStats() { return driverStats; }
+    public void setDriverStats(DriverStats driverStats) { this.driverStats = driverStats; }
+    
+    public Ratings getRatings() { return ratings; }
+    public void setRatings(Ratings ratings) { this.ratings = ratings; }
+    
+    public Dashboard getDashboard() { return dashboard; }
+    public void setDashboard(Dashboard dashboard) { this.dashboard = dashboard; }
+    
+    public Analytics getAnalytics() { return analytics; }
+    public void setAnalytics(Analytics analytics) { this.analytics = analytics; }
+    
+    public PaymentExport getPaymentExport() { return paymentExport; }
+    public void setPaymentExport(PaymentExport paymentExport) { this.paymentExport = paymentExport; }
+    
+    public Payments getPayments() { return payments; }
+    public void setPayments(Payments payments) { this.payments = payments; }
+    
+    public RateLimit getRateLimit() { return rateLimit; }
+    public void setRateLimit(RateLimit rateLimit) { this.rateLimit = rateLimit; }
+    
+    public UserCache getUserCache() { return userCache; }
+    public void setUserCache(UserCache userCache) { this.userCache = userCache; }
+    
     public String getEnvironment() { return environment; }
     public void setEnvironment(String environment) { this.environment = environment; }
 }
\ No newline at end of file
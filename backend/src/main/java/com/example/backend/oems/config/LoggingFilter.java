@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.example.backend.oems.entity.LogEntry;
-import com.example.backend.oems.repository.LogEntryRepository;
+import com.example.backend.oems.service.RequestLogWriter;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,14 +17,15 @@ import jakarta.servlet.http.HttpServletResponse;
 /**
  * Request logging filter that captures HTTP request details and stores them in the database.
  * This filter logs method, path, user phone, status code, and response time for each request.
+ * Entries are handed to the {@link RequestLogWriter} queue so the response never waits on an insert.
  */
 @Component
 public class LoggingFilter extends OncePerRequestFilter {
     
-    private final LogEntryRepository logRepository;
+    private final RequestLogWriter logWriter;
 
-    public LoggingFilter(LogEntryRepository logRepository) {
-        this.logRepository = logRepository;
+    public LoggingFilter(RequestLogWriter logWriter) {
+        this.logWriter = logWriter;
     }
 
     @Override
@@ -40,12 +41,8 @@ public class LoggingFilter extends OncePerRequestFilter {
             entry.setStatus(response.getStatus());
             entry.setMetadata("durationMs=" + (System.currentTimeMillis() - start));
             
-            // Save log entry, ignore any database errors to prevent request failure
-            try { 
-                logRepository.save(entry); 
-            } catch (Exception ignored) {
-                // Logging should not break the application
-            }
+            // Queue log entry; a full queue drops or briefly blocks according to the overflow policy
+            logWriter.enqueue(entry);
         }
     }
 }
\ No newline at end of file
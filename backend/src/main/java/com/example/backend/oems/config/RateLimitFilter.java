@@ -0,0 +1,204 @@
+package com.example.backend.oems.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.example.backend.oems.constants.AppConstants;
+import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.util.BoundedTtlCache;
+import com.example.backend.oems.util.TokenBucketRateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Token bucket rate limiting for the public API, configured by {@code app.rate-limit.policies}.
+ *
+ * Each policy matches a path pattern (and optionally methods) and keys its buckets by client IP or
+ * by the signed-in user, falling back to the IP for anonymous requests. A request must get a token
+ * from every policy it matches, so a tight route policy can sit inside a looser one for the whole
+ * prefix. A request rejected by one policy costs nothing under the others: tokens already taken
+ * for it are given back, so retrying against a tight route does not drain the looser prefix
+ * policy around it. Rejections answer 429 with Retry-After straight from the filter: a lock-free
+ * bucket check, before the controller, the services or the database are touched.
+ *
+ * Registered inside the security filter chain right after CORS, so browsers can read the 429.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+    private static final int PRINCIPAL_CACHE_SIZE = 50000;
+    private static final long PRINCIPAL_CACHE_TTL_MS = 60000;
+
+    private final JwtService jwtService;
+    private final boolean enabled;
+    private final List<Route> routes = new ArrayList<>();
+
+    // Access token -> user id, so a signed-in client's JWT is parsed once a minute, not per request
+    private final BoundedTtlCache<String, String> principalsByToken =
+            new BoundedTtlCache<>(PRINCIPAL_CACHE_SIZE, PRINCIPAL_CACHE_TTL_MS);
+
+    public RateLimitFilter(JwtService jwtService, AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.RateLimit config = appProperties.getRateLimit();
+        this.jwtService = jwtService;
+        this.enabled = config.isEnabled();
+        for (Map.Entry<String, AppProperties.RateLimit.Policy> entry : config.getPolicies().entrySet()) {
+            AppProperties.RateLimit.Policy policy = entry.getValue();
+            if (policy.getCapacity() <= 0) {
+                continue;
+            }
+            routes.add(new Route(entry.getKey(), policy, config.getMaxKeysPerPolicy(), meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || routes.isEmpty() || !request.getRequestURI().startsWith(API_PREFIX)
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        String principal = null;
+        List<Route> acquired = new ArrayList<>(routes.size());
+        List<String> acquiredKeys = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            if (!route.matches(method, path)) {
+                continue;
+            }
+            String key;
+            if (route.key == AppProperties.RateLimit.KeyType.PRINCIPAL) {
+                if (principal == null) {
+                    principal = resolvePrincipal(request);
+                }
+                key = principal;
+            } else {
+                key = request.getRemoteAddr();
+            }
+            long waitMs = route.limiter.tryAcquire(key);
+            if (waitMs > 0) {
+                for (int i = 0; i < acquired.size(); i++) {
+                    acquired.get(i).limiter.release(acquiredKeys.get(i));
+                }
+                route.rejected.increment();
+                reject(response, waitMs);
+                return;
+            }
+            acquired.add(route);
+            acquiredKeys.add(key);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Forget clients whose buckets have refilled
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanUp() {
+        routes.forEach(route -> route.limiter.cleanUp());
+        principalsByToken.cleanUp();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private void reject(HttpServletResponse response, long waitMs) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests. Please try again later.\",\"retryAfter\":\""
+                + retryAfter + "\"}");
+    }
+
+    /**
+     * User id of a valid access token, otherwise the client IP
+     */
+    private String resolvePrincipal(HttpServletRequest request) {
+        String token = null;
+        Cookie cookie = WebUtils.getCookie(request, AppConstants.ACCESS_TOKEN_COOKIE);
+        if (cookie != null && !cookie.getValue().isBlank()) {
+            token = cookie.getValue();
+        } else {
+            String authHeader = request.getHeader(AppConstants.AUTHORIZATION_HEADER);
+            if (authHeader != null && authHeader.startsWith(AppConstants.BEARER_PREFIX)) {
+                token = authHeader.substring(AppConstants.BEARER_PREFIX.length());
+            }
+        }
+        if (token == null) {
+            return request.getRemoteAddr();
+        }
+        String userId = principalsByToken.get(token);
+        if (userId == null) {
+            // Invalid tokens are not cached; cycling through forged ones only ever earns the IP's bucket
+            Optional<UUID> parsed = jwtService.extractUserId(token);
+            if (parsed.isEmpty()) {
+                return request.getRemoteAddr();
+            }
+            userId = parsed.get().toString();
+            principalsByToken.put(token, userId);
+        }
+        return userId;
+    }
+
+    /**
+     * One policy with its buckets
+     */
+    private static final class Route {
+        private final PathPattern pattern;
+        private final Set<String> methods;
+        private final AppProperties.RateLimit.KeyType key;
+        private final TokenBucketRateLimiter<String> limiter;
+        private final Counter rejected;
+
+        private Route(String name, AppProperties.RateLimit.Policy policy, int maxKeys, MeterRegistry meterRegistry) {
+            this.pattern = PathPatternParser.defaultInstance.parse(policy.getPath());
+            this.methods = Arrays.stream(policy.getMethods().split(","))
+                    .map(m -> m.trim().toUpperCase(Locale.ROOT))
+                    .filter(m -> !m.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            this.key = policy.getKey();
+            this.limiter = new TokenBucketRateLimiter<>(policy.getCapacity(), policy.getRefillMs(),
+                    TimeUnit.MILLISECONDS, maxKeys);
+            this.rejected = meterRegistry.counter("oems.ratelimit.rejected", "policy", name);
+            Gauge.builder("oems.ratelimit.keys", limiter, TokenBucketRateLimiter::size)
+                    .tag("policy", name)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+}
@@ -19,6 +19,7 @@ public final class AppConstants {
     // Security Constants
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String BEARER_PREFIX = "Bearer ";
+    public static final String ACCESS_TOKEN_COOKIE = "access_token";
     public static final String JWT_CLAIM_USER_ID = "userId";
     public static final String JWT_CLAIM_PHONE = "phone";
     
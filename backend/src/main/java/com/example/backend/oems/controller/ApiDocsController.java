@@ -44,7 +44,8 @@ public class ApiDocsController {
         
         // Payment endpoints
         Map<String, Object> paymentEndpoints = new HashMap<>();
-        paymentEndpoints.put("POST /api/payments/charge", "Process payment");
+        paymentEndpoints.put("POST /api/payments/charge", "Start paying for a booking (Idempotency-Key header optional)");
+        paymentEndpoints.put("GET /api/payments/{paymentId}", "Get payment status");
         endpoints.put("Payments", paymentEndpoints);
         
         apiDocs.put("endpoints", endpoints);
@@ -170,7 +171,10 @@ public class ApiDocsController {
                 "operationId": "processPayment",
                 "responses": {
                   "200": {
-                    "description": "Payment processed successfully"
+                    "description": "Payment already settled"
+                  },
+                  "202": {
+                    "description": "Payment accepted and being processed"
                   }
                 }
               }
@@ -1,13 +1,10 @@
 package com.example.backend.oems.controller;
 
-import java.security.SecureRandom;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,10 +19,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.backend.oems.entity.OtpCode;
 import com.example.backend.oems.entity.User;
-import com.example.backend.oems.repository.OtpCodeRepository;
 import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.service.OtpService;
 import com.example.backend.oems.service.UserService;
 
 @RestController
@@ -33,12 +29,8 @@ import com.example.backend.oems.service.UserService;
 public class AuthController {
     
     private final UserService userService;
-    private final OtpCodeRepository otpRepository;
+    private final OtpService otpService;
     private final JwtService jwtService;
-    private final SecureRandom secureRandom;
-    
-    // Rate limiting: phone -> (count, lastReset)
-    private final Map<String, RateLimitInfo> otpRateLimit = new ConcurrentHashMap<>();
     
     // Phone number validation pattern
     private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{1,14}$");
@@ -50,21 +42,10 @@ public class AuthController {
     private static final int ACCESS_TOKEN_MAX_AGE = 24 * 60 * 60; // 24 hours
     private static final int REFRESH_TOKEN_MAX_AGE = 7 * 24 * 60 * 60; // 7 days
     
-    public AuthController(UserService userService, OtpCodeRepository otpRepository, JwtService jwtService) {
+    public AuthController(UserService userService, OtpService otpService, JwtService jwtService) {
         this.userService = userService;
-        this.otpRepository = otpRepository;
+        this.otpService = otpService;
         this.jwtService = jwtService;
-        this.secureRandom = new SecureRandom();
-    }
-    
-    private static class RateLimitInfo {
-        int count;
-        Instant lastReset;
-        
-        RateLimitInfo(int count, Instant lastReset) {
-            this.count = count;
-            this.lastReset = lastReset;
-        }
     }
     
     @PostMapping("/send-otp")
@@ -82,23 +63,19 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("message", "Invalid phone number format"));
         }
         
-        // Rate limiting: max 3 OTPs per phone per hour
-        if (!checkRateLimit(phone)) {
-            return ResponseEntity.status(429).body(Map.of(
-                "message", "Too many OTP requests. Please try again later.",
-                "retryAfter", "3600"
-            ));
+        // Rate limiting: max 3 OTPs per phone per hour by default
+        long retryAfter = otpService.acquireSendPermit(phone);
+        if (retryAfter > 0) {
+            return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(Map.of(
+                    "message", "Too many OTP requests. Please try again later.",
+                    "retryAfter", String.valueOf(retryAfter)
+                ));
         }
         
-        // Generate cryptographically secure OTP
-        String code = generateSecureOtp();
-        
-        // Create OTP with shorter expiry (3 minutes for better security)
-        OtpCode otp = new OtpCode();
-        otp.setPhone(phone);
-        otp.setCode(code);
-        otp.setExpiresAt(Instant.now().plusSeconds(180)); // 3 minutes
-        otpRepository.save(otp);
+        // Cryptographically secure code, valid for app.security.otp.expiration
+        String code = otpService.issue(phone);
         
         // Development mode: show OTP in response
         boolean includeOtp = "dev".equalsIgnoreCase(System.getenv("APP_ENV"));
@@ -127,16 +104,13 @@ public class AuthController {
         
         phone = normalizePhoneNumber(phone);
         
-        var valid = otpRepository.findTopByPhoneAndExpiresAtAfterOrderByIdDesc(phone, Instant.now())
-                .filter(o -> o.getCode().equals(otp))
-                .isPresent();
-        
-        if (!valid) {
+        // A matching code is consumed and cannot be replayed
+        if (!otpService.verify(phone, otp)) {
             return ResponseEntity.status(401).body(Map.of("message", "Invalid or expired OTP"));
         }
         
-        boolean isNewUser = userService.findByPhone(phone).isEmpty();
-        if (isNewUser) {
+        Optional<User> existingUser = userService.findByPhone(phone);
+        if (existingUser.isEmpty()) {
             return ResponseEntity.ok(Map.of(
                 "isNewUser", true, 
                 "message", "OTP verified. Please complete your profile."
@@ -144,8 +118,7 @@ public class AuthController {
         }
         
         // Generate JWT tokens for existing user (like Express.js res.cookie())
-        User user = userService.findByPhone(phone).get();
-        return setAuthCookiesAndRespond(user, "Login successful", false);
+        return setAuthCookiesAndRespond(existingUser.get(), "Login successful", false);
     }
 
     @PostMapping("/complete-profile")
@@ -498,36 +471,6 @@ public class AuthController {
         return PHONE_PATTERN.matcher(phone).matches();
     }
     
-    private boolean checkRateLimit(String phone) {
-        Instant now = Instant.now();
-        RateLimitInfo info = otpRateLimit.get(phone);
-        
-        if (info == null) {
-            otpRateLimit.put(phone, new RateLimitInfo(1, now));
-            return true;
-        }
-        
-        // Reset counter if an hour has passed
-        if (now.isAfter(info.lastReset.plus(1, ChronoUnit.HOURS))) {
-            otpRateLimit.put(phone, new RateLimitInfo(1, now));
-            return true;
-        }
-        
-        // Check if under limit
-        if (info.count < 3) {
-            info.count++;
-            return true;
-        }
-        
-        return false; // Rate limit exceeded
-    }
-    
-    private String generateSecureOtp() {
-        // Generate 6-digit OTP using cryptographically secure random
-        int otp = 100000 + secureRandom.nextInt(900000);
-        return String.valueOf(otp);
-    }
-    
     private String maskPhoneNumber(String phone) {
         if (phone.length() <= 4) return "****";
         return phone.substring(0, 3) + "****" + phone.substring(phone.length() - 2);
@@ -1,9 +1,17 @@
 package com.example.backend.oems.controller;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +22,28 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.WebUtils;
+
+import com.example.backend.oems.constants.AppConstants;
+import com.example.backend.oems.dto.TripDetail;
+import com.example.backend.oems.dto.TripSummary;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Driver;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.exception.ResourceNotFoundException;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.service.DispatchService;
+import com.example.backend.oems.service.DriverLocationIndex;
+import com.example.backend.oems.service.DriverService;
+import com.example.backend.oems.service.DriverStatsService;
+import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.service.RatingAggregator;
+import com.example.backend.oems.service.TripService;
+import com.example.backend.oems.util.GeoUtils;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * REST Controller for Driver App operations
@@ -25,18 +55,29 @@ import org.springframework.web.bind.annotation.RestController;
 @PreAuthorize("hasRole('DRIVER')")
 public class DriverController {
 
+    private final DriverService driverService;
+    private final JwtService jwtService;
+    private final TripService tripService;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DispatchService dispatchService;
+    private final DriverStatsService driverStatsService;
+    private final RatingAggregator ratingAggregator;
+
     // TODO: Inject proper services when they are created
-    // @Autowired
-    // private DriverService driverService;
-    
     // @Autowired
     // private RideService rideService;
-    
-    // @Autowired
-    // private LocationService locationService;
-    
-    // @Autowired
-    // private EarningsService earningsService;
+
+    public DriverController(DriverService driverService, JwtService jwtService, TripService tripService,
+                            DriverLocationIndex driverLocationIndex, DispatchService dispatchService,
+                            DriverStatsService driverStatsService, RatingAggregator ratingAggregator) {
+        this.driverService = driverService;
+        this.jwtService = jwtService;
+        this.tripService = tripService;
+        this.driverLocationIndex = driverLocationIndex;
+        this.dispatchService = dispatchService;
+        this.driverStatsService = driverStatsService;
+        this.ratingAggregator = ratingAggregator;
+    }
 
     /**
      * Get driver dashboard with current status and quick stats
@@ -66,18 +107,39 @@ public class DriverController {
      * Update driver online/offline status
      */
     @PutMapping("/status")
-    public ResponseEntity<Map<String, Object>> updateDriverStatus(@RequestBody UpdateStatusRequest request) {
-        // TODO: Implement driver status management
-        // - Update online/offline status
-        // - Update current location if going online
-        // - Handle pending rides if going offline
-        // - Notify ride matching service
-        // - Log status change for analytics
-        
+    public ResponseEntity<Map<String, Object>> updateDriverStatus(@RequestBody UpdateStatusRequest request,
+                                                                  HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        Driver.DriverStatus status;
+        try {
+            status = Driver.DriverStatus.valueOf(String.valueOf(request.status).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Status must be one of ONLINE, OFFLINE, BUSY"
+            ));
+        }
+        if (status == Driver.DriverStatus.ONLINE && !GeoUtils.isValidCoordinate(request.latitude, request.longitude)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Valid latitude and longitude are required to go online"
+            ));
+        }
+
+        Driver driver = driverService.updateStatus(profile.get(), status, request.latitude, request.longitude);
+        if (status != Driver.DriverStatus.ONLINE) {
+            // An unanswered offer moves on to the next driver instead of waiting to expire
+            dispatchService.onDriverUnavailable(profile.get().driverId());
+        }
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
-            "newStatus", request.status,
-            "message", "TODO: Implement driver status management with location updates and ride handling"
+            "success", true,
+            "newStatus", driver.getCurrentStatus().toString(),
+            "isAvailable", driver.getIsAvailable()
         ));
     }
 
@@ -85,18 +147,32 @@ public class DriverController {
      * Update driver's current location
      */
     @PutMapping("/location")
-    public ResponseEntity<Map<String, Object>> updateLocation(@RequestBody UpdateLocationRequest request) {
-        // TODO: Implement location tracking
-        // - Validate location data
-        // - Update driver's current location
-        // - Update ride tracking if driver is on a trip
-        // - Trigger ride matching if driver is available
-        // - Store location history for analytics
-        
-        return ResponseEntity.ok(Map.of(
-            "success", false,
-            "message", "TODO: Implement real-time location tracking with ride matching integration"
-        ));
+    public ResponseEntity<Map<String, Object>> updateLocation(@RequestBody UpdateLocationRequest request,
+                                                              HttpServletRequest httpRequest) {
+        if (!GeoUtils.isValidCoordinate(request.latitude, request.longitude)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Valid latitude and longitude are required"
+            ));
+        }
+
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        long timestamp = request.timestamp != null ? request.timestamp : System.currentTimeMillis();
+        boolean online = driverService.updateLocation(profile.get(), request.latitude, request.longitude,
+                request.heading != null ? request.heading : 0.0,
+                request.speed != null ? request.speed : 0.0,
+                timestamp);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", online);
+        if (!online) {
+            response.put("message", "Driver is offline. Go online before sending location updates.");
+        }
+        return ResponseEntity.ok(response);
     }
 
     // =================
@@ -104,24 +180,22 @@ public class DriverController {
     // =================
 
     /**
-     * Get available ride requests for the driver
+     * Get the ride offer currently waiting for the driver's answer
      */
     @GetMapping("/ride-requests")
-    public ResponseEntity<Map<String, Object>> getRideRequests(
-            @RequestParam(defaultValue = "10") int limit,
-            @RequestParam(defaultValue = "5.0") double radiusKm) {
-        
-        // TODO: Implement ride request retrieval
-        // - Get ride requests near driver's location
-        // - Filter by driver's vehicle type compatibility
-        // - Consider driver's rating and preferences
-        // - Include estimated fare and distance
-        // - Sort by proximity and fare
-        
+    public ResponseEntity<Map<String, Object>> getRideRequests(HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // Offers are made one booking at a time, nearest drivers first, so there is at most one
+        List<Map<String, Object>> rideRequests = dispatchService.findOffer(profile.get().driverId())
+                .map(offer -> List.of(rideRequest(offer)))
+                .orElse(List.of());
         return ResponseEntity.ok(Map.of(
-            "rideRequests", List.of(),
-            "total", 0,
-            "message", "TODO: Implement location-based ride request matching with fare estimation"
+            "rideRequests", rideRequests,
+            "total", rideRequests.size()
         ));
     }
 
@@ -129,19 +203,22 @@ public class DriverController {
      * Accept a ride request  
      */
     @PostMapping("/rides/{rideId}/accept")
-    public ResponseEntity<Map<String, Object>> acceptRide(@PathVariable UUID rideId) {
-        // TODO: Implement ride acceptance
-        // - Validate ride is still available
-        // - Check driver is available and online
-        // - Accept the ride and update status
-        // - Notify customer of acceptance
-        // - Start trip tracking
-        // - Send driver route to pickup location
-        
+    public ResponseEntity<Map<String, Object>> acceptRide(@PathVariable UUID rideId, HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // Fails with 409 if the offer expired or the customer cancelled first.
+        // The customer is notified through the trip opened on their booking's event stream.
+        // TODO: Send driver route to pickup location
+        Trip trip = dispatchService.accept(rideId, profile.get().driverId());
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
+            "success", true,
             "rideId", rideId,
-            "message", "TODO: Implement ride acceptance with customer notification and route calculation"
+            "tripId", trip.getId(),
+            "status", trip.getStatus().toString()
         ));
     }
 
@@ -151,20 +228,22 @@ public class DriverController {
     @PostMapping("/rides/{rideId}/reject")
     public ResponseEntity<Map<String, Object>> rejectRide(
             @PathVariable UUID rideId,
-            @RequestBody RejectRideRequest request) {
-        
-        // TODO: Implement ride rejection
-        // - Validate ride exists and is assigned to driver
-        // - Record rejection reason
-        // - Return ride to available pool
-        // - Update driver's rejection metrics
-        // - Trigger ride re-matching
-        
+            @RequestBody RejectRideRequest request,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // The ride is offered to the next candidate straight away
+        // TODO: Update driver's rejection metrics
+        String reason = request.reason != null ? request.reason : "UNSPECIFIED";
+        dispatchService.reject(rideId, profile.get().driverId(), reason);
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
+            "success", true,
             "rideId", rideId,
-            "reason", request.reason,
-            "message", "TODO: Implement ride rejection with reason tracking and re-matching"
+            "reason", reason
         ));
     }
 
@@ -172,19 +251,23 @@ public class DriverController {
      * Start the trip (customer picked up)
      */
     @PostMapping("/rides/{rideId}/start")
-    public ResponseEntity<Map<String, Object>> startTrip(@PathVariable UUID rideId) {
-        // TODO: Implement trip start
-        // - Validate driver has reached pickup location
-        // - Update ride status to IN_PROGRESS
-        // - Start fare calculation
-        // - Begin real-time tracking
-        // - Notify customer of trip start
-        // - Send route to destination
-        
+    public ResponseEntity<Map<String, Object>> startTrip(@PathVariable UUID rideId, HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // TODO: Validate driver has reached pickup location and verify the trip OTP
+        // The last reported position is recorded as the actual pickup point
+        Optional<DriverLocationIndex.DriverPosition> position = driverLocationIndex.getPosition(profile.get().driverId());
+        Trip trip = tripService.startTrip(rideId, profile.get().driverId(),
+                position.map(p -> BigDecimal.valueOf(p.latitude())).orElse(null),
+                position.map(p -> BigDecimal.valueOf(p.longitude())).orElse(null));
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
+            "success", true,
             "rideId", rideId,
-            "message", "TODO: Implement trip start with fare calculation and real-time tracking"
+            "status", trip.getStatus().toString()
         ));
     }
 
@@ -194,25 +277,30 @@ public class DriverController {
     @PostMapping("/rides/{rideId}/complete")
     public ResponseEntity<Map<String, Object>> completeTrip(
             @PathVariable UUID rideId,
-            @RequestBody CompleteTripRequest request) {
-        
-        // TODO: Implement trip completion
-        // - Validate driver has reached destination
-        // - Calculate final fare
-        // - Update ride status to COMPLETED
-        // - Process payment
-        // - Send receipt to customer
-        // - Update driver earnings
-        // - Request rating from customer
-        
-        Double finalFare = java.util.Objects.requireNonNullElse(request.finalFare, 0.0);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "rideId", rideId,
-            "finalFare", finalFare,
-            "status", "COMPLETED",
-            "message", "Ride completed successfully (dummy implementation)"
-        ));
+            @RequestBody CompleteTripRequest request,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // TODO: Send receipt and request a rating
+        // The fare is metered server-side; the drop-off point is the driver's last reported position,
+        // or the point sent with the request when the driver has no fresh position
+        Optional<DriverLocationIndex.DriverPosition> position = driverLocationIndex.getPosition(profile.get().driverId());
+        Double latitude = position.map(DriverLocationIndex.DriverPosition::latitude).orElse(request.latitude);
+        Double longitude = position.map(DriverLocationIndex.DriverPosition::longitude).orElse(request.longitude);
+        Trip trip = tripService.completeTrip(rideId, profile.get().driverId(),
+                latitude != null ? BigDecimal.valueOf(latitude) : null,
+                longitude != null ? BigDecimal.valueOf(longitude) : null);
+        driverLocationIndex.release(profile.get().driverId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("rideId", rideId);
+        response.put("finalFare", trip.getActualFare());
+        response.put("status", trip.getStatus().toString());
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -221,22 +309,29 @@ public class DriverController {
     @PostMapping("/rides/{rideId}/cancel")
     public ResponseEntity<Map<String, Object>> cancelTrip(
             @PathVariable UUID rideId,
-            @RequestBody CancelTripRequest request) {
-        
-        // TODO: Implement trip cancellation
-        // - Validate cancellation is allowed
-        // - Update ride status to CANCELLED
-        // - Calculate cancellation charges if applicable  
-        // - Notify customer of cancellation
-        // - Update driver availability
-        // - Log cancellation reason for analytics
-        
+            @RequestBody CancelTripRequest request,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+        Trip current = tripService.findById(rideId)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip", rideId.toString()));
+        if (!profile.get().driverId().equals(current.getDriverId())) {
+            throw new ConflictException("Trip is not assigned to this driver", "TRIP_NOT_ASSIGNED");
+        }
+
+        // TODO: Calculate cancellation charges and re-match the customer
+        String reason = request.reason != null ? request.reason : "Cancelled by driver";
+        Trip trip = tripService.cancelTrip(rideId, Trip.CancelledBy.DRIVER, reason);
+        driverLocationIndex.release(profile.get().driverId());
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
+            "success", true,
             "rideId", rideId,
             "cancellationFee", 0.0,
-            "reason", request.reason,
-            "message", "TODO: Implement trip cancellation with fee calculation and customer notification"
+            "reason", reason,
+            "status", trip.getStatus().toString()
         ));
     }
 
@@ -245,48 +340,54 @@ public class DriverController {
     // =================
 
     /**
-     * Get driver's trip history
+     * Get driver's trip history, newest first.
+     * Pages are keyset-paginated: pass the previous response's nextCursor to get the next page.
      */
     @GetMapping("/trips")
     public ResponseEntity<Map<String, Object>> getTripHistory(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        
-        // TODO: Implement trip history retrieval
-        // - Get driver's completed trips with pagination
-        // - Filter by status and date range
-        // - Include customer details, fare, rating
-        // - Calculate trip statistics
-        // - Show earnings breakdown
-        
-        return ResponseEntity.ok(Map.of(
-            "trips", List.of(),
-            "totalElements", 0,
-            "totalPages", 0,
-            "currentPage", page,
-            "totalEarnings", 0.0,
-            "message", "TODO: Implement trip history with earnings and statistics"
-        ));
+            @RequestParam(required = false) String endDate,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+
+        // TODO: Include customer rating and trip statistics
+        TripService.TripPage page = tripService.findDriverTrips(profile.get().driverId(),
+                TripService.TripFilter.of(status, startDate, endDate), cursor, size);
+        List<Map<String, Object>> trips = new ArrayList<>(page.trips().size());
+        for (TripSummary trip : page.trips()) {
+            trips.add(tripSummary(trip));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("trips", trips);
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.hasMore());
+        return ResponseEntity.ok(response);
     }
 
     /**
      * Get specific trip details
      */
     @GetMapping("/trips/{tripId}")
-    public ResponseEntity<Map<String, Object>> getTripDetails(@PathVariable UUID tripId) {
-        // TODO: Implement trip details retrieval
-        // - Get detailed trip information
-        // - Include route, fare breakdown
-        // - Show customer rating and feedback
-        // - Include any issues or complaints
-        
-        return ResponseEntity.ok(Map.of(
-            "trip", Map.of(),
-            "message", "TODO: Implement detailed trip information with route and feedback"
-        ));
+    public ResponseEntity<Map<String, Object>> getTripDetails(@PathVariable UUID tripId,
+                                                              HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+        TripDetail trip = tripService.findDetail(tripId)
+                .filter(t -> profile.get().driverId().equals(t.driverId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Trip", tripId.toString()));
+
+        // TODO: Include fare breakdown, customer rating and feedback, and any reported issues
+        // The record serializes with its component names (startedAt, actualFare, ...)
+        return ResponseEntity.ok(Map.of("trip", trip));
     }
 
     // =================
@@ -294,55 +395,85 @@ public class DriverController {
     // =================
 
     /**
-     * Get driver earnings summary
+     * Get driver earnings summary with a per-day breakdown, read from the daily rollup
      */
     @GetMapping("/earnings")
     public ResponseEntity<Map<String, Object>> getEarnings(
             @RequestParam(defaultValue = "7") int days,
-            @RequestParam(required = false) String period) {
-        
-        // TODO: Implement earnings analytics
-        // - Daily, weekly, monthly earnings
-        // - Trip-wise earnings breakdown
-        // - Commission deductions
-        // - Bonus and incentive calculations
-        // - Payment status and history
-        
-        return ResponseEntity.ok(Map.of(
-            "totalEarnings", 8750.50,
-            "tripsCompleted", 45,
-            "averagePerTrip", 194.45,
-            "commission", 1312.58,
-            "netEarnings", 7437.92,
-            "bonuses", 0.0,
-            "message", "TODO: Implement comprehensive earnings analytics with commission calculations"
-        ));
+            @RequestParam(required = false) String period,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+        if (period != null) {
+            days = switch (period.toUpperCase(Locale.ROOT)) {
+                case "TODAY" -> 1;
+                case "WEEK" -> 7;
+                case "MONTH" -> 30;
+                default -> throw new ValidationException("Period must be one of TODAY, WEEK, MONTH");
+            };
+        }
+        DriverStatsService.StatsWindow window = driverStatsService.getWindow(
+                profile.get().driverId(), days, onlineSince(profile.get()));
+        DriverStatsService.Totals total = window.total();
+
+        List<Map<String, Object>> daily = new ArrayList<>();
+        window.daily().forEach((date, day) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("date", date.toString());
+            m.put("tripsCompleted", day.tripsCompleted());
+            m.put("earnings", day.grossEarnings());
+            m.put("netEarnings", day.netEarnings());
+            m.put("onlineHours", day.onlineHours());
+            daily.add(m);
+        });
+
+        // TODO: Add bonuses and incentives once an incentive programme exists
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", window.from().toString());
+        response.put("to", window.to().toString());
+        response.put("totalEarnings", total.grossEarnings());
+        response.put("tripsCompleted", total.tripsCompleted());
+        response.put("averagePerTrip", total.averagePerTrip());
+        response.put("commission", total.commission());
+        response.put("netEarnings", total.netEarnings());
+        response.put("bonuses", BigDecimal.ZERO);
+        response.put("daily", daily);
+        return ResponseEntity.ok(response);
     }
 
     /**
-     * Get driver performance metrics
+     * Get driver performance metrics, read from the daily rollup
      */
     @GetMapping("/performance")
     public ResponseEntity<Map<String, Object>> getPerformanceMetrics(
-            @RequestParam(defaultValue = "30") int days) {
-        
-        // TODO: Implement performance metrics
-        // - Average rating from customers
-        // - Trip completion rate
-        // - Cancellation rate
-        // - Response time to ride requests
-        // - Online hours vs earnings
-        // - Customer feedback trends
-        
-        return ResponseEntity.ok(Map.of(
-            "averageRating", 4.7,
-            "completionRate", 96.5,
-            "cancellationRate", 3.5,
-            "averageResponseTime", 45, // seconds
-            "onlineHours", 168.5,
-            "earningsPerHour", 52.14,
-            "message", "TODO: Implement driver performance metrics with trend analysis"
-        ));
+            @RequestParam(defaultValue = "30") int days,
+            HttpServletRequest httpRequest) {
+        Optional<DriverService.DriverProfile> profile = resolveDriver(httpRequest);
+        if (profile.isEmpty()) {
+            return driverNotFound();
+        }
+        Optional<Driver> driver = driverService.findDriver(profile.get().driverId());
+        DriverStatsService.StatsWindow window = driverStatsService.getWindow(
+                profile.get().driverId(), days, driver.map(Driver::getOnlineSince).orElse(null));
+        DriverStatsService.Totals total = window.total();
+        RatingAggregator.RatingSummary ratings = ratingAggregator.getSummary(profile.get().driverId());
+
+        // TODO: Add offer response times and customer feedback trends
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", window.from().toString());
+        response.put("to", window.to().toString());
+        response.put("averageRating", ratings.average());
+        response.put("totalRatings", ratings.count());
+        response.put("recentRating", ratings.decayedAverage());
+        response.put("ratingHistogram", ratings.histogram());
+        response.put("tripsCompleted", total.tripsCompleted());
+        response.put("completionRate", total.completionRate());
+        response.put("cancellationRate", total.cancellationRate());
+        response.put("onlineHours", total.onlineHours());
+        response.put("earningsPerHour", total.earningsPerHour());
+        return ResponseEntity.ok(response);
     }
 
     // =================
@@ -414,6 +545,70 @@ public class DriverController {
         ));
     }
 
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * Resolve the calling driver from the access token cookie or Bearer header.
+     * Only the token signature is checked here so location pings stay off the database.
+     */
+    private Optional<DriverService.DriverProfile> resolveDriver(HttpServletRequest request) {
+        String token = null;
+        Cookie cookie = WebUtils.getCookie(request, AppConstants.ACCESS_TOKEN_COOKIE);
+        if (cookie != null && !cookie.getValue().isBlank()) {
+            token = cookie.getValue();
+        } else {
+            String authHeader = request.getHeader(AppConstants.AUTHORIZATION_HEADER);
+            if (authHeader != null && authHeader.startsWith(AppConstants.BEARER_PREFIX)) {
+                token = authHeader.substring(AppConstants.BEARER_PREFIX.length());
+            }
+        }
+        if (token == null) {
+            return Optional.empty();
+        }
+        return jwtService.extractUserId(token).flatMap(driverService::findProfileByUserId);
+    }
+
+    private Map<String, Object> tripSummary(TripSummary trip) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", trip.id());
+        m.put("status", trip.status().toString());
+        m.put("pickupAddress", trip.pickupAddress());
+        m.put("destinationAddress", trip.destinationAddress());
+        m.put("fare", trip.fare());
+        m.put("distanceKm", trip.distanceKm());
+        m.put("startedAt", trip.startedAt().toString());
+        m.put("endedAt", trip.endedAt() != null ? trip.endedAt().toString() : null);
+        return m;
+    }
+
+    private Map<String, Object> rideRequest(DispatchService.OfferView offer) {
+        Booking booking = offer.booking();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("rideId", booking.getId());
+        m.put("pickupAddress", booking.getPickupAddress());
+        m.put("pickupLatitude", booking.getPickupLatitude());
+        m.put("pickupLongitude", booking.getPickupLongitude());
+        m.put("destinationAddress", booking.getDestinationAddress());
+        m.put("estimatedFare", booking.getEstimatedFare());
+        m.put("estimatedDistanceKm", booking.getEstimatedDistance());
+        m.put("distanceToPickupKm", Math.round(offer.distanceKm() * 100.0) / 100.0);
+        m.put("expiresAt", Instant.ofEpochMilli(offer.expiresAt()).toString());
+        return m;
+    }
+
+    private Instant onlineSince(DriverService.DriverProfile profile) {
+        return driverService.findDriver(profile.driverId()).map(Driver::getOnlineSince).orElse(null);
+    }
+
+    private ResponseEntity<Map<String, Object>> driverNotFound() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+            "success", false,
+            "message", "Authenticated driver profile not found"
+        ));
+    }
+
     // Request DTOs
     public static class UpdateStatusRequest {
         public String status; // ONLINE, OFFLINE, BUSY
@@ -435,7 +630,6 @@ public class DriverController {
     }
 
     public static class CompleteTripRequest {
-        public Double finalFare;
         public Double latitude; // Drop-off location
         public Double longitude;
         public String notes;
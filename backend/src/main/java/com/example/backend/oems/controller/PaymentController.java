@@ -1,36 +1,142 @@
 package com.example.backend.oems.controller;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.WebUtils;
+
+import com.example.backend.oems.constants.AppConstants;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.service.PaymentService;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
+    private final PaymentService paymentService;
+    private final JwtService jwtService;
+
+    public PaymentController(PaymentService paymentService, JwtService jwtService) {
+        this.paymentService = paymentService;
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * Start paying for a booking.
+     * Returns 202 while the charge is processed in the background; poll GET /api/payments/{paymentId}.
+     * Resending with the same Idempotency-Key returns the same payment without charging again.
+     * A ride's payment is charged automatically when the trip completes; before then only a failed
+     * attempt can be retried, and anything else answers 409. A tipAmount sent after that is charged as
+     * a payment of its own.
+     */
     @PostMapping("/charge")
-    public ResponseEntity<Object> charge(@RequestBody Map<String, Object> body, @RequestHeader(value = "X-User-Phone", required = false) String phone) {
-        // TODO: Replace dummy payment processing with real payment gateway integration
-        // - Integrate with Stripe, Razorpay, or other payment processors
-        // - Implement proper payment validation and error handling
-        // - Add support for multiple payment methods (cards, wallets, UPI)
-        // - Implement payment retries and failure handling
-        // - Add transaction logging and audit trail
-        // - Validate payment amounts and currency
-        // - Implement refund and chargeback handling
-        // - Add payment security measures (tokenization, encryption)
-        return ResponseEntity.ok(Map.of(
-                "status", "succeeded",
-                "amount", body.getOrDefault("amount", 0),
-                "currency", body.getOrDefault("currency", "INR"),
-                "paymentMethod", body.getOrDefault("paymentMethod", "card")
-        ));
+    public ResponseEntity<Object> charge(@RequestBody Map<String, Object> body,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        Optional<UUID> customerId = resolveUserId(httpRequest);
+        if (customerId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Access token is required"));
+        }
+        UUID bookingId = parseUuid(body.get("bookingId"), "bookingId");
+        Payment payment = paymentService.charge(customerId.get(), bookingId,
+                parsePaymentMethod(body.get("paymentMethod")), parseAmount(body.get("tipAmount"), "tipAmount"),
+                idempotencyKey);
+
+        HttpStatus status = payment.getStatus() == Payment.PaymentStatus.PROCESSING ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(paymentView(payment));
     }
-}
 
+    /**
+     * Current state of one of the caller's payments
+     */
+    @GetMapping("/{paymentId}")
+    public ResponseEntity<Object> getPayment(@PathVariable UUID paymentId, HttpServletRequest httpRequest) {
+        Optional<UUID> customerId = resolveUserId(httpRequest);
+        if (customerId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Access token is required"));
+        }
+        return ResponseEntity.ok(paymentView(paymentService.findForCustomer(paymentId, customerId.get())));
+    }
 
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private Optional<UUID> resolveUserId(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, AppConstants.ACCESS_TOKEN_COOKIE);
+        if (cookie != null && !cookie.getValue().isBlank()) {
+            return jwtService.extractUserId(cookie.getValue());
+        }
+        String authHeader = request.getHeader(AppConstants.AUTHORIZATION_HEADER);
+        if (authHeader != null && authHeader.startsWith(AppConstants.BEARER_PREFIX)) {
+            return jwtService.extractUserId(authHeader.substring(AppConstants.BEARER_PREFIX.length()));
+        }
+        return Optional.empty();
+    }
+
+    private Map<String, Object> paymentView(Payment payment) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("paymentId", payment.getId());
+        m.put("bookingId", payment.getBookingId());
+        m.put("status", payment.getStatus().toString());
+        m.put("amount", payment.getAmount());
+        m.put("tipAmount", payment.getTipAmount());
+        m.put("paymentMethod", payment.getPaymentMethod().toString());
+        m.put("idempotencyKey", payment.getIdempotencyKey());
+        m.put("transactionId", payment.getTransactionId());
+        m.put("failureReason", payment.getFailureReason());
+        m.put("processedAt", payment.getProcessedAt() != null ? payment.getProcessedAt().toString() : null);
+        return m;
+    }
+
+    private UUID parseUuid(Object value, String field) {
+        if (value == null) {
+            throw new ValidationException(field + " is required");
+        }
+        try {
+            return UUID.fromString(value.toString());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private Payment.PaymentMethod parsePaymentMethod(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Payment.PaymentMethod.valueOf(value.toString().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported payment method: " + value);
+        }
+    }
+
+    private BigDecimal parseAmount(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid " + field + ": " + value);
+        }
+    }
+}
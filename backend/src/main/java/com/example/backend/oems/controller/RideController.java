@@ -1,50 +1,104 @@
 package com.example.backend.oems.controller;
 
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.WebUtils;
 
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.constants.AppConstants;
+import com.example.backend.oems.dto.TripStatusView;
+import com.example.backend.oems.dto.TripSummary;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.entity.Rating;
 import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.entity.TripEvent;
 import com.example.backend.oems.entity.User;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.service.DispatchService;
+import com.example.backend.oems.service.DriverLocationIndex;
+import com.example.backend.oems.service.FareEngine;
+import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.service.RatingService;
+import com.example.backend.oems.service.SurgeEngine;
+import com.example.backend.oems.service.TripEventHub;
 import com.example.backend.oems.service.TripService;
 import com.example.backend.oems.service.UserService;
+import com.example.backend.oems.util.GeoUtils;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/rides")
 public class RideController {
     private final TripService tripService;
     private final UserService userService;
+    private final DriverLocationIndex driverLocationIndex;
+    private final FareEngine fareEngine;
+    private final SurgeEngine surgeEngine;
+    private final TripEventHub tripEventHub;
+    private final DispatchService dispatchService;
+    private final JwtService jwtService;
+    private final RatingService ratingService;
+    private final AppProperties appProperties;
 
-    public RideController(TripService tripService, UserService userService) {
+    public RideController(TripService tripService, UserService userService,
+                          DriverLocationIndex driverLocationIndex, FareEngine fareEngine,
+                          SurgeEngine surgeEngine, TripEventHub tripEventHub,
+                          DispatchService dispatchService, JwtService jwtService,
+                          RatingService ratingService, AppProperties appProperties) {
         this.tripService = tripService;
         this.userService = userService;
+        this.driverLocationIndex = driverLocationIndex;
+        this.fareEngine = fareEngine;
+        this.surgeEngine = surgeEngine;
+        this.tripEventHub = tripEventHub;
+        this.dispatchService = dispatchService;
+        this.jwtService = jwtService;
+        this.ratingService = ratingService;
+        this.appProperties = appProperties;
     }
 
     @PostMapping("/estimate")
     public ResponseEntity<List<Map<String, Object>>> estimate(@RequestBody Map<String, Object> req) {
-        // TODO: Replace with real fare estimation logic
-        // - Integrate with Google Maps Distance Matrix API for accurate distance/time calculation
-        // - Implement dynamic pricing based on demand and supply
-        // - Consider traffic conditions, peak hours, and surge pricing
-        // - Validate pickup and destination coordinates
-        // - Add support for different service types (economy, premium, luxury)
-        List<Map<String, Object>> options = List.of(
-                option("oems-go", "OEMS Go", "Hatchback", 120, 3, "🚗", 4),
-                option("oems-sedan", "OEMS Sedan", "Sedan", 180, 5, "🚙", 4),
-                option("oems-suv", "OEMS SUV", "SUV", 250, 7, "🚐", 6)
-        );
+        // Distance and duration are derived from the coordinates; traffic-aware routing is out of scope
+        double[] route = parseRoute(req);
+        double searchRadiusKm = appProperties.getMatching().getSearchRadiusKm();
+        double surge = surgeEngine.getMultiplier(route[0], route[1]);
+
+        List<Map<String, Object>> options = new ArrayList<>(FareEngine.RIDE_PRODUCTS.size());
+        for (FareEngine.RideProduct product : FareEngine.RIDE_PRODUCTS) {
+            FareEngine.FareQuote quote = fareEngine.estimate(route[0], route[1], route[2], route[3],
+                    product.vehicleType(), surge);
+            if (quote == null) {
+                continue;
+            }
+            // ETA comes from the nearest available driver of this type, if any is in range
+            List<DriverLocationIndex.Match> nearest = driverLocationIndex.findNearest(
+                    route[0], route[1], product.vehicleType(), 1, searchRadiusKm);
+            Integer eta = nearest.isEmpty() ? null : fareEngine.travelMinutes(nearest.get(0).distanceKm());
+            options.add(option(product, quote, eta));
+        }
         return ResponseEntity.ok(options);
     }
 
@@ -58,6 +112,9 @@ public class RideController {
         @SuppressWarnings("unchecked")
         Map<String, Object> rideOption = (Map<String, Object>) req.get("rideOption");
         String userPhone = (String) req.get("userPhone");
+        double[] route = parseRoute(req);
+        double pickupLat = route[0];
+        double pickupLng = route[1];
         
         // TODO: Replace auto-user creation with proper authentication validation
         // - Validate user is authenticated before allowing ride booking
@@ -74,109 +131,292 @@ public class RideController {
                     return userService.save(u);
                 });
 
-        // Create booking first (new entity model)
-        // For now, create a simplified trip record for backward compatibility
-        Trip trip = new Trip();
-        
-        // Generate a booking ID for this trip
-        UUID bookingId = UUID.randomUUID();
-        trip.setBookingId(bookingId);
-        
-        trip.setCustomerId(user.getId());
-        
-        // TODO: Replace dummy driver/vehicle assignment with real driver matching logic
-        // - Implement driver matching algorithm based on proximity and availability
-        // - Query available drivers within radius using PostGIS spatial queries
-        // - Consider driver ratings, vehicle type compatibility, and estimated arrival time
-        // - Implement driver acceptance/rejection workflow with timeout
-        // - Add real-time driver location tracking using Redis/MQTT
-        trip.setDriverId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
-        trip.setVehicleId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
-        
-        trip.setPickupAddress((String) pickup.get("address"));
-        trip.setPickupLatitude(BigDecimal.valueOf((Double) pickup.get("latitude")));
-        trip.setPickupLongitude(BigDecimal.valueOf((Double) pickup.get("longitude")));
-        trip.setDestinationAddress((String) destination.get("address"));
-        trip.setDestinationLatitude(BigDecimal.valueOf((Double) destination.get("latitude")));
-        trip.setDestinationLongitude(BigDecimal.valueOf((Double) destination.get("longitude")));
-        trip.setEstimatedFare(BigDecimal.valueOf((Integer) rideOption.get("price")));
-        // TODO: Replace immediate trip start with proper booking workflow
-        // - Initial status should be REQUESTED, not STARTED
-        // - Implement driver acceptance workflow before changing to ACCEPTED
-        // - Add DRIVER_ARRIVING status when driver is en route to pickup
-        // - Only change to STARTED when driver arrives and customer enters vehicle
-        // - Add proper state machine validation for status transitions
-        // - Implement timeout handling for driver acceptance (e.g., 2 minutes)
-        trip.setStatus(Trip.TripStatus.STARTED);
-        trip.setStartedAt(Instant.now());
-        trip = tripService.save(trip);
+        Vehicle.VehicleType vehicleType = resolveVehicleType(rideOption);
+        if (vehicleType == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unsupported ride option type"));
+        }
+
+        // Price is recomputed server-side rather than trusted from the client's ride option.
+        // Every booking attempt counts as demand, including those that find no driver.
+        surgeEngine.recordDemand(pickupLat, pickupLng);
+        double surge = surgeEngine.getMultiplier(pickupLat, pickupLng);
+        FareEngine.FareQuote quote = fareEngine.estimate(pickupLat, pickupLng, route[2], route[3], vehicleType, surge);
+
+        Payment.PaymentMethod paymentMethod = parsePaymentMethod(req.get("paymentMethod"));
+
+        // The booking is recorded as PENDING first so every request is in the transition log
+        Booking booking = new Booking(user.getId(),
+                (String) pickup.get("address"), BigDecimal.valueOf(pickupLat), BigDecimal.valueOf(pickupLng),
+                (String) destination.get("address"), BigDecimal.valueOf(route[2]), BigDecimal.valueOf(route[3]),
+                Booking.VehicleType.valueOf(vehicleType.name()));
+        if (quote != null) {
+            booking.setEstimatedFare(BigDecimal.valueOf(quote.total()));
+            booking.setEstimatedDistance(BigDecimal.valueOf(quote.distanceKm()));
+            booking.setEstimatedDuration(quote.durationMinutes());
+        }
+        booking = tripService.createBooking(booking);
+
+        // Nearby drivers are offered the ride in turn; the customer follows the search and
+        // the trip that the accepting driver opens on the booking's event stream
+        dispatchService.dispatch(booking, vehicleType, quote, paymentMethod);
 
         Map<String, Object> response = new LinkedHashMap<>();
-        response.put("id", trip.getId());
-        response.put("status", trip.getStatus().toString());
-        response.put("price", trip.getEstimatedFare());
-        return ResponseEntity.ok(response);
+        response.put("bookingId", booking.getId());
+        response.put("status", booking.getStatus().toString());
+        response.put("price", booking.getEstimatedFare());
+        response.put("surgeMultiplier", quote != null ? quote.surgeMultiplier() : 1.0);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Cancel a booking, whether it is still searching for a driver or already has a trip
+     */
+    @PostMapping("/bookings/{bookingId}/cancel")
+    public ResponseEntity<Object> cancelBooking(@PathVariable UUID bookingId) {
+        Optional<Trip> trip = tripService.findByBookingId(bookingId);
+        if (trip.isPresent()) {
+            return cancel(trip.get().getId());
+        }
+        // A driver accepting at the same moment makes this fail with 409; the retry then cancels the trip
+        dispatchService.abort(bookingId);
+        tripService.cancelBooking(bookingId, TripEvent.Actor.CUSTOMER, "Cancelled by customer");
+        return ResponseEntity.ok(Map.of("status", "cancelled"));
+    }
+
+    /**
+     * Stream the driver search, trip status changes and driver positions for a booking as
+     * Server-Sent Events. Events are "booking", "status" and "driver-location"; the stream
+     * closes once the booking ends without a trip or its trip is finished.
+     */
+    @GetMapping(value = "/bookings/{bookingId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBookingEvents(@PathVariable UUID bookingId) {
+        Optional<Booking> booking = tripService.findBookingById(bookingId);
+        if (booking.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Trip trip = tripService.findByBookingId(bookingId).orElse(null);
+        return ResponseEntity.ok(tripEventHub.subscribe(booking.get(), trip, driverPosition(trip)));
     }
 
     @PostMapping("/{tripId}/cancel")
     public ResponseEntity<Object> cancel(@PathVariable UUID tripId) {
-        Optional<Trip> t = tripService.findById(tripId);
-        if (t.isEmpty()) return ResponseEntity.notFound().build();
-        Trip trip = t.get();
-        trip.cancelTrip(Trip.CancelledBy.CUSTOMER, "Cancelled by customer");
-        tripService.save(trip);
+        // Fails with 409 if the trip already finished or a concurrent update won
+        Trip trip = tripService.cancelTrip(tripId, Trip.CancelledBy.CUSTOMER, "Cancelled by customer");
+        driverLocationIndex.release(trip.getDriverId());
         return ResponseEntity.ok(Map.of("status", "cancelled"));
     }
 
+    /**
+     * Calling customer rates the driver of a completed trip
+     */
+    @PostMapping("/{tripId}/rating")
+    public ResponseEntity<Object> rate(@PathVariable UUID tripId, @RequestBody Map<String, Object> req,
+                                       HttpServletRequest httpRequest) {
+        Optional<UUID> customerId = resolveUserId(httpRequest);
+        if (customerId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Access token is required"));
+        }
+        Integer stars = req.get("rating") instanceof Number n ? n.intValue() : null;
+        String feedback = req.get("feedback") instanceof String f ? f : null;
+
+        // Fails with 409 if the trip is not completed or was already rated
+        Rating rating = ratingService.rateDriver(tripId, customerId.get(), stars, feedback);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+            "tripId", rating.getTripId(),
+            "rating", rating.getCustomerRating()
+        ));
+    }
+
+    /**
+     * The calling customer's trips, newest first.
+     * Pages are keyset-paginated: pass the previous response's nextCursor to get the next page.
+     */
+    @GetMapping("/trips")
+    public ResponseEntity<Object> getTrips(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            HttpServletRequest httpRequest) {
+        Optional<UUID> customerId = resolveUserId(httpRequest);
+        if (customerId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Access token is required"));
+        }
+
+        TripService.TripPage page = tripService.findCustomerTrips(customerId.get(),
+                TripService.TripFilter.of(status, startDate, endDate), cursor, size);
+        List<Map<String, Object>> trips = new ArrayList<>(page.trips().size());
+        for (TripSummary trip : page.trips()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", trip.id());
+            m.put("bookingId", trip.bookingId());
+            m.put("status", trip.status().toString());
+            m.put("pickupAddress", trip.pickupAddress());
+            m.put("destinationAddress", trip.destinationAddress());
+            m.put("price", trip.fare());
+            m.put("startTime", trip.startedAt().toString());
+            m.put("endTime", trip.endedAt() != null ? trip.endedAt().toString() : null);
+            trips.add(m);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("trips", trips);
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.hasMore());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Status transitions of a trip and its booking, oldest first
+     */
+    @GetMapping("/{tripId}/history")
+    public ResponseEntity<Object> getHistory(@PathVariable UUID tripId) {
+        Optional<Trip> trip = tripService.findById(tripId);
+        if (trip.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (TripEvent event : tripService.getHistory(trip.get().getBookingId())) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("subject", event.getSubject());
+            m.put("from", event.getFromStatus());
+            m.put("to", event.getToStatus());
+            m.put("actor", event.getActor());
+            m.put("reason", event.getReason());
+            m.put("version", event.getSubjectVersion());
+            m.put("occurredAt", event.getOccurredAt().toString());
+            events.add(m);
+        }
+        return ResponseEntity.ok(Map.of("tripId", tripId, "events", events));
+    }
+
     @GetMapping("/{tripId}")
     public ResponseEntity<Object> getStatus(@PathVariable UUID tripId) {
+        // Polled by clients; read as a DTO so no entity is hydrated or dirty-checked
+        Optional<TripStatusView> tripOpt = tripService.findStatus(tripId);
+        if (tripOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        TripStatusView trip = tripOpt.get();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", trip.id().toString());
+        response.put("status", trip.status().toString());
+        response.put("price", trip.price());
+
+        if (trip.startedAt() != null) {
+            response.put("startTime", trip.startedAt().toString());
+        }
+        if (trip.endedAt() != null) {
+            response.put("endTime", trip.endedAt().toString());
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream status changes and driver positions for a trip as Server-Sent Events.
+     * Events are "booking", "status" and "driver-location"; the stream closes once the trip is finished.
+     */
+    @GetMapping(value = "/{tripId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable UUID tripId) {
+        Optional<Trip> trip = tripService.findById(tripId);
+        if (trip.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Booking booking = tripService.findBookingById(trip.get().getBookingId()).orElse(null);
+        return ResponseEntity.ok(tripEventHub.subscribe(booking, trip.get(), driverPosition(trip.get())));
+    }
+
+    private DriverLocationIndex.DriverPosition driverPosition(Trip trip) {
+        if (trip == null || trip.getDriverId() == null) {
+            return null;
+        }
+        return driverLocationIndex.getPosition(trip.getDriverId()).orElse(null);
+    }
+
+    /**
+     * Resolve the calling user from the access token cookie or Bearer header
+     */
+    private Optional<UUID> resolveUserId(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, AppConstants.ACCESS_TOKEN_COOKIE);
+        if (cookie != null && !cookie.getValue().isBlank()) {
+            return jwtService.extractUserId(cookie.getValue());
+        }
+        String authHeader = request.getHeader(AppConstants.AUTHORIZATION_HEADER);
+        if (authHeader != null && authHeader.startsWith(AppConstants.BEARER_PREFIX)) {
+            return jwtService.extractUserId(authHeader.substring(AppConstants.BEARER_PREFIX.length()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Map the ride option selected in the app to the vehicle type used for matching
+     */
+    private Vehicle.VehicleType resolveVehicleType(Map<String, Object> rideOption) {
+        Object type = rideOption != null ? rideOption.get("type") : null;
+        if (type == null) {
+            return null;
+        }
         try {
-            Optional<Trip> tripOpt = tripService.findById(tripId);
-            if (tripOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Trip trip = tripOpt.get();
-            Map<String, Object> response = new LinkedHashMap<>();
-            response.put("id", trip.getId().toString());
-            response.put("status", trip.getStatus().toString());
-            response.put("price", trip.getEstimatedFare() != null ? trip.getEstimatedFare() : trip.getActualFare());
-            
-            if (trip.getStartedAt() != null) {
-                response.put("startTime", trip.getStartedAt().toString());
-            }
-            if (trip.getEndedAt() != null) {
-                response.put("endTime", trip.getEndedAt().toString());
-            }
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            // Log the error for debugging
-            System.err.println("Error retrieving trip status for ID " + tripId + ": " + e.getMessage());
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to retrieve trip status: " + e.getMessage()));
-        }
-    }
-
-    // TODO: Replace hardcoded ride options with database-driven vehicle types
-    // - Store vehicle types and their properties in database (VehicleType entity)
-    // - Make pricing configurable based on city, time, and demand
-    // - Add support for different service categories (economy, premium, luxury, ambulance)
-    // - Implement regional pricing variations
-    // - Add dynamic ETA calculation based on real traffic data
-    private Map<String, Object> option(String id, String name, String type, int price, int eta, String icon, int capacity) {
-        Map<String, Object> m = new LinkedHashMap<>();
-        m.put("id", id);
-        m.put("name", name);
-        m.put("type", type);
-        m.put("price", price);
-        m.put("eta", eta);
-        m.put("icon", icon);
-        m.put("capacity", capacity);
-        return m;
+            return Vehicle.VehicleType.valueOf(type.toString().trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
+    /**
+     * Read pickup and destination coordinates as [pickupLat, pickupLng, destinationLat, destinationLng]
+     */
+    private double[] parseRoute(Map<String, Object> req) {
+        double[] pickup = parseCoordinates(req.get("pickup"), "pickup");
+        double[] destination = parseCoordinates(req.get("destination"), "destination");
+        return new double[] { pickup[0], pickup[1], destination[0], destination[1] };
+    }
 
-}
+    private double[] parseCoordinates(Object location, String field) {
+        if (location instanceof Map<?, ?> map
+                && map.get("latitude") instanceof Number lat
+                && map.get("longitude") instanceof Number lng
+                && GeoUtils.isValidCoordinate(lat.doubleValue(), lng.doubleValue())) {
+            return new double[] { lat.doubleValue(), lng.doubleValue() };
+        }
+        throw new ValidationException("Valid " + field + " latitude and longitude are required");
+    }
 
+    private Payment.PaymentMethod parsePaymentMethod(Object paymentMethod) {
+        if (paymentMethod == null) {
+            return Payment.PaymentMethod.CASH;
+        }
+        try {
+            return Payment.PaymentMethod.valueOf(paymentMethod.toString().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported payment method: " + paymentMethod);
+        }
+    }
+
+    private Map<String, Object> option(FareEngine.RideProduct product, FareEngine.FareQuote quote, Integer eta) {
+        Map<String, Object> fare = new LinkedHashMap<>();
+        fare.put("baseFare", quote.baseFare());
+        fare.put("distanceFare", quote.distanceFare());
+        fare.put("timeFare", quote.timeFare());
+        fare.put("surgeMultiplier", quote.surgeMultiplier());
+        fare.put("platformFee", quote.platformFee());
+        fare.put("taxAmount", quote.taxAmount());
+        fare.put("total", quote.total());
 
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", product.id());
+        m.put("name", product.name());
+        m.put("type", product.displayType());
+        m.put("price", Math.round(quote.total()));
+        m.put("eta", eta); // null when no driver of this type is nearby
+        m.put("icon", product.icon());
+        m.put("capacity", product.capacity());
+        m.put("distanceKm", quote.distanceKm());
+        m.put("durationMinutes", quote.durationMinutes());
+        m.put("fare", fare);
+        return m;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.backend.oems.controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +19,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.WebUtils;
+
+import com.example.backend.oems.constants.AppConstants;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.service.DriverStatsService;
+import com.example.backend.oems.service.JwtService;
+import com.example.backend.oems.service.ShowroomAnalyticsService;
+import com.example.backend.oems.service.ShowroomService;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * REST Controller for Showroom Admin operations
@@ -25,7 +41,20 @@ import org.springframework.web.bind.annotation.RestController;
 @PreAuthorize("hasRole('SHOWROOM_ADMIN')")
 public class ShowroomAdminController {
 
-    // TODO: Inject proper services when they are created
+    private final JwtService jwtService;
+    private final ShowroomService showroomService;
+    private final ShowroomAnalyticsService analyticsService;
+    private final DriverStatsService driverStatsService;
+
+    public ShowroomAdminController(JwtService jwtService, ShowroomService showroomService,
+                                   ShowroomAnalyticsService analyticsService, DriverStatsService driverStatsService) {
+        this.jwtService = jwtService;
+        this.showroomService = showroomService;
+        this.analyticsService = analyticsService;
+        this.driverStatsService = driverStatsService;
+    }
+
+    // TODO: Inject remaining services when they are created
     // @Autowired
     // private ShowroomAdminService showroomAdminService;
     
@@ -227,28 +256,55 @@ public class ShowroomAdminController {
 
     /**
      * Get showroom analytics and reports
+     *
+     * @param reportType granularity of the revenue series: hourly, daily (default), weekly or monthly
      */
     @GetMapping("/analytics")
     @PreAuthorize("hasRole('SHOWROOM_ADMIN')")
     public ResponseEntity<Map<String, Object>> getAnalytics(
             @RequestParam(defaultValue = "7") int days,
-            @RequestParam(required = false) String reportType) {
-        
-        // TODO: Implement showroom analytics
-        // - Revenue analytics (daily, weekly, monthly)
-        // - Driver performance metrics
-        // - Vehicle utilization reports
-        // - Customer satisfaction scores
-        // - Ride completion rates
-        // - Peak hours analysis
-        
-        return ResponseEntity.ok(Map.of(
-            "totalRevenue", 125750.75,
-            "averageRideValue", 245.50,
-            "driverPerformance", Map.of(),
-            "vehicleUtilization", Map.of(),
-            "message", "TODO: Implement comprehensive analytics with real data aggregation"
-        ));
+            @RequestParam(required = false) String reportType,
+            HttpServletRequest httpRequest) {
+        Optional<UUID> showroomId = resolveShowroom(httpRequest);
+        if (showroomId.isEmpty()) {
+            return showroomNotFound();
+        }
+        ShowroomAnalyticsService.Report report = analyticsService.lastDays(showroomId.get(), days, granularity(reportType));
+        ShowroomAnalyticsService.Totals total = report.total();
+
+        List<Map<String, Object>> revenue = new ArrayList<>(report.series().size());
+        for (ShowroomAnalyticsService.Period period : report.series()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("periodStart", period.start().toString());
+            m.put("revenue", period.totals().revenue());
+            m.put("tripsCompleted", period.totals().tripsCompleted());
+            m.put("tripsCancelled", period.totals().tripsCancelled());
+            revenue.add(m);
+        }
+        Map<String, Object> utilization = new LinkedHashMap<>();
+        report.byVehicleType().forEach((type, totals) -> {
+            Map<String, Object> m = totals(totals);
+            m.put("tripShare", total.tripsCompleted() == 0 ? 0.0
+                    : Math.round(10000.0 * totals.tripsCompleted() / total.tripsCompleted()) / 100.0);
+            utilization.put(type.name(), m);
+        });
+
+        // TODO: Add customer satisfaction once ratings can be attributed to showrooms
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("showroomId", showroomId.get());
+        response.put("from", report.from().toString());
+        response.put("to", report.to().toString());
+        response.put("granularity", report.granularity().name());
+        response.put("totalRevenue", total.revenue());
+        response.put("averageRideValue", total.averageTripValue());
+        response.put("tripsCompleted", total.tripsCompleted());
+        response.put("tripsCancelled", total.tripsCancelled());
+        response.put("completionRate", total.completionRate());
+        response.put("revenueSeries", revenue);
+        response.put("tripsByHour", report.tripsByHour());
+        response.put("peakHours", report.peakHours());
+        response.put("vehicleUtilization", utilization);
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -291,25 +347,101 @@ public class ShowroomAdminController {
     }
 
     /**
-     * Get driver performance reports
+     * Get driver performance reports.
+     * Completion rates by vehicle type come from the showroom's analytics; with a driverId the
+     * driver's own rollup for the window is included.
      */
     @GetMapping("/reports/driver-performance")
     @PreAuthorize("hasRole('SHOWROOM_ADMIN')")
     public ResponseEntity<Map<String, Object>> getDriverPerformanceReport(
             @RequestParam(required = false) UUID driverId,
-            @RequestParam(defaultValue = "30") int days) {
-        
-        // TODO: Implement driver performance reporting
-        // - Individual driver metrics or all drivers
-        // - Ride completion rates
-        // - Customer ratings
-        // - Revenue generated
-        // - On-time performance
-        // - Cancellation rates
-        
-        return ResponseEntity.ok(Map.of(
-            "driverMetrics", List.of(),
-            "message", "TODO: Implement driver performance analytics with real metrics calculation"
+            @RequestParam(defaultValue = "30") int days,
+            HttpServletRequest httpRequest) {
+        Optional<UUID> showroomId = resolveShowroom(httpRequest);
+        if (showroomId.isEmpty()) {
+            return showroomNotFound();
+        }
+        ShowroomAnalyticsService.Report report = analyticsService.lastDays(showroomId.get(), days,
+                ShowroomAnalyticsService.Granularity.DAY);
+
+        Map<String, Object> byVehicleType = new LinkedHashMap<>();
+        report.byVehicleType().forEach((type, totals) -> byVehicleType.put(type.name(), totals(totals)));
+
+        // TODO: Restrict driverId to drivers of this showroom once drivers are linked to showrooms
+        List<Map<String, Object>> driverMetrics = new ArrayList<>();
+        if (driverId != null) {
+            DriverStatsService.Totals driver = driverStatsService.getWindow(driverId, days, null).total();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("driverId", driverId);
+            m.put("tripsCompleted", driver.tripsCompleted());
+            m.put("tripsCancelled", driver.tripsCancelled());
+            m.put("completionRate", driver.completionRate());
+            m.put("cancellationRate", driver.cancellationRate());
+            m.put("revenue", driver.grossEarnings());
+            m.put("onlineHours", driver.onlineHours());
+            driverMetrics.add(m);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", report.from().toString());
+        response.put("to", report.to().toString());
+        response.put("completionRate", report.total().completionRate());
+        response.put("byVehicleType", byVehicleType);
+        response.put("driverMetrics", driverMetrics);
+        return ResponseEntity.ok(response);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * Resolve the calling admin's showroom from the access token cookie or Bearer header
+     */
+    private Optional<UUID> resolveShowroom(HttpServletRequest request) {
+        String token = null;
+        Cookie cookie = WebUtils.getCookie(request, AppConstants.ACCESS_TOKEN_COOKIE);
+        if (cookie != null && !cookie.getValue().isBlank()) {
+            token = cookie.getValue();
+        } else {
+            String authHeader = request.getHeader(AppConstants.AUTHORIZATION_HEADER);
+            if (authHeader != null && authHeader.startsWith(AppConstants.BEARER_PREFIX)) {
+                token = authHeader.substring(AppConstants.BEARER_PREFIX.length());
+            }
+        }
+        if (token == null) {
+            return Optional.empty();
+        }
+        return jwtService.extractUserId(token).flatMap(showroomService::findManagedShowroomId);
+    }
+
+    private static ShowroomAnalyticsService.Granularity granularity(String reportType) {
+        if (reportType == null || reportType.isBlank()) {
+            return ShowroomAnalyticsService.Granularity.DAY;
+        }
+        return switch (reportType.trim().toLowerCase(Locale.ROOT)) {
+            case "hourly" -> ShowroomAnalyticsService.Granularity.HOUR;
+            case "daily" -> ShowroomAnalyticsService.Granularity.DAY;
+            case "weekly" -> ShowroomAnalyticsService.Granularity.WEEK;
+            case "monthly" -> ShowroomAnalyticsService.Granularity.MONTH;
+            default -> throw new ValidationException("reportType must be hourly, daily, weekly or monthly");
+        };
+    }
+
+    private static Map<String, Object> totals(ShowroomAnalyticsService.Totals totals) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("tripsCompleted", totals.tripsCompleted());
+        m.put("tripsCancelled", totals.tripsCancelled());
+        m.put("completionRate", totals.completionRate());
+        m.put("revenue", totals.revenue());
+        m.put("busyHours", totals.busyHours());
+        return m;
+    }
+
+    private ResponseEntity<Map<String, Object>> showroomNotFound() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+            "success", false,
+            "message", "No active showroom assignment for the authenticated admin"
         ));
     }
 
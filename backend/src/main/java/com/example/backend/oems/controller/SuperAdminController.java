@@ -1,9 +1,21 @@
 package com.example.backend.oems.controller;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,6 +27,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.backend.oems.entity.LogEntry;
+import com.example.backend.oems.entity.User;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.service.DashboardSnapshotService;
+import com.example.backend.oems.service.FareEngine;
+import com.example.backend.oems.service.PaymentExportService;
+import com.example.backend.oems.service.RequestLogSink;
+import com.example.backend.oems.service.UserService;
 
 /**
  * REST Controller for Super Admin operations
@@ -39,28 +62,42 @@ public class SuperAdminController {
     // @Autowired
     // private AnalyticsService analyticsService;
 
+    private final RequestLogSink requestLogSink;
+    private final UserService userService;
+    private final FareEngine fareEngine;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final PaymentExportService paymentExportService;
+
+    public SuperAdminController(RequestLogSink requestLogSink, UserService userService, FareEngine fareEngine,
+                                DashboardSnapshotService dashboardSnapshotService,
+                                PaymentExportService paymentExportService) {
+        this.requestLogSink = requestLogSink;
+        this.userService = userService;
+        this.fareEngine = fareEngine;
+        this.dashboardSnapshotService = dashboardSnapshotService;
+        this.paymentExportService = paymentExportService;
+    }
+
     /**
      * Get super admin dashboard with platform-wide overview
      */
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<Map<String, Object>> getDashboard() {
-        // TODO: Implement comprehensive platform dashboard
-        // - Total users (customers, drivers, admins)
-        // - Total showrooms and their status
-        // - Platform revenue statistics
-        // - System health metrics
-        // - Recent critical events
-        
-        return ResponseEntity.ok(Map.of(
-            "totalUsers", 15432,
-            "totalShowrooms", 12,
-            "totalRevenue", 2450750.75,
-            "activeRides", 145,
-            "systemHealth", "HEALTHY",
-            "criticalAlerts", 0,
-            "message", "TODO: Implement platform-wide dashboard with real-time data aggregation"
-        ));
+        // Served from in-memory counters; no table is scanned per request
+        DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.snapshot();
+
+        // TODO: Add per-role user counts, system health metrics and recent critical events
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("totalUsers", snapshot.totalUsers());
+        response.put("totalShowrooms", snapshot.totalShowrooms());
+        response.put("activeShowrooms", snapshot.activeShowrooms());
+        response.put("totalRevenue", snapshot.totalRevenue());
+        response.put("activeRides", snapshot.activeTrips());
+        response.put("searchingBookings", snapshot.searchingBookings());
+        response.put("onlineDrivers", snapshot.onlineDrivers());
+        response.put("reconciledAt", snapshot.reconciledAt() != null ? snapshot.reconciledAt().toString() : null);
+        return ResponseEntity.ok(response);
     }
 
     // =================
@@ -332,22 +369,20 @@ public class SuperAdminController {
             @RequestParam(defaultValue = "30") int days,
             @RequestParam(required = false) String reportType) {
         
-        // TODO: Implement platform analytics
-        // - Revenue analytics across all showrooms
-        // - User growth and retention metrics
-        // - Ride completion and cancellation rates
-        // - Geographic performance analysis
-        // - Driver performance metrics
-        // - Customer satisfaction scores
-        
-        return ResponseEntity.ok(Map.of(
-            "totalRevenue", 2450750.75,
-            "totalRides", 45678,
-            "userGrowth", Map.of("monthly", 12.5),
-            "platformUtilization", 87.3,
-            "customerSatisfaction", 4.6,
-            "message", "TODO: Implement comprehensive platform analytics with real-time data"
-        ));
+        DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.snapshot();
+
+        // TODO: Windowed metrics (user growth, retention, per-showroom revenue) for the requested days
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("totalRevenue", snapshot.totalRevenue());
+        response.put("totalRides", snapshot.totalTrips());
+        response.put("completedRides", snapshot.completedTrips());
+        response.put("cancelledRides", snapshot.cancelledTrips());
+        response.put("completionRate", snapshot.completionRate());
+        response.put("platformUtilization", snapshot.onlineDrivers() == 0 ? 0.0
+                : Math.round(10000.0 * Math.min(snapshot.activeTrips(), snapshot.onlineDrivers()) / snapshot.onlineDrivers()) / 100.0);
+        response.put("customerSatisfaction", snapshot.averageRating());
+        response.put("totalRatings", snapshot.totalRatings());
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -360,28 +395,47 @@ public class SuperAdminController {
             @RequestParam(required = false, defaultValue = "2025-01-01") String startDate,
             @RequestParam(required = false, defaultValue = "2025-12-31") String endDate) {
         
-        // TODO: Implement financial reporting
+        // TODO: Implement remaining financial reporting
         // - Revenue breakdown by showroom
-        // - Commission calculations
         // - Driver earnings reports
         // - Payment gateway reconciliation
-        // - Tax and accounting reports
         
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "reportType", reportType,
-            "period", Map.of(
-                "startDate", startDate,
-                "endDate", endDate
-            ),
-            "report", Map.of(
-                "totalRevenue", 125000.50,
-                "totalCommission", 12500.05,
-                "totalRides", 850,
-                "driverEarnings", 112500.45
-            ),
-            "message", "Financial report generated successfully (dummy data)"
+        Instant from = parseDateBoundary(startDate, false);
+        Instant to = parseDateBoundary(endDate, true);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("reportType", reportType);
+        response.put("period", Map.of(
+            "startDate", startDate,
+            "endDate", endDate
         ));
+        response.put("report", paymentExportService.summarize(from, to));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Export every payment created in the date range, streamed straight to the client
+     *
+     * @param format csv (default) or columnar
+     */
+    @GetMapping("/financial-reports/export")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "csv") String format) {
+        Instant from = parseDateBoundary(startDate, false);
+        Instant to = parseDateBoundary(endDate, true);
+        PaymentExportService.Format exportFormat = parseExportFormat(format);
+        // Validate up front; once streaming starts the status can no longer change
+        paymentExportService.validateRange(from, to);
+
+        StreamingResponseBody body = out -> paymentExportService.export(from, to, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(PaymentExportService.fileName(from, to, exportFormat)).build().toString())
+                .body(body);
     }
 
     // ===============
@@ -400,28 +454,39 @@ public class SuperAdminController {
         // - Payment gateway configs
         // - SMS/Email service settings
         // - API rate limits
-        
-        return ResponseEntity.ok(Map.of(
-            "config", Map.of(),
-            "message", "TODO: Implement system configuration management"
-        ));
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("fares", fareConfig());
+        return ResponseEntity.ok(Map.of("config", config));
     }
 
     /**
      * Update system configuration
+     *
+     * Fare tariffs are updated with {"fares": {"SEDAN": {"baseFare": 55, "perKm": 14}}}; omitted
+     * fields keep their current value. The new tariffs apply to the next estimate without a restart.
      */
     @PutMapping("/system/config")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<Map<String, Object>> updateSystemConfig(@RequestBody Map<String, Object> config) {
-        // TODO: Implement config updates
-        // - Validate configuration changes
-        // - Apply changes safely
-        // - Log configuration changes
-        // - Notify other admins of critical changes
-        
+        // TODO: Log configuration changes and notify other admins of critical changes
+        if (!(config.get("fares") instanceof Map<?, ?> fares)) {
+            throw new ValidationException("Only fare configuration can be updated");
+        }
+
+        Map<Vehicle.VehicleType, FareEngine.Tariff> changes = new EnumMap<>(Vehicle.VehicleType.class);
+        for (Map.Entry<?, ?> entry : fares.entrySet()) {
+            Vehicle.VehicleType type = parseVehicleType(String.valueOf(entry.getKey()));
+            if (!(entry.getValue() instanceof Map<?, ?> overrides)) {
+                throw new ValidationException("Tariff for " + type + " must be an object");
+            }
+            changes.put(type, mergeTariff(fareEngine.getTariff(type), overrides));
+        }
+        fareEngine.updateTariffs(changes);
+
         return ResponseEntity.ok(Map.of(
-            "success", false,
-            "message", "TODO: Implement safe system configuration updates with validation"
+            "success", true,
+            "fares", fareConfig()
         ));
     }
 
@@ -437,26 +502,131 @@ public class SuperAdminController {
     public ResponseEntity<Map<String, Object>> getAuditLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String action, // path prefix, e.g. /api/rides
             @RequestParam(required = false) String userId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate) {
         
-        // TODO: Implement audit log retrieval
-        // - Get system audit logs with filtering
-        // - Include user actions, system events
-        // - Filter by date range, user, action type
-        // - Provide detailed context for each log entry
-        
+        // Request logs are read from whichever sink is active (logs table or local segment files)
+        int pageSize = Math.min(Math.max(size, 1), 500);
+        Instant from = parseDateBoundary(startDate, false);
+        Instant to = parseDateBoundary(endDate, true);
+
+        String userPhone = null;
+        if (userId != null && !userId.isBlank()) {
+            Optional<User> user = userService.findById(parseUuid(userId));
+            if (user.isEmpty()) {
+                return ResponseEntity.ok(Map.of("logs", List.of(), "currentPage", page, "size", pageSize, "hasMore", false));
+            }
+            userPhone = user.get().getPhoneNumber();
+        }
+
+        // One extra entry is fetched to tell whether another page exists without counting
+        List<LogEntry> entries = requestLogSink.search(new RequestLogSink.RequestLogQuery(
+                from, to, action, userPhone, page * pageSize, pageSize + 1));
+        boolean hasMore = entries.size() > pageSize;
+
+        List<Map<String, Object>> logs = entries.stream()
+                .limit(pageSize)
+                .map(this::toAuditLog)
+                .toList();
+
         return ResponseEntity.ok(Map.of(
-            "logs", List.of(),
-            "totalElements", 0,
-            "totalPages", 0,
+            "logs", logs,
             "currentPage", page,
-            "message", "TODO: Implement comprehensive audit log system with advanced filtering"
+            "size", pageSize,
+            "hasMore", hasMore
         ));
     }
 
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private Map<String, Object> fareConfig() {
+        Map<String, Object> fares = new LinkedHashMap<>();
+        fares.put("version", fareEngine.getTariffVersion());
+        fares.put("tariffs", fareEngine.getTariffs());
+        return fares;
+    }
+
+    private FareEngine.Tariff mergeTariff(FareEngine.Tariff current, Map<?, ?> overrides) {
+        FareEngine.Tariff base = current != null ? current : new FareEngine.Tariff(0, 0, 0, 0, 0, 0);
+        return new FareEngine.Tariff(
+            tariffValue(overrides, "baseFare", base.baseFare()),
+            tariffValue(overrides, "perKm", base.perKm()),
+            tariffValue(overrides, "perMinute", base.perMinute()),
+            tariffValue(overrides, "minimumFare", base.minimumFare()),
+            tariffValue(overrides, "platformFee", base.platformFee()),
+            tariffValue(overrides, "taxRate", base.taxRate()));
+    }
+
+    private double tariffValue(Map<?, ?> overrides, String field, double current) {
+        Object value = overrides.get(field);
+        if (value == null) {
+            return current;
+        }
+        if (!(value instanceof Number number)) {
+            throw new ValidationException("Tariff field " + field + " must be a number");
+        }
+        return number.doubleValue();
+    }
+
+    private Vehicle.VehicleType parseVehicleType(String value) {
+        try {
+            return Vehicle.VehicleType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown vehicle type: " + value);
+        }
+    }
+
+    private Map<String, Object> toAuditLog(LogEntry entry) {
+        Map<String, Object> log = new HashMap<>();
+        log.put("id", entry.getId());
+        log.put("timestamp", entry.getTimestamp());
+        log.put("method", entry.getMethod());
+        log.put("path", entry.getPath());
+        log.put("userPhone", entry.getUserPhone());
+        log.put("status", entry.getStatus());
+        log.put("metadata", entry.getMetadata());
+        return log;
+    }
+
+    /**
+     * Accepts an ISO instant or a plain date; a plain end date includes that whole day
+     */
+    private Instant parseDateBoundary(String value, boolean endOfRange) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            try {
+                LocalDate date = LocalDate.parse(value);
+                return (endOfRange ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
+            } catch (DateTimeParseException ex) {
+                throw new ValidationException("Invalid date: " + value);
+            }
+        }
+    }
+
+    private PaymentExportService.Format parseExportFormat(String value) {
+        try {
+            return PaymentExportService.Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("format must be csv or columnar");
+        }
+    }
+
+    private UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid user ID: " + value);
+        }
+    }
+
     // Request DTOs
     public static class CreateUserRequest {
         public String fullName;
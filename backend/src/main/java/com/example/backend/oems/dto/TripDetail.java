@@ -0,0 +1,20 @@
+package com.example.backend.oems.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Trip;
+
+/**
+ * Read-only details of one trip, selected directly by a JPQL constructor expression
+ */
+public record TripDetail(UUID id, UUID bookingId, UUID customerId, UUID driverId, Trip.TripStatus status,
+                         String pickupAddress, BigDecimal pickupLatitude, BigDecimal pickupLongitude,
+                         String destinationAddress, BigDecimal destinationLatitude, BigDecimal destinationLongitude,
+                         BigDecimal estimatedDistance, BigDecimal actualDistance,
+                         Integer estimatedDuration, Integer actualDuration,
+                         BigDecimal estimatedFare, BigDecimal actualFare,
+                         Instant startedAt, Instant pickupCompletedAt, Instant endedAt,
+                         Instant cancelledAt, Trip.CancelledBy cancelledBy, String cancellationReason) {
+}
@@ -0,0 +1,15 @@
+package com.example.backend.oems.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Trip;
+
+/**
+ * Read-only status of a trip for polling clients; price is the estimate, or the actual fare when
+ * no estimate was recorded
+ */
+public record TripStatusView(UUID id, Trip.TripStatus status, BigDecimal price,
+                             Instant startedAt, Instant endedAt) {
+}
@@ -0,0 +1,17 @@
+package com.example.backend.oems.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Trip;
+
+/**
+ * Read-only row of a trip listing, selected directly by a JPQL constructor expression.
+ * Addresses are truncated to 80 characters and fare/distance are the actual values when known, else the estimates.
+ */
+public record TripSummary(UUID id, UUID bookingId, Trip.TripStatus status,
+                          String pickupAddress, String destinationAddress,
+                          BigDecimal fare, BigDecimal distanceKm,
+                          Instant startedAt, Instant endedAt) {
+}
@@ -3,10 +3,12 @@ package com.example.backend.oems.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
@@ -15,27 +17,28 @@ import jakarta.persistence.Table;
 /**
  * Auth entity for managing JWT tokens and refresh tokens
  * Based on the Black Tables section of the ERD
+ * Tokens are stored as 32-byte SHA-256 digests, never as raw JWTs
  */
 @Entity
 @Table(name = "auth", indexes = {
     @Index(name = "idx_auth_user_id", columnList = "userId"),
-    @Index(name = "idx_auth_access_token", columnList = "accessToken"),
-    @Index(name = "idx_auth_refresh_token", columnList = "refreshToken")
+    @Index(name = "idx_auth_access_token_hash", columnList = "accessTokenHash"),
+    @Index(name = "idx_auth_refresh_token_hash", columnList = "refreshTokenHash")
 })
 public class Auth {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
-    @Column(name = "access_token", nullable = false, length = 1024)
-    private String accessToken;
+    @Column(name = "access_token_hash", nullable = false, length = 32)
+    private byte[] accessTokenHash;
 
-    @Column(name = "refresh_token", nullable = false, length = 1024)
-    private String refreshToken;
+    @Column(name = "refresh_token_hash", nullable = false, length = 32)
+    private byte[] refreshTokenHash;
 
     @Column(name = "token_expiry", nullable = false)
     private Instant tokenExpiry;
@@ -49,10 +52,10 @@ public class Auth {
     // Constructors
     public Auth() {}
 
-    public Auth(UUID userId, String accessToken, String refreshToken, Instant tokenExpiry) {
+    public Auth(UUID userId, byte[] accessTokenHash, byte[] refreshTokenHash, Instant tokenExpiry) {
         this.userId = userId;
-        this.accessToken = accessToken;
-        this.refreshToken = refreshToken;
+        this.accessTokenHash = accessTokenHash;
+        this.refreshTokenHash = refreshTokenHash;
         this.tokenExpiry = tokenExpiry;
     }
 
@@ -63,11 +66,11 @@ public class Auth {
     public UUID getUserId() { return userId; }
     public void setUserId(UUID userId) { this.userId = userId; }
 
-    public String getAccessToken() { return accessToken; }
-    public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+    public byte[] getAccessTokenHash() { return accessTokenHash; }
+    public void setAccessTokenHash(byte[] accessTokenHash) { this.accessTokenHash = accessTokenHash; }
 
-    public String getRefreshToken() { return refreshToken; }
-    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    public byte[] getRefreshTokenHash() { return refreshTokenHash; }
+    public void setRefreshTokenHash(byte[] refreshTokenHash) { this.refreshTokenHash = refreshTokenHash; }
 
     public Instant getTokenExpiry() { return tokenExpiry; }
     public void setTokenExpiry(Instant tokenExpiry) { this.tokenExpiry = tokenExpiry; }
@@ -4,16 +4,22 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+import com.example.backend.oems.util.TransitionTable;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Booking entity for managing ride bookings
@@ -27,10 +33,22 @@ import jakarta.persistence.Table;
     @Index(name = "idx_bookings_created_at", columnList = "createdAt"),
     @Index(name = "idx_bookings_pickup_location", columnList = "pickupLatitude, pickupLongitude")
 })
+@EntityListeners(BookingListener.class)
 public class Booking {
 
+    /**
+     * Allowed status transitions; every status change goes through this table
+     */
+    public static final TransitionTable<BookingStatus> TRANSITIONS = TransitionTable.builder(BookingStatus.class)
+            .allow(BookingStatus.PENDING, BookingStatus.DRIVER_ASSIGNED, BookingStatus.CANCELLED,
+                    BookingStatus.NO_DRIVER_AVAILABLE)
+            .allow(BookingStatus.DRIVER_ASSIGNED, BookingStatus.PENDING, BookingStatus.IN_PROGRESS,
+                    BookingStatus.CANCELLED)
+            .allow(BookingStatus.IN_PROGRESS, BookingStatus.COMPLETED, BookingStatus.CANCELLED)
+            .build();
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "customer_id", nullable = false)
@@ -95,6 +113,10 @@ public class Booking {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
+    @Version
+    @Column(nullable = false)
+    private Long version; // optimistic lock; concurrent status changes fail instead of overwriting
+
     // Constructors
     public Booking() {}
 
@@ -156,7 +178,6 @@ public class Booking {
     public void setEstimatedDuration(Integer estimatedDuration) { this.estimatedDuration = estimatedDuration; }
 
     public BookingStatus getStatus() { return status; }
-    public void setStatus(BookingStatus status) { this.status = status; }
 
     public Instant getScheduledTime() { return scheduledTime; }
     public void setScheduledTime(Instant scheduledTime) { this.scheduledTime = scheduledTime; }
@@ -176,33 +197,49 @@ public class Booking {
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+
     // Helper methods
     public void assignDriver(UUID driverId, UUID vehicleId) {
+        transitionTo(BookingStatus.DRIVER_ASSIGNED);
         this.driverId = driverId;
         this.vehicleId = vehicleId;
-        this.status = BookingStatus.DRIVER_ASSIGNED;
     }
 
     public void startTrip() {
-        this.status = BookingStatus.IN_PROGRESS;
+        transitionTo(BookingStatus.IN_PROGRESS);
         this.pickupTime = Instant.now();
     }
 
+    public void complete() {
+        transitionTo(BookingStatus.COMPLETED);
+    }
+
     public void cancel(String reason) {
-        this.status = BookingStatus.CANCELLED;
+        transitionTo(BookingStatus.CANCELLED);
         this.specialInstructions = (specialInstructions != null ? specialInstructions + "; " : "") + 
                                   "Cancelled: " + reason;
     }
 
+    public void markNoDriverAvailable() {
+        transitionTo(BookingStatus.NO_DRIVER_AVAILABLE);
+    }
+
     public boolean isActive() {
-        return status == BookingStatus.PENDING || status == BookingStatus.DRIVER_ASSIGNED || 
-               status == BookingStatus.IN_PROGRESS;
+        return !TRANSITIONS.isTerminal(status);
     }
 
     public boolean isScheduled() {
         return scheduledTime != null && scheduledTime.isAfter(Instant.now());
     }
 
+    private void transitionTo(BookingStatus next) {
+        if (!TRANSITIONS.isAllowed(status, next)) {
+            throw new ConflictException("Booking cannot move from " + status + " to " + next, "INVALID_STATE_TRANSITION");
+        }
+        this.status = next;
+    }
+
     // JPA Callbacks
     @PreUpdate
     protected void onUpdate() {
@@ -0,0 +1,26 @@
+package com.example.backend.oems.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.backend.oems.event.BookingChangedEvent;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that turns booking writes into {@link BookingChangedEvent}s
+ */
+public class BookingListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookingListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Booking booking) {
+        eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getStatus()));
+    }
+}
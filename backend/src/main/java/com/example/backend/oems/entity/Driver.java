@@ -5,12 +5,14 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
@@ -29,7 +31,7 @@ import jakarta.persistence.Table;
 public class Driver {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "user_id", nullable = false, unique = true)
@@ -67,6 +69,9 @@ public class Driver {
     @Column(name = "is_available")
     private Boolean isAvailable = false;
 
+    @Column(name = "online_since")
+    private Instant onlineSince; // start of the current online session, null while offline
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -121,6 +126,9 @@ public class Driver {
     public Boolean getIsAvailable() { return isAvailable; }
     public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
 
+    public Instant getOnlineSince() { return onlineSince; }
+    public void setOnlineSince(Instant onlineSince) { this.onlineSince = onlineSince; }
+
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
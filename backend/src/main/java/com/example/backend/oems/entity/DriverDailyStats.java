@@ -0,0 +1,103 @@
+package com.example.backend.oems.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Per-driver, per-day rollup of trips, earnings and online time.
+ * Rows are only ever incremented in place by an upsert in DriverDailyStatsRepository as trips finish
+ * and drivers go offline, so an earnings or performance window reads one row per day instead of
+ * the driver's trip history. Read-only through JPA.
+ */
+@Entity
+@Immutable
+@IdClass(DriverDailyStats.Key.class)
+@Table(name = "driver_daily_stats")
+public class DriverDailyStats {
+
+    @Id
+    @Column(name = "driver_id", nullable = false)
+    private UUID driverId;
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate; // in the configured business time zone
+
+    @Column(name = "trips_completed", nullable = false)
+    private int tripsCompleted;
+
+    @Column(name = "trips_cancelled", nullable = false)
+    private int tripsCancelled;
+
+    @Column(name = "driver_cancellations", nullable = false)
+    private int driverCancellations;
+
+    @Column(name = "gross_earnings", nullable = false, precision = 12, scale = 2)
+    private BigDecimal grossEarnings = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal commission = BigDecimal.ZERO;
+
+    @Column(name = "distance_km", nullable = false, precision = 10, scale = 2)
+    private BigDecimal distanceKm = BigDecimal.ZERO;
+
+    @Column(name = "online_seconds", nullable = false)
+    private long onlineSeconds;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Constructors
+    public DriverDailyStats() {}
+
+    // Getters
+    public UUID getDriverId() { return driverId; }
+    public LocalDate getStatDate() { return statDate; }
+    public int getTripsCompleted() { return tripsCompleted; }
+    public int getTripsCancelled() { return tripsCancelled; }
+    public int getDriverCancellations() { return driverCancellations; }
+    public BigDecimal getGrossEarnings() { return grossEarnings; }
+    public BigDecimal getCommission() { return commission; }
+    public BigDecimal getDistanceKm() { return distanceKm; }
+    public long getOnlineSeconds() { return onlineSeconds; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    /**
+     * Composite primary key (driver_id, stat_date)
+     */
+    public static class Key implements Serializable {
+        private UUID driverId;
+        private LocalDate statDate;
+
+        public Key() {}
+
+        public Key(UUID driverId, LocalDate statDate) {
+            this.driverId = driverId;
+            this.statDate = statDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(driverId, other.driverId) && Objects.equals(statDate, other.statDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(driverId, statDate);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.oems.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Driver location history entry.
+ * Rows are written in batches by the location ingestion pipeline (one coalesced fix per
+ * driver per flush window), never by per-ping JPA saves.
+ */
+@Entity
+@Table(name = "driver_locations", indexes = {
+    @Index(name = "idx_driver_locations_driver_recorded", columnList = "driverId, recordedAt")
+})
+public class DriverLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private UUID driverId;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    private Double heading; // Direction in degrees
+
+    private Double speed; // Speed in km/h
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public UUID getDriverId() { return driverId; }
+    public void setDriverId(UUID driverId) { this.driverId = driverId; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+}
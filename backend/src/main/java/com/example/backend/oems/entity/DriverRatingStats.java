@@ -0,0 +1,78 @@
+package com.example.backend.oems.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running rating aggregate per driver: sum, count and per-star histogram of every customer rating,
+ * plus an exponentially time-decayed sum and weight for the matching engine.
+ * Rows are only ever incremented by the upsert in DriverRatingStatsRepository. Read-only through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "driver_rating_stats")
+public class DriverRatingStats {
+
+    @Id
+    @Column(name = "driver_id", nullable = false)
+    private UUID driverId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "stars_1", nullable = false)
+    private long stars1;
+
+    @Column(name = "stars_2", nullable = false)
+    private long stars2;
+
+    @Column(name = "stars_3", nullable = false)
+    private long stars3;
+
+    @Column(name = "stars_4", nullable = false)
+    private long stars4;
+
+    @Column(name = "stars_5", nullable = false)
+    private long stars5;
+
+    @Column(name = "decayed_sum", nullable = false)
+    private double decayedSum;
+
+    @Column(name = "decayed_weight", nullable = false)
+    private double decayedWeight;
+
+    @Column(name = "decayed_at", nullable = false)
+    private Instant decayedAt; // time the decayed values are expressed at
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Constructors
+    public DriverRatingStats() {}
+
+    // Getters
+    public UUID getDriverId() { return driverId; }
+    public long getRatingSum() { return ratingSum; }
+    public long getRatingCount() { return ratingCount; }
+    public double getDecayedSum() { return decayedSum; }
+    public double getDecayedWeight() { return decayedWeight; }
+    public Instant getDecayedAt() { return decayedAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    /**
+     * Rating counts indexed by stars - 1
+     */
+    public long[] getHistogram() {
+        return new long[] { stars1, stars2, stars3, stars4, stars5 };
+    }
+}
@@ -3,18 +3,23 @@ package com.example.backend.oems.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "logs")
+@Table(name = "logs", indexes = {
+    @Index(name = "idx_logs_timestamp", columnList = "timestamp")
+})
 public class LogEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(nullable = false)
@@ -7,11 +7,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "otp_codes")
+@Table(name = "otp_codes", indexes = {
+    // Postgres adds INCLUDE (code, expires_at) to make it covering; see sql/migrate_otp_codes.sql
+    @Index(name = "idx_otp_codes_phone_id", columnList = "phone, id"),
+    @Index(name = "idx_otp_codes_expires_at", columnList = "expiresAt")
+})
 public class OtpCode {
+    // Identity, not a pooled sequence: ids must follow issue order across instances, since the
+    // latest code of a phone is the one with the highest id
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
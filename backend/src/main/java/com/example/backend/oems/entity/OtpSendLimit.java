@@ -0,0 +1,37 @@
+package com.example.backend.oems.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * OTP send bucket of a phone, shared by every instance: the tokens left and when they were last
+ * refilled, in epoch milliseconds so the refill is plain arithmetic in SQL.
+ * Rows are only ever changed by the statements in OtpSendLimitRepository. Read-only through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "otp_send_limits")
+public class OtpSendLimit {
+
+    @Id
+    @Column(nullable = false)
+    private String phone;
+
+    @Column(nullable = false)
+    private double tokens;
+
+    @Column(name = "refilled_at_ms", nullable = false)
+    private long refilledAtMs;
+
+    // Constructors
+    public OtpSendLimit() {}
+
+    // Getters
+    public String getPhone() { return phone; }
+    public double getTokens() { return tokens; }
+    public long getRefilledAtMs() { return refilledAtMs; }
+}
@@ -4,16 +4,21 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 /**
  * Payment entity for handling payment transactions
@@ -26,12 +31,15 @@ import jakarta.persistence.Table;
     @Index(name = "idx_payments_driver_id", columnList = "driverId"),
     @Index(name = "idx_payments_status", columnList = "status"),
     @Index(name = "idx_payments_transaction_id", columnList = "transactionId", unique = true),
-    @Index(name = "idx_payments_created_at", columnList = "createdAt")
+    @Index(name = "idx_payments_created_at", columnList = "createdAt"),
+    @Index(name = "idx_payments_idempotency_key", columnList = "idempotencyKey", unique = true),
+    @Index(name = "idx_payments_status_updated_at", columnList = "status, updatedAt")
 })
+@EntityListeners(PaymentListener.class)
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "booking_id", nullable = false)
@@ -46,6 +54,9 @@ public class Payment {
     @Column(name = "transaction_id", unique = true, length = 100)
     private String transactionId;
 
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey; // key of the charge attempt submitted to the gateway
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
@@ -105,6 +116,17 @@ public class Payment {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
+    @Version
+    @Column(nullable = false)
+    private Long version; // optimistic lock; a second charge attempt racing the first fails instead of double charging
+
+    // Status and collected amount as last read from or written to the database, for change events
+    @Transient
+    private PaymentStatus persistedStatus;
+
+    @Transient
+    private BigDecimal persistedCollected = BigDecimal.ZERO;
+
     // Constructors
     public Payment() {}
 
@@ -131,6 +153,9 @@ public class Payment {
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
 
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
     public BigDecimal getAmount() { return amount; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
 
@@ -188,7 +213,15 @@ public class Payment {
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+
     // Helper methods
+    public void markAsProcessing(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = PaymentStatus.PROCESSING;
+        this.failureReason = null;
+    }
+
     public void markAsCompleted(String transactionId) {
         this.transactionId = transactionId;
         this.status = PaymentStatus.COMPLETED;
@@ -222,10 +255,36 @@ public class Payment {
         return netAmount.subtract(platformDeduction);
     }
 
+    /**
+     * Money the platform currently holds for this payment: the amount once captured, less any refund
+     */
+    public BigDecimal getCollectedAmount() {
+        return switch (status) {
+            case COMPLETED -> amount;
+            case REFUNDED -> amount.subtract(refundAmount);
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    PaymentStatus getPersistedStatus() { return persistedStatus; }
+    BigDecimal getPersistedCollected() { return persistedCollected; }
+
+    void markPersisted() {
+        this.persistedStatus = status;
+        this.persistedCollected = getCollectedAmount();
+    }
+
     public boolean isCompleted() {
         return status == PaymentStatus.COMPLETED;
     }
 
+    /**
+     * Whether a new charge attempt may be started: never tried, or the last attempt failed
+     */
+    public boolean canBeCharged() {
+        return status == PaymentStatus.PENDING || status == PaymentStatus.FAILED;
+    }
+
     public boolean canBeRefunded() {
         return status == PaymentStatus.COMPLETED && refundAmount.compareTo(amount) < 0;
     }
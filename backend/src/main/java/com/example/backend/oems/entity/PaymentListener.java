@@ -0,0 +1,42 @@
+package com.example.backend.oems.entity;
+
+import java.math.BigDecimal;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.backend.oems.event.PaymentChangedEvent;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that turns payment status and amount changes into {@link PaymentChangedEvent}s.
+ * The state last seen in the database is kept on the entity so each event carries the transition.
+ */
+public class PaymentListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PaymentListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Payment payment) {
+        payment.markPersisted();
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Payment payment) {
+        Payment.PaymentStatus previous = payment.getPersistedStatus();
+        BigDecimal collectedDelta = payment.getCollectedAmount().subtract(payment.getPersistedCollected());
+        if (previous != payment.getStatus() || collectedDelta.signum() != 0) {
+            eventPublisher.publishEvent(new PaymentChangedEvent(payment.getId(), payment.getBookingId(),
+                    payment.getDriverId(), previous, payment.getStatus(), collectedDelta,
+                    payment.getAmount(), payment.getTipAmount()));
+        }
+        payment.markPersisted();
+    }
+}
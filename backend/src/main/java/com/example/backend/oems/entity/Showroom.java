@@ -5,14 +5,20 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
@@ -26,15 +32,19 @@ import jakarta.validation.constraints.Pattern;
  * Each showroom has its own admin and manages a fleet of drivers/vehicles
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "showrooms")
 @Table(name = "showrooms", indexes = {
     @Index(name = "idx_showrooms_code", columnList = "showroomCode", unique = true),
     @Index(name = "idx_showrooms_status", columnList = "status"),
-    @Index(name = "idx_showrooms_city", columnList = "city")
+    @Index(name = "idx_showrooms_city", columnList = "city"),
+    @Index(name = "idx_showrooms_location", columnList = "latitude, longitude")
 })
+@EntityListeners(ShowroomListener.class)
 public class Showroom {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @NotBlank(message = "Showroom code is required")
@@ -3,13 +3,18 @@ package com.example.backend.oems.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -23,6 +28,8 @@ import jakarta.persistence.Table;
  * Represents the admin management structure for showroom operations
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "showroom-admins")
 @Table(name = "showroom_admins", indexes = {
     @Index(name = "idx_showroom_admins_user_id", columnList = "user_id", unique = true),
     @Index(name = "idx_showroom_admins_showroom_id", columnList = "showroom_id"),
@@ -31,7 +38,7 @@ import jakarta.persistence.Table;
 public class ShowroomAdmin {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @OneToOne(fetch = FetchType.LAZY)
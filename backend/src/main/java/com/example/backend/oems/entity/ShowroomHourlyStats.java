@@ -0,0 +1,104 @@
+package com.example.backend.oems.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Per-showroom, per-hour, per-vehicle-type counters of finished trips.
+ * Only buckets that saw a trip have a row, and rows are only ever incremented in place by an upsert
+ * in ShowroomHourlyStatsRepository. This is the durable copy of the in-memory analytics cube kept by
+ * ShowroomAnalyticsService. Read-only through JPA.
+ */
+@Entity
+@Immutable
+@IdClass(ShowroomHourlyStats.Key.class)
+@Table(name = "showroom_hourly_stats", indexes = {
+    @Index(name = "idx_showroom_hourly_stats_bucket_start", columnList = "bucket_start")
+})
+public class ShowroomHourlyStats {
+
+    @Id
+    @Column(name = "showroom_id", nullable = false)
+    private UUID showroomId;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart; // start of the hour in the analytics time zone
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vehicle_type", nullable = false, length = 20)
+    private Vehicle.VehicleType vehicleType;
+
+    @Column(name = "trips_completed", nullable = false)
+    private int tripsCompleted;
+
+    @Column(name = "trips_cancelled", nullable = false)
+    private int tripsCancelled;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "trip_seconds", nullable = false)
+    private long tripSeconds; // time vehicles spent on trips that finished in this hour
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Constructors
+    public ShowroomHourlyStats() {}
+
+    // Getters
+    public UUID getShowroomId() { return showroomId; }
+    public Instant getBucketStart() { return bucketStart; }
+    public Vehicle.VehicleType getVehicleType() { return vehicleType; }
+    public int getTripsCompleted() { return tripsCompleted; }
+    public int getTripsCancelled() { return tripsCancelled; }
+    public BigDecimal getRevenue() { return revenue; }
+    public long getTripSeconds() { return tripSeconds; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    /**
+     * Composite primary key (showroom_id, bucket_start, vehicle_type)
+     */
+    public static class Key implements Serializable {
+        private UUID showroomId;
+        private Instant bucketStart;
+        private Vehicle.VehicleType vehicleType;
+
+        public Key() {}
+
+        public Key(UUID showroomId, Instant bucketStart, Vehicle.VehicleType vehicleType) {
+            this.showroomId = showroomId;
+            this.bucketStart = bucketStart;
+            this.vehicleType = vehicleType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(showroomId, other.showroomId) && Objects.equals(bucketStart, other.bucketStart)
+                    && vehicleType == other.vehicleType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(showroomId, bucketStart, vehicleType);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.oems.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.backend.oems.event.ShowroomChangedEvent;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that turns showroom writes into {@link ShowroomChangedEvent}s
+ */
+public class ShowroomListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ShowroomListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Showroom showroom) {
+        eventPublisher.publishEvent(new ShowroomChangedEvent(showroom.getId(), showroom.getLatitude(),
+                showroom.getLongitude(), showroom.getStatus(), false));
+    }
+
+    @PostRemove
+    public void onRemove(Showroom showroom) {
+        eventPublisher.publishEvent(new ShowroomChangedEvent(showroom.getId(), showroom.getLatitude(),
+                showroom.getLongitude(), showroom.getStatus(), true));
+    }
+}
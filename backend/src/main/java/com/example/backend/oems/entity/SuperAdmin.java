@@ -5,14 +5,19 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -25,6 +30,8 @@ import jakarta.persistence.Table;
  * Has highest level of system access and control
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "super-admins")
 @Table(name = "super_admins", indexes = {
     @Index(name = "idx_super_admins_user_id", columnList = "user_id", unique = true),
     @Index(name = "idx_super_admins_status", columnList = "status")
@@ -32,7 +39,7 @@ import jakarta.persistence.Table;
 public class SuperAdmin {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -50,6 +57,7 @@ public class SuperAdmin {
     private String department; // Technology, Operations, Business, etc.
 
     @ElementCollection(targetClass = SuperAdminPermission.class, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "super-admin-permissions")
     @Enumerated(EnumType.STRING)
     @Column(name = "permission")
     private Set<SuperAdminPermission> permissions = new HashSet<>();
@@ -4,16 +4,22 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+import com.example.backend.oems.util.TransitionTable;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Trip entity for managing ride execution and tracking
@@ -22,16 +28,25 @@ import jakarta.persistence.Table;
 @Entity
 @Table(name = "trips", indexes = {
     @Index(name = "idx_trips_booking_id", columnList = "bookingId", unique = true),
-    @Index(name = "idx_trips_customer_id", columnList = "customerId"),
-    @Index(name = "idx_trips_driver_id", columnList = "driverId"),
+    @Index(name = "idx_trips_customer_started_at", columnList = "customerId, startedAt"),
+    @Index(name = "idx_trips_driver_started_at", columnList = "driverId, startedAt"),
     @Index(name = "idx_trips_status", columnList = "status"),
     @Index(name = "idx_trips_started_at", columnList = "startedAt"),
     @Index(name = "idx_trips_ended_at", columnList = "endedAt")
 })
+@EntityListeners(TripListener.class)
 public class Trip {
 
+    /**
+     * Allowed status transitions; every status change goes through this table
+     */
+    public static final TransitionTable<TripStatus> TRANSITIONS = TransitionTable.builder(TripStatus.class)
+            .allow(TripStatus.STARTED, TripStatus.IN_PROGRESS, TripStatus.CANCELLED)
+            .allow(TripStatus.IN_PROGRESS, TripStatus.COMPLETED, TripStatus.CANCELLED)
+            .build();
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "booking_id", nullable = false, unique = true)
@@ -129,6 +144,10 @@ public class Trip {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
+    @Version
+    @Column(nullable = false)
+    private Long version; // optimistic lock; concurrent status changes fail instead of overwriting
+
     // Constructors
     public Trip() {}
 
@@ -212,7 +231,6 @@ public class Trip {
     public void setActualFare(BigDecimal actualFare) { this.actualFare = actualFare; }
 
     public TripStatus getStatus() { return status; }
-    public void setStatus(TripStatus status) { this.status = status; }
 
     public Instant getStartedAt() { return startedAt; }
     public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
@@ -244,9 +262,11 @@ public class Trip {
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+
     // Helper methods
     public void completePickup(BigDecimal actualLat, BigDecimal actualLng) {
-        this.status = TripStatus.IN_PROGRESS;
+        transitionTo(TripStatus.IN_PROGRESS);
         this.pickupCompletedAt = Instant.now();
         this.actualPickupLatitude = actualLat;
         this.actualPickupLongitude = actualLng;
@@ -254,7 +274,7 @@ public class Trip {
 
     public void completeTrip(BigDecimal actualLat, BigDecimal actualLng, 
                            BigDecimal distance, BigDecimal fare) {
-        this.status = TripStatus.COMPLETED;
+        transitionTo(TripStatus.COMPLETED);
         this.endedAt = Instant.now();
         this.actualDestinationLatitude = actualLat;
         this.actualDestinationLongitude = actualLng;
@@ -267,14 +287,14 @@ public class Trip {
     }
 
     public void cancelTrip(CancelledBy cancelledBy, String reason) {
-        this.status = TripStatus.CANCELLED;
+        transitionTo(TripStatus.CANCELLED);
         this.cancelledAt = Instant.now();
         this.cancelledBy = cancelledBy;
         this.cancellationReason = reason;
     }
 
     public boolean isActive() {
-        return status == TripStatus.STARTED || status == TripStatus.IN_PROGRESS;
+        return !TRANSITIONS.isTerminal(status);
     }
 
     public boolean isCompleted() {
@@ -288,6 +308,13 @@ public class Trip {
         return actualDuration;
     }
 
+    private void transitionTo(TripStatus next) {
+        if (!TRANSITIONS.isAllowed(status, next)) {
+            throw new ConflictException("Trip cannot move from " + status + " to " + next, "INVALID_STATE_TRANSITION");
+        }
+        this.status = next;
+    }
+
     // JPA Callbacks
     @PreUpdate
     protected void onUpdate() {
@@ -0,0 +1,109 @@
+package com.example.backend.oems.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Append-only log of booking and trip status transitions.
+ * One row is written in the same transaction as every status change, so the full history
+ * of a booking and its trip can be replayed in order by booking id.
+ */
+@Entity
+@Immutable
+@Table(name = "trip_events", indexes = {
+    @Index(name = "idx_trip_events_booking_id", columnList = "bookingId, occurredAt, id"),
+    @Index(name = "idx_trip_events_occurred_at", columnList = "occurredAt")
+})
+public class TripEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_events_seq")
+    @SequenceGenerator(name = "trip_events_seq", sequenceName = "trip_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false, updatable = false)
+    private UUID bookingId;
+
+    @Column(name = "trip_id", updatable = false)
+    private UUID tripId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 10)
+    private Subject subject;
+
+    @Column(name = "from_status", updatable = false, length = 30)
+    private String fromStatus; // null for the initial status
+
+    @Column(name = "to_status", nullable = false, updatable = false, length = 30)
+    private String toStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 10)
+    private Actor actor;
+
+    @Column(updatable = false, length = 500)
+    private String reason;
+
+    @Column(name = "subject_version", updatable = false)
+    private Long subjectVersion; // version of the booking or trip row the transition was applied to
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt = Instant.now();
+
+    // Constructors
+    public TripEvent() {}
+
+    public TripEvent(UUID bookingId, UUID tripId, Subject subject, Enum<?> fromStatus, Enum<?> toStatus,
+                     Actor actor, String reason, Long subjectVersion) {
+        this.bookingId = bookingId;
+        this.tripId = tripId;
+        this.subject = subject;
+        this.fromStatus = fromStatus != null ? fromStatus.name() : null;
+        this.toStatus = toStatus.name();
+        this.actor = actor;
+        this.reason = reason;
+        this.subjectVersion = subjectVersion;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public UUID getBookingId() { return bookingId; }
+    public UUID getTripId() { return tripId; }
+    public Subject getSubject() { return subject; }
+    public String getFromStatus() { return fromStatus; }
+    public String getToStatus() { return toStatus; }
+    public Actor getActor() { return actor; }
+    public String getReason() { return reason; }
+    public Long getSubjectVersion() { return subjectVersion; }
+    public Instant getOccurredAt() { return occurredAt; }
+
+    /**
+     * Which status machine the transition belongs to
+     */
+    public enum Subject {
+        BOOKING,
+        TRIP
+    }
+
+    /**
+     * Who caused the transition
+     */
+    public enum Actor {
+        CUSTOMER,
+        DRIVER,
+        SYSTEM
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.oems.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.backend.oems.event.TripChangedEvent;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that turns trip writes into {@link TripChangedEvent}s
+ */
+public class TripListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TripListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreate(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip.getId(), trip.getBookingId(),
+                trip.getDriverId(), trip.getStatus(), true));
+    }
+
+    @PostUpdate
+    public void onUpdate(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip.getId(), trip.getBookingId(),
+                trip.getDriverId(), trip.getStatus(), false));
+    }
+}
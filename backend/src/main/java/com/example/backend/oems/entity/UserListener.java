@@ -0,0 +1,24 @@
+package com.example.backend.oems.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.backend.oems.event.UserCreatedEvent;
+
+import jakarta.persistence.PostPersist;
+
+/**
+ * JPA entity listener that turns user inserts into {@link UserCreatedEvent}s
+ */
+public class UserListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreate(User user) {
+        eventPublisher.publishEvent(new UserCreatedEvent(user.getId()));
+    }
+}
@@ -3,12 +3,17 @@ package com.example.backend.oems.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
+
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
@@ -19,6 +24,8 @@ import jakarta.persistence.Table;
  * Based on the Red Tables section of the ERD and Driver Service specifications
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicles")
 @Table(name = "vehicles", indexes = {
     @Index(name = "idx_vehicles_driver_id", columnList = "driverId"),
     @Index(name = "idx_vehicles_license_plate", columnList = "licensePlate", unique = true),
@@ -28,7 +35,7 @@ import jakarta.persistence.Table;
 public class Vehicle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(name = "driver_id")
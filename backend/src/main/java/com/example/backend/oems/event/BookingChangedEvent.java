@@ -0,0 +1,18 @@
+package com.example.backend.oems.event;
+
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Booking;
+
+/**
+ * Published whenever a booking row is inserted or updated
+ */
+public record BookingChangedEvent(UUID bookingId, Booking.BookingStatus status) {
+
+    /**
+     * Whether the booking has reached a final status
+     */
+    public boolean isFinished() {
+        return Booking.TRANSITIONS.isTerminal(status);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.oems.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that takes a driver offline, covering the whole time they were online
+ */
+public record DriverSessionEndedEvent(UUID driverId, Instant onlineSince, Instant offlineAt) {
+}
@@ -0,0 +1,17 @@
+package com.example.backend.oems.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Payment;
+
+/**
+ * Published whenever a payment row is inserted or its status or collected amount changes.
+ * {@code previousStatus} is null for the insert; {@code collectedDelta} is the change in money
+ * held for the payment (captured amount less refunds). {@code amount} and {@code tipAmount} are the
+ * payment's current totals, the tip being part of the amount.
+ */
+public record PaymentChangedEvent(UUID paymentId, UUID bookingId, UUID driverId,
+                                  Payment.PaymentStatus previousStatus, Payment.PaymentStatus status,
+                                  BigDecimal collectedDelta, BigDecimal amount, BigDecimal tipAmount) {
+}
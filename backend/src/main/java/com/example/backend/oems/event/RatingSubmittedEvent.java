@@ -0,0 +1,10 @@
+package com.example.backend.oems.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that records a customer's rating of a driver
+ */
+public record RatingSubmittedEvent(UUID tripId, UUID driverId, int stars, Instant ratedAt) {
+}
@@ -0,0 +1,20 @@
+package com.example.backend.oems.event;
+
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Showroom;
+
+/**
+ * Published whenever a showroom row is inserted, updated or deleted.
+ * Carries the location fields so listeners can update in-memory state without reloading the row.
+ */
+public record ShowroomChangedEvent(UUID showroomId, Double latitude, Double longitude,
+                                   Showroom.ShowroomStatus status, boolean removed) {
+
+    /**
+     * Whether the showroom should currently be served by location queries
+     */
+    public boolean isLocatable() {
+        return !removed && status == Showroom.ShowroomStatus.ACTIVE && latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend.oems.event;
+
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Trip;
+
+/**
+ * Published whenever a trip row is inserted or updated.
+ * Carries the status and assigned driver so subscribers can be notified without reloading the row;
+ * {@code created} is true for the insert.
+ */
+public record TripChangedEvent(UUID tripId, UUID bookingId, UUID driverId, Trip.TripStatus status, boolean created) {
+
+    /**
+     * Whether the trip has reached a final status
+     */
+    public boolean isFinished() {
+        return status == Trip.TripStatus.COMPLETED || status == Trip.TripStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.oems.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.entity.Vehicle;
+
+/**
+ * Published inside the transaction that completes or cancels a trip.
+ * Carries the settled fare and distance, the requested vehicle type and the pickup point so
+ * rollups can be updated without reloading the trip or its booking.
+ */
+public record TripFinishedEvent(UUID tripId, UUID bookingId, UUID driverId, Trip.TripStatus status, BigDecimal fare,
+                                BigDecimal distanceKm, Trip.CancelledBy cancelledBy,
+                                Vehicle.VehicleType vehicleType, Double pickupLatitude, Double pickupLongitude,
+                                Instant startedAt, Instant finishedAt) {
+
+    public boolean isCompleted() {
+        return status == Trip.TripStatus.COMPLETED;
+    }
+}
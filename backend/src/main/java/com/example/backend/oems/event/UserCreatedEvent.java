@@ -0,0 +1,9 @@
+package com.example.backend.oems.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a user row is inserted
+ */
+public record UserCreatedEvent(UUID userId) {
+}
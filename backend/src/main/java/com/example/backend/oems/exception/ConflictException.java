@@ -0,0 +1,20 @@
+package com.example.backend.oems.exception;
+
+/**
+ * Exception thrown when a request conflicts with the current state of a resource,
+ * such as an invalid status transition or a concurrent update that won the race
+ */
+public class ConflictException extends OemsException {
+    
+    public ConflictException(String message) {
+        super(message, "CONFLICT");
+    }
+    
+    public ConflictException(String message, String errorCode) {
+        super(message, errorCode);
+    }
+    
+    public ConflictException(String message, String errorCode, Throwable cause) {
+        super(message, errorCode, cause);
+    }
+}
@@ -71,6 +71,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
     
+    /**
+     * Handle conflicts with the current state of a resource
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<Object>> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        
+        logger.warn("Conflict: {}", ex.getMessage());
+        
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), ex.getErrorCode());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+    
     /**
      * Handle generic OEMS exceptions
      */
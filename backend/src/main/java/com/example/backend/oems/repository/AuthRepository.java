@@ -1,5 +1,6 @@
 package com.example.backend.oems.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,14 +24,19 @@ public interface AuthRepository extends JpaRepository<Auth, UUID> {
     Optional<Auth> findByUserId(UUID userId);
     
     /**
-     * Find auth record by access token
+     * Find all auth records of a user (normally at most one)
      */
-    Optional<Auth> findByAccessToken(String accessToken);
+    List<Auth> findAllByUserId(UUID userId);
     
     /**
-     * Find auth record by refresh token
+     * Find auth record by access token digest
      */
-    Optional<Auth> findByRefreshToken(String refreshToken);
+    Optional<Auth> findByAccessTokenHash(byte[] accessTokenHash);
+    
+    /**
+     * Find auth record by refresh token digest
+     */
+    Optional<Auth> findByRefreshTokenHash(byte[] refreshTokenHash);
     
     /**
      * Delete all auth records for a user (logout)
@@ -47,14 +53,14 @@ public interface AuthRepository extends JpaRepository<Auth, UUID> {
     void deleteExpiredTokens();
     
     /**
-     * Check if access token exists and is not expired
+     * Check if an access token digest exists and is not expired
      */
-    @Query("SELECT COUNT(a) > 0 FROM Auth a WHERE a.accessToken = :accessToken AND a.tokenExpiry > CURRENT_TIMESTAMP")
-    boolean isAccessTokenValid(@Param("accessToken") String accessToken);
+    @Query("SELECT COUNT(a) > 0 FROM Auth a WHERE a.accessTokenHash = :accessTokenHash AND a.tokenExpiry > CURRENT_TIMESTAMP")
+    boolean isAccessTokenValid(@Param("accessTokenHash") byte[] accessTokenHash);
     
     /**
-     * Check if refresh token exists and is not expired
+     * Check if a refresh token digest exists and is not expired
      */
-    @Query("SELECT COUNT(a) > 0 FROM Auth a WHERE a.refreshToken = :refreshToken AND a.tokenExpiry > CURRENT_TIMESTAMP")
-    boolean isRefreshTokenValid(@Param("refreshToken") String refreshToken);
+    @Query("SELECT COUNT(a) > 0 FROM Auth a WHERE a.refreshTokenHash = :refreshTokenHash AND a.tokenExpiry > CURRENT_TIMESTAMP")
+    boolean isRefreshTokenValid(@Param("refreshTokenHash") byte[] refreshTokenHash);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.backend.oems.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.Booking;
+
+/**
+ * Repository interface for Booking entity operations
+ */
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, UUID> {
+
+    /**
+     * Bookings in a status created before the cutoff, oldest first
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.createdAt < :before ORDER BY b.createdAt")
+    List<UUID> findIdsByStatusCreatedBefore(@Param("status") Booking.BookingStatus status,
+                                            @Param("before") Instant before, Pageable pageable);
+}
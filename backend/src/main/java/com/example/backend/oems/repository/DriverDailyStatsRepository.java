@@ -0,0 +1,61 @@
+package com.example.backend.oems.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.DriverDailyStats;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for the driver daily stats rollup
+ */
+@Repository
+public interface DriverDailyStatsRepository extends JpaRepository<DriverDailyStats, DriverDailyStats.Key> {
+
+    /**
+     * Add the given deltas to a driver's row for the day, creating it on first use.
+     * A single atomic statement, so concurrent trip completions for the same driver never lose an update.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "driver_daily_stats"))
+    @Query(value = """
+        INSERT INTO driver_daily_stats (driver_id, stat_date, trips_completed, trips_cancelled,
+            driver_cancellations, gross_earnings, commission, distance_km, online_seconds, updated_at)
+        VALUES (:driverId, :statDate, :tripsCompleted, :tripsCancelled,
+            :driverCancellations, :grossEarnings, :commission, :distanceKm, :onlineSeconds, CURRENT_TIMESTAMP)
+        ON CONFLICT (driver_id, stat_date) DO UPDATE SET
+            trips_completed = driver_daily_stats.trips_completed + EXCLUDED.trips_completed,
+            trips_cancelled = driver_daily_stats.trips_cancelled + EXCLUDED.trips_cancelled,
+            driver_cancellations = driver_daily_stats.driver_cancellations + EXCLUDED.driver_cancellations,
+            gross_earnings = driver_daily_stats.gross_earnings + EXCLUDED.gross_earnings,
+            commission = driver_daily_stats.commission + EXCLUDED.commission,
+            distance_km = driver_daily_stats.distance_km + EXCLUDED.distance_km,
+            online_seconds = driver_daily_stats.online_seconds + EXCLUDED.online_seconds,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    void increment(@Param("driverId") UUID driverId,
+                   @Param("statDate") LocalDate statDate,
+                   @Param("tripsCompleted") int tripsCompleted,
+                   @Param("tripsCancelled") int tripsCancelled,
+                   @Param("driverCancellations") int driverCancellations,
+                   @Param("grossEarnings") BigDecimal grossEarnings,
+                   @Param("commission") BigDecimal commission,
+                   @Param("distanceKm") BigDecimal distanceKm,
+                   @Param("onlineSeconds") long onlineSeconds);
+
+    /**
+     * A driver's rows from the given day onwards, oldest first (served by the primary key)
+     */
+    List<DriverDailyStats> findByDriverIdAndStatDateGreaterThanEqualOrderByStatDateAsc(UUID driverId, LocalDate from);
+}
@@ -0,0 +1,75 @@
+package com.example.backend.oems.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.DriverRatingStats;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for the per-driver rating aggregate
+ */
+@Repository
+public interface DriverRatingStatsRepository extends JpaRepository<DriverRatingStats, UUID> {
+
+    /**
+     * Add a batch of ratings to a driver's aggregate, creating it on first use.
+     * The stored decayed values are first decayed from their timestamp to now (decay rate in 1/seconds),
+     * then the new ratings are added at full weight.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "driver_rating_stats"))
+    @Query(value = """
+        INSERT INTO driver_rating_stats (driver_id, rating_sum, rating_count, stars_1, stars_2, stars_3,
+            stars_4, stars_5, decayed_sum, decayed_weight, decayed_at, updated_at)
+        VALUES (:driverId, :ratingSum, :ratingCount, :stars1, :stars2, :stars3,
+            :stars4, :stars5, :ratingSum, :ratingCount, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+        ON CONFLICT (driver_id) DO UPDATE SET
+            rating_sum = driver_rating_stats.rating_sum + EXCLUDED.rating_sum,
+            rating_count = driver_rating_stats.rating_count + EXCLUDED.rating_count,
+            stars_1 = driver_rating_stats.stars_1 + EXCLUDED.stars_1,
+            stars_2 = driver_rating_stats.stars_2 + EXCLUDED.stars_2,
+            stars_3 = driver_rating_stats.stars_3 + EXCLUDED.stars_3,
+            stars_4 = driver_rating_stats.stars_4 + EXCLUDED.stars_4,
+            stars_5 = driver_rating_stats.stars_5 + EXCLUDED.stars_5,
+            decayed_sum = driver_rating_stats.decayed_sum * EXP(-:decayRate * GREATEST(0,
+                EXTRACT(EPOCH FROM EXCLUDED.decayed_at - driver_rating_stats.decayed_at))) + EXCLUDED.decayed_sum,
+            decayed_weight = driver_rating_stats.decayed_weight * EXP(-:decayRate * GREATEST(0,
+                EXTRACT(EPOCH FROM EXCLUDED.decayed_at - driver_rating_stats.decayed_at))) + EXCLUDED.decayed_weight,
+            decayed_at = GREATEST(driver_rating_stats.decayed_at, EXCLUDED.decayed_at),
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    void increment(@Param("driverId") UUID driverId,
+                   @Param("ratingSum") long ratingSum,
+                   @Param("ratingCount") long ratingCount,
+                   @Param("stars1") long stars1,
+                   @Param("stars2") long stars2,
+                   @Param("stars3") long stars3,
+                   @Param("stars4") long stars4,
+                   @Param("stars5") long stars5,
+                   @Param("decayRate") double decayRate);
+
+    /**
+     * Copy the lifetime average and count of the given drivers onto their driver rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "drivers"))
+    @Query(value = """
+        UPDATE drivers d SET
+            average_rating = ROUND(s.rating_sum::numeric / s.rating_count, 2),
+            total_ratings = s.rating_count,
+            updated_at = CURRENT_TIMESTAMP
+        FROM driver_rating_stats s
+        WHERE s.driver_id = d.id AND s.rating_count > 0 AND d.id IN (:driverIds)
+        """, nativeQuery = true)
+    int syncDriverAverages(@Param("driverIds") List<UUID> driverIds);
+}
@@ -0,0 +1,27 @@
+package com.example.backend.oems.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.Driver;
+
+/**
+ * Repository interface for Driver entity operations
+ */
+@Repository
+public interface DriverRepository extends JpaRepository<Driver, UUID> {
+
+    /**
+     * Find driver profile by the owning user ID
+     */
+    Optional<Driver> findByUserId(UUID userId);
+
+    /**
+     * Find drivers by current availability status
+     */
+    List<Driver> findByCurrentStatus(Driver.DriverStatus currentStatus);
+}
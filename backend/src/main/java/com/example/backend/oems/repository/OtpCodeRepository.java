@@ -3,12 +3,41 @@ package com.example.backend.oems.repository;
 import java.time.Instant;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.backend.oems.entity.OtpCode;
 
+import jakarta.persistence.QueryHint;
+
 public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
     Optional<OtpCode> findTopByPhoneAndExpiresAtAfterOrderByIdDesc(String phone, Instant now);
-}
 
+    /**
+     * Delete a code and every older code of the phone
+     *
+     * @return number of codes deleted; 0 if another request consumed them first
+     */
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.phone = :phone AND o.id <= :id")
+    int deleteByPhoneUpTo(@Param("phone") String phone, @Param("id") Long id);
 
+    /**
+     * Delete up to {@code limit} codes that expired before the given time
+     *
+     * @return number of codes deleted
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "otp_codes"))
+    @Transactional
+    @Query(value = """
+        DELETE FROM otp_codes WHERE id IN (
+            SELECT id FROM otp_codes WHERE expires_at < :before LIMIT :limit)
+        """, nativeQuery = true)
+    int deleteExpiredBefore(@Param("before") Instant before, @Param("limit") int limit);
+}
@@ -0,0 +1,70 @@
+package com.example.backend.oems.repository;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.entity.OtpSendLimit;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for the shared per-phone OTP send buckets
+ */
+@Repository
+public interface OtpSendLimitRepository extends JpaRepository<OtpSendLimit, String> {
+
+    /**
+     * Refill the phone's bucket up to now and take one token, in a single statement so concurrent
+     * sends from any instance serialize on the row
+     *
+     * @param tokensPerMs refill rate
+     * @return 1 if a token was taken, 0 if the bucket is empty or does not exist yet
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "otp_send_limits"))
+    @Query(value = """
+        UPDATE otp_send_limits SET
+            tokens = LEAST(:capacity, tokens + GREATEST(0, :now - refilled_at_ms) * :tokensPerMs) - 1,
+            refilled_at_ms = GREATEST(refilled_at_ms, :now)
+        WHERE phone = :phone
+        AND LEAST(:capacity, tokens + GREATEST(0, :now - refilled_at_ms) * :tokensPerMs) >= 1
+        """, nativeQuery = true)
+    int take(@Param("phone") String phone,
+             @Param("now") long nowMs,
+             @Param("capacity") double capacity,
+             @Param("tokensPerMs") double tokensPerMs);
+
+    /**
+     * Create the bucket of a phone's first send
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if another send created it first
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "otp_send_limits"))
+    @Query(value = "INSERT INTO otp_send_limits (phone, tokens, refilled_at_ms) VALUES (:phone, :tokens, :now)",
+           nativeQuery = true)
+    void create(@Param("phone") String phone, @Param("tokens") double tokens, @Param("now") long nowMs);
+
+    /**
+     * Delete up to {@code limit} buckets last refilled before the given time; a whole window later
+     * they are full again, so forgetting them changes nothing
+     *
+     * @return number of buckets deleted
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "otp_send_limits"))
+    @Query(value = """
+        DELETE FROM otp_send_limits WHERE phone IN (
+            SELECT phone FROM otp_send_limits WHERE refilled_at_ms < :before LIMIT :limit)
+        """, nativeQuery = true)
+    int deleteRefilledBefore(@Param("before") long beforeMs, @Param("limit") int limit);
+}
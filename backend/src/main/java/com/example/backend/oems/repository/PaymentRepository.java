@@ -0,0 +1,38 @@
+package com.example.backend.oems.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.Payment;
+
+/**
+ * Repository interface for Payment entity operations
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+
+    /**
+     * Find payments recorded for a booking
+     */
+    List<Payment> findByBookingId(UUID bookingId);
+
+    /**
+     * Find the payment a charge attempt was submitted under
+     */
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Payments left in a status since before the cutoff, oldest first
+     */
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.updatedAt < :before ORDER BY p.updatedAt")
+    List<UUID> findIdsByStatusUpdatedBefore(@Param("status") Payment.PaymentStatus status,
+                                            @Param("before") Instant before, Pageable pageable);
+}
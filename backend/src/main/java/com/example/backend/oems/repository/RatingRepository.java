@@ -0,0 +1,21 @@
+package com.example.backend.oems.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.Rating;
+
+/**
+ * Repository for trip ratings
+ */
+@Repository
+public interface RatingRepository extends JpaRepository<Rating, UUID> {
+
+    /**
+     * Find the rating of a trip (at most one per trip)
+     */
+    Optional<Rating> findByTripId(UUID tripId);
+}
@@ -4,8 +4,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +15,8 @@ import com.example.backend.oems.entity.Showroom;
 import com.example.backend.oems.entity.ShowroomAdmin;
 import com.example.backend.oems.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface for ShowroomAdmin entity operations
  */
@@ -29,6 +33,12 @@ public interface ShowroomAdminRepository extends JpaRepository<ShowroomAdmin, UU
      */
     Optional<ShowroomAdmin> findByUserId(UUID userId);
 
+    /**
+     * Showroom managed by an active admin user
+     */
+    @Query("SELECT sa.showroom.id FROM ShowroomAdmin sa WHERE sa.user.id = :userId AND sa.status = 'ACTIVE'")
+    Optional<UUID> findActiveShowroomIdByUserId(@Param("userId") UUID userId);
+
     /**
      * Find all admins for a specific showroom
      */
@@ -48,6 +58,10 @@ public interface ShowroomAdminRepository extends JpaRepository<ShowroomAdmin, UU
      * Find all active admins for a showroom
      */
     @Query("SELECT sa FROM ShowroomAdmin sa WHERE sa.showroom.id = :showroomId AND sa.status = 'ACTIVE'")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "showroom-queries")
+    })
     List<ShowroomAdmin> findActiveAdminsByShowroomId(@Param("showroomId") UUID showroomId);
 
     /**
@@ -0,0 +1,49 @@
+package com.example.backend.oems.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.ShowroomHourlyStats;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for the showroom hourly analytics buckets
+ */
+@Repository
+public interface ShowroomHourlyStatsRepository extends JpaRepository<ShowroomHourlyStats, ShowroomHourlyStats.Key> {
+
+    /**
+     * Add the given deltas to a showroom's bucket for the hour, creating it on first use
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "showroom_hourly_stats"))
+    @Query(value = """
+        INSERT INTO showroom_hourly_stats (showroom_id, bucket_start, vehicle_type, trips_completed,
+            trips_cancelled, revenue, trip_seconds, updated_at)
+        VALUES (:showroomId, :bucketStart, :vehicleType, :tripsCompleted, :tripsCancelled,
+            :revenue, :tripSeconds, CURRENT_TIMESTAMP)
+        ON CONFLICT (showroom_id, bucket_start, vehicle_type) DO UPDATE SET
+            trips_completed = showroom_hourly_stats.trips_completed + EXCLUDED.trips_completed,
+            trips_cancelled = showroom_hourly_stats.trips_cancelled + EXCLUDED.trips_cancelled,
+            revenue = showroom_hourly_stats.revenue + EXCLUDED.revenue,
+            trip_seconds = showroom_hourly_stats.trip_seconds + EXCLUDED.trip_seconds,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    void increment(@Param("showroomId") UUID showroomId,
+                   @Param("bucketStart") Instant bucketStart,
+                   @Param("vehicleType") String vehicleType,
+                   @Param("tripsCompleted") int tripsCompleted,
+                   @Param("tripsCancelled") int tripsCancelled,
+                   @Param("revenue") BigDecimal revenue,
+                   @Param("tripSeconds") long tripSeconds);
+}
@@ -1,15 +1,21 @@
 package com.example.backend.oems.repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.oems.entity.Showroom;
+import com.example.backend.oems.util.GeoUtils;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for Showroom entity operations
@@ -41,26 +47,47 @@ public interface ShowroomRepository extends JpaRepository<Showroom, UUID> {
      * Find all active showrooms
      */
     @Query("SELECT s FROM Showroom s WHERE s.status = 'ACTIVE'")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "showroom-queries")
+    })
     List<Showroom> findAllActiveShowrooms();
 
     /**
-     * Find showrooms within a geographic radius (for location-based queries)
-     * Using Haversine formula for distance calculation
+     * Find active showrooms inside a latitude/longitude bounding box.
+     * Served by the composite (latitude, longitude) index instead of a per-row distance computation.
      */
-    @Query(value = """
-        SELECT * FROM showrooms s 
-        WHERE s.latitude IS NOT NULL AND s.longitude IS NOT NULL
-        AND s.status = 'ACTIVE'
-        AND (6371 * acos(cos(radians(:lat)) * cos(radians(s.latitude)) * 
-             cos(radians(s.longitude) - radians(:lng)) + sin(radians(:lat)) * 
-             sin(radians(s.latitude)))) <= :radiusKm
-        ORDER BY (6371 * acos(cos(radians(:lat)) * cos(radians(s.latitude)) * 
-                 cos(radians(s.longitude) - radians(:lng)) + sin(radians(:lat)) * 
-                 sin(radians(s.latitude))))
-        """, nativeQuery = true)
-    List<Showroom> findShowroomsWithinRadius(@Param("lat") double latitude, 
-                                           @Param("lng") double longitude, 
-                                           @Param("radiusKm") double radiusKm);
+    @Query("""
+        SELECT s FROM Showroom s
+        WHERE s.status = 'ACTIVE'
+        AND s.latitude BETWEEN :minLat AND :maxLat
+        AND s.longitude BETWEEN :minLng AND :maxLng
+        """)
+    List<Showroom> findActiveShowroomsInBoundingBox(@Param("minLat") double minLatitude,
+                                                    @Param("maxLat") double maxLatitude,
+                                                    @Param("minLng") double minLongitude,
+                                                    @Param("maxLng") double maxLongitude);
+
+    /**
+     * Find showrooms within a geographic radius (for location-based queries), nearest first.
+     * The bounding box of the circle is resolved by the index; only the few rows inside it
+     * get an exact haversine check.
+     */
+    default List<Showroom> findShowroomsWithinRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = GeoUtils.latDeltaForKm(radiusKm);
+        double widestLat = Math.min(90.0, Math.abs(latitude) + latDelta);
+        double lngDelta = GeoUtils.lngDeltaForKm(radiusKm, widestLat);
+
+        List<Showroom> candidates = findActiveShowroomsInBoundingBox(
+                latitude - latDelta, latitude + latDelta, longitude - lngDelta, longitude + lngDelta);
+
+        return candidates.stream()
+                .map(s -> Map.entry(s, GeoUtils.haversineKm(latitude, longitude, s.getLatitude(), s.getLongitude())))
+                .filter(e -> e.getValue() <= radiusKm)
+                .sorted(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
 
     /**
      * Count total showrooms by status
@@ -0,0 +1,23 @@
+package com.example.backend.oems.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.TripEvent;
+
+/**
+ * Repository interface for the append-only trip transition log
+ */
+@Repository
+public interface TripEventRepository extends JpaRepository<TripEvent, Long> {
+
+    /**
+     * Transitions of a booking and its trip in the order they were applied.
+     * Ids come from pooled sequence blocks, so they only order events written by the same instance;
+     * the transition time orders them and the id breaks ties.
+     */
+    List<TripEvent> findByBookingIdOrderByOccurredAtAscIdAsc(UUID bookingId);
+}
@@ -1,16 +1,91 @@
 package com.example.backend.oems.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.backend.oems.dto.TripDetail;
+import com.example.backend.oems.dto.TripStatusView;
+import com.example.backend.oems.dto.TripSummary;
 import com.example.backend.oems.entity.Trip;
 
 public interface TripRepository extends JpaRepository<Trip, UUID> {
-    List<Trip> findByCustomerIdOrderByStartedAtDesc(UUID customerId);
-    List<Trip> findByDriverIdOrderByStartedAtDesc(UUID driverId);
     List<Trip> findByBookingId(UUID bookingId);
-}
 
+    @Query("""
+        SELECT new com.example.backend.oems.dto.TripStatusView(t.id, t.status,
+               COALESCE(t.estimatedFare, t.actualFare), t.startedAt, t.endedAt)
+        FROM Trip t
+        WHERE t.id = :id
+        """)
+    Optional<TripStatusView> findStatusViewById(@Param("id") UUID id);
+
+    @Query("""
+        SELECT new com.example.backend.oems.dto.TripDetail(t.id, t.bookingId, t.customerId, t.driverId, t.status,
+               t.pickupAddress, t.pickupLatitude, t.pickupLongitude,
+               t.destinationAddress, t.destinationLatitude, t.destinationLongitude,
+               t.estimatedDistance, t.actualDistance, t.estimatedDuration, t.actualDuration,
+               t.estimatedFare, t.actualFare,
+               t.startedAt, t.pickupCompletedAt, t.endedAt, t.cancelledAt, t.cancelledBy, t.cancellationReason)
+        FROM Trip t
+        WHERE t.id = :id
+        """)
+    Optional<TripDetail> findDetailById(@Param("id") UUID id);
 
+    /**
+     * A customer's trips started in [from, to), newest first, strictly after the
+     * (beforeStartedAt, beforeId) seek position. Served by idx_trips_customer_started_at.
+     */
+    @Query("""
+        SELECT new com.example.backend.oems.dto.TripSummary(t.id, t.bookingId, t.status,
+               SUBSTRING(t.pickupAddress, 1, 80), SUBSTRING(t.destinationAddress, 1, 80),
+               COALESCE(t.actualFare, t.estimatedFare), COALESCE(t.actualDistance, t.estimatedDistance),
+               t.startedAt, t.endedAt)
+        FROM Trip t
+        WHERE t.customerId = :customerId
+        AND t.status IN :statuses
+        AND t.startedAt >= :from AND t.startedAt < :to
+        AND t.startedAt <= :beforeStartedAt
+        AND (t.startedAt < :beforeStartedAt OR t.id < :beforeId)
+        ORDER BY t.startedAt DESC, t.id DESC
+        """)
+    List<TripSummary> findCustomerTripsBefore(@Param("customerId") UUID customerId,
+                                              @Param("statuses") Collection<Trip.TripStatus> statuses,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to,
+                                              @Param("beforeStartedAt") Instant beforeStartedAt,
+                                              @Param("beforeId") UUID beforeId,
+                                              Pageable pageable);
+
+    /**
+     * A driver's trips started in [from, to), newest first, strictly after the
+     * (beforeStartedAt, beforeId) seek position. Served by idx_trips_driver_started_at.
+     */
+    @Query("""
+        SELECT new com.example.backend.oems.dto.TripSummary(t.id, t.bookingId, t.status,
+               SUBSTRING(t.pickupAddress, 1, 80), SUBSTRING(t.destinationAddress, 1, 80),
+               COALESCE(t.actualFare, t.estimatedFare), COALESCE(t.actualDistance, t.estimatedDistance),
+               t.startedAt, t.endedAt)
+        FROM Trip t
+        WHERE t.driverId = :driverId
+        AND t.status IN :statuses
+        AND t.startedAt >= :from AND t.startedAt < :to
+        AND t.startedAt <= :beforeStartedAt
+        AND (t.startedAt < :beforeStartedAt OR t.id < :beforeId)
+        ORDER BY t.startedAt DESC, t.id DESC
+        """)
+    List<TripSummary> findDriverTripsBefore(@Param("driverId") UUID driverId,
+                                            @Param("statuses") Collection<Trip.TripStatus> statuses,
+                                            @Param("from") Instant from,
+                                            @Param("to") Instant to,
+                                            @Param("beforeStartedAt") Instant beforeStartedAt,
+                                            @Param("beforeId") UUID beforeId,
+                                            Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package com.example.backend.oems.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.oems.entity.Vehicle;
+
+/**
+ * Repository interface for Vehicle entity operations
+ */
+@Repository
+public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
+
+    /**
+     * Find all vehicles assigned to a driver
+     */
+    List<Vehicle> findByDriverId(UUID driverId);
+}
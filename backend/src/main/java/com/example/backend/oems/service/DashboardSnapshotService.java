@@ -0,0 +1,240 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.backend.oems.entity.Showroom;
+import com.example.backend.oems.event.PaymentChangedEvent;
+import com.example.backend.oems.event.RatingSubmittedEvent;
+import com.example.backend.oems.event.ShowroomChangedEvent;
+import com.example.backend.oems.event.TripChangedEvent;
+import com.example.backend.oems.event.TripFinishedEvent;
+import com.example.backend.oems.event.UserCreatedEvent;
+import com.example.backend.oems.repository.ShowroomRepository;
+
+/**
+ * Materialized platform counters for the super admin dashboard.
+ *
+ * Counts of users, trips, collected revenue and ratings live in memory, seeded by a single
+ * aggregate query once the application is ready and then moved by committed domain events, so
+ * serving the dashboard reads a handful of atomics instead of counting million-row tables.
+ * A periodic reconciliation re-runs the aggregate query and corrects any drift (events lost to a
+ * crash, rows written by other instances or by hand) without dropping events that commit while
+ * it runs; see {@link #reconcile()} for the small window it can overcount. Showrooms are few
+ * enough to be tracked by id.
+ */
+@Component
+public class DashboardSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardSnapshotService.class);
+
+    private static final String SNAPSHOT_SQL = """
+        SELECT
+            (SELECT COUNT(*) FROM users) AS users,
+            (SELECT COUNT(*) FROM trips WHERE status IN ('STARTED', 'IN_PROGRESS')) AS active_trips,
+            (SELECT COUNT(*) FROM trips WHERE status = 'COMPLETED') AS completed_trips,
+            (SELECT COUNT(*) FROM trips WHERE status = 'CANCELLED') AS cancelled_trips,
+            (SELECT COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN amount
+                                      WHEN status = 'REFUNDED' THEN amount - COALESCE(refund_amount, 0)
+                                      ELSE 0 END), 0) FROM payments) AS collected,
+            (SELECT COALESCE(SUM(customer_rating), 0) FROM ratings WHERE customer_rating IS NOT NULL) AS rating_sum,
+            (SELECT COUNT(customer_rating) FROM ratings) AS rating_count
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShowroomRepository showroomRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DispatchService dispatchService;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong activeTrips = new AtomicLong();
+    private final AtomicLong completedTrips = new AtomicLong();
+    private final AtomicLong cancelledTrips = new AtomicLong();
+    private final AtomicLong collectedPaise = new AtomicLong(); // revenue in minor units
+    private final AtomicLong ratingSum = new AtomicLong();
+    private final AtomicLong ratingCount = new AtomicLong();
+    private final AtomicLong[] counters = { users, activeTrips, completedTrips, cancelledTrips,
+            collectedPaise, ratingSum, ratingCount };
+
+    // showroomId -> status
+    private final ConcurrentHashMap<UUID, Showroom.ShowroomStatus> showrooms = new ConcurrentHashMap<>();
+
+    private volatile Instant reconciledAt;
+
+    public DashboardSnapshotService(JdbcTemplate jdbcTemplate, ShowroomRepository showroomRepository,
+                                    DriverLocationIndex driverLocationIndex, DispatchService dispatchService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.showroomRepository = showroomRepository;
+        this.driverLocationIndex = driverLocationIndex;
+        this.dispatchService = dispatchService;
+    }
+
+    // =====================
+    // DOMAIN EVENTS
+    // =====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        users.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        if (event.created()) {
+            activeTrips.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripFinished(TripFinishedEvent event) {
+        activeTrips.decrementAndGet();
+        (event.isCompleted() ? completedTrips : cancelledTrips).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        collectedPaise.addAndGet(toPaise(event.collectedDelta()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingSubmitted(RatingSubmittedEvent event) {
+        ratingSum.addAndGet(event.stars());
+        ratingCount.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowroomChanged(ShowroomChangedEvent event) {
+        if (event.removed()) {
+            showrooms.remove(event.showroomId());
+        } else {
+            showrooms.put(event.showroomId(), event.status());
+        }
+    }
+
+    // =====================
+    // RECONCILIATION
+    // =====================
+
+    /**
+     * Reset the counters from the database.
+     * Each counter becomes the queried value plus whatever events moved it since it was read, so
+     * events committing while the query runs are never lost. The counters are read on an open
+     * connection right before the statement is sent; an event that commits between that read and
+     * the moment the database takes the statement's snapshot is both in the result and in the
+     * delta, so it is counted twice. The overcount is bounded by the events of that window and
+     * does not accumulate: the next run recomputes every counter from the database again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:600000}",
+               initialDelayString = "${app.dashboard.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        try {
+            long[] before = new long[counters.length];
+            // Connection first, so only sending the statement separates reading the counters from its snapshot
+            Map<String, Object> row = jdbcTemplate.execute((ConnectionCallback<Map<String, Object>>) connection -> {
+                for (int i = 0; i < counters.length; i++) {
+                    before[i] = counters[i].get();
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(SNAPSHOT_SQL)) {
+                    rs.next();
+                    return new ColumnMapRowMapper().mapRow(rs, 0);
+                }
+            });
+            long[] actual = {
+                number(row, "users"),
+                number(row, "active_trips"),
+                number(row, "completed_trips"),
+                number(row, "cancelled_trips"),
+                toPaise(row.get("collected") instanceof BigDecimal b ? b : BigDecimal.valueOf(number(row, "collected"))),
+                number(row, "rating_sum"),
+                number(row, "rating_count")
+            };
+            for (int i = 0; i < counters.length; i++) {
+                counters[i].addAndGet(actual[i] - before[i]);
+            }
+
+            Map<UUID, Showroom.ShowroomStatus> loaded = new ConcurrentHashMap<>();
+            showroomRepository.findAll().forEach(s -> loaded.put(s.getId(), s.getStatus()));
+            showrooms.keySet().retainAll(loaded.keySet());
+            showrooms.putAll(loaded);
+            reconciledAt = Instant.now();
+        } catch (Exception e) {
+            // Keep serving the event-maintained values until the next attempt
+            logger.warn("Failed to reconcile dashboard counters: {}", e.getMessage());
+        }
+    }
+
+    // =====================
+    // SNAPSHOT
+    // =====================
+
+    /**
+     * Current platform counters; reads only in-memory state
+     */
+    public Snapshot snapshot() {
+        long activeShowrooms = showrooms.values().stream()
+                .filter(status -> status == Showroom.ShowroomStatus.ACTIVE)
+                .count();
+        long count = ratingCount.get();
+        Double averageRating = count == 0 ? null : Math.round(100.0 * ratingSum.get() / count) / 100.0;
+        return new Snapshot(users.get(), showrooms.size(), activeShowrooms,
+                Math.max(0, activeTrips.get()), completedTrips.get(), cancelledTrips.get(),
+                BigDecimal.valueOf(collectedPaise.get(), 2), averageRating, count,
+                driverLocationIndex.size(), dispatchService.getActiveSearchCount(), reconciledAt);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static long number(Map<String, Object> row, String column) {
+        // The row map is case-insensitive, whatever case the database reports labels in
+        return row.get(column) instanceof Number n ? n.longValue() : 0;
+    }
+
+    /**
+     * Platform counters at a point in time
+     *
+     * @param reconciledAt last time the counters were checked against the database, null until the first run
+     */
+    public record Snapshot(long totalUsers, long totalShowrooms, long activeShowrooms, long activeTrips,
+                           long completedTrips, long cancelledTrips, BigDecimal totalRevenue,
+                           Double averageRating, long totalRatings, int onlineDrivers, int searchingBookings,
+                           Instant reconciledAt) {
+
+        public long totalTrips() {
+            return activeTrips + completedTrips + cancelledTrips;
+        }
+
+        /**
+         * Percentage of finished trips that completed
+         */
+        public double completionRate() {
+            long finished = completedTrips + cancelledTrips;
+            return finished == 0 ? 0.0 : Math.round(10000.0 * completedTrips / finished) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.backend.oems.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.OtpCode;
+import com.example.backend.oems.entity.OtpSendLimit;
+import com.example.backend.oems.repository.OtpCodeRepository;
+import com.example.backend.oems.repository.OtpSendLimitRepository;
+
+/**
+ * OTP store in the otp_codes table, shared by every instance behind the load balancer.
+ *
+ * The latest code of a phone is found through the (phone, id) index, which also carries the code
+ * and expiry so the lookup never touches the table. Verified codes are deleted together with the
+ * older codes of the phone, and a scheduled purge deletes expired codes in small batches so the
+ * table stays about as large as the number of codes currently live.
+ *
+ * Send limits live in the otp_send_limits table, one token bucket row per phone that is refilled
+ * and drawn from by a single UPDATE, so a phone gets {@code sendLimit} codes per window however many
+ * instances its requests are spread over. Buckets idle for a whole window are purged with the codes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.otp.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseOtpStore implements OtpStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseOtpStore.class);
+
+    private final OtpCodeRepository otpRepository;
+    private final OtpSendLimitRepository sendLimitRepository;
+    private final int purgeBatchSize;
+    private final int sendLimit;
+    private final long sendWindowMs;
+    private final double tokensPerMs;
+
+    public DatabaseOtpStore(OtpCodeRepository otpRepository, OtpSendLimitRepository sendLimitRepository,
+                            AppProperties appProperties) {
+        AppProperties.Security.Otp config = appProperties.getSecurity().getOtp();
+        this.otpRepository = otpRepository;
+        this.sendLimitRepository = sendLimitRepository;
+        this.purgeBatchSize = Math.max(1, config.getPurgeBatchSize());
+        this.sendLimit = Math.max(1, config.getSendLimit());
+        this.sendWindowMs = Math.max(1, config.getSendWindowMs());
+        this.tokensPerMs = (double) sendLimit / sendWindowMs;
+    }
+
+    /**
+     * Each statement commits on its own, so a lost race to create the bucket leaves nothing to roll back
+     */
+    @Override
+    public long acquireSendPermit(String phone) {
+        long now = System.currentTimeMillis();
+        if (sendLimitRepository.take(phone, now, sendLimit, tokensPerMs) > 0) {
+            return 0;
+        }
+        Optional<OtpSendLimit> bucket = sendLimitRepository.findById(phone);
+        if (bucket.isPresent()) {
+            double available = Math.min(sendLimit,
+                    bucket.get().getTokens() + Math.max(0, now - bucket.get().getRefilledAtMs()) * tokensPerMs);
+            return Math.max(1, (long) Math.ceil((1 - available) / tokensPerMs));
+        }
+        try {
+            sendLimitRepository.create(phone, sendLimit - 1, now);
+            return 0;
+        } catch (DataIntegrityViolationException e) {
+            // Another send of the same phone created the bucket first; draw from it instead
+            return sendLimitRepository.take(phone, now, sendLimit, tokensPerMs) > 0 ? 0 : 1;
+        }
+    }
+
+    @Override
+    public void save(String phone, String code, Instant expiresAt) {
+        OtpCode otp = new OtpCode();
+        otp.setPhone(phone);
+        otp.setCode(code);
+        otp.setExpiresAt(expiresAt);
+        otpRepository.save(otp);
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String phone, String code) {
+        if (code == null || code.isBlank()) {
+            return false;
+        }
+        Optional<OtpCode> latest = otpRepository.findTopByPhoneAndExpiresAtAfterOrderByIdDesc(phone, Instant.now());
+        if (latest.isEmpty() || !MessageDigest.isEqual(latest.get().getCode().getBytes(StandardCharsets.UTF_8),
+                code.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        // Only one of two concurrent verifications of the same code deletes it
+        return otpRepository.deleteByPhoneUpTo(phone, latest.get().getId()) > 0;
+    }
+
+    /**
+     * Delete expired codes and idle send buckets, one short transaction per batch
+     */
+    @Scheduled(fixedDelayString = "${app.security.otp.purge-interval-ms:600000}",
+               initialDelayString = "${app.security.otp.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        long purged = 0;
+        try {
+            int deleted;
+            do {
+                deleted = otpRepository.deleteExpiredBefore(now, purgeBatchSize);
+                purged += deleted;
+            } while (deleted == purgeBatchSize);
+            long idleBefore = now.toEpochMilli() - sendWindowMs;
+            do {
+                deleted = sendLimitRepository.deleteRefilledBefore(idleBefore, purgeBatchSize);
+            } while (deleted == purgeBatchSize);
+        } catch (Exception e) {
+            logger.warn("Failed to purge expired OTP codes: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            logger.debug("Purged {} expired OTP codes", purged);
+        }
+    }
+}
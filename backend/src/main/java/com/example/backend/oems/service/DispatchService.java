@@ -0,0 +1,598 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.util.HashedTimingWheel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Offers pending bookings to nearby drivers and assigns the first driver who accepts.
+ *
+ * Candidates come from the {@link DriverLocationIndex} nearest first, are re-ranked by distance
+ * plus a penalty for a low time-decayed rating from the {@link RatingAggregator}, and are offered in waves
+ * ({@code waveSize} 1 offers one driver at a time). An offered driver is reserved in the index so
+ * no other booking can offer to them until they answer. When every offer of a wave is rejected or
+ * expires, the next wave goes out; if nobody is nearby the search is retried until the search
+ * timeout, after which the booking is closed as NO_DRIVER_AVAILABLE.
+ *
+ * Offer expiries, retries and search deadlines are all entries on one {@link HashedTimingWheel},
+ * so tens of thousands of outstanding offers cost a node each rather than a scheduled future.
+ * Dispatch state is in memory; the booking row stays the source of truth, and its version column
+ * settles races between a driver accepting and the customer cancelling. A search lost with its
+ * instance leaves the booking PENDING, so on startup and periodically afterwards any booking still
+ * pending past the search timeout is closed as NO_DRIVER_AVAILABLE.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchService.class);
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final TripService tripService;
+    private final DriverLocationIndex driverLocationIndex;
+    private final RatingAggregator ratingAggregator;
+    private final double searchRadiusKm;
+    private final double ratingPenaltyKm;
+    private final long offerTimeoutMs;
+    private final int waveSize;
+    private final int maxOffers;
+    private final long searchTimeoutMs;
+    private final long retryIntervalMs;
+
+    private final ConcurrentHashMap<UUID, DispatchJob> jobsByBooking = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Offer> offersByDriver = new ConcurrentHashMap<>();
+
+    private final ExecutorService timeoutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HashedTimingWheel timingWheel;
+
+    private final Counter offersSent;
+    private final Counter offersAccepted;
+    private final Counter offersRejected;
+    private final Counter offersExpired;
+    private final Counter searchesFailed;
+
+    public DispatchService(TripService tripService, DriverLocationIndex driverLocationIndex,
+                           RatingAggregator ratingAggregator, AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Dispatch config = appProperties.getDispatch();
+        this.tripService = tripService;
+        this.driverLocationIndex = driverLocationIndex;
+        this.ratingAggregator = ratingAggregator;
+        this.searchRadiusKm = appProperties.getMatching().getSearchRadiusKm();
+        this.ratingPenaltyKm = appProperties.getMatching().getRatingPenaltyKm();
+        this.offerTimeoutMs = config.getOfferTimeoutMs();
+        this.waveSize = Math.max(1, config.getWaveSize());
+        this.maxOffers = Math.max(waveSize, config.getMaxOffers());
+        this.searchTimeoutMs = config.getSearchTimeoutMs();
+        this.retryIntervalMs = config.getRetryIntervalMs();
+        this.timingWheel = new HashedTimingWheel(config.getTickMs(), TimeUnit.MILLISECONDS, config.getWheelSize(),
+                timeoutExecutor, "dispatch-timing-wheel");
+
+        this.offersSent = meterRegistry.counter("oems.dispatch.offers", "outcome", "sent");
+        this.offersAccepted = meterRegistry.counter("oems.dispatch.offers", "outcome", "accepted");
+        this.offersRejected = meterRegistry.counter("oems.dispatch.offers", "outcome", "rejected");
+        this.offersExpired = meterRegistry.counter("oems.dispatch.offers", "outcome", "expired");
+        this.searchesFailed = meterRegistry.counter("oems.dispatch.searches.failed");
+        meterRegistry.gauge("oems.dispatch.searches.active", jobsByBooking, Map::size);
+        meterRegistry.gauge("oems.dispatch.offers.outstanding", offersByDriver, Map::size);
+        meterRegistry.gauge("oems.dispatch.timeouts.pending", timingWheel, HashedTimingWheel::pendingTimeouts);
+    }
+
+    /**
+     * Start looking for a driver for a PENDING booking
+     *
+     * @param quote         fare quoted at booking time, or null if none could be computed
+     * @param paymentMethod payment method for the pending payment opened on assignment
+     */
+    public void dispatch(Booking booking, Vehicle.VehicleType vehicleType, FareEngine.FareQuote quote,
+                         Payment.PaymentMethod paymentMethod) {
+        DispatchJob job = new DispatchJob(booking, vehicleType, quote, paymentMethod);
+        job.deadline = timingWheel.schedule(() -> giveUp(job), searchTimeoutMs, TimeUnit.MILLISECONDS);
+        jobsByBooking.put(job.bookingId, job);
+        searchNext(job);
+    }
+
+    /**
+     * Outstanding offer for a driver, if any
+     */
+    public Optional<OfferView> findOffer(UUID driverId) {
+        Offer offer = offersByDriver.get(driverId);
+        if (offer == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new OfferView(offer.job.booking, offer.distanceKm, offer.expiresAt));
+    }
+
+    /**
+     * Driver accepts the offer for a booking; opens the trip if the booking is still pending
+     *
+     * @throws ConflictException if the offer expired, was withdrawn, or the booking changed meanwhile
+     */
+    public Trip accept(UUID bookingId, UUID driverId) {
+        Offer offer = claimOffer(bookingId, driverId);
+        DispatchJob job = offer.job;
+        List<Offer> withdrawn;
+        job.lock.lock();
+        try {
+            if (job.state != JobState.SEARCHING || !job.outstanding.remove(driverId, offer)) {
+                throw offerNotAvailable();
+            }
+            offer.timeout.cancel();
+            offersByDriver.remove(driverId, offer);
+            job.state = JobState.ASSIGNING;
+            withdrawn = takeOutstanding(job);
+        } finally {
+            job.lock.unlock();
+        }
+        withdraw(withdrawn);
+
+        Trip trip;
+        try {
+            trip = tripService.assignDriver(bookingId, newTrip(job, offer), pendingPayment(job, offer));
+        } catch (RuntimeException e) {
+            driverLocationIndex.cancelReservation(driverId);
+            // The customer may have cancelled meanwhile; otherwise keep searching
+            boolean stillPending = tripService.findBookingById(bookingId)
+                    .map(b -> b.getStatus() == Booking.BookingStatus.PENDING)
+                    .orElse(false);
+            job.lock.lock();
+            try {
+                if (stillPending && job.state == JobState.ASSIGNING) {
+                    job.state = JobState.SEARCHING;
+                } else {
+                    finish(job);
+                }
+            } finally {
+                job.lock.unlock();
+            }
+            if (stillPending) {
+                // The search deadline is ignored while assigning, so honour it now if it passed
+                if (job.deadline.isExpired()) {
+                    giveUp(job);
+                } else {
+                    searchNext(job);
+                }
+            }
+            throw e;
+        }
+
+        job.lock.lock();
+        try {
+            finish(job);
+        } finally {
+            job.lock.unlock();
+        }
+        driverLocationIndex.markOnTrip(driverId);
+        offersAccepted.increment();
+        return trip;
+    }
+
+    /**
+     * Driver turns the offer down; the booking moves on to the next candidate
+     */
+    public void reject(UUID bookingId, UUID driverId, String reason) {
+        Offer offer = claimOffer(bookingId, driverId);
+        if (!decline(offer)) {
+            throw offerNotAvailable();
+        }
+        offersRejected.increment();
+        logger.debug("Driver {} rejected booking {}: {}", driverId, bookingId, reason);
+    }
+
+    /**
+     * Withdraw any offer held by a driver who went offline
+     */
+    public void onDriverUnavailable(UUID driverId) {
+        Offer offer = offersByDriver.get(driverId);
+        if (offer != null && decline(offer)) {
+            offersRejected.increment();
+        }
+    }
+
+    /**
+     * Stop searching for a booking the customer cancelled, releasing every offered driver
+     *
+     * @return false if a driver is being assigned at this moment
+     */
+    public boolean abort(UUID bookingId) {
+        DispatchJob job = jobsByBooking.get(bookingId);
+        if (job == null) {
+            return true;
+        }
+        List<Offer> withdrawn;
+        job.lock.lock();
+        try {
+            if (job.state == JobState.ASSIGNING) {
+                return false;
+            }
+            withdrawn = takeOutstanding(job);
+            finish(job);
+        } finally {
+            job.lock.unlock();
+        }
+        withdraw(withdrawn);
+        return true;
+    }
+
+    /**
+     * Close bookings left PENDING by a search that no longer runs, e.g. one lost in a restart.
+     *
+     * Only bookings older than the search timeout (plus one offer timeout, since a driver may still
+     * accept the last offer) are closed: a younger booking may be searched for by another instance,
+     * and a later sweep catches it if not. The booking's version column settles a race with an
+     * assignment that commits meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.dispatch.sweep-interval-ms:60000}",
+               initialDelayString = "${app.dispatch.sweep-interval-ms:60000}")
+    public void sweepLostSearches() {
+        List<UUID> stale;
+        try {
+            stale = tripService.findPendingBookingIds(
+                    Instant.now().minusMillis(searchTimeoutMs + offerTimeoutMs), SWEEP_BATCH_SIZE);
+        } catch (Exception e) {
+            logger.warn("Failed to look up bookings with a lost driver search: {}", e.getMessage());
+            return;
+        }
+        int closed = 0;
+        for (UUID bookingId : stale) {
+            if (jobsByBooking.containsKey(bookingId)) {
+                // Still searched for here; its own deadline closes it
+                continue;
+            }
+            try {
+                tripService.markNoDriverAvailable(bookingId);
+                searchesFailed.increment();
+                closed++;
+            } catch (ConflictException e) {
+                logger.debug("Booking {} changed before its lost search was closed: {}", bookingId, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to close booking {} with a lost driver search", bookingId, e);
+            }
+        }
+        if (closed > 0) {
+            logger.info("Closed {} bookings whose driver search was lost", closed);
+        }
+    }
+
+    public int getActiveSearchCount() {
+        return jobsByBooking.size();
+    }
+
+    public int getOutstandingOfferCount() {
+        return offersByDriver.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timingWheel.close();
+        timeoutExecutor.shutdown();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * Send the next wave of offers; when nobody can be offered, retry later or give up
+     */
+    private void searchNext(DispatchJob job) {
+        boolean exhausted = false;
+        job.lock.lock();
+        try {
+            if (job.state != JobState.SEARCHING || !job.outstanding.isEmpty()) {
+                return;
+            }
+            offerWave(job);
+            if (job.outstanding.isEmpty()) {
+                if (job.offered.size() >= maxOffers) {
+                    exhausted = true;
+                } else if (job.retry == null) {
+                    job.retry = timingWheel.schedule(() -> retry(job), retryIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            job.lock.unlock();
+        }
+        if (exhausted) {
+            giveUp(job);
+        }
+    }
+
+    private void offerWave(DispatchJob job) {
+        int remaining = Math.min(waveSize, maxOffers - job.offered.size());
+        // Fetch enough candidates to skip drivers already tried or reserved by other bookings
+        List<DriverLocationIndex.Match> candidates = driverLocationIndex.findNearest(job.pickupLatitude,
+                job.pickupLongitude, job.vehicleType, job.offered.size() + remaining * 2, searchRadiusKm);
+        if (ratingPenaltyKm > 0 && candidates.size() > 1) {
+            candidates = rank(candidates);
+        }
+        for (DriverLocationIndex.Match candidate : candidates) {
+            if (remaining == 0) {
+                break;
+            }
+            if (job.offered.contains(candidate.driverId()) || !driverLocationIndex.reserve(candidate.driverId())) {
+                continue;
+            }
+            Offer offer = new Offer(job, candidate.driverId(), candidate.vehicleId(), candidate.distanceKm(),
+                    System.currentTimeMillis() + offerTimeoutMs);
+            job.offered.add(offer.driverId);
+            job.outstanding.put(offer.driverId, offer);
+            offersByDriver.put(offer.driverId, offer);
+            offer.timeout = timingWheel.schedule(() -> expire(offer), offerTimeoutMs, TimeUnit.MILLISECONDS);
+            offersSent.increment();
+            remaining--;
+        }
+    }
+
+    /**
+     * Order candidates by ranking distance; each key is computed once, not on every comparison,
+     * as the decayed rating behind it costs an exp()
+     */
+    private List<DriverLocationIndex.Match> rank(List<DriverLocationIndex.Match> candidates) {
+        List<RankedMatch> ranked = new ArrayList<>(candidates.size());
+        for (DriverLocationIndex.Match candidate : candidates) {
+            ranked.add(new RankedMatch(candidate, rankingDistanceKm(candidate)));
+        }
+        ranked.sort(Comparator.comparingDouble(RankedMatch::rankingDistanceKm));
+        List<DriverLocationIndex.Match> ordered = new ArrayList<>(ranked.size());
+        for (RankedMatch match : ranked) {
+            ordered.add(match.candidate());
+        }
+        return ordered;
+    }
+
+    /**
+     * Distance a candidate is ranked by: a 4-star driver competes as if ratingPenaltyKm further away
+     */
+    private double rankingDistanceKm(DriverLocationIndex.Match candidate) {
+        double rating = ratingAggregator.decayedAverage(candidate.driverId());
+        return candidate.distanceKm() + ratingPenaltyKm * Math.max(0.0, 5.0 - rating);
+    }
+
+    private void retry(DispatchJob job) {
+        job.lock.lock();
+        try {
+            job.retry = null;
+        } finally {
+            job.lock.unlock();
+        }
+        searchNext(job);
+    }
+
+    private void expire(Offer offer) {
+        if (decline(offer)) {
+            offersExpired.increment();
+        }
+    }
+
+    /**
+     * Take an offer back after a rejection or timeout and move on once the wave is exhausted
+     *
+     * @return false if the offer had already been answered or withdrawn
+     */
+    private boolean decline(Offer offer) {
+        DispatchJob job = offer.job;
+        job.lock.lock();
+        try {
+            if (!job.outstanding.remove(offer.driverId, offer)) {
+                return false;
+            }
+            offer.timeout.cancel();
+            offersByDriver.remove(offer.driverId, offer);
+        } finally {
+            job.lock.unlock();
+        }
+        driverLocationIndex.cancelReservation(offer.driverId);
+        searchNext(job);
+        return true;
+    }
+
+    /**
+     * Search timed out or ran out of candidates; close the booking as NO_DRIVER_AVAILABLE
+     */
+    private void giveUp(DispatchJob job) {
+        List<Offer> withdrawn;
+        job.lock.lock();
+        try {
+            if (job.state != JobState.SEARCHING) {
+                return;
+            }
+            withdrawn = takeOutstanding(job);
+            finish(job);
+        } finally {
+            job.lock.unlock();
+        }
+        withdraw(withdrawn);
+        try {
+            tripService.markNoDriverAvailable(job.bookingId);
+            searchesFailed.increment();
+        } catch (ConflictException e) {
+            // Cancelled by the customer in the meantime
+            logger.debug("Booking {} changed before its search timed out: {}", job.bookingId, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to close unmatched booking {}", job.bookingId, e);
+        }
+    }
+
+    private Offer claimOffer(UUID bookingId, UUID driverId) {
+        Offer offer = offersByDriver.get(driverId);
+        if (offer == null || !offer.job.bookingId.equals(bookingId)) {
+            throw offerNotAvailable();
+        }
+        return offer;
+    }
+
+    private static ConflictException offerNotAvailable() {
+        return new ConflictException("This ride offer has expired or is no longer available", "OFFER_NOT_AVAILABLE");
+    }
+
+    /**
+     * Remove every outstanding offer of a job; called with the job lock held
+     */
+    private List<Offer> takeOutstanding(DispatchJob job) {
+        List<Offer> offers = new ArrayList<>(job.outstanding.values());
+        job.outstanding.clear();
+        for (Offer offer : offers) {
+            offer.timeout.cancel();
+            offersByDriver.remove(offer.driverId, offer);
+        }
+        return offers;
+    }
+
+    private void withdraw(List<Offer> offers) {
+        for (Offer offer : offers) {
+            driverLocationIndex.cancelReservation(offer.driverId);
+        }
+    }
+
+    /**
+     * Mark a job done and drop its timers; called with the job lock held
+     */
+    private void finish(DispatchJob job) {
+        job.state = JobState.DONE;
+        job.deadline.cancel();
+        if (job.retry != null) {
+            job.retry.cancel();
+            job.retry = null;
+        }
+        jobsByBooking.remove(job.bookingId, job);
+    }
+
+    /**
+     * The trip opens in STARTED (driver assigned and en route) as the booking moves to DRIVER_ASSIGNED
+     */
+    private Trip newTrip(DispatchJob job, Offer offer) {
+        Booking booking = job.booking;
+        Trip trip = new Trip();
+        trip.setBookingId(booking.getId());
+        trip.setCustomerId(booking.getCustomerId());
+        trip.setDriverId(offer.driverId);
+        trip.setVehicleId(offer.vehicleId);
+        trip.setPickupAddress(booking.getPickupAddress());
+        trip.setPickupLatitude(booking.getPickupLatitude());
+        trip.setPickupLongitude(booking.getPickupLongitude());
+        trip.setDestinationAddress(booking.getDestinationAddress());
+        trip.setDestinationLatitude(booking.getDestinationLatitude());
+        trip.setDestinationLongitude(booking.getDestinationLongitude());
+        trip.setEstimatedFare(booking.getEstimatedFare());
+        trip.setEstimatedDistance(booking.getEstimatedDistance());
+        trip.setEstimatedDuration(booking.getEstimatedDuration());
+        trip.setStartedAt(Instant.now());
+        return trip;
+    }
+
+    /**
+     * Pending payment carrying the fare breakdown quoted at booking time
+     */
+    private Payment pendingPayment(DispatchJob job, Offer offer) {
+        FareEngine.FareQuote quote = job.quote;
+        if (quote == null) {
+            return null;
+        }
+        Payment payment = new Payment(job.bookingId, job.booking.getCustomerId(),
+                BigDecimal.valueOf(quote.total()), job.paymentMethod);
+        payment.setDriverId(offer.driverId);
+        payment.setBaseFare(BigDecimal.valueOf(quote.baseFare()));
+        payment.setDistanceFare(BigDecimal.valueOf(quote.distanceFare()));
+        payment.setTimeFare(BigDecimal.valueOf(quote.timeFare()));
+        payment.setSurgeMultiplier(BigDecimal.valueOf(quote.surgeMultiplier()));
+        payment.setPlatformFee(BigDecimal.valueOf(quote.platformFee()));
+        payment.setTaxAmount(BigDecimal.valueOf(quote.taxAmount()));
+        return payment;
+    }
+
+    private enum JobState {
+        SEARCHING,
+        ASSIGNING,
+        DONE
+    }
+
+    /**
+     * Search for one booking; mutable fields are guarded by the lock
+     */
+    private static final class DispatchJob {
+        private final UUID bookingId;
+        private final Booking booking;
+        private final double pickupLatitude;
+        private final double pickupLongitude;
+        private final Vehicle.VehicleType vehicleType;
+        private final FareEngine.FareQuote quote;
+        private final Payment.PaymentMethod paymentMethod;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Set<UUID> offered = new HashSet<>();
+        private final Map<UUID, Offer> outstanding = new HashMap<>();
+        private JobState state = JobState.SEARCHING;
+        private HashedTimingWheel.Timeout retry;
+        private HashedTimingWheel.Timeout deadline;
+
+        private DispatchJob(Booking booking, Vehicle.VehicleType vehicleType, FareEngine.FareQuote quote,
+                            Payment.PaymentMethod paymentMethod) {
+            this.bookingId = booking.getId();
+            this.booking = booking;
+            this.pickupLatitude = booking.getPickupLatitude().doubleValue();
+            this.pickupLongitude = booking.getPickupLongitude().doubleValue();
+            this.vehicleType = vehicleType;
+            this.quote = quote;
+            this.paymentMethod = paymentMethod;
+        }
+    }
+
+    private static final class Offer {
+        private final DispatchJob job;
+        private final UUID driverId;
+        private final UUID vehicleId;
+        private final double distanceKm;
+        private final long expiresAt;
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        private Offer(DispatchJob job, UUID driverId, UUID vehicleId, double distanceKm, long expiresAt) {
+            this.job = job;
+            this.driverId = driverId;
+            this.vehicleId = vehicleId;
+            this.distanceKm = distanceKm;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record RankedMatch(DriverLocationIndex.Match candidate, double rankingDistanceKm) {
+    }
+
+    /**
+     * Offer as shown to the driver
+     */
+    public record OfferView(Booking booking, double distanceKm, long expiresAt) {
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.backend.oems.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.util.GeoUtils;
+
+/**
+ * In-process geospatial index of online drivers used for ride matching.
+ *
+ * Drivers are bucketed into fixed-size latitude/longitude grid cells. Each cell is an
+ * independent concurrent set, so location pings for drivers in different cells never
+ * contend with each other, and a k-nearest lookup only visits the rings of cells around
+ * the pickup point instead of every online driver.
+ */
+@Component
+public class DriverLocationIndex {
+
+    private final double cellSizeDegrees;
+    private final long staleAfterMs;
+
+    // driverId -> latest position (source of truth for availability and coordinates)
+    private final ConcurrentHashMap<UUID, DriverPosition> positions = new ConcurrentHashMap<>();
+
+    // cell key -> drivers currently inside that cell
+    private final ConcurrentHashMap<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+    public DriverLocationIndex(AppProperties appProperties) {
+        this.cellSizeDegrees = appProperties.getMatching().getCellSizeDegrees();
+        this.staleAfterMs = appProperties.getMatching().getStaleAfterMs();
+    }
+
+    /**
+     * Register a driver as online at the given position, keeping any existing reservation state
+     */
+    public void goOnline(UUID driverId, UUID vehicleId, Vehicle.VehicleType vehicleType,
+                         double latitude, double longitude) {
+        long now = System.currentTimeMillis();
+        positions.compute(driverId, (id, old) -> {
+            DriverState state = old != null ? old.state() : DriverState.AVAILABLE;
+            DriverPosition next = new DriverPosition(id, vehicleId, vehicleType, latitude, longitude,
+                    0.0, 0.0, now, cellKey(latitude, longitude), state);
+            moveCell(id, old, next);
+            return next;
+        });
+    }
+
+    /**
+     * Update the position of an online driver
+     *
+     * @return false if the driver is not currently online in the index
+     */
+    public boolean updatePosition(UUID driverId, double latitude, double longitude,
+                                  double heading, double speed, long timestamp) {
+        DriverPosition updated = positions.computeIfPresent(driverId, (id, old) -> {
+            if (timestamp < old.timestamp()) {
+                return old; // out-of-order ping, keep the newer fix
+            }
+            DriverPosition next = new DriverPosition(id, old.vehicleId(), old.vehicleType(), latitude, longitude,
+                    heading, speed, timestamp, cellKey(latitude, longitude), old.state());
+            moveCell(id, old, next);
+            return next;
+        });
+        return updated != null;
+    }
+
+    /**
+     * Remove a driver from the index (driver went offline)
+     */
+    public void remove(UUID driverId) {
+        positions.computeIfPresent(driverId, (id, old) -> {
+            leaveCell(old.cellKey(), id);
+            return null;
+        });
+    }
+
+    public Optional<DriverPosition> getPosition(UUID driverId) {
+        return Optional.ofNullable(positions.get(driverId));
+    }
+
+    /**
+     * Find the k nearest available drivers of the given vehicle type within the radius, closest first
+     */
+    public List<Match> findNearest(double latitude, double longitude, Vehicle.VehicleType vehicleType,
+                                   int k, double radiusKm) {
+        return findNearest(latitude, longitude, vehicleType, k, radiusKm, id -> true);
+    }
+
+    /**
+     * Find the k nearest available drivers of the given vehicle type within the radius that pass the filter
+     */
+    public List<Match> findNearest(double latitude, double longitude, Vehicle.VehicleType vehicleType,
+                                   int k, double radiusKm, Predicate<UUID> filter) {
+        if (k <= 0 || positions.isEmpty()) {
+            return List.of();
+        }
+
+        long staleBefore = System.currentTimeMillis() - staleAfterMs;
+        int centerLat = GeoUtils.latIndex(latitude, cellSizeDegrees);
+        int centerLng = GeoUtils.lngIndex(longitude, cellSizeDegrees);
+
+        // The narrowest side of a cell bounds how far away any driver in ring r can be
+        double cellKm = Math.max(0.001, cellSizeDegrees
+                * Math.min(GeoUtils.KM_PER_DEGREE_LAT, GeoUtils.kmPerDegreeLng(latitude)));
+        int maxRing = (int) Math.ceil(radiusKm / cellKm) + 1;
+
+        // Max-heap on distance holding the best k candidates seen so far
+        PriorityQueue<Match> best = new PriorityQueue<>(k, Comparator.comparingDouble(Match::distanceKm).reversed());
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == k && (ring - 1) * cellKm > best.peek().distanceKm()) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean edgeRow = Math.abs(dLat) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int dLng = -ring; dLng <= ring; dLng += Math.max(1, step)) {
+                    Set<UUID> cell = cells.get(GeoUtils.cellKey(centerLat + dLat, centerLng + dLng));
+                    if (cell != null) {
+                        scanCell(cell, latitude, longitude, vehicleType, k, radiusKm, staleBefore, filter, best);
+                    }
+                }
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::distanceKm));
+        return result;
+    }
+
+    /**
+     * Find the nearest available driver and atomically reserve it so that concurrent
+     * bookings cannot be matched to the same driver
+     */
+    public Optional<Match> reserveNearest(double latitude, double longitude, Vehicle.VehicleType vehicleType,
+                                          double radiusKm) {
+        // A few candidates are fetched so a lost reservation race falls through to the next driver
+        for (Match candidate : findNearest(latitude, longitude, vehicleType, 5, radiusKm)) {
+            if (reserve(candidate.driverId())) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Move an available driver into the reserved state
+     *
+     * @return true if this call made the reservation
+     */
+    public boolean reserve(UUID driverId) {
+        return transition(driverId, DriverState.AVAILABLE, DriverState.RESERVED);
+    }
+
+    /**
+     * Return a reserved driver to the available pool, leaving drivers that have since
+     * moved on to a trip untouched
+     */
+    public boolean cancelReservation(UUID driverId) {
+        return transition(driverId, DriverState.RESERVED, DriverState.AVAILABLE);
+    }
+
+    /**
+     * Return a reserved or on-trip driver to the available pool
+     */
+    public void release(UUID driverId) {
+        positions.computeIfPresent(driverId, (id, old) -> old.withState(DriverState.AVAILABLE));
+    }
+
+    /**
+     * Mark a driver as busy with an active trip
+     */
+    public void markOnTrip(UUID driverId) {
+        positions.computeIfPresent(driverId, (id, old) -> old.withState(DriverState.ON_TRIP));
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    /**
+     * Visit every available driver with a recent location ping
+     */
+    public void forEachAvailable(Consumer<DriverPosition> action) {
+        long staleBefore = System.currentTimeMillis() - staleAfterMs;
+        for (DriverPosition p : positions.values()) {
+            if (p.state() == DriverState.AVAILABLE && p.timestamp() >= staleBefore) {
+                action.accept(p);
+            }
+        }
+    }
+
+    /**
+     * Drop available drivers that have stopped sending location pings
+     */
+    @Scheduled(fixedDelayString = "${app.matching.sweep-interval-ms:15000}")
+    public void evictStaleDrivers() {
+        long staleBefore = System.currentTimeMillis() - staleAfterMs;
+        positions.forEach((id, position) -> {
+            if (position.state() == DriverState.AVAILABLE && position.timestamp() < staleBefore) {
+                positions.computeIfPresent(id, (key, current) -> {
+                    if (current.state() == DriverState.AVAILABLE && current.timestamp() < staleBefore) {
+                        leaveCell(current.cellKey(), key);
+                        return null;
+                    }
+                    return current;
+                });
+            }
+        });
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private void scanCell(Set<UUID> cell, double latitude, double longitude, Vehicle.VehicleType vehicleType,
+                          int k, double radiusKm, long staleBefore, Predicate<UUID> filter, PriorityQueue<Match> best) {
+        for (UUID driverId : cell) {
+            DriverPosition p = positions.get(driverId);
+            if (p == null || p.state() != DriverState.AVAILABLE || p.timestamp() < staleBefore
+                    || (vehicleType != null && p.vehicleType() != vehicleType) || !filter.test(driverId)) {
+                continue;
+            }
+            double distance = GeoUtils.haversineKm(latitude, longitude, p.latitude(), p.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Match(driverId, p.vehicleId(), p.vehicleType(), p.latitude(), p.longitude(), distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Match(driverId, p.vehicleId(), p.vehicleType(), p.latitude(), p.longitude(), distance));
+            }
+        }
+    }
+
+    private boolean transition(UUID driverId, DriverState from, DriverState to) {
+        boolean[] changed = new boolean[1];
+        positions.computeIfPresent(driverId, (id, old) -> {
+            if (old.state() != from) {
+                return old;
+            }
+            changed[0] = true;
+            return old.withState(to);
+        });
+        return changed[0];
+    }
+
+    private void moveCell(UUID driverId, DriverPosition old, DriverPosition next) {
+        if (old != null && old.cellKey() == next.cellKey()) {
+            return;
+        }
+        cells.compute(next.cellKey(), (key, set) -> {
+            Set<UUID> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(driverId);
+            return target;
+        });
+        if (old != null) {
+            leaveCell(old.cellKey(), driverId);
+        }
+    }
+
+    private void leaveCell(long cellKey, UUID driverId) {
+        cells.computeIfPresent(cellKey, (key, set) -> {
+            set.remove(driverId);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return GeoUtils.cellKey(latitude, longitude, cellSizeDegrees);
+    }
+
+    /**
+     * Matching state of an online driver
+     */
+    public enum DriverState {
+        AVAILABLE,
+        RESERVED,
+        ON_TRIP
+    }
+
+    /**
+     * Latest known position of an online driver
+     */
+    public record DriverPosition(UUID driverId, UUID vehicleId, Vehicle.VehicleType vehicleType,
+                                 double latitude, double longitude, double heading, double speed,
+                                 long timestamp, long cellKey, DriverState state) {
+
+        DriverPosition withState(DriverState newState) {
+            return new DriverPosition(driverId, vehicleId, vehicleType, latitude, longitude,
+                    heading, speed, timestamp, cellKey, newState);
+        }
+    }
+
+    /**
+     * Candidate driver returned by a nearest-driver lookup
+     */
+    public record Match(UUID driverId, UUID vehicleId, Vehicle.VehicleType vehicleType,
+                        double latitude, double longitude, double distanceKm) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.backend.oems.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.util.MpscRingBuffer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Driver location history ingestion pipeline.
+ *
+ * Request threads hand pings to a lock-free ring buffer and return immediately. A single
+ * scheduled flusher drains the buffer, coalesces the pings to the latest fix per driver and
+ * writes them to {@code driver_locations} with one JDBC batch insert, so a burst of pings
+ * costs one connection checkout per flush instead of one per ping.
+ */
+@Component
+public class DriverLocationIngestor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationIngestor.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO driver_locations (driver_id, latitude, longitude, heading, speed, recorded_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MpscRingBuffer<LocationPing> buffer;
+    private final int batchSize;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    public DriverLocationIngestor(JdbcTemplate jdbcTemplate, AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new MpscRingBuffer<>(appProperties.getLocationIngestion().getBufferCapacity());
+        this.batchSize = appProperties.getLocationIngestion().getBatchSize();
+
+        meterRegistry.gauge("oems.driver.locations.buffer.size", buffer, MpscRingBuffer::size);
+        meterRegistry.more().counter("oems.driver.locations.accepted", List.of(), accepted);
+        meterRegistry.more().counter("oems.driver.locations.dropped", List.of(), dropped);
+        meterRegistry.more().counter("oems.driver.locations.coalesced", List.of(), coalesced);
+        meterRegistry.more().counter("oems.driver.locations.written", List.of(), written);
+    }
+
+    /**
+     * Queue a location ping for history persistence without blocking
+     *
+     * @return false if the buffer is full and the ping was dropped
+     */
+    public boolean offer(UUID driverId, double latitude, double longitude, double heading, double speed, long timestamp) {
+        if (buffer.offer(new LocationPing(driverId, latitude, longitude, heading, speed, timestamp))) {
+            accepted.increment();
+            return true;
+        }
+        // The matching index already holds the latest fix; only a history sample is lost
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Drain, coalesce and persist queued pings
+     */
+    @Scheduled(fixedDelayString = "${app.location-ingestion.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<UUID, LocationPing> latest = new HashMap<>();
+        int drained = buffer.drain(ping -> latest.merge(ping.driverId(), ping,
+                (current, candidate) -> candidate.timestamp() >= current.timestamp() ? candidate : current),
+                buffer.capacity());
+        if (drained == 0) {
+            return;
+        }
+        coalesced.add(drained - latest.size());
+
+        List<LocationPing> rows = new ArrayList<>(latest.values());
+        try {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                writeBatch(rows.subList(from, Math.min(rows.size(), from + batchSize)));
+            }
+            written.add(rows.size());
+        } catch (Exception e) {
+            // History is best effort; the live position is already in the matching index
+            logger.warn("Failed to persist {} driver location rows: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    private void writeBatch(List<LocationPing> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LocationPing ping = batch.get(i);
+                ps.setObject(1, ping.driverId());
+                ps.setDouble(2, ping.latitude());
+                ps.setDouble(3, ping.longitude());
+                ps.setDouble(4, ping.heading());
+                ps.setDouble(5, ping.speed());
+                ps.setTimestamp(6, Timestamp.from(Instant.ofEpochMilli(ping.timestamp())));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+
+    /**
+     * A single location fix reported by a driver
+     */
+    public record LocationPing(UUID driverId, double latitude, double longitude,
+                               double heading, double speed, long timestamp) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.backend.oems.service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.entity.Driver;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.event.DriverSessionEndedEvent;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.DriverRepository;
+import com.example.backend.oems.repository.VehicleRepository;
+
+/**
+ * Driver availability and location management.
+ * Keeps the in-memory {@link DriverLocationIndex} in sync with driver status changes and
+ * location pings, and caches the small driver/vehicle profile needed on the hot ping path
+ * so a ping never needs a database round trip.
+ */
+@Service
+public class DriverService {
+
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverLocationIndex locationIndex;
+    private final DriverLocationIngestor locationIngestor;
+    private final TripEventHub tripEventHub;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // userId -> driver profile, loaded once per driver and refreshed on status changes
+    private final ConcurrentHashMap<UUID, DriverProfile> profilesByUserId = new ConcurrentHashMap<>();
+
+    public DriverService(DriverRepository driverRepository, VehicleRepository vehicleRepository,
+                         DriverLocationIndex locationIndex, DriverLocationIngestor locationIngestor,
+                         TripEventHub tripEventHub, ApplicationEventPublisher eventPublisher) {
+        this.driverRepository = driverRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.locationIndex = locationIndex;
+        this.locationIngestor = locationIngestor;
+        this.tripEventHub = tripEventHub;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Resolve the driver profile for an authenticated user
+     */
+    public Optional<DriverProfile> findProfileByUserId(UUID userId) {
+        DriverProfile cached = profilesByUserId.get(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<DriverProfile> loaded = loadProfile(userId);
+        loaded.ifPresent(profile -> profilesByUserId.put(userId, profile));
+        return loaded;
+    }
+
+    public Optional<Driver> findDriver(UUID driverId) { return driverRepository.findById(driverId); }
+
+    /**
+     * Change a driver's online status and register or remove them from the matching index
+     */
+    @Transactional
+    public Driver updateStatus(DriverProfile profile, Driver.DriverStatus status, Double latitude, Double longitude) {
+        Driver driver = driverRepository.findById(profile.driverId())
+                .orElseThrow(() -> new ValidationException("Driver profile not found"));
+
+        if (status == Driver.DriverStatus.ONLINE) {
+            if (latitude == null || longitude == null) {
+                throw new ValidationException("Current location is required to go online");
+            }
+            if (profile.vehicleType() == null) {
+                throw new ValidationException("An active vehicle must be assigned before going online");
+            }
+        }
+
+        Instant now = Instant.now();
+        Instant onlineSince = driver.getOnlineSince();
+        if (status == Driver.DriverStatus.OFFLINE) {
+            driver.setOnlineSince(null);
+        } else if (onlineSince == null) {
+            driver.setOnlineSince(now);
+        }
+
+        driver.setCurrentStatus(status);
+        driver.setIsAvailable(status == Driver.DriverStatus.ONLINE);
+        Driver saved = driverRepository.save(driver);
+
+        if (status == Driver.DriverStatus.OFFLINE && onlineSince != null) {
+            eventPublisher.publishEvent(new DriverSessionEndedEvent(profile.driverId(), onlineSince, now));
+        }
+
+        if (status == Driver.DriverStatus.ONLINE) {
+            locationIndex.goOnline(profile.driverId(), profile.vehicleId(), profile.vehicleType(), latitude, longitude);
+        } else if (status == Driver.DriverStatus.OFFLINE) {
+            locationIndex.remove(profile.driverId());
+        }
+
+        // Vehicle assignment may have changed since the profile was cached
+        profilesByUserId.remove(profile.userId());
+        return saved;
+    }
+
+    /**
+     * Apply a location ping to the matching index and queue it for location history
+     *
+     * @return false if the driver is not online
+     */
+    public boolean updateLocation(DriverProfile profile, double latitude, double longitude,
+                                  double heading, double speed, long timestamp) {
+        if (!locationIndex.updatePosition(profile.driverId(), latitude, longitude, heading, speed, timestamp)) {
+            return false;
+        }
+        locationIngestor.offer(profile.driverId(), latitude, longitude, heading, speed, timestamp);
+        tripEventHub.onDriverLocation(profile.driverId(), latitude, longitude, heading, speed, timestamp);
+        return true;
+    }
+
+    private Optional<DriverProfile> loadProfile(UUID userId) {
+        return driverRepository.findByUserId(userId).map(driver -> {
+            Vehicle vehicle = resolveVehicle(driver);
+            return new DriverProfile(
+                driver.getId(),
+                driver.getUserId(),
+                vehicle != null ? vehicle.getId() : null,
+                vehicle != null ? vehicle.getVehicleType() : null
+            );
+        });
+    }
+
+    private Vehicle resolveVehicle(Driver driver) {
+        if (driver.getVehicleId() != null) {
+            Optional<Vehicle> assigned = vehicleRepository.findById(driver.getVehicleId());
+            if (assigned.isPresent()) {
+                return assigned.get();
+            }
+        }
+        return vehicleRepository.findByDriverId(driver.getId()).stream()
+                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.ACTIVE)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Minimal driver data needed on the location and matching paths
+     */
+    public record DriverProfile(UUID driverId, UUID userId, UUID vehicleId, Vehicle.VehicleType vehicleType) {
+    }
+}
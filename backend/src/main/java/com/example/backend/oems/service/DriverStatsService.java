@@ -0,0 +1,231 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.DriverDailyStats;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.event.DriverSessionEndedEvent;
+import com.example.backend.oems.event.PaymentChangedEvent;
+import com.example.backend.oems.event.TripFinishedEvent;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.DriverDailyStatsRepository;
+
+/**
+ * Driver earnings and performance from the driver_daily_stats rollup.
+ *
+ * Finished trips, ended online sessions and settled tips and refunds are folded into the driver's row
+ * for the day as they happen, inside the transaction that produced them, so the rollup commits or
+ * rolls back with the trip or payment itself. Reading a window of N days then sums at most N rows,
+ * whatever the driver's history.
+ */
+@Service
+public class DriverStatsService {
+
+    private final DriverDailyStatsRepository statsRepository;
+    private final BigDecimal commissionRate;
+    private final ZoneId zone;
+    private final int maxWindowDays;
+
+    public DriverStatsService(DriverDailyStatsRepository statsRepository, AppProperties appProperties) {
+        AppProperties.DriverStats config = appProperties.getDriverStats();
+        this.statsRepository = statsRepository;
+        this.commissionRate = BigDecimal.valueOf(config.getCommissionRate());
+        this.zone = ZoneId.of(config.getTimeZone());
+        this.maxWindowDays = config.getMaxWindowDays();
+    }
+
+    /**
+     * Fold a completed or cancelled trip into its driver's day
+     */
+    @EventListener
+    public void onTripFinished(TripFinishedEvent event) {
+        LocalDate day = LocalDate.ofInstant(event.finishedAt() != null ? event.finishedAt() : Instant.now(), zone);
+        if (event.isCompleted()) {
+            BigDecimal fare = event.fare() != null ? event.fare() : BigDecimal.ZERO;
+            BigDecimal distance = event.distanceKm() != null ? event.distanceKm() : BigDecimal.ZERO;
+            statsRepository.increment(event.driverId(), day, 1, 0, 0,
+                    fare, fare.multiply(commissionRate).setScale(2, RoundingMode.HALF_UP), distance, 0);
+        } else {
+            int byDriver = event.cancelledBy() == Trip.CancelledBy.DRIVER ? 1 : 0;
+            statsRepository.increment(event.driverId(), day, 0, 1, byDriver,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+        }
+    }
+
+    /**
+     * Credit a captured tip to the driver's day, and take a refund back off it.
+     * Tips go to the driver whole; a refund returns the commission on the fare share of the money refunded.
+     */
+    @EventListener
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        if (event.driverId() == null) {
+            return;
+        }
+        BigDecimal gross;
+        BigDecimal commission;
+        if (event.status() == Payment.PaymentStatus.COMPLETED && event.previousStatus() != Payment.PaymentStatus.COMPLETED) {
+            gross = event.tipAmount();
+            commission = BigDecimal.ZERO;
+        } else if (event.status() == Payment.PaymentStatus.REFUNDED && event.collectedDelta().signum() < 0) {
+            gross = event.collectedDelta();
+            BigDecimal fareShare = event.amount().signum() == 0 ? BigDecimal.ZERO
+                    : gross.multiply(event.amount().subtract(event.tipAmount()))
+                            .divide(event.amount(), 2, RoundingMode.HALF_UP);
+            commission = fareShare.multiply(commissionRate).setScale(2, RoundingMode.HALF_UP);
+        } else {
+            return;
+        }
+        if (gross.signum() != 0) {
+            statsRepository.increment(event.driverId(), LocalDate.now(zone), 0, 0, 0,
+                    gross, commission, BigDecimal.ZERO, 0);
+        }
+    }
+
+    /**
+     * Credit an ended online session to each day it spans
+     */
+    @EventListener
+    public void onSessionEnded(DriverSessionEndedEvent event) {
+        splitByDay(event.onlineSince(), event.offlineAt()).forEach((day, seconds) ->
+                statsRepository.increment(event.driverId(), day, 0, 0, 0,
+                        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, seconds));
+    }
+
+    /**
+     * Stats for the last {@code days} days including today.
+     * A session still in progress is counted up to now, although it is only written to the rollup
+     * once the driver goes offline.
+     *
+     * @param onlineSince start of the driver's current online session, or null if offline
+     */
+    @Transactional(readOnly = true)
+    public StatsWindow getWindow(UUID driverId, int days, Instant onlineSince) {
+        if (days < 1 || days > maxWindowDays) {
+            throw new ValidationException("days must be between 1 and " + maxWindowDays);
+        }
+        Instant now = Instant.now();
+        LocalDate to = LocalDate.ofInstant(now, zone);
+        LocalDate from = to.minusDays(days - 1L);
+
+        Map<LocalDate, Totals> daily = new TreeMap<>();
+        for (DriverDailyStats row : statsRepository.findByDriverIdAndStatDateGreaterThanEqualOrderByStatDateAsc(driverId, from)) {
+            daily.put(row.getStatDate(), Totals.of(row));
+        }
+        if (onlineSince != null) {
+            splitByDay(onlineSince, now).forEach((day, seconds) -> {
+                if (!day.isBefore(from)) {
+                    daily.merge(day, Totals.online(seconds), Totals::plus);
+                }
+            });
+        }
+
+        Totals total = daily.values().stream().reduce(Totals.EMPTY, Totals::plus);
+        return new StatsWindow(from, to, daily, total);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private Map<LocalDate, Long> splitByDay(Instant start, Instant end) {
+        Map<LocalDate, Long> secondsByDay = new TreeMap<>();
+        Instant cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDate day = LocalDate.ofInstant(cursor, zone);
+            Instant dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant();
+            Instant sliceEnd = dayEnd.isBefore(end) ? dayEnd : end;
+            secondsByDay.merge(day, Duration.between(cursor, sliceEnd).toSeconds(), Long::sum);
+            cursor = sliceEnd;
+        }
+        return secondsByDay;
+    }
+
+    /**
+     * Summed counters for one day or a whole window
+     */
+    public record Totals(int tripsCompleted, int tripsCancelled, int driverCancellations,
+                         BigDecimal grossEarnings, BigDecimal commission, BigDecimal distanceKm,
+                         long onlineSeconds) {
+
+        static final Totals EMPTY = online(0);
+
+        static Totals of(DriverDailyStats row) {
+            return new Totals(row.getTripsCompleted(), row.getTripsCancelled(), row.getDriverCancellations(),
+                    row.getGrossEarnings(), row.getCommission(), row.getDistanceKm(), row.getOnlineSeconds());
+        }
+
+        static Totals online(long seconds) {
+            return new Totals(0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, seconds);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(tripsCompleted + other.tripsCompleted,
+                    tripsCancelled + other.tripsCancelled,
+                    driverCancellations + other.driverCancellations,
+                    grossEarnings.add(other.grossEarnings),
+                    commission.add(other.commission),
+                    distanceKm.add(other.distanceKm),
+                    onlineSeconds + other.onlineSeconds);
+        }
+
+        public BigDecimal netEarnings() {
+            return grossEarnings.subtract(commission);
+        }
+
+        public BigDecimal averagePerTrip() {
+            return tripsCompleted == 0 ? BigDecimal.ZERO
+                    : grossEarnings.divide(BigDecimal.valueOf(tripsCompleted), 2, RoundingMode.HALF_UP);
+        }
+
+        public double onlineHours() {
+            return round(onlineSeconds / 3600.0);
+        }
+
+        /**
+         * Net earnings per online hour
+         */
+        public double earningsPerHour() {
+            return onlineSeconds == 0 ? 0.0 : round(netEarnings().doubleValue() * 3600.0 / onlineSeconds);
+        }
+
+        /**
+         * Percentage of assigned trips that were completed
+         */
+        public double completionRate() {
+            int assigned = tripsCompleted + tripsCancelled;
+            return assigned == 0 ? 0.0 : round(100.0 * tripsCompleted / assigned);
+        }
+
+        /**
+         * Percentage of assigned trips the driver cancelled
+         */
+        public double cancellationRate() {
+            int assigned = tripsCompleted + tripsCancelled;
+            return assigned == 0 ? 0.0 : round(100.0 * driverCancellations / assigned);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    /**
+     * Stats for the inclusive date range [from, to]; days without activity are absent from {@code daily}
+     */
+    public record StatsWindow(LocalDate from, LocalDate to, Map<LocalDate, Totals> daily, Totals total) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.backend.oems.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.util.GeoUtils;
+
+/**
+ * Fare estimation engine.
+ *
+ * Tariffs live in an immutable snapshot indexed by vehicle type ordinal. Estimates read the
+ * current snapshot through a single volatile load and do plain double arithmetic, so an
+ * estimate takes no locks and allocates nothing beyond its result. Tariff changes build a
+ * new snapshot and swap it in; in-flight estimates finish against the snapshot they started with.
+ */
+@Service
+public class FareEngine {
+
+    /**
+     * Ride products offered in the app, in display order
+     */
+    public static final List<RideProduct> RIDE_PRODUCTS = List.of(
+        new RideProduct("oems-go", "OEMS Go", "Hatchback", Vehicle.VehicleType.HATCHBACK, "🚗", 4),
+        new RideProduct("oems-sedan", "OEMS Sedan", "Sedan", Vehicle.VehicleType.SEDAN, "🚙", 4),
+        new RideProduct("oems-suv", "OEMS SUV", "SUV", Vehicle.VehicleType.SUV, "🚐", 6)
+    );
+
+    private final double roadDistanceFactor;
+    private final double averageSpeedKmh;
+
+    private volatile TariffSnapshot snapshot;
+
+    public FareEngine(AppProperties appProperties) {
+        AppProperties.Fares config = appProperties.getFares();
+        this.roadDistanceFactor = config.getRoadDistanceFactor();
+        this.averageSpeedKmh = config.getAverageSpeedKmh();
+
+        Map<Vehicle.VehicleType, Tariff> initial = new EnumMap<>(Vehicle.VehicleType.class);
+        config.getTariffs().forEach((type, t) -> initial.put(type, new Tariff(t.getBaseFare(), t.getPerKm(),
+                t.getPerMinute(), t.getMinimumFare(), t.getPlatformFee(), t.getTaxRate())));
+        this.snapshot = TariffSnapshot.of(initial, 1);
+    }
+
+    /**
+     * Estimate the fare for a trip between two coordinates
+     *
+     * @return the quote, or null if no tariff is configured for the vehicle type
+     */
+    public FareQuote estimate(double pickupLat, double pickupLng, double destinationLat, double destinationLng,
+                              Vehicle.VehicleType vehicleType, double surgeMultiplier) {
+        double distanceKm = roadDistanceKm(pickupLat, pickupLng, destinationLat, destinationLng);
+        return price(vehicleType, distanceKm, distanceKm / averageSpeedKmh * 60.0, surgeMultiplier);
+    }
+
+    /**
+     * Final fare of a finished trip from the distance covered and the minutes it took, priced with the
+     * current tariff like an estimate
+     *
+     * @return the fare, or null if no tariff is configured for the vehicle type
+     */
+    public FareQuote meter(Vehicle.VehicleType vehicleType, double distanceKm, double durationMinutes,
+                           double surgeMultiplier) {
+        return price(vehicleType, Math.max(0.0, distanceKm), Math.max(0.0, durationMinutes), surgeMultiplier);
+    }
+
+    /**
+     * Straight-line distance between two points scaled to approximate the road route
+     */
+    public double roadDistanceKm(double fromLat, double fromLng, double toLat, double toLng) {
+        return GeoUtils.haversineKm(fromLat, fromLng, toLat, toLng) * roadDistanceFactor;
+    }
+
+    /**
+     * Driving time in whole minutes (at least one) for a straight-line distance
+     */
+    public int travelMinutes(double straightLineKm) {
+        return Math.max(1, (int) Math.ceil(straightLineKm * roadDistanceFactor / averageSpeedKmh * 60.0));
+    }
+
+    public Tariff getTariff(Vehicle.VehicleType vehicleType) {
+        return snapshot.tariffs[vehicleType.ordinal()];
+    }
+
+    /**
+     * Current tariffs by vehicle type
+     */
+    public Map<Vehicle.VehicleType, Tariff> getTariffs() {
+        TariffSnapshot current = snapshot;
+        Map<Vehicle.VehicleType, Tariff> tariffs = new EnumMap<>(Vehicle.VehicleType.class);
+        for (Vehicle.VehicleType type : Vehicle.VehicleType.values()) {
+            if (current.tariffs[type.ordinal()] != null) {
+                tariffs.put(type, current.tariffs[type.ordinal()]);
+            }
+        }
+        return tariffs;
+    }
+
+    public long getTariffVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Replace the tariffs of the given vehicle types and publish a new snapshot
+     */
+    public synchronized void updateTariffs(Map<Vehicle.VehicleType, Tariff> changes) {
+        for (Tariff tariff : changes.values()) {
+            tariff.validate();
+        }
+        Map<Vehicle.VehicleType, Tariff> merged = getTariffs();
+        merged.putAll(changes);
+        snapshot = TariffSnapshot.of(merged, snapshot.version + 1);
+    }
+
+    private FareQuote price(Vehicle.VehicleType vehicleType, double distanceKm, double durationMinutes,
+                            double surgeMultiplier) {
+        Tariff tariff = snapshot.tariffs[vehicleType.ordinal()];
+        if (tariff == null) {
+            return null;
+        }
+
+        double surge = Math.max(1.0, surgeMultiplier);
+        double baseFare = round2(tariff.baseFare() * surge);
+        double distanceFare = round2(distanceKm * tariff.perKm() * surge);
+        double timeFare = round2(durationMinutes * tariff.perMinute() * surge);
+
+        // Minimum fare tops up the base component so the breakdown still sums to the total
+        double rideFare = baseFare + distanceFare + timeFare;
+        double minimumFare = tariff.minimumFare() * surge;
+        if (rideFare < minimumFare) {
+            baseFare = round2(baseFare + (minimumFare - rideFare));
+            rideFare = baseFare + distanceFare + timeFare;
+        }
+
+        double platformFee = tariff.platformFee();
+        double taxAmount = round2((rideFare + platformFee) * tariff.taxRate());
+        double total = round2(rideFare + platformFee + taxAmount);
+
+        return new FareQuote(vehicleType, round2(distanceKm), (int) Math.ceil(durationMinutes), baseFare, distanceFare,
+                timeFare, surge, platformFee, taxAmount, total);
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Per-vehicle-type pricing; amounts in rupees, taxRate as a fraction
+     */
+    public record Tariff(double baseFare, double perKm, double perMinute, double minimumFare,
+                         double platformFee, double taxRate) {
+
+        void validate() {
+            if (baseFare < 0 || perKm < 0 || perMinute < 0 || minimumFare < 0 || platformFee < 0
+                    || taxRate < 0 || taxRate > 1) {
+                throw new ValidationException("Tariff amounts must be non-negative and tax rate within [0, 1]");
+            }
+        }
+    }
+
+    /**
+     * Fare breakdown, matching the fare fields stored on Payment
+     */
+    public record FareQuote(Vehicle.VehicleType vehicleType, double distanceKm, int durationMinutes,
+                            double baseFare, double distanceFare, double timeFare, double surgeMultiplier,
+                            double platformFee, double taxAmount, double total) {
+    }
+
+    /**
+     * Ride product shown in the app and the vehicle type it is fulfilled by
+     */
+    public record RideProduct(String id, String name, String displayType, Vehicle.VehicleType vehicleType,
+                              String icon, int capacity) {
+    }
+
+    private static final class TariffSnapshot {
+        private final Tariff[] tariffs;
+        private final long version;
+
+        private TariffSnapshot(Tariff[] tariffs, long version) {
+            this.tariffs = tariffs;
+            this.version = version;
+        }
+
+        static TariffSnapshot of(Map<Vehicle.VehicleType, Tariff> tariffs, long version) {
+            Tariff[] byOrdinal = new Tariff[Vehicle.VehicleType.values().length];
+            tariffs.forEach((type, tariff) -> byOrdinal[type.ordinal()] = tariff);
+            return new TariffSnapshot(byOrdinal, version);
+        }
+    }
+}
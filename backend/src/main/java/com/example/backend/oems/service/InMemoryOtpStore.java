@@ -0,0 +1,119 @@
+package com.example.backend.oems.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.util.HashedTimingWheel;
+import com.example.backend.oems.util.TokenBucketRateLimiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * OTP store for a single instance.
+ *
+ * Codes sit in a map keyed by phone and each one is removed by a timeout on a
+ * {@link HashedTimingWheel} when it expires, so the map only ever holds live codes and no sweep
+ * has to scan it. Reads still check the expiry, since the wheel fires up to one tick late.
+ *
+ * Sends are throttled by a token bucket per phone whose memory is bounded, so pumping requests
+ * across many numbers cannot grow it without limit. The buckets are local to this instance: behind
+ * a load balancer each instance would allow the full limit, so use the database store there.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.otp.store", havingValue = "memory")
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 512; // one rotation covers about 8.5 minutes
+
+    private final ConcurrentHashMap<String, Entry> codes = new ConcurrentHashMap<>();
+    // Expiry only removes a map entry; run it on the wheel's own thread
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel(TICK_MS, TimeUnit.MILLISECONDS,
+            WHEEL_SIZE, Runnable::run, "otp-expiry-wheel");
+
+    private final TokenBucketRateLimiter<String> sendLimiter;
+
+    public InMemoryOtpStore(AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Security.Otp config = appProperties.getSecurity().getOtp();
+        this.sendLimiter = new TokenBucketRateLimiter<>(config.getSendLimit(), config.getSendWindowMs(),
+                TimeUnit.MILLISECONDS, config.getRateLimitMaxKeys());
+
+        meterRegistry.gauge("oems.otp.store.size", codes, ConcurrentHashMap::size);
+        Gauge.builder("oems.otp.rate-limit.keys", sendLimiter, TokenBucketRateLimiter::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("oems.otp.rate-limit.evictions", sendLimiter, TokenBucketRateLimiter::getEvictionCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long acquireSendPermit(String phone) {
+        return sendLimiter.tryAcquire(phone);
+    }
+
+    @Override
+    public void save(String phone, String code, Instant expiresAt) {
+        Entry entry = new Entry(code, expiresAt);
+        long delayMs = Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis());
+        entry.expiry = timingWheel.schedule(() -> codes.remove(phone, entry), delayMs, TimeUnit.MILLISECONDS);
+        Entry previous = codes.put(phone, entry);
+        if (previous != null) {
+            previous.expiry.cancel();
+        }
+    }
+
+    @Override
+    public boolean verify(String phone, String code) {
+        if (code == null || code.isBlank()) {
+            return false;
+        }
+        Entry entry = codes.get(phone);
+        if (entry == null || !entry.expiresAt.isAfter(Instant.now()) || !entry.matches(code)) {
+            return false;
+        }
+        // Only one of two concurrent verifications of the same code wins
+        if (!codes.remove(phone, entry)) {
+            return false;
+        }
+        entry.expiry.cancel();
+        return true;
+    }
+
+    /**
+     * Forget phones whose buckets have refilled
+     */
+    @Scheduled(fixedDelayString = "${app.security.otp.purge-interval-ms:600000}")
+    public void cleanUpSendLimits() {
+        sendLimiter.cleanUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timingWheel.close();
+    }
+
+    private static final class Entry {
+        private final String code;
+        private final Instant expiresAt;
+        private HashedTimingWheel.Timeout expiry; // set before the entry is published
+
+        private Entry(String code, Instant expiresAt) {
+            this.code = code;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean matches(String candidate) {
+            return MessageDigest.isEqual(code.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
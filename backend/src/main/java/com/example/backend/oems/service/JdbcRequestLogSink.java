@@ -0,0 +1,121 @@
+package com.example.backend.oems.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.LogEntry;
+
+/**
+ * Request log sink backed by the {@code logs} table, written with multi-row INSERT statements
+ */
+@Component
+@ConditionalOnProperty(name = "app.request-log.sink", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcRequestLogSink implements RequestLogSink {
+
+    private static final String INSERT_PREFIX =
+        "INSERT INTO logs (id, timestamp, method, path, user_phone, status, metadata) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_PREFIX =
+        "SELECT id, timestamp, method, path, user_phone, status, metadata FROM logs WHERE 1 = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    // SQL for a full batch is built once; shorter tail batches build their own
+    private final String fullBatchSql;
+
+    public JdbcRequestLogSink(JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = appProperties.getRequestLog().getBatchSize();
+        this.fullBatchSql = insertSql(batchSize);
+    }
+
+    @Override
+    public void write(List<LogEntry> entries) {
+        String sql = entries.size() == batchSize ? fullBatchSql : insertSql(entries.size());
+        jdbcTemplate.update(sql, ps -> bindRows(ps, entries));
+    }
+
+    /**
+     * Only the filters that are set become predicates, and the query's offset and limit go to the
+     * database as they are, so callers may page with any offset rather than whole multiples of the limit
+     */
+    @Override
+    public List<LogEntry> search(RequestLogQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT_PREFIX);
+        List<Object> args = new ArrayList<>();
+        if (query.from() != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.from(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.from(query.to()));
+        }
+        if (query.pathPrefix() != null) {
+            sql.append(" AND path LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(query.pathPrefix()) + "%");
+        }
+        if (query.userPhone() != null) {
+            sql.append(" AND user_phone = ?");
+            args.add(query.userPhone());
+        }
+        // id breaks timestamp ties so consecutive pages neither repeat nor skip entries
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?");
+        args.add(Math.max(0, query.limit()));
+        args.add(Math.max(0, query.offset()));
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+
+    private static void bindRows(PreparedStatement ps, List<LogEntry> entries) throws SQLException {
+        int index = 1;
+        for (LogEntry entry : entries) {
+            ps.setObject(index++, entry.getId());
+            ps.setTimestamp(index++, Timestamp.from(entry.getTimestamp()));
+            ps.setString(index++, entry.getMethod());
+            ps.setString(index++, entry.getPath());
+            ps.setString(index++, entry.getUserPhone());
+            ps.setObject(index++, entry.getStatus(), Types.INTEGER);
+            ps.setString(index++, entry.getMetadata());
+        }
+    }
+
+    private static LogEntry mapRow(ResultSet rs) throws SQLException {
+        LogEntry entry = new LogEntry();
+        entry.setId(rs.getObject("id", UUID.class));
+        entry.setTimestamp(rs.getTimestamp("timestamp").toInstant());
+        entry.setMethod(rs.getString("method"));
+        entry.setPath(rs.getString("path"));
+        entry.setUserPhone(rs.getString("user_phone"));
+        entry.setStatus(rs.getObject("status", Integer.class));
+        entry.setMetadata(rs.getString("metadata"));
+        return entry;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+}
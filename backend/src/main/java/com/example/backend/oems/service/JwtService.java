@@ -3,6 +3,7 @@ package com.example.backend.oems.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,15 +13,21 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.oems.config.AppProperties;
 import com.example.backend.oems.constants.AppConstants;
 import com.example.backend.oems.entity.Auth;
 import com.example.backend.oems.entity.User;
 import com.example.backend.oems.repository.AuthRepository;
+import com.example.backend.oems.util.BoundedTtlCache;
+import com.example.backend.oems.util.TokenHashing;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * JWT Service for token generation, validation, and management
@@ -37,10 +44,35 @@ public class JwtService {
     
     private final long refreshTokenExpiration = 7 * 24 * 60 * 60 * 1000L; // 7 days
     
+    // Digests of access tokens recently confirmed against the database
+    private final BoundedTtlCache<String, Boolean> validatedAccessTokens;
+    
+    // Digests of tokens revoked by logout or re-login; checked before the validation cache so an
+    // in-flight validation cannot re-admit a token that was revoked while it was hitting the database
+    private final BoundedTtlCache<String, Boolean> revokedTokens;
+    
     public JwtService(AuthRepository authRepository, 
-                     @Value("${app.security.jwt.secret}") String jwtSecret) {
+                     @Value("${app.security.jwt.secret}") String jwtSecret,
+                     AppProperties appProperties,
+                     MeterRegistry meterRegistry) {
         this.authRepository = authRepository;
         this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        
+        AppProperties.Security.TokenCache cacheConfig = appProperties.getSecurity().getTokenCache();
+        this.validatedAccessTokens = new BoundedTtlCache<>(cacheConfig.getMaxSize(), cacheConfig.getTtlMs());
+        // Revocations only need to outlive any validation cache entry; the database covers the rest
+        this.revokedTokens = new BoundedTtlCache<>(cacheConfig.getMaxSize(), 2 * cacheConfig.getTtlMs());
+        
+        FunctionCounter.builder("oems.auth.token.cache.requests", validatedAccessTokens, BoundedTtlCache::getHitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("oems.auth.token.cache.requests", validatedAccessTokens, BoundedTtlCache::getMissCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("oems.auth.token.cache.size", validatedAccessTokens, BoundedTtlCache::size)
+                .register(meterRegistry);
+        Gauge.builder("oems.auth.token.revoked.size", revokedTokens, BoundedTtlCache::size)
+                .register(meterRegistry);
     }
     
     /**
@@ -48,6 +80,7 @@ public class JwtService {
      */
     public String generateAccessToken(User user) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getId().toString())
                 .claim(AppConstants.JWT_CLAIM_USER_ID, user.getId().toString())
                 .claim(AppConstants.JWT_CLAIM_PHONE, user.getPhoneNumber())
@@ -65,6 +98,7 @@ public class JwtService {
      */
     public String generateRefreshToken(User user) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getId().toString())
                 .claim(AppConstants.JWT_CLAIM_USER_ID, user.getId().toString())
                 .claim("type", "refresh")
@@ -88,17 +122,18 @@ public class JwtService {
     }
     
     /**
-     * Store tokens in database
+     * Store token digests in database
      */
     public void storeTokens(UUID userId, String accessToken, String refreshToken) {
         // Remove existing tokens for user
+        revokeAllForUser(userId);
         authRepository.deleteAllByUserId(userId);
         
         // Create new auth record
         Auth auth = new Auth();
         auth.setUserId(userId);
-        auth.setAccessToken(accessToken);
-        auth.setRefreshToken(refreshToken);
+        auth.setAccessTokenHash(TokenHashing.sha256(accessToken));
+        auth.setRefreshTokenHash(TokenHashing.sha256(refreshToken));
         auth.setTokenExpiry(Instant.now().plus(accessTokenExpiration, ChronoUnit.MILLIS));
         
         authRepository.save(auth);
@@ -116,8 +151,21 @@ public class JwtService {
                 return false;
             }
             
-            // Check if token exists in database and is not expired
-            return authRepository.isAccessTokenValid(token);
+            byte[] digest = TokenHashing.sha256(token);
+            String key = TokenHashing.toHex(digest);
+            if (revokedTokens.containsKey(key)) {
+                return false;
+            }
+            if (validatedAccessTokens.get(key) != null) {
+                return true;
+            }
+            
+            // Cache miss: check if token exists in database and is not expired
+            boolean valid = authRepository.isAccessTokenValid(digest);
+            if (valid && !revokedTokens.containsKey(key)) {
+                validatedAccessTokens.put(key, Boolean.TRUE, claims.getExpiration().getTime());
+            }
+            return valid;
         } catch (JwtException e) {
             System.err.println("[JWT] Access token validation failed: " + e.getMessage());
             return false;
@@ -136,8 +184,13 @@ public class JwtService {
                 return false;
             }
             
+            byte[] digest = TokenHashing.sha256(token);
+            if (revokedTokens.containsKey(TokenHashing.toHex(digest))) {
+                return false;
+            }
+            
             // Check if token exists in database and is not expired
-            return authRepository.isRefreshTokenValid(token);
+            return authRepository.isRefreshTokenValid(digest);
         } catch (JwtException e) {
             System.err.println("[JWT] Refresh token validation failed: " + e.getMessage());
             return false;
@@ -215,6 +268,7 @@ public class JwtService {
      * Logout user by invalidating all tokens
      */
     public void logout(UUID userId) {
+        revokeAllForUser(userId);
         authRepository.deleteAllByUserId(userId);
     }
     
@@ -225,6 +279,36 @@ public class JwtService {
         authRepository.deleteExpiredTokens();
     }
     
+    /**
+     * Validation cache hit count
+     */
+    public long getTokenCacheHits() {
+        return validatedAccessTokens.getHitCount();
+    }
+    
+    /**
+     * Validation cache miss count
+     */
+    public long getTokenCacheMisses() {
+        return validatedAccessTokens.getMissCount();
+    }
+    
+    /**
+     * Mark every stored token of the user as revoked and drop them from the validation cache
+     */
+    private void revokeAllForUser(UUID userId) {
+        List<Auth> existing = authRepository.findAllByUserId(userId);
+        for (Auth auth : existing) {
+            revoke(TokenHashing.toHex(auth.getAccessTokenHash()));
+            revoke(TokenHashing.toHex(auth.getRefreshTokenHash()));
+        }
+    }
+    
+    private void revoke(String digest) {
+        revokedTokens.put(digest, Boolean.TRUE);
+        validatedAccessTokens.invalidate(digest);
+    }
+    
     /**
      * Parse JWT token and extract claims
      */
@@ -0,0 +1,64 @@
+package com.example.backend.oems.service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import com.example.backend.oems.config.AppProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Issues and verifies login OTPs.
+ *
+ * Codes are kept, and sends throttled per phone, by the configured {@link OtpStore}.
+ */
+@Service
+public class OtpService {
+
+    private final OtpStore otpStore;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long expirationMs;
+    private final Counter sendsRejected;
+
+    public OtpService(OtpStore otpStore, AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Security.Otp config = appProperties.getSecurity().getOtp();
+        this.otpStore = otpStore;
+        this.expirationMs = config.getExpiration();
+        this.sendsRejected = meterRegistry.counter("oems.otp.sends.rejected");
+    }
+
+    /**
+     * Take a send permit for the phone
+     *
+     * @return 0 if a code may be sent now, otherwise the number of seconds to wait
+     */
+    public long acquireSendPermit(String phone) {
+        long waitMs = otpStore.acquireSendPermit(phone);
+        if (waitMs == 0) {
+            return 0;
+        }
+        sendsRejected.increment();
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999));
+    }
+
+    /**
+     * Generate and store a new code for the phone, replacing any earlier one
+     */
+    public String issue(String phone) {
+        // Generate 6-digit OTP using cryptographically secure random
+        String code = String.valueOf(100000 + secureRandom.nextInt(900000));
+        otpStore.save(phone, code, Instant.now().plusMillis(expirationMs));
+        return code;
+    }
+
+    /**
+     * Check and consume the latest code of the phone
+     */
+    public boolean verify(String phone, String code) {
+        return otpStore.verify(phone, code);
+    }
+}
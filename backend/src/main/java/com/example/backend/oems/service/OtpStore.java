@@ -0,0 +1,32 @@
+package com.example.backend.oems.service;
+
+import java.time.Instant;
+
+/**
+ * Holds issued one-time passwords until they are used or expire, and throttles how often a phone
+ * may be sent one ({@code sendLimit} codes per {@code sendWindowMs}, refilled gradually).
+ * Selected with {@code app.security.otp.store}: {@code database} is shared by every instance, so
+ * a phone's send limit holds across the whole deployment; {@code memory} suits a single instance.
+ */
+public interface OtpStore {
+
+    /**
+     * Take a send permit for the phone
+     *
+     * @return 0 if a code may be sent now, otherwise the number of milliseconds to wait
+     */
+    long acquireSendPermit(String phone);
+
+    /**
+     * Store a new code for the phone; it replaces any earlier code for that phone
+     */
+    void save(String phone, String code, Instant expiresAt);
+
+    /**
+     * Check a code against the latest live code for the phone.
+     * A matching code is consumed, so it cannot be used twice.
+     *
+     * @return true if the code matched; false for a null or blank code
+     */
+    boolean verify(String phone, String code);
+}
@@ -0,0 +1,434 @@
+package com.example.backend.oems.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.exception.ValidationException;
+
+/**
+ * Streaming export of payment rows for finance.
+ *
+ * Rows are read through a forward-only, read-only cursor with a fixed fetch size and written to the
+ * output stream as they arrive, so memory stays flat however many payments the range holds. The
+ * cursor runs inside a read-only transaction because the Postgres driver only fetches in batches
+ * with auto-commit off; without it the whole result set would be buffered by the driver.
+ *
+ * Two formats are offered: CSV, and a columnar binary layout for bulk loading (see {@link Format#COLUMNAR}).
+ */
+@Service
+public class PaymentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Column[] COLUMNS = {
+        new Column("id", ColumnType.UUID),
+        new Column("booking_id", ColumnType.UUID),
+        new Column("customer_id", ColumnType.UUID),
+        new Column("driver_id", ColumnType.UUID),
+        new Column("transaction_id", ColumnType.STRING),
+        new Column("payment_method", ColumnType.STRING),
+        new Column("status", ColumnType.STRING),
+        new Column("amount", ColumnType.DECIMAL),
+        new Column("base_fare", ColumnType.DECIMAL),
+        new Column("distance_fare", ColumnType.DECIMAL),
+        new Column("time_fare", ColumnType.DECIMAL),
+        new Column("surge_multiplier", ColumnType.DECIMAL),
+        new Column("platform_fee", ColumnType.DECIMAL),
+        new Column("tax_amount", ColumnType.DECIMAL),
+        new Column("tip_amount", ColumnType.DECIMAL),
+        new Column("discount_amount", ColumnType.DECIMAL),
+        new Column("coupon_code", ColumnType.STRING),
+        new Column("refund_amount", ColumnType.DECIMAL),
+        new Column("processed_at", ColumnType.TIMESTAMP),
+        new Column("created_at", ColumnType.TIMESTAMP)
+    };
+
+    // Ordered by the created_at index so the cursor can stream without sorting the range first
+    private static final String EXPORT_SQL = """
+        SELECT id, booking_id, customer_id, driver_id, transaction_id, payment_method, status, amount,
+               base_fare, distance_fare, time_fare, surge_multiplier, platform_fee, tax_amount, tip_amount,
+               discount_amount, coupon_code, refund_amount, processed_at, created_at
+        FROM payments
+        WHERE created_at >= ? AND created_at < ?
+        ORDER BY created_at, id
+        """;
+
+    private static final String SUMMARY_SQL = """
+        SELECT COUNT(*) AS payments,
+               COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+               COUNT(*) FILTER (WHERE status = 'REFUNDED') AS refunded,
+               COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN amount
+                                 WHEN status = 'REFUNDED' THEN amount - COALESCE(refund_amount, 0)
+                                 ELSE 0 END), 0) AS collected,
+               COALESCE(SUM(base_fare) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS base_fare,
+               COALESCE(SUM(distance_fare) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS distance_fare,
+               COALESCE(SUM(time_fare) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS time_fare,
+               COALESCE(SUM(platform_fee) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS platform_fee,
+               COALESCE(SUM(tax_amount) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS tax_amount,
+               COALESCE(SUM(tip_amount) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS tip_amount,
+               COALESCE(SUM(discount_amount) FILTER (WHERE status IN ('COMPLETED', 'REFUNDED')), 0) AS discount_amount,
+               COALESCE(SUM(refund_amount) FILTER (WHERE status = 'REFUNDED'), 0) AS refund_amount
+        FROM payments
+        WHERE created_at >= ? AND created_at < ?
+        """;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        /**
+         * Row groups of column vectors, big-endian:
+         * header {@code "OEMSCOL1"}, column count (int), then per column its name (modified UTF-8) and type (byte);
+         * each row group is a row count (int) followed, per column, by a null bitmap of ceil(rows / 8) bytes
+         * and the non-null values: UUID as two longs, DECIMAL as a long in hundredths, TIMESTAMP as a long
+         * in epoch microseconds, STRING as modified UTF-8. A row count of 0 ends the stream, followed by
+         * the total row count (long).
+         */
+        COLUMNAR("application/octet-stream", "ocol");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final int rowGroupSize;
+    private final int maxRangeDays;
+
+    public PaymentExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                AppProperties appProperties) {
+        AppProperties.PaymentExport config = appProperties.getPaymentExport();
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = config.getFetchSize();
+        this.rowGroupSize = config.getRowGroupSize();
+        this.maxRangeDays = config.getMaxRangeDays();
+    }
+
+    /**
+     * Reject a range that is empty, inverted or longer than the configured maximum.
+     * Called before the response is committed so the caller still gets a proper error.
+     */
+    public void validateRange(Instant from, Instant to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidationException("startDate must be before endDate");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRangeDays + 1L)) > 0) {
+            throw new ValidationException("Date range must not exceed " + maxRangeDays + " days");
+        }
+    }
+
+    /**
+     * Write every payment created in [from, to) to the stream, oldest first
+     *
+     * @return number of rows written
+     */
+    public long export(Instant from, Instant to, Format format, OutputStream out) throws IOException {
+        validateRange(from, to);
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new ColumnarWriter(out, rowGroupSize);
+        long started = System.currentTimeMillis();
+        writer.start();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, Timestamp.from(from));
+                ps.setTimestamp(2, Timestamp.from(to));
+                return ps;
+            }, rs -> {
+                try {
+                    writer.row(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away; abandon the cursor
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long rows = writer.finish();
+        logger.info("Exported {} payments as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    /**
+     * Totals over payments created in [from, to), computed in the database
+     */
+    public Map<String, Object> summarize(Instant from, Instant to) {
+        validateRange(from, to);
+        Map<String, Object> row = jdbcTemplate.queryForMap(SUMMARY_SQL, Timestamp.from(from), Timestamp.from(to));
+        // Re-key in a stable order; the row map is case-insensitive whatever case the database reports
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (String key : new String[] { "payments", "completed", "refunded", "collected", "base_fare", "distance_fare",
+                "time_fare", "platform_fee", "tax_amount", "tip_amount", "discount_amount", "refund_amount" }) {
+            summary.put(key, row.get(key));
+        }
+        return summary;
+    }
+
+    /**
+     * Suggested download name for an export of the range, named by its first and last UTC day
+     */
+    public static String fileName(Instant from, Instant to, Format format) {
+        return "payments_" + LocalDate.ofInstant(from, ZoneOffset.UTC) + "_"
+                + LocalDate.ofInstant(to.minusNanos(1), ZoneOffset.UTC) + "." + format.getExtension();
+    }
+
+    // =====================
+    // WRITERS
+    // =====================
+
+    private enum ColumnType { UUID, STRING, DECIMAL, TIMESTAMP }
+
+    private record Column(String name, ColumnType type) {
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+        void row(ResultSet rs) throws SQLException, IOException;
+        long finish() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; nulls are empty fields
+     */
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+        private long rows;
+
+        CsvWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public void start() throws IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(COLUMNS[i].name());
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                switch (COLUMNS[i].type()) {
+                    case UUID -> {
+                        Object value = rs.getObject(i + 1);
+                        if (value != null) {
+                            out.write(value.toString());
+                        }
+                    }
+                    case DECIMAL -> {
+                        BigDecimal value = rs.getBigDecimal(i + 1);
+                        if (value != null) {
+                            out.write(value.toPlainString());
+                        }
+                    }
+                    case TIMESTAMP -> {
+                        Timestamp value = rs.getTimestamp(i + 1);
+                        if (value != null) {
+                            out.write(value.toInstant().toString());
+                        }
+                    }
+                    case STRING -> writeQuoted(rs.getString(i + 1));
+                }
+            }
+            out.write("\r\n");
+            rows++;
+        }
+
+        @Override
+        public long finish() throws IOException {
+            out.flush();
+            return rows;
+        }
+
+        private void writeQuoted(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    /**
+     * Buffers one row group in reusable primitive vectors and writes it column by column
+     */
+    private static final class ColumnarWriter implements RowWriter {
+        private final DataOutputStream out;
+        private final int groupSize;
+        private final boolean[][] nulls;
+        private final long[][] high; // UUID most significant bits, DECIMAL hundredths, TIMESTAMP micros
+        private final long[][] low;  // UUID least significant bits
+        private final String[][] strings;
+        private int count;
+        private long rows;
+
+        ColumnarWriter(OutputStream out, int groupSize) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            this.groupSize = groupSize;
+            this.nulls = new boolean[COLUMNS.length][groupSize];
+            this.high = new long[COLUMNS.length][];
+            this.low = new long[COLUMNS.length][];
+            this.strings = new String[COLUMNS.length][];
+            for (int c = 0; c < COLUMNS.length; c++) {
+                switch (COLUMNS[c].type()) {
+                    case UUID -> {
+                        high[c] = new long[groupSize];
+                        low[c] = new long[groupSize];
+                    }
+                    case DECIMAL, TIMESTAMP -> high[c] = new long[groupSize];
+                    case STRING -> strings[c] = new String[groupSize];
+                }
+            }
+        }
+
+        @Override
+        public void start() throws IOException {
+            out.writeBytes("OEMSCOL1");
+            out.writeInt(COLUMNS.length);
+            for (Column column : COLUMNS) {
+                out.writeUTF(column.name());
+                out.writeByte(column.type().ordinal());
+            }
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                switch (COLUMNS[c].type()) {
+                    case UUID -> {
+                        UUID value = rs.getObject(c + 1, UUID.class);
+                        nulls[c][count] = value == null;
+                        if (value != null) {
+                            high[c][count] = value.getMostSignificantBits();
+                            low[c][count] = value.getLeastSignificantBits();
+                        }
+                    }
+                    case DECIMAL -> {
+                        BigDecimal value = rs.getBigDecimal(c + 1);
+                        nulls[c][count] = value == null;
+                        if (value != null) {
+                            high[c][count] = value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+                        }
+                    }
+                    case TIMESTAMP -> {
+                        Timestamp value = rs.getTimestamp(c + 1);
+                        nulls[c][count] = value == null;
+                        if (value != null) {
+                            high[c][count] = ChronoUnit.MICROS.between(Instant.EPOCH, value.toInstant());
+                        }
+                    }
+                    case STRING -> {
+                        String value = rs.getString(c + 1);
+                        nulls[c][count] = value == null;
+                        strings[c][count] = value;
+                    }
+                }
+            }
+            if (++count == groupSize) {
+                flushGroup();
+            }
+        }
+
+        @Override
+        public long finish() throws IOException {
+            flushGroup();
+            out.writeInt(0);
+            out.writeLong(rows);
+            out.flush();
+            return rows;
+        }
+
+        private void flushGroup() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            out.writeInt(count);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                writeNullBitmap(nulls[c]);
+                for (int r = 0; r < count; r++) {
+                    if (nulls[c][r]) {
+                        continue;
+                    }
+                    switch (COLUMNS[c].type()) {
+                        case UUID -> {
+                            out.writeLong(high[c][r]);
+                            out.writeLong(low[c][r]);
+                        }
+                        case DECIMAL, TIMESTAMP -> out.writeLong(high[c][r]);
+                        case STRING -> out.writeUTF(strings[c][r]);
+                    }
+                }
+                if (strings[c] != null) {
+                    Arrays.fill(strings[c], 0, count, null);
+                }
+            }
+            rows += count;
+            count = 0;
+        }
+
+        private void writeNullBitmap(boolean[] columnNulls) throws IOException {
+            for (int r = 0; r < count; r += 8) {
+                int bits = 0;
+                for (int b = 0; b < 8 && r + b < count; b++) {
+                    if (columnNulls[r + b]) {
+                        bits |= 1 << b;
+                    }
+                }
+                out.writeByte(bits);
+            }
+        }
+    }
+}
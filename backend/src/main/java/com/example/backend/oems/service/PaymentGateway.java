@@ -0,0 +1,52 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.example.backend.oems.entity.Payment;
+
+/**
+ * Card, UPI and wallet payment processor used by {@link PaymentProcessor}.
+ * Selected with {@code app.payments.gateway}. Implementations are called without a transaction or
+ * database connection held and may block for the duration of the network call.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Capture the amount. Calls repeated with the same idempotency key must not charge twice and
+     * must return the outcome of the first call.
+     */
+    ChargeResult charge(ChargeRequest request);
+
+    /**
+     * @param idempotencyKey unique per charge attempt; forwarded to the processor unchanged
+     */
+    record ChargeRequest(UUID paymentId, String idempotencyKey, BigDecimal amount, String currency,
+                         Payment.PaymentMethod method) {
+    }
+
+    /**
+     * @param transactionId processor reference, set when the charge succeeded
+     * @param message       decline or error reason for the payment record
+     */
+    record ChargeResult(Outcome outcome, String transactionId, String message) {
+
+        public static ChargeResult succeeded(String transactionId) {
+            return new ChargeResult(Outcome.SUCCEEDED, transactionId, null);
+        }
+
+        public static ChargeResult declined(String message) {
+            return new ChargeResult(Outcome.DECLINED, null, message);
+        }
+
+        public static ChargeResult error(String message) {
+            return new ChargeResult(Outcome.ERROR, null, message);
+        }
+    }
+
+    enum Outcome {
+        SUCCEEDED,  // Money captured
+        DECLINED,   // Final; the customer must retry with a new attempt
+        ERROR       // Transient (timeout, 5xx); safe to retry with the same key
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.backend.oems.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.event.PaymentChangedEvent;
+import com.example.backend.oems.repository.PaymentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous charge pipeline for payments claimed by {@link PaymentService}.
+ *
+ * Committed claims are queued by id. A dispatcher loads queued payments in batches with one short
+ * query and hands each to a virtual thread that calls the {@link PaymentGateway}, with the number of
+ * calls in flight capped; no transaction or connection is held while the gateway answers. Results
+ * are collected and settled in batches, one transaction per batch, so a burst of thousands of trip
+ * completions turns into a few hundred gateway calls in flight and a handful of write transactions.
+ *
+ * A result only settles the payment if it is still PROCESSING under the same idempotency key, so
+ * late or duplicate results are ignored. Payments whose outcome is unknown (gateway errors after all
+ * retries, a crash before settlement, a full queue) stay PROCESSING and are resubmitted by the
+ * recovery sweep under the same key, which the gateway answers without charging again.
+ */
+@Component
+public class PaymentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessor.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway gateway;
+    private final TransactionTemplate transactionTemplate;
+    private final String currency;
+    private final int queueCapacity;
+    private final int dispatchBatchSize;
+    private final int settlementBatchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long stuckAfterMs;
+
+    private final BlockingQueue<UUID> pending;
+    // Ids queued, being charged or awaiting settlement; guards against charging a payment twice at once
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<Settlement> settlements = new ConcurrentLinkedQueue<>();
+    private final Semaphore chargePermits;
+    private final ExecutorService chargeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter chargesSucceeded;
+    private final Counter chargesDeclined;
+    private final Counter chargesErrored;
+    private final Counter paymentsSettled;
+    private final Counter queueOverflows;
+
+    public PaymentProcessor(PaymentRepository paymentRepository, PaymentGateway gateway,
+                            PlatformTransactionManager transactionManager, AppProperties appProperties,
+                            MeterRegistry meterRegistry) {
+        AppProperties.Payments config = appProperties.getPayments();
+        this.paymentRepository = paymentRepository;
+        this.gateway = gateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.currency = config.getCurrency();
+        this.queueCapacity = config.getQueueCapacity();
+        this.dispatchBatchSize = config.getDispatchBatchSize();
+        this.settlementBatchSize = config.getSettlementBatchSize();
+        this.maxAttempts = Math.max(1, config.getMaxAttempts());
+        this.retryBackoffMs = config.getRetryBackoffMs();
+        this.stuckAfterMs = config.getStuckAfterMs();
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.chargePermits = new Semaphore(config.getMaxConcurrentCharges());
+
+        this.chargesSucceeded = meterRegistry.counter("oems.payments.charges", "outcome", "succeeded");
+        this.chargesDeclined = meterRegistry.counter("oems.payments.charges", "outcome", "declined");
+        this.chargesErrored = meterRegistry.counter("oems.payments.charges", "outcome", "error");
+        this.paymentsSettled = meterRegistry.counter("oems.payments.settled");
+        this.queueOverflows = meterRegistry.counter("oems.payments.queue.overflows");
+        meterRegistry.gauge("oems.payments.queue.size", pending, BlockingQueue::size);
+        meterRegistry.gauge("oems.payments.inflight", inFlight, Set::size);
+    }
+
+    /**
+     * Queue a payment once its claim has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        if (event.status() == Payment.PaymentStatus.PROCESSING && event.previousStatus() != Payment.PaymentStatus.PROCESSING) {
+            submit(event.paymentId());
+        }
+    }
+
+    // =====================
+    // DISPATCH
+    // =====================
+
+    /**
+     * Load queued payments in batches and start their gateway calls
+     */
+    @Scheduled(fixedDelayString = "${app.payments.dispatch-interval-ms:100}")
+    public void dispatch() {
+        List<UUID> batch = new ArrayList<>(dispatchBatchSize);
+        while (pending.drainTo(batch, dispatchBatchSize) > 0) {
+            List<Payment> payments;
+            try {
+                payments = paymentRepository.findAllById(batch);
+            } catch (Exception e) {
+                // Leave them PROCESSING for the recovery sweep
+                batch.forEach(inFlight::remove);
+                logger.warn("Failed to load {} payments for charging: {}", batch.size(), e.getMessage());
+                return;
+            }
+            Set<UUID> started = new HashSet<>();
+            for (Payment payment : payments) {
+                if (payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
+                    continue;
+                }
+                PaymentGateway.ChargeRequest request = new PaymentGateway.ChargeRequest(payment.getId(),
+                        payment.getIdempotencyKey(), payment.getAmount(), currency, payment.getPaymentMethod());
+                started.add(payment.getId());
+                if (payment.getPaymentMethod() == Payment.PaymentMethod.CASH) {
+                    // Collected by the driver; nothing to capture
+                    settlements.add(new Settlement(request.paymentId(), request.idempotencyKey(),
+                            PaymentGateway.ChargeResult.succeeded(null)));
+                } else {
+                    chargeExecutor.execute(() -> charge(request));
+                }
+            }
+            batch.stream().filter(id -> !started.contains(id)).forEach(inFlight::remove);
+            batch.clear();
+        }
+    }
+
+    // =====================
+    // SETTLEMENT
+    // =====================
+
+    /**
+     * Write gateway results back, one transaction per batch
+     */
+    @Scheduled(fixedDelayString = "${app.payments.settlement-interval-ms:250}")
+    public synchronized void settle() {
+        List<Settlement> batch = new ArrayList<>(settlementBatchSize);
+        while (true) {
+            Settlement next;
+            while (batch.size() < settlementBatchSize && (next = settlements.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                paymentsSettled.increment(transactionTemplate.execute(status -> apply(batch)));
+            } catch (Exception e) {
+                // One payment changed underneath fails the whole batch; settle the rest one at a time
+                logger.warn("Failed to settle batch of {} payments, retrying individually: {}", batch.size(), e.getMessage());
+                for (Settlement settlement : batch) {
+                    try {
+                        paymentsSettled.increment(transactionTemplate.execute(status -> apply(List.of(settlement))));
+                    } catch (Exception ex) {
+                        logger.warn("Failed to settle payment {}: {}", settlement.paymentId(), ex.getMessage());
+                    }
+                }
+            }
+            batch.forEach(settlement -> inFlight.remove(settlement.paymentId()));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Resubmit payments left PROCESSING without a result, e.g. after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.payments.recovery-interval-ms:60000}",
+               initialDelayString = "${app.payments.recovery-interval-ms:60000}")
+    public void recover() {
+        try {
+            List<UUID> stuck = paymentRepository.findIdsByStatusUpdatedBefore(Payment.PaymentStatus.PROCESSING,
+                    Instant.now().minusMillis(stuckAfterMs), PageRequest.of(0, Math.max(1, queueCapacity / 2)));
+            stuck.forEach(this::submit);
+            if (!stuck.isEmpty()) {
+                logger.info("Resubmitted {} payments stuck in PROCESSING", stuck.size());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to look up stuck payments: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        chargeExecutor.shutdown();
+        chargeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        settle();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private void submit(UUID paymentId) {
+        if (!inFlight.add(paymentId)) {
+            return;
+        }
+        if (!pending.offer(paymentId)) {
+            inFlight.remove(paymentId);
+            queueOverflows.increment();
+            logger.warn("Payment queue full; payment {} left for the recovery sweep", paymentId);
+        }
+    }
+
+    /**
+     * Call the gateway on a virtual thread, retrying transient errors with the same key
+     */
+    private void charge(PaymentGateway.ChargeRequest request) {
+        try {
+            chargePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.remove(request.paymentId());
+            return;
+        }
+        try {
+            PaymentGateway.ChargeResult result = null;
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    result = gateway.charge(request);
+                } catch (RuntimeException e) {
+                    result = PaymentGateway.ChargeResult.error(e.getMessage());
+                }
+                if (result.outcome() != PaymentGateway.Outcome.ERROR || attempt == maxAttempts) {
+                    break;
+                }
+                Thread.sleep(retryBackoffMs * attempt);
+            }
+
+            switch (result.outcome()) {
+                case SUCCEEDED -> chargesSucceeded.increment();
+                case DECLINED -> chargesDeclined.increment();
+                case ERROR -> chargesErrored.increment();
+            }
+            if (result.outcome() == PaymentGateway.Outcome.ERROR) {
+                // Outcome unknown; the recovery sweep asks again later under the same key
+                inFlight.remove(request.paymentId());
+                logger.warn("Gateway error charging payment {}: {}", request.paymentId(), result.message());
+            } else {
+                settlements.add(new Settlement(request.paymentId(), request.idempotencyKey(), result));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.remove(request.paymentId());
+        } finally {
+            chargePermits.release();
+        }
+    }
+
+    /**
+     * @return number of payments settled
+     */
+    private int apply(List<Settlement> batch) {
+        Map<UUID, Payment> payments = paymentRepository.findAllById(batch.stream().map(Settlement::paymentId).toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        int settled = 0;
+        for (Settlement settlement : batch) {
+            Payment payment = payments.get(settlement.paymentId());
+            // Only the attempt that is still current may settle the payment
+            if (payment == null || payment.getStatus() != Payment.PaymentStatus.PROCESSING
+                    || !settlement.idempotencyKey().equals(payment.getIdempotencyKey())) {
+                continue;
+            }
+            if (settlement.result().outcome() == PaymentGateway.Outcome.SUCCEEDED) {
+                payment.markAsCompleted(settlement.result().transactionId());
+            } else {
+                payment.markAsFailed(settlement.result().message());
+            }
+            settled++;
+        }
+        // Write now so the payment change events are raised inside the transaction, not during commit
+        paymentRepository.flush();
+        return settled;
+    }
+
+    /**
+     * Gateway result waiting to be written
+     */
+    private record Settlement(UUID paymentId, String idempotencyKey, PaymentGateway.ChargeResult result) {
+    }
+}
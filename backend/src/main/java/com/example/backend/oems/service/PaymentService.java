@@ -0,0 +1,187 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.event.TripFinishedEvent;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.exception.ResourceNotFoundException;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.BookingRepository;
+import com.example.backend.oems.repository.PaymentRepository;
+
+/**
+ * Payment submission.
+ *
+ * Starting a charge only claims the payment: it moves to PROCESSING under the attempt's idempotency
+ * key in one short transaction and the request returns. The gateway call and the final status are
+ * handled by the {@link PaymentProcessor} once the claim has committed. Replaying a request with the
+ * same idempotency key returns the payment as it stands instead of charging again.
+ *
+ * A payment opened when a driver accepts stays PENDING for the whole ride and is charged the metered
+ * fare when the trip completes, so a customer cannot start it early at the quoted estimate; only a
+ * FAILED attempt may be retried by hand before then. A tip given once the fare has been charged is
+ * taken as a payment of its own; a booking takes one tip.
+ */
+@Service
+public class PaymentService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+
+    public PaymentService(PaymentRepository paymentRepository, BookingRepository bookingRepository) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Customer starts paying for a booking.
+     * A payment already submitted or settled is returned unchanged, so double submits are harmless.
+     *
+     * @param method         overrides the method chosen at booking time, or null to keep it
+     * @param tip            added to the amount when a new attempt starts, or charged on its own once the
+     *                       fare has been; ignored if the booking was already tipped. May be null
+     * @param idempotencyKey client key for this attempt, or null to let the server pick one
+     */
+    @Transactional
+    public Payment charge(UUID customerId, UUID bookingId, Payment.PaymentMethod method, BigDecimal tip,
+                          String idempotencyKey) {
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new ValidationException("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            Optional<Payment> previous = paymentRepository.findByIdempotencyKey(idempotencyKey);
+            if (previous.isPresent()) {
+                Payment payment = previous.get();
+                if (!payment.getBookingId().equals(bookingId) || !payment.getCustomerId().equals(customerId)) {
+                    throw new ConflictException("Idempotency key was already used for another payment",
+                            "IDEMPOTENCY_KEY_REUSED");
+                }
+                return payment;
+            }
+        }
+        if (tip != null && (tip.signum() < 0 || tip.scale() > 2)) {
+            throw new ValidationException("Tip must be a positive amount with at most two decimals");
+        }
+
+        List<Payment> payments = paymentRepository.findByBookingId(bookingId).stream()
+                .filter(p -> p.getCustomerId().equals(customerId))
+                .toList();
+        Payment payment = payments.stream()
+                .max(Comparator.comparing(Payment::getCreatedAt))
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", bookingId.toString()));
+        if (payment.getStatus() == Payment.PaymentStatus.CANCELLED) {
+            throw new ConflictException("The booking was cancelled; nothing to pay", "PAYMENT_CANCELLED");
+        }
+        boolean tipped = payments.stream().anyMatch(p -> p.getTipAmount().signum() > 0);
+        boolean tipping = tip != null && tip.signum() > 0 && !tipped;
+        if (!payment.canBeCharged()) {
+            if (tipping && (payment.getStatus() == Payment.PaymentStatus.PROCESSING || payment.isCompleted())) {
+                return chargeTip(payment, method, tip);
+            }
+            return payment;
+        }
+        if (payment.getStatus() == Payment.PaymentStatus.PENDING && !isCompleted(bookingId)) {
+            throw new ConflictException("The fare is charged when the trip completes", "TRIP_NOT_COMPLETED");
+        }
+
+        if (method != null) {
+            payment.setPaymentMethod(method);
+        }
+        if (tipping) {
+            payment.addTip(tip);
+        }
+        claim(payment, idempotencyKey != null ? idempotencyKey : "charge:" + UUID.randomUUID());
+        return payment;
+    }
+
+    /**
+     * A payment of the given customer
+     */
+    @Transactional(readOnly = true)
+    public Payment findForCustomer(UUID paymentId, UUID customerId) {
+        return paymentRepository.findById(paymentId)
+                .filter(p -> p.getCustomerId().equals(customerId))
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", paymentId.toString()));
+    }
+
+    /**
+     * Settle the booking's pending payment with its trip, inside the transaction that finished it.
+     * A completed trip is charged its final fare; a cancelled trip cancels the payment.
+     */
+    @EventListener
+    public void onTripFinished(TripFinishedEvent event) {
+        boolean changed = false;
+        for (Payment payment : paymentRepository.findByBookingId(event.bookingId())) {
+            if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
+                continue;
+            }
+            if (!event.isCompleted()) {
+                payment.setStatus(Payment.PaymentStatus.CANCELLED);
+            } else {
+                if (event.fare() != null) {
+                    payment.setAmount(event.fare().add(payment.getTipAmount()));
+                }
+                // Keyed by the trip so the automatic attempt is the same one however often it is seen
+                payment.markAsProcessing("trip:" + event.tripId());
+            }
+            changed = true;
+        }
+        if (changed) {
+            // Write now so the payment change events are raised inside the transaction, not during commit
+            paymentRepository.flush();
+        }
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private boolean isCompleted(UUID bookingId) {
+        return bookingRepository.findById(bookingId)
+                .map(booking -> booking.getStatus() == Booking.BookingStatus.COMPLETED)
+                .orElse(false);
+    }
+
+    /**
+     * Charge a tip on its own once the fare has been charged.
+     * Keyed by the booking, so two tips submitted together cannot both be taken.
+     */
+    private Payment chargeTip(Payment farePayment, Payment.PaymentMethod method, BigDecimal tip) {
+        Payment payment = new Payment(farePayment.getBookingId(), farePayment.getCustomerId(), BigDecimal.ZERO,
+                method != null ? method : farePayment.getPaymentMethod());
+        payment.setDriverId(farePayment.getDriverId());
+        payment.addTip(tip);
+        claim(payment, "tip:" + farePayment.getBookingId());
+        return payment;
+    }
+
+    /**
+     * Start a new attempt; a concurrent attempt on the same payment or key surfaces as a conflict
+     */
+    private void claim(Payment payment, String idempotencyKey) {
+        payment.markAsProcessing(idempotencyKey);
+        try {
+            paymentRepository.saveAndFlush(payment);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("The payment is already being processed; reload and retry",
+                    "CONCURRENT_MODIFICATION", e);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Idempotency key was already used for another payment",
+                    "IDEMPOTENCY_KEY_REUSED", e);
+        }
+    }
+}
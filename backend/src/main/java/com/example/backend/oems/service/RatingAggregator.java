@@ -0,0 +1,257 @@
+package com.example.backend.oems.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.DriverRatingStats;
+import com.example.backend.oems.event.RatingSubmittedEvent;
+import com.example.backend.oems.repository.DriverRatingStatsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Streaming aggregation of customer ratings into per-driver averages.
+ *
+ * Committed ratings are folded into an in-memory delta per driver; a scheduled flusher drains the
+ * deltas and applies each one as a single atomic increment of driver_rating_stats (sum, count and
+ * per-star histogram), then copies the new lifetime average onto the drivers row. A burst of
+ * ratings for a busy driver therefore costs one row update per flush instead of one per rating
+ * contending on the same row. Ratings not yet flushed when the process dies are lost from the
+ * aggregate but not from the ratings table, from which the aggregate can be rebuilt.
+ *
+ * The aggregate also keeps an exponentially decayed sum and weight, so recent ratings count more
+ * than old ones. Their current values are mirrored in memory for the matching engine, which must
+ * not hit the database per candidate.
+ */
+@Component
+public class RatingAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregator.class);
+
+    // New drivers start at the drivers table default until enough recent ratings outweigh it
+    private static final double PRIOR_RATING = 5.0;
+    private static final int SYNC_CHUNK_SIZE = 500;
+
+    private final DriverRatingStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double decayRatePerSecond;
+    private final double priorWeight;
+
+    // driverId -> ratings committed since the last flush; only mutated inside compute()
+    private final ConcurrentHashMap<UUID, Delta> pending = new ConcurrentHashMap<>();
+    // driverId -> decayed sum and weight as of the last flush or refresh
+    private final ConcurrentHashMap<UUID, Decayed> decayed = new ConcurrentHashMap<>();
+
+    private final Counter ratingsFlushed;
+    private final Counter flushFailures;
+
+    public RatingAggregator(DriverRatingStatsRepository statsRepository, PlatformTransactionManager transactionManager,
+                            AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Ratings config = appProperties.getRatings();
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.decayRatePerSecond = Math.log(2) / (config.getHalfLifeDays() * 86400.0);
+        this.priorWeight = config.getPriorWeight();
+
+        this.ratingsFlushed = meterRegistry.counter("oems.ratings.flushed");
+        this.flushFailures = meterRegistry.counter("oems.ratings.flush.failures");
+        meterRegistry.gauge("oems.ratings.pending.drivers", pending, Map::size);
+    }
+
+    /**
+     * Queue a committed rating for the next flush
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingSubmitted(RatingSubmittedEvent event) {
+        pending.compute(event.driverId(), (id, delta) -> (delta != null ? delta : new Delta()).add(event.stars()));
+    }
+
+    /**
+     * Apply the pending deltas to the aggregate table and driver rows
+     */
+    @Scheduled(fixedDelayString = "${app.ratings.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<UUID, Delta> batch = new LinkedHashMap<>();
+        for (UUID driverId : pending.keySet()) {
+            // remove() and compute() lock the same bin, so a concurrent rating lands in this delta or the next
+            Delta delta = pending.remove(driverId);
+            if (delta != null) {
+                batch.put(driverId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long flushedAt = System.currentTimeMillis();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.forEach((driverId, delta) -> statsRepository.increment(driverId, delta.sum, delta.count,
+                        delta.stars[0], delta.stars[1], delta.stars[2], delta.stars[3], delta.stars[4],
+                        decayRatePerSecond));
+                List<UUID> driverIds = new ArrayList<>(batch.keySet());
+                for (int from = 0; from < driverIds.size(); from += SYNC_CHUNK_SIZE) {
+                    statsRepository.syncDriverAverages(driverIds.subList(from, Math.min(driverIds.size(), from + SYNC_CHUNK_SIZE)));
+                }
+            });
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            batch.forEach((driverId, delta) ->
+                    pending.compute(driverId, (id, current) -> current != null ? current.add(delta) : delta));
+            flushFailures.increment();
+            logger.warn("Failed to flush ratings for {} drivers: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        batch.forEach((driverId, delta) -> {
+            decayed.merge(driverId, new Decayed(delta.sum, delta.count, flushedAt), Decayed::plus);
+            ratingsFlushed.increment(delta.count);
+        });
+    }
+
+    /**
+     * Reload the decayed values from the database, picking up ratings flushed by other instances
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.ratings.refresh-interval-ms:300000}",
+               initialDelayString = "${app.ratings.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        try {
+            for (DriverRatingStats stats : statsRepository.findAll()) {
+                decayed.put(stats.getDriverId(), new Decayed(stats.getDecayedSum(), stats.getDecayedWeight(),
+                        stats.getDecayedAt().toEpochMilli()));
+            }
+        } catch (Exception e) {
+            // Keep the current values; matching falls back to the prior for unknown drivers
+            logger.warn("Failed to refresh decayed driver ratings: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Time-decayed average rating, blended with the prior so a few recent ratings cannot swing it.
+     * In-memory only; safe to call on the matching hot path.
+     */
+    public double decayedAverage(UUID driverId) {
+        Decayed current = decayed.get(driverId);
+        if (current == null) {
+            return PRIOR_RATING;
+        }
+        Decayed now = current.decayTo(System.currentTimeMillis());
+        return (now.sum + PRIOR_RATING * priorWeight) / (now.weight + priorWeight);
+    }
+
+    /**
+     * Lifetime rating summary of a driver, including ratings still waiting to be flushed
+     */
+    public RatingSummary getSummary(UUID driverId) {
+        Optional<DriverRatingStats> stats = statsRepository.findById(driverId);
+        long sum = stats.map(DriverRatingStats::getRatingSum).orElse(0L);
+        long count = stats.map(DriverRatingStats::getRatingCount).orElse(0L);
+        long[] histogram = stats.map(DriverRatingStats::getHistogram).orElseGet(() -> new long[5]);
+
+        Delta unflushed = pending.get(driverId);
+        if (unflushed != null) {
+            synchronized (unflushed) {
+                sum += unflushed.sum;
+                count += unflushed.count;
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += unflushed.stars[i];
+                }
+            }
+        }
+
+        Map<Integer, Long> byStars = new LinkedHashMap<>();
+        for (int i = histogram.length; i >= 1; i--) {
+            byStars.put(i, histogram[i - 1]);
+        }
+        double average = count == 0 ? PRIOR_RATING : Math.round(100.0 * sum / count) / 100.0;
+        return new RatingSummary(average, count, byStars, Math.round(decayedAverage(driverId) * 100.0) / 100.0);
+    }
+
+    /**
+     * Lifetime average, count, histogram keyed by stars and the current decayed average
+     */
+    public record RatingSummary(double average, long count, Map<Integer, Long> histogram, double decayedAverage) {
+    }
+
+    /**
+     * Ratings accumulated for one driver between flushes
+     */
+    private static final class Delta {
+        private long sum;
+        private long count;
+        private final long[] stars = new long[5];
+
+        synchronized Delta add(int rating) {
+            sum += rating;
+            count++;
+            stars[rating - 1]++;
+            return this;
+        }
+
+        synchronized Delta add(Delta other) {
+            sum += other.sum;
+            count += other.count;
+            for (int i = 0; i < stars.length; i++) {
+                stars[i] += other.stars[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Exponentially decayed rating sum and weight expressed at a point in time
+     */
+    private final class Decayed {
+        private final double sum;
+        private final double weight;
+        private final long atMillis;
+
+        Decayed(double sum, double weight, long atMillis) {
+            this.sum = sum;
+            this.weight = weight;
+            this.atMillis = atMillis;
+        }
+
+        Decayed decayTo(long millis) {
+            if (millis <= atMillis) {
+                return this;
+            }
+            double factor = Math.exp(-decayRatePerSecond * (millis - atMillis) / 1000.0);
+            return new Decayed(sum * factor, weight * factor, millis);
+        }
+
+        Decayed plus(Decayed other) {
+            long at = Math.max(atMillis, other.atMillis);
+            Decayed a = decayTo(at);
+            Decayed b = other.decayTo(at);
+            return new Decayed(a.sum + b.sum, a.weight + b.weight, at);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.backend.oems.service;
+
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.oems.entity.Rating;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.event.RatingSubmittedEvent;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.exception.ResourceNotFoundException;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.RatingRepository;
+import com.example.backend.oems.repository.TripRepository;
+
+/**
+ * Trip ratings.
+ * Only records the rating row; driver averages are maintained by the {@link RatingAggregator}.
+ */
+@Service
+public class RatingService {
+
+    private static final int MAX_FEEDBACK_LENGTH = 1000;
+
+    private final RatingRepository ratingRepository;
+    private final TripRepository tripRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RatingService(RatingRepository ratingRepository, TripRepository tripRepository,
+                         ApplicationEventPublisher eventPublisher) {
+        this.ratingRepository = ratingRepository;
+        this.tripRepository = tripRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Customer rates the driver of a completed trip; each trip can be rated once
+     */
+    @Transactional
+    public Rating rateDriver(UUID tripId, UUID customerId, Integer stars, String feedback) {
+        Trip trip = tripRepository.findById(tripId)
+                .filter(t -> t.getCustomerId().equals(customerId))
+                .orElseThrow(() -> new ResourceNotFoundException("Trip", tripId.toString()));
+        if (trip.getStatus() != Trip.TripStatus.COMPLETED || trip.getDriverId() == null) {
+            throw new ConflictException("Only completed trips can be rated", "TRIP_NOT_COMPLETED");
+        }
+
+        Rating rating = ratingRepository.findByTripId(tripId)
+                .orElseGet(() -> new Rating(tripId, customerId, trip.getDriverId()));
+        if (!rating.isValidRating(stars)) {
+            throw new ValidationException("Rating must be between 1 and 5");
+        }
+        if (rating.isCustomerRated()) {
+            throw new ConflictException("This trip has already been rated", "ALREADY_RATED");
+        }
+        if (feedback != null) {
+            feedback = feedback.isBlank() ? null : feedback.strip();
+        }
+        if (feedback != null && feedback.length() > MAX_FEEDBACK_LENGTH) {
+            feedback = feedback.substring(0, MAX_FEEDBACK_LENGTH);
+        }
+        rating.rateByCustomer(stars, feedback);
+        try {
+            rating = ratingRepository.saveAndFlush(rating);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent rating of the same trip
+            throw new ConflictException("This trip has already been rated", "ALREADY_RATED", e);
+        }
+
+        eventPublisher.publishEvent(new RatingSubmittedEvent(tripId, rating.getDriverId(), stars,
+                rating.getCustomerRatedAt()));
+        return rating;
+    }
+}
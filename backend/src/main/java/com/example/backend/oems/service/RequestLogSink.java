@@ -0,0 +1,48 @@
+package com.example.backend.oems.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.backend.oems.entity.LogEntry;
+
+/**
+ * Destination for request log entries written by {@link RequestLogWriter}.
+ * Selected with {@code app.request-log.sink}; the same sink serves the super-admin audit view.
+ */
+public interface RequestLogSink {
+
+    /**
+     * Persist a batch of entries (called from the single writer thread)
+     */
+    void write(List<LogEntry> entries) throws Exception;
+
+    /**
+     * Find entries matching the query, newest first
+     */
+    List<LogEntry> search(RequestLogQuery query);
+
+    /**
+     * Most recent entries, newest first
+     */
+    default List<LogEntry> tail(int limit) {
+        return search(new RequestLogQuery(null, null, null, null, 0, limit));
+    }
+
+    /**
+     * Audit log filter; null fields match everything
+     *
+     * @param pathPrefix only entries whose path starts with this prefix
+     * @param userPhone  only entries made by this phone number
+     * @param offset     number of matching entries to skip (newest first)
+     * @param limit      maximum number of entries to return
+     */
+    record RequestLogQuery(Instant from, Instant to, String pathPrefix, String userPhone, int offset, int limit) {
+
+        public boolean matches(LogEntry entry) {
+            return (from == null || !entry.getTimestamp().isBefore(from))
+                && (to == null || entry.getTimestamp().isBefore(to))
+                && (pathPrefix == null || (entry.getPath() != null && entry.getPath().startsWith(pathPrefix)))
+                && (userPhone == null || userPhone.equals(entry.getUserPhone()));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.backend.oems.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.LogEntry;
+import com.example.backend.oems.util.MpscRingBuffer;
+import com.example.backend.oems.util.TimeOrderedUuidGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous writer for request log entries.
+ *
+ * The logging filter enqueues entries into a bounded lock-free queue and returns; a scheduled
+ * writer drains the queue and hands batches to the configured {@link RequestLogSink}. When the
+ * queue is full the configured overflow policy either drops the entry immediately or waits
+ * briefly for space before dropping it.
+ */
+@Component
+public class RequestLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLogWriter.class);
+
+    private final RequestLogSink sink;
+    private final MpscRingBuffer<LogEntry> queue;
+    private final int batchSize;
+    private final AppProperties.RequestLog.OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public RequestLogWriter(RequestLogSink sink, AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.RequestLog config = appProperties.getRequestLog();
+        this.sink = sink;
+        this.queue = new MpscRingBuffer<>(config.getQueueCapacity());
+        this.batchSize = config.getBatchSize();
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getBlockTimeoutMs());
+
+        meterRegistry.gauge("oems.request.log.queue.size", queue, MpscRingBuffer::size);
+        meterRegistry.more().counter("oems.request.log.accepted", List.of(), accepted);
+        meterRegistry.more().counter("oems.request.log.dropped", List.of(), dropped);
+        meterRegistry.more().counter("oems.request.log.written", List.of(), written);
+        meterRegistry.more().counter("oems.request.log.failed", List.of(), failed);
+    }
+
+    /**
+     * Queue a log entry for persistence
+     *
+     * @return false if the entry was dropped because the queue stayed full
+     */
+    public boolean enqueue(LogEntry entry) {
+        if (entry.getId() == null) {
+            entry.setId(TimeOrderedUuidGenerator.next());
+        }
+        if (queue.offer(entry)) {
+            accepted.increment();
+            return true;
+        }
+        if (overflowPolicy == AppProperties.RequestLog.OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(100_000);
+                if (queue.offer(entry)) {
+                    accepted.increment();
+                    return true;
+                }
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Drain the queue and hand its entries to the sink in batches
+     */
+    @Scheduled(fixedDelayString = "${app.request-log.flush-interval-ms:500}")
+    public synchronized void flush() {
+        // Bound one run to a single queue's worth so a busy producer cannot pin the writer
+        int remaining = queue.capacity();
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (remaining > 0) {
+            batch.clear();
+            int drained = queue.drain(batch::add, Math.min(batchSize, remaining));
+            if (drained == 0) {
+                return;
+            }
+            remaining -= drained;
+            writeBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void writeBatch(List<LogEntry> batch) {
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            // Logging should not break the application
+            failed.add(batch.size());
+            logger.warn("Failed to write {} request log entries: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.backend.oems.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.LogEntry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only request log sink on local memory-mapped segment files.
+ *
+ * Each record is a 4-byte length prefix followed by a compact binary encoding of the entry.
+ * Records are appended to the active segment through its mapping; the length is written
+ * last, so a zero length marks the end of the written region. When a record does not fit
+ * the active segment is forced to disk and a new one is started, and the oldest segments
+ * beyond the retention limit are deleted. Nothing is written to Postgres, so request logging
+ * causes no table bloat or vacuum work.
+ *
+ * Strings are stored as a byte length and their raw UTF-8 bytes, so a field of any size fits.
+ * Searches hold the lock only long enough to capture the active segment and how far it has been
+ * written, then scan without it, so a long audit search never stalls the writer thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.request-log.sink", havingValue = "file")
+public class SegmentFileRequestLogSink implements RequestLogSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentFileRequestLogSink.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("requests-(\\d{19})\\.seg");
+    private static final byte FORMAT_VERSION = 1;
+    private static final int NULL_STATUS = -1;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(512);
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeSequence;
+
+    public SegmentFileRequestLogSink(AppProperties appProperties) throws IOException {
+        AppProperties.RequestLog.File config = appProperties.getRequestLog().getFile();
+        this.directory = Paths.get(config.getDirectory());
+        this.segmentBytes = Math.toIntExact(config.getSegmentSizeMb() * 1024L * 1024L);
+        this.maxSegments = config.getMaxSegments();
+
+        Files.createDirectories(directory);
+        List<Long> existing = listSegments();
+        if (existing.isEmpty()) {
+            openSegment(1);
+        } else {
+            // Resume appending after the last complete record of the newest segment
+            openSegment(existing.get(existing.size() - 1));
+            active.position(endOfRecords(active));
+        }
+    }
+
+    @Override
+    public synchronized void write(List<LogEntry> entries) throws IOException {
+        for (LogEntry entry : entries) {
+            byte[] record = encode(entry);
+            // Keep room for the zero length that terminates the segment
+            int needed = Integer.BYTES + record.length + Integer.BYTES;
+            if (needed > segmentBytes) {
+                logger.debug("Skipping oversized request log record of {} bytes", record.length);
+                continue;
+            }
+            if (active.remaining() < needed) {
+                roll();
+            }
+            int position = active.position();
+            active.position(position + Integer.BYTES);
+            active.put(record);
+            active.putInt(position, record.length);
+        }
+    }
+
+    @Override
+    public List<LogEntry> search(RequestLogQuery query) {
+        // Records below the captured position are complete; anything appended later is ignored
+        long snapshotSequence;
+        ByteBuffer snapshot;
+        synchronized (this) {
+            snapshotSequence = activeSequence;
+            snapshot = active.duplicate();
+            snapshot.limit(active.position());
+        }
+
+        List<LogEntry> result = new ArrayList<>(Math.max(0, query.limit()));
+        int toSkip = Math.max(0, query.offset());
+        try {
+            List<Long> segments = listSegments();
+            for (int s = segments.size() - 1; s >= 0 && result.size() < query.limit(); s--) {
+                long sequence = segments.get(s);
+                if (sequence > snapshotSequence) {
+                    continue;
+                }
+                ByteBuffer segment = sequence == snapshotSequence ? snapshot : mapReadOnly(sequence);
+                if (segment == null) {
+                    // Deleted by retention since it was listed; every older segment went with it
+                    break;
+                }
+
+                List<LogEntry> matches = new ArrayList<>();
+                Instant newest = scan(segment, query, matches);
+
+                // Walk the segment's matches newest first
+                for (int i = matches.size() - 1; i >= 0 && result.size() < query.limit(); i--) {
+                    if (toSkip > 0) {
+                        toSkip--;
+                    } else {
+                        result.add(matches.get(i));
+                    }
+                }
+                // Segments are written in time order, so nothing older can match
+                if (query.from() != null && newest != null && newest.isBefore(query.from())) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read request log segments", e);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        active.force();
+        activeChannel.close();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private void roll() throws IOException {
+        active.force();
+        activeChannel.close();
+        openSegment(activeSequence + 1);
+
+        List<Long> segments = listSegments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segmentPath(segments.get(i)));
+        }
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        activeSequence = sequence;
+    }
+
+    /**
+     * Map a closed segment for reading
+     *
+     * @return the mapping, or null if the segment has been deleted
+     */
+    private ByteBuffer mapReadOnly(long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode every record of a segment, collecting matches oldest first
+     *
+     * @return timestamp of the newest record in the segment, or null if it is empty
+     */
+    private Instant scan(ByteBuffer segment, RequestLogQuery query, List<LogEntry> matches) throws IOException {
+        Instant newest = null;
+        int position = 0;
+        while (position + Integer.BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > segment.limit()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            segment.get(position + Integer.BYTES, record);
+            LogEntry entry = decode(record);
+            newest = entry.getTimestamp();
+            if (query.matches(entry)) {
+                matches.add(entry);
+            }
+            position += Integer.BYTES + length;
+        }
+        return newest;
+    }
+
+    private static int endOfRecords(ByteBuffer segment) {
+        int position = 0;
+        while (position + Integer.BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > segment.limit()) {
+                break;
+            }
+            position += Integer.BYTES + length;
+        }
+        return position;
+    }
+
+    private byte[] encode(LogEntry entry) throws IOException {
+        scratch.reset();
+        UUID id = entry.getId();
+        scratchOut.writeByte(FORMAT_VERSION);
+        scratchOut.writeLong(id.getMostSignificantBits());
+        scratchOut.writeLong(id.getLeastSignificantBits());
+        scratchOut.writeLong(entry.getTimestamp().getEpochSecond());
+        scratchOut.writeInt(entry.getTimestamp().getNano());
+        scratchOut.writeInt(entry.getStatus() != null ? entry.getStatus() : NULL_STATUS);
+        writeNullable(entry.getMethod());
+        writeNullable(entry.getPath());
+        writeNullable(entry.getUserPhone());
+        writeNullable(entry.getMetadata());
+        scratchOut.flush();
+        return scratch.toByteArray();
+    }
+
+    private void writeNullable(String value) throws IOException {
+        scratchOut.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            scratchOut.writeInt(bytes.length);
+            scratchOut.write(bytes);
+        }
+    }
+
+    private static LogEntry decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported request log record version " + version);
+        }
+        LogEntry entry = new LogEntry();
+        entry.setId(new UUID(in.readLong(), in.readLong()));
+        entry.setTimestamp(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+        int status = in.readInt();
+        entry.setStatus(status == NULL_STATUS ? null : status);
+        entry.setMethod(readNullable(in));
+        entry.setPath(readNullable(in));
+        entry.setUserPhone(readNullable(in));
+        entry.setMetadata(readNullable(in));
+        return entry;
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("requests-%019d.seg", sequence));
+    }
+}
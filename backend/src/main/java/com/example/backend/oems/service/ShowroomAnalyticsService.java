@@ -0,0 +1,421 @@
+package com.example.backend.oems.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.event.TripFinishedEvent;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.ShowroomHourlyStatsRepository;
+
+/**
+ * Hourly analytics cube behind the showroom admin reports.
+ *
+ * Finished trips are counted per (showroom, local hour, vehicle type). Trips carry no showroom, so
+ * each one is attributed to the nearest active showroom to its pickup point. Every trip increments
+ * its bucket in showroom_hourly_stats inside the finishing transaction, and once committed the same
+ * bucket in memory. In memory a showroom's day is one block of parallel primitive arrays indexed by
+ * hour and vehicle type, so a 90-day report scans about 15k cells and never touches the trips table.
+ * Days, weeks and months are rolled up from the hourly cells at query time.
+ *
+ * The retention window is loaded from the table once the application is ready. The current and
+ * previous day are reloaded periodically to pick up trips finished on other instances.
+ */
+@Service
+public class ShowroomAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowroomAnalyticsService.class);
+
+    private static final Vehicle.VehicleType[] TYPES = Vehicle.VehicleType.values();
+    private static final int HOURS = 24;
+    private static final int CELLS = HOURS * TYPES.length;
+    private static final int PEAK_HOURS = 3;
+
+    private static final String LOAD_SQL = """
+        SELECT showroom_id, bucket_start, vehicle_type, trips_completed, trips_cancelled, revenue, trip_seconds
+        FROM showroom_hourly_stats
+        WHERE bucket_start >= ?
+        """;
+
+    public enum Granularity { HOUR, DAY, WEEK, MONTH }
+
+    private final ShowroomHourlyStatsRepository statsRepository;
+    private final ShowroomService showroomService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+    private final int retentionDays;
+    private final double showroomRadiusKm;
+
+    // showroomId -> hourly cells by local day
+    private final ConcurrentHashMap<UUID, Series> series = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public ShowroomAnalyticsService(ShowroomHourlyStatsRepository statsRepository, ShowroomService showroomService,
+                                    JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+        AppProperties.Analytics config = appProperties.getAnalytics();
+        this.statsRepository = statsRepository;
+        this.showroomService = showroomService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = ZoneId.of(config.getTimeZone());
+        this.retentionDays = config.getRetentionDays();
+        this.showroomRadiusKm = config.getShowroomRadiusKm();
+    }
+
+    // =====================
+    // DOMAIN EVENTS
+    // =====================
+
+    /**
+     * Persist the trip's bucket as part of the transaction that finished it
+     */
+    @EventListener
+    public void onTripFinished(TripFinishedEvent event) {
+        bucketOf(event).ifPresent(b -> statsRepository.increment(b.showroomId(), b.hourStart().toInstant(),
+                b.vehicleType().name(), b.completed(), 1 - b.completed(), b.revenue(), b.tripSeconds()));
+    }
+
+    /**
+     * Apply the trip's bucket in memory once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripCommitted(TripFinishedEvent event) {
+        bucketOf(event).ifPresent(b -> {
+            LocalDate day = b.hourStart().toLocalDate();
+            if (day.isBefore(retentionStart())) {
+                return;
+            }
+            series.computeIfAbsent(b.showroomId(), id -> new Series())
+                    .add(day, cell(b.hourStart().getHour(), b.vehicleType()), b.completed(),
+                            toPaise(b.revenue()), b.tripSeconds());
+        });
+    }
+
+    // =====================
+    // LOADING
+    // =====================
+
+    /**
+     * Load the whole retention window on first run, then the current and previous day
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval-ms:300000}",
+               initialDelayString = "${app.analytics.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDate from = loaded ? today.minusDays(1) : retentionStart();
+        try {
+            Map<UUID, Map<LocalDate, DayBlock>> blocks = new HashMap<>();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                Vehicle.VehicleType type;
+                try {
+                    type = Vehicle.VehicleType.valueOf(rs.getString("vehicle_type"));
+                } catch (IllegalArgumentException e) {
+                    return; // retired vehicle type
+                }
+                ZonedDateTime hour = rs.getTimestamp("bucket_start").toInstant().atZone(zone);
+                blocks.computeIfAbsent(rs.getObject("showroom_id", UUID.class), id -> new HashMap<>())
+                        .computeIfAbsent(hour.toLocalDate(), day -> new DayBlock())
+                        .set(cell(hour.getHour(), type), rs.getInt("trips_completed"), rs.getInt("trips_cancelled"),
+                                toPaise(rs.getBigDecimal("revenue")), rs.getLong("trip_seconds"));
+            }, Timestamp.from(from.atStartOfDay(zone).toInstant()));
+
+            // Trips committed while the query ran are in the table and come back with the next refresh
+            LocalDate retainFrom = retentionStart();
+            for (UUID showroomId : blocks.keySet()) {
+                series.computeIfAbsent(showroomId, id -> new Series());
+            }
+            series.forEach((showroomId, s) -> s.replace(from, blocks.getOrDefault(showroomId, Map.of()), retainFrom));
+            series.values().removeIf(Series::isEmpty);
+            loaded = true;
+        } catch (Exception e) {
+            // Keep serving what is in memory; the first load is retried on the next run
+            logger.warn("Failed to load showroom analytics from {}: {}", from, e.getMessage());
+        }
+    }
+
+    // =====================
+    // REPORTS
+    // =====================
+
+    /**
+     * Report over the last {@code days} local days including today
+     */
+    public Report lastDays(UUID showroomId, int days, Granularity granularity) {
+        if (days < 1 || days > retentionDays) {
+            throw new ValidationException("days must be between 1 and " + retentionDays);
+        }
+        LocalDate to = LocalDate.now(zone);
+        return query(showroomId, to.minusDays(days - 1L), to, granularity);
+    }
+
+    /**
+     * Totals, a period series at the given granularity, trips by hour of day and totals by vehicle type
+     * for the inclusive local date range. Reads in-memory cells only.
+     */
+    public Report query(UUID showroomId, LocalDate from, LocalDate to, Granularity granularity) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("from must not be after to");
+        }
+        if (from.isBefore(retentionStart())) {
+            throw new ValidationException("Analytics are kept for the last " + retentionDays + " days");
+        }
+
+        Map<LocalDateTime, Acc> periods = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (granularity == Granularity.HOUR) {
+                for (int hour = 0; hour < HOURS; hour++) {
+                    periods.putIfAbsent(day.atTime(hour, 0), new Acc());
+                }
+            } else {
+                periods.putIfAbsent(periodStart(day, granularity), new Acc());
+            }
+        }
+        Acc total = new Acc();
+        long[] tripsByHour = new long[HOURS];
+        Acc[] byType = new Acc[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) {
+            byType[t] = new Acc();
+        }
+
+        Series s = series.get(showroomId);
+        if (s != null) {
+            synchronized (s) {
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    DayBlock block = s.days.get(day);
+                    if (block == null) {
+                        continue;
+                    }
+                    Acc period = granularity == Granularity.HOUR ? null : periods.get(periodStart(day, granularity));
+                    for (int hour = 0; hour < HOURS; hour++) {
+                        Acc hourly = granularity == Granularity.HOUR ? periods.get(day.atTime(hour, 0)) : period;
+                        for (int t = 0; t < TYPES.length; t++) {
+                            int c = hour * TYPES.length + t;
+                            if (block.completed[c] == 0 && block.cancelled[c] == 0) {
+                                continue;
+                            }
+                            hourly.add(block, c);
+                            total.add(block, c);
+                            byType[t].add(block, c);
+                            tripsByHour[hour] += block.completed[c];
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Period> periodSeries = new ArrayList<>(periods.size());
+        periods.forEach((start, acc) -> periodSeries.add(new Period(start, acc.totals())));
+        Map<Vehicle.VehicleType, Totals> vehicleTypes = new EnumMap<>(Vehicle.VehicleType.class);
+        for (int t = 0; t < TYPES.length; t++) {
+            if (byType[t].completed + byType[t].cancelled > 0) {
+                vehicleTypes.put(TYPES[t], byType[t].totals());
+            }
+        }
+        return new Report(from, to, granularity, total.totals(), periodSeries, tripsByHour, peakHours(tripsByHour), vehicleTypes);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private Optional<Bucket> bucketOf(TripFinishedEvent event) {
+        if (event.vehicleType() == null || event.pickupLatitude() == null || event.pickupLongitude() == null) {
+            return Optional.empty();
+        }
+        return showroomService.findNearestId(event.pickupLatitude(), event.pickupLongitude(), showroomRadiusKm)
+                .map(showroomId -> {
+                    Instant finishedAt = event.finishedAt() != null ? event.finishedAt() : Instant.now();
+                    ZonedDateTime hourStart = finishedAt.atZone(zone).truncatedTo(ChronoUnit.HOURS);
+                    boolean completed = event.isCompleted();
+                    BigDecimal revenue = completed && event.fare() != null ? event.fare() : BigDecimal.ZERO;
+                    long tripSeconds = completed && event.startedAt() != null
+                            ? Math.max(0, Duration.between(event.startedAt(), finishedAt).toSeconds()) : 0;
+                    return new Bucket(showroomId, hourStart, event.vehicleType(), completed ? 1 : 0, revenue, tripSeconds);
+                });
+    }
+
+    private LocalDate retentionStart() {
+        return LocalDate.now(zone).minusDays(retentionDays - 1L);
+    }
+
+    private static LocalDateTime periodStart(LocalDate day, Granularity granularity) {
+        return switch (granularity) {
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH -> day.withDayOfMonth(1).atStartOfDay();
+            default -> day.atStartOfDay();
+        };
+    }
+
+    private static List<Integer> peakHours(long[] tripsByHour) {
+        List<Integer> hours = new ArrayList<>();
+        for (int hour = 0; hour < HOURS; hour++) {
+            if (tripsByHour[hour] > 0) {
+                hours.add(hour);
+            }
+        }
+        hours.sort((a, b) -> Long.compare(tripsByHour[b], tripsByHour[a]));
+        return hours.subList(0, Math.min(PEAK_HOURS, hours.size()));
+    }
+
+    private static int cell(int hour, Vehicle.VehicleType type) {
+        return hour * TYPES.length + type.ordinal();
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * Where a finished trip lands in the cube
+     */
+    private record Bucket(UUID showroomId, ZonedDateTime hourStart, Vehicle.VehicleType vehicleType,
+                          int completed, BigDecimal revenue, long tripSeconds) {
+    }
+
+    /**
+     * One showroom's day blocks; all access synchronizes on the series
+     */
+    private static final class Series {
+        private final Map<LocalDate, DayBlock> days = new HashMap<>();
+
+        synchronized void add(LocalDate day, int cell, int completed, long revenuePaise, long tripSeconds) {
+            days.computeIfAbsent(day, d -> new DayBlock()).add(cell, completed, revenuePaise, tripSeconds);
+        }
+
+        /**
+         * Swap in freshly loaded days from {@code from} onwards and drop days before {@code retainFrom}
+         */
+        synchronized void replace(LocalDate from, Map<LocalDate, DayBlock> loaded, LocalDate retainFrom) {
+            days.keySet().removeIf(day -> !day.isBefore(from) || day.isBefore(retainFrom));
+            days.putAll(loaded);
+        }
+
+        synchronized boolean isEmpty() {
+            return days.isEmpty();
+        }
+    }
+
+    /**
+     * A showroom's day as parallel arrays indexed by hour * vehicle types + vehicle type ordinal
+     */
+    private static final class DayBlock {
+        private final int[] completed = new int[CELLS];
+        private final int[] cancelled = new int[CELLS];
+        private final long[] revenuePaise = new long[CELLS];
+        private final long[] tripSeconds = new long[CELLS];
+
+        void add(int cell, int completedTrips, long revenue, long seconds) {
+            if (completedTrips > 0) {
+                completed[cell] += completedTrips;
+            } else {
+                cancelled[cell]++;
+            }
+            revenuePaise[cell] += revenue;
+            tripSeconds[cell] += seconds;
+        }
+
+        DayBlock set(int cell, int completedTrips, int cancelledTrips, long revenue, long seconds) {
+            completed[cell] = completedTrips;
+            cancelled[cell] = cancelledTrips;
+            revenuePaise[cell] = revenue;
+            tripSeconds[cell] = seconds;
+            return this;
+        }
+    }
+
+    /**
+     * Running sums while scanning cells
+     */
+    private static final class Acc {
+        private long completed;
+        private long cancelled;
+        private long revenuePaise;
+        private long tripSeconds;
+
+        void add(DayBlock block, int cell) {
+            completed += block.completed[cell];
+            cancelled += block.cancelled[cell];
+            revenuePaise += block.revenuePaise[cell];
+            tripSeconds += block.tripSeconds[cell];
+        }
+
+        Totals totals() {
+            return new Totals(completed, cancelled, BigDecimal.valueOf(revenuePaise, 2), tripSeconds);
+        }
+    }
+
+    /**
+     * Summed counters for a period, a vehicle type or a whole report
+     */
+    public record Totals(long tripsCompleted, long tripsCancelled, BigDecimal revenue, long tripSeconds) {
+
+        public BigDecimal averageTripValue() {
+            return tripsCompleted == 0 ? BigDecimal.ZERO
+                    : revenue.divide(BigDecimal.valueOf(tripsCompleted), 2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Vehicle hours spent on completed trips
+         */
+        public double busyHours() {
+            return round(tripSeconds / 3600.0);
+        }
+
+        /**
+         * Percentage of finished trips that completed
+         */
+        public double completionRate() {
+            long finished = tripsCompleted + tripsCancelled;
+            return finished == 0 ? 0.0 : round(100.0 * tripsCompleted / finished);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    /**
+     * Totals for the period starting at {@code start} (local time)
+     */
+    public record Period(LocalDateTime start, Totals totals) {
+    }
+
+    /**
+     * Report over the inclusive local date range [from, to]
+     *
+     * @param tripsByHour completed trips by local hour of day, 0-23
+     * @param peakHours busiest hours of day, busiest first
+     */
+    public record Report(LocalDate from, LocalDate to, Granularity granularity, Totals total, List<Period> series,
+                         long[] tripsByHour, List<Integer> peakHours, Map<Vehicle.VehicleType, Totals> byVehicleType) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.backend.oems.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.event.ShowroomChangedEvent;
+import com.example.backend.oems.repository.ShowroomRepository;
+import com.example.backend.oems.util.GeoUtils;
+
+/**
+ * In-memory index of active showroom coordinates.
+ *
+ * Readers work on an immutable snapshot sorted by latitude: a binary search finds the
+ * latitude band of a query and only the entries inside it are distance-checked. Writers
+ * build a new snapshot and swap it in, so reads never lock. The snapshot is patched from
+ * {@link ShowroomChangedEvent}s after commit and fully reloaded on a slow schedule to pick
+ * up bulk changes that bypass the entity listener.
+ */
+@Component
+public class ShowroomLocationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowroomLocationCache.class);
+
+    private final ShowroomRepository showroomRepository;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    public ShowroomLocationCache(ShowroomRepository showroomRepository, AppProperties appProperties) {
+        this.showroomRepository = showroomRepository;
+        this.enabled = appProperties.getGeo().isShowroomCacheEnabled();
+    }
+
+    /**
+     * Whether lookups can be answered from memory
+     */
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    /**
+     * Active showrooms within the radius, nearest first
+     */
+    public List<ShowroomHit> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        Snapshot current = snapshot;
+        if (current == null || current.size() == 0) {
+            return List.of();
+        }
+
+        double latDelta = GeoUtils.latDeltaForKm(radiusKm);
+        double lngDelta = GeoUtils.lngDeltaForKm(radiusKm, Math.min(90.0, Math.abs(latitude) + latDelta));
+
+        List<ShowroomHit> hits = new ArrayList<>();
+        for (int i = current.lowerBound(latitude - latDelta); i < current.size(); i++) {
+            if (current.latitudes[i] > latitude + latDelta) {
+                break;
+            }
+            if (Math.abs(current.longitudes[i] - longitude) > lngDelta) {
+                continue;
+            }
+            double distance = GeoUtils.haversineKm(latitude, longitude, current.latitudes[i], current.longitudes[i]);
+            if (distance <= radiusKm) {
+                hits.add(current.hit(i, distance));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(ShowroomHit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * Nearest active showroom within the radius
+     */
+    public Optional<ShowroomHit> findNearest(double latitude, double longitude, double radiusKm) {
+        Snapshot current = snapshot;
+        if (current == null || current.size() == 0) {
+            return Optional.empty();
+        }
+
+        // Walk outwards from the query latitude; the latitude gap alone is a lower bound on
+        // the great-circle distance, so each side stops once it exceeds the best match
+        int start = current.lowerBound(latitude);
+        int best = -1;
+        double bestDistance = radiusKm;
+        int down = start - 1;
+        int up = start;
+        while (down >= 0 || up < current.size()) {
+            if (up < current.size()) {
+                if (latitudeGapKm(current.latitudes[up], latitude) > bestDistance) {
+                    up = current.size();
+                } else {
+                    double d = GeoUtils.haversineKm(latitude, longitude, current.latitudes[up], current.longitudes[up]);
+                    if (d <= bestDistance) {
+                        best = up;
+                        bestDistance = d;
+                    }
+                    up++;
+                }
+            }
+            if (down >= 0) {
+                if (latitudeGapKm(current.latitudes[down], latitude) > bestDistance) {
+                    down = -1;
+                } else {
+                    double d = GeoUtils.haversineKm(latitude, longitude, current.latitudes[down], current.longitudes[down]);
+                    if (d <= bestDistance) {
+                        best = down;
+                        bestDistance = d;
+                    }
+                    down--;
+                }
+            }
+        }
+        return best < 0 ? Optional.empty() : Optional.of(current.hit(best, bestDistance));
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Apply a committed showroom change to the snapshot
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onShowroomChanged(ShowroomChangedEvent event) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null || event.showroomId() == null) {
+            return;
+        }
+        List<ShowroomHit> entries = new ArrayList<>(current.size() + 1);
+        for (int i = 0; i < current.size(); i++) {
+            if (!current.ids[i].equals(event.showroomId())) {
+                entries.add(current.hit(i, 0.0));
+            }
+        }
+        if (event.isLocatable()) {
+            entries.add(new ShowroomHit(event.showroomId(), event.latitude(), event.longitude(), 0.0));
+        }
+        snapshot = Snapshot.of(entries);
+    }
+
+    /**
+     * Rebuild the snapshot from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.geo.showroom-cache-refresh-ms:300000}",
+               initialDelayString = "${app.geo.showroom-cache-refresh-ms:300000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<ShowroomHit> entries = showroomRepository.findAllActiveShowrooms().stream()
+                    .filter(s -> GeoUtils.isValidCoordinate(s.getLatitude(), s.getLongitude()))
+                    .map(s -> new ShowroomHit(s.getId(), s.getLatitude(), s.getLongitude(), 0.0))
+                    .toList();
+            snapshot = Snapshot.of(entries);
+        } catch (Exception e) {
+            // Keep serving the previous snapshot; callers fall back to the database until the first load
+            logger.warn("Failed to refresh showroom location cache: {}", e.getMessage());
+        }
+    }
+
+    private static double latitudeGapKm(double a, double b) {
+        return GeoUtils.EARTH_RADIUS_KM * Math.toRadians(Math.abs(a - b));
+    }
+
+    /**
+     * Showroom matched by a location lookup
+     */
+    public record ShowroomHit(UUID showroomId, double latitude, double longitude, double distanceKm) {
+    }
+
+    /**
+     * Immutable latitude-sorted parallel arrays
+     */
+    private static final class Snapshot {
+        private final UUID[] ids;
+        private final double[] latitudes;
+        private final double[] longitudes;
+
+        private Snapshot(UUID[] ids, double[] latitudes, double[] longitudes) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+        }
+
+        static Snapshot of(List<ShowroomHit> entries) {
+            ShowroomHit[] sorted = entries.toArray(ShowroomHit[]::new);
+            Arrays.sort(sorted, Comparator.comparingDouble(ShowroomHit::latitude));
+            UUID[] ids = new UUID[sorted.length];
+            double[] latitudes = new double[sorted.length];
+            double[] longitudes = new double[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i].showroomId();
+                latitudes[i] = sorted[i].latitude();
+                longitudes[i] = sorted[i].longitude();
+            }
+            return new Snapshot(ids, latitudes, longitudes);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * Index of the first entry with latitude >= the given value
+         */
+        int lowerBound(double latitude) {
+            int low = 0;
+            int high = latitudes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (latitudes[mid] < latitude) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        ShowroomHit hit(int index, double distanceKm) {
+            return new ShowroomHit(ids[index], latitudes[index], longitudes[index], distanceKm);
+        }
+    }
+}
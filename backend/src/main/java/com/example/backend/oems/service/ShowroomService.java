@@ -0,0 +1,80 @@
+package com.example.backend.oems.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.example.backend.oems.entity.Showroom;
+import com.example.backend.oems.repository.ShowroomAdminRepository;
+import com.example.backend.oems.repository.ShowroomRepository;
+
+/**
+ * Location-based showroom lookups.
+ * Answered from the {@link ShowroomLocationCache} when it is enabled and loaded, otherwise
+ * from the indexed bounding-box query.
+ */
+@Service
+public class ShowroomService {
+
+    private final ShowroomRepository showroomRepository;
+    private final ShowroomLocationCache locationCache;
+    private final ShowroomAdminRepository showroomAdminRepository;
+
+    public ShowroomService(ShowroomRepository showroomRepository, ShowroomLocationCache locationCache,
+                           ShowroomAdminRepository showroomAdminRepository) {
+        this.showroomRepository = showroomRepository;
+        this.locationCache = locationCache;
+        this.showroomAdminRepository = showroomAdminRepository;
+    }
+
+    /**
+     * Active showrooms within the radius, nearest first
+     */
+    public List<Showroom> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        if (!locationCache.isReady()) {
+            return showroomRepository.findShowroomsWithinRadius(latitude, longitude, radiusKm);
+        }
+        List<UUID> ids = locationCache.findWithinRadius(latitude, longitude, radiusKm).stream()
+                .map(ShowroomLocationCache.ShowroomHit::showroomId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Showroom> byId = showroomRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Showroom::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(s -> s != null).toList();
+    }
+
+    /**
+     * Nearest active showroom within the radius
+     */
+    public Optional<Showroom> findNearest(double latitude, double longitude, double radiusKm) {
+        if (!locationCache.isReady()) {
+            return showroomRepository.findShowroomsWithinRadius(latitude, longitude, radiusKm).stream().findFirst();
+        }
+        return locationCache.findNearest(latitude, longitude, radiusKm)
+                .flatMap(hit -> showroomRepository.findById(hit.showroomId()));
+    }
+
+    /**
+     * Id of the nearest active showroom within the radius, without loading the showroom when the cache is ready
+     */
+    public Optional<UUID> findNearestId(double latitude, double longitude, double radiusKm) {
+        if (!locationCache.isReady()) {
+            return findNearest(latitude, longitude, radiusKm).map(Showroom::getId);
+        }
+        return locationCache.findNearest(latitude, longitude, radiusKm).map(ShowroomLocationCache.ShowroomHit::showroomId);
+    }
+
+    /**
+     * Showroom managed by the given user, if they are an active showroom admin
+     */
+    public Optional<UUID> findManagedShowroomId(UUID userId) {
+        return showroomAdminRepository.findActiveShowroomIdByUserId(userId);
+    }
+}
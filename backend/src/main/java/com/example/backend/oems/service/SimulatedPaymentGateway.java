@@ -0,0 +1,52 @@
+package com.example.backend.oems.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+
+/**
+ * Local stand-in for a payment processor, for development and load testing.
+ * Waits a configurable latency and derives the outcome and transaction id from the idempotency key,
+ * so retries of the same attempt always see the same result, as with a real processor.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final long latencyMs;
+    private final double declineRate;
+    private final double errorRate;
+
+    public SimulatedPaymentGateway(AppProperties appProperties) {
+        AppProperties.Payments.Simulator config = appProperties.getPayments().getSimulator();
+        this.latencyMs = config.getLatencyMs();
+        this.declineRate = config.getDeclineRate();
+        this.errorRate = config.getErrorRate();
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) {
+        if (latencyMs > 0) {
+            try {
+                // +/- 50% jitter
+                Thread.sleep(latencyMs / 2 + ThreadLocalRandom.current().nextLong(latencyMs + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ChargeResult.error("Interrupted");
+            }
+        }
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return ChargeResult.error("Simulated gateway timeout");
+        }
+        UUID reference = UUID.nameUUIDFromBytes(request.idempotencyKey().getBytes(StandardCharsets.UTF_8));
+        if ((reference.getLeastSignificantBits() >>> 1) % 10000 < declineRate * 10000) {
+            return ChargeResult.declined("Simulated decline");
+        }
+        return ChargeResult.succeeded("sim_" + reference.toString().replace("-", ""));
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.backend.oems.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.util.GeoUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Zone-based surge multiplier computation.
+ *
+ * Ride requests are counted per surge zone (a fixed-size grid cell) in a sliding window of
+ * time buckets; each bucket is a {@link LongAdder}, so recording demand never takes a lock.
+ * Every few seconds a single recompute pass advances the window, counts the available drivers
+ * in each zone from the {@link DriverLocationIndex}, and derives a multiplier from the ratio of
+ * windowed requests to available drivers. Zones that surge are published as an immutable sorted
+ * snapshot swapped through a volatile field; the estimate and booking paths look a zone up with
+ * a binary search and never block on the recompute.
+ */
+@Component
+public class SurgeEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurgeEngine.class);
+
+    private final DriverLocationIndex driverLocationIndex;
+    private final boolean enabled;
+    private final double cellSizeDegrees;
+    private final long windowMs;
+    private final long bucketMs;
+    private final int bucketCount;
+    private final int minDemand;
+    private final double demandSupplyThreshold;
+    private final double sensitivity;
+    private final double maxMultiplier;
+    private final double step;
+
+    // zone cell key -> sliding window demand counters
+    private final ConcurrentHashMap<Long, ZoneCounters> zones = new ConcurrentHashMap<>();
+
+    private final Timer recomputeTimer;
+
+    private volatile SurgeSnapshot snapshot = SurgeSnapshot.EMPTY;
+
+    // Absolute index of the newest bucket already cleared for reuse; only touched by recompute()
+    private long clearedThrough;
+
+    public SurgeEngine(DriverLocationIndex driverLocationIndex, AppProperties appProperties,
+                       MeterRegistry meterRegistry) {
+        AppProperties.Surge config = appProperties.getSurge();
+        this.driverLocationIndex = driverLocationIndex;
+        this.enabled = config.isEnabled();
+        this.cellSizeDegrees = config.getCellSizeDegrees();
+        this.windowMs = config.getWindowMs();
+        this.bucketCount = config.getWindowBuckets();
+        this.bucketMs = windowMs / bucketCount;
+        this.minDemand = config.getMinDemand();
+        this.demandSupplyThreshold = config.getDemandSupplyThreshold();
+        this.sensitivity = config.getSensitivity();
+        this.maxMultiplier = config.getMaxMultiplier();
+        this.step = config.getStep();
+
+        // A bucket must be cleared by a recompute pass before the window rotates onto it
+        if (bucketCount < 2 || bucketMs <= config.getRecomputeIntervalMs()) {
+            throw new IllegalArgumentException(
+                    "Surge window buckets must be longer than the recompute interval");
+        }
+        this.clearedThrough = System.currentTimeMillis() / bucketMs;
+
+        this.recomputeTimer = meterRegistry.timer("oems.surge.recompute");
+        meterRegistry.gauge("oems.surge.zones.tracked", zones, Map::size);
+        meterRegistry.gauge("oems.surge.zones.surging", this, engine -> engine.snapshot.size());
+    }
+
+    /**
+     * Count a ride request at the given pickup location
+     */
+    public void recordDemand(double latitude, double longitude) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        ZoneCounters zone = zones.computeIfAbsent(zoneKey(latitude, longitude), ZoneCounters::new);
+        zone.buckets[(int) ((now / bucketMs) % bucketCount)].increment();
+        zone.lastDemandAt = now;
+    }
+
+    /**
+     * Current surge multiplier for a pickup location; 1.0 outside surging zones
+     */
+    public double getMultiplier(double latitude, double longitude) {
+        return snapshot.multiplier(zoneKey(latitude, longitude));
+    }
+
+    public int getSurgingZoneCount() {
+        return snapshot.size();
+    }
+
+    public long getLastComputedAt() {
+        return snapshot.computedAt;
+    }
+
+    /**
+     * Advance the demand window, recount supply and publish a new multiplier snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.surge.recompute-interval-ms:5000}")
+    public synchronized void recompute() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        // Clear the bucket(s) the window is about to rotate onto, and total each zone's window
+        long target = now / bucketMs + 1;
+        long clearFrom = Math.max(clearedThrough + 1, target - bucketCount + 1);
+        clearedThrough = Math.max(clearedThrough, target);
+
+        for (ZoneCounters zone : zones.values()) {
+            long demand = 0;
+            for (long b = clearFrom; b <= target; b++) {
+                zone.buckets[(int) (b % bucketCount)].reset();
+            }
+            for (LongAdder bucket : zone.buckets) {
+                demand += bucket.sum();
+            }
+            zone.windowDemand = demand;
+            zone.supply = 0;
+            if (demand == 0 && now - zone.lastDemandAt > windowMs) {
+                zones.remove(zone.key, zone);
+            }
+        }
+
+        // Supply is only needed where there is demand
+        driverLocationIndex.forEachAvailable(position -> {
+            ZoneCounters zone = zones.get(zoneKey(position.latitude(), position.longitude()));
+            if (zone != null) {
+                zone.supply++;
+            }
+        });
+
+        List<ZoneCounters> surging = new ArrayList<>();
+        for (ZoneCounters zone : zones.values()) {
+            if (zone.windowDemand >= minDemand) {
+                zone.multiplier = multiplier(zone.windowDemand, zone.supply);
+                if (zone.multiplier > 1.0) {
+                    surging.add(zone);
+                }
+            }
+        }
+        surging.sort(Comparator.comparingLong(zone -> zone.key));
+
+        long[] keys = new long[surging.size()];
+        double[] multipliers = new double[surging.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = surging.get(i).key;
+            multipliers[i] = surging.get(i).multiplier;
+        }
+        snapshot = new SurgeSnapshot(keys, multipliers, now);
+
+        long elapsed = System.nanoTime() - start;
+        recomputeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.debug("Surge recomputed for {} zones ({} surging) in {} ms",
+                zones.size(), keys.length, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * Multiplier grows linearly with windowed requests per available driver above the
+     * threshold, rounded down to the configured step and capped
+     */
+    private double multiplier(long demand, int supply) {
+        double ratio = (double) demand / Math.max(1, supply);
+        double raw = 1.0 + sensitivity * (ratio - demandSupplyThreshold);
+        if (raw <= 1.0) {
+            return 1.0;
+        }
+        double stepped = Math.floor(Math.min(raw, maxMultiplier) / step + 1e-9) * step;
+        return Math.round(stepped * 100.0) / 100.0;
+    }
+
+    private long zoneKey(double latitude, double longitude) {
+        return GeoUtils.cellKey(latitude, longitude, cellSizeDegrees);
+    }
+
+    private final class ZoneCounters {
+        private final long key;
+        private final LongAdder[] buckets;
+        private volatile long lastDemandAt;
+
+        // Written only by recompute()
+        private long windowDemand;
+        private int supply;
+        private double multiplier;
+
+        private ZoneCounters(long key) {
+            this.key = key;
+            this.buckets = new LongAdder[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new LongAdder();
+            }
+            this.lastDemandAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Surging zones sorted by cell key, with their multipliers
+     */
+    private static final class SurgeSnapshot {
+        static final SurgeSnapshot EMPTY = new SurgeSnapshot(new long[0], new double[0], 0);
+
+        private final long[] keys;
+        private final double[] multipliers;
+        private final long computedAt;
+
+        private SurgeSnapshot(long[] keys, double[] multipliers, long computedAt) {
+            this.keys = keys;
+            this.multipliers = multipliers;
+            this.computedAt = computedAt;
+        }
+
+        double multiplier(long key) {
+            int i = Arrays.binarySearch(keys, key);
+            return i >= 0 ? multipliers[i] : 1.0;
+        }
+
+        int size() {
+            return keys.length;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.backend.oems.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.event.BookingChangedEvent;
+import com.example.backend.oems.event.TripChangedEvent;
+import com.example.backend.oems.exception.ValidationException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process fan-out of booking status, trip status and driver position updates to Server-Sent
+ * Event streams.
+ *
+ * Subscribers are grouped into one channel per booking, so a customer can follow a ride from the
+ * driver search through to the end of the trip on one stream. A committed booking or trip change
+ * or a driver location ping is turned into a single event and delivered to every subscriber of the
+ * channel with no database reads. Idle streams are async servlet responses and hold no
+ * request thread. Deliveries run on virtual threads: each channel has its own event queue
+ * drained by at most one task at a time, so events reach a subscriber in order and a slow
+ * client never blocks the thread that published the change.
+ */
+@Component
+public class TripEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripEventHub.class);
+
+    private final long timeoutMs;
+    private final int maxSubscribersPerTrip;
+
+    private final ConcurrentHashMap<UUID, Channel> channelsByBooking = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Channel> channelsByDriver = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TripEventHub(AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.TripStream config = appProperties.getTripStream();
+        this.timeoutMs = config.getTimeoutMs();
+        this.maxSubscribersPerTrip = config.getMaxSubscribersPerTrip();
+
+        meterRegistry.gauge("oems.trip.stream.subscribers", subscriberCount);
+        meterRegistry.gauge("oems.trip.stream.channels", channelsByBooking, Map::size);
+    }
+
+    /**
+     * Open an event stream for a booking and its trip, starting with their current statuses
+     *
+     * @param booking the booking, or null for trips recorded without one
+     * @param trip    the booking's trip, or null while a driver is being searched for
+     */
+    public SseEmitter subscribe(Booking booking, Trip trip, DriverLocationIndex.DriverPosition driverPosition) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        UUID bookingId = booking != null ? booking.getId() : trip.getBookingId();
+        Map<String, Object> bookingStatus = booking != null ? bookingPayload(bookingId, booking.getStatus()) : null;
+        Map<String, Object> status = trip != null ? statusPayload(trip.getId(), trip.getDriverId(), trip.getStatus()) : null;
+        boolean finished = trip != null ? isFinished(trip.getStatus()) : Booking.TRANSITIONS.isTerminal(booking.getStatus());
+        if (finished) {
+            // Nothing more will happen on this booking; send the final statuses and close
+            if (bookingStatus != null) {
+                sendNow(emitter, "booking", bookingStatus);
+            }
+            if (status != null) {
+                sendNow(emitter, "status", status);
+            }
+            emitter.complete();
+            return emitter;
+        }
+
+        Channel channel = channelsByBooking.compute(bookingId, (id, existing) -> {
+            Channel c = existing != null ? existing : new Channel(id);
+            if (c.subscribers.size() >= maxSubscribersPerTrip) {
+                throw new ValidationException("Too many open streams for this trip");
+            }
+            c.subscribers.add(emitter);
+            return c;
+        });
+        subscriberCount.incrementAndGet();
+        if (trip != null) {
+            assignDriver(channel, trip.getDriverId());
+        }
+
+        Runnable remove = () -> unsubscribe(channel, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // Queue the initial events so they are ordered with any concurrent updates
+        if (bookingStatus != null) {
+            channel.lastBookingStatus = booking.getStatus();
+            publish(channel, new Delivery(emitter, "booking", bookingStatus));
+        }
+        if (status != null) {
+            channel.lastStatus = trip.getStatus();
+            publish(channel, new Delivery(emitter, "status", status));
+        }
+        if (driverPosition != null) {
+            publish(channel, new Delivery(emitter, "driver-location", positionPayload(driverPosition.driverId(),
+                    driverPosition.latitude(), driverPosition.longitude(), driverPosition.heading(),
+                    driverPosition.speed(), driverPosition.timestamp())));
+        }
+        return emitter;
+    }
+
+    /**
+     * Push a committed booking status change to the booking's subscribers
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Channel channel = event.bookingId() != null ? channelsByBooking.get(event.bookingId()) : null;
+        if (channel == null) {
+            return;
+        }
+        if (event.status() != channel.lastBookingStatus) {
+            channel.lastBookingStatus = event.status();
+            publish(channel, new Delivery(null, "booking", bookingPayload(event.bookingId(), event.status())));
+        }
+        // Once a trip exists the stream stays open until the trip itself finishes
+        if (event.isFinished() && channel.lastStatus == null) {
+            publish(channel, Delivery.COMPLETE);
+        }
+    }
+
+    /**
+     * Push a committed trip status change to the subscribers of its booking
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        Channel channel = event.bookingId() != null ? channelsByBooking.get(event.bookingId()) : null;
+        if (channel == null) {
+            return;
+        }
+        assignDriver(channel, event.driverId());
+        // Updates that do not change the status (fares, distances) are not streamed
+        if (event.status() != channel.lastStatus) {
+            channel.lastStatus = event.status();
+            publish(channel, new Delivery(null, "status",
+                    statusPayload(event.tripId(), event.driverId(), event.status())));
+        }
+        if (event.isFinished()) {
+            publish(channel, Delivery.COMPLETE);
+        }
+    }
+
+    /**
+     * Push a driver location ping to subscribers of the driver's current trip
+     */
+    public void onDriverLocation(UUID driverId, double latitude, double longitude,
+                                 double heading, double speed, long timestamp) {
+        Channel channel = channelsByDriver.get(driverId);
+        if (channel != null) {
+            publish(channel, new Delivery(null, "driver-location",
+                    positionPayload(driverId, latitude, longitude, heading, speed, timestamp)));
+        }
+    }
+
+    /**
+     * Keep idle streams alive through proxies and detect disconnected clients
+     */
+    @Scheduled(fixedDelayString = "${app.trip-stream.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        for (Channel channel : channelsByBooking.values()) {
+            publish(channel, Delivery.HEARTBEAT);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Channel channel : channelsByBooking.values()) {
+            for (SseEmitter emitter : channel.subscribers) {
+                emitter.complete();
+            }
+        }
+        deliveryExecutor.shutdown();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private void publish(Channel channel, Delivery delivery) {
+        channel.pending.add(delivery);
+        if (channel.draining.compareAndSet(false, true)) {
+            deliveryExecutor.execute(() -> drain(channel));
+        }
+    }
+
+    private void drain(Channel channel) {
+        while (true) {
+            Delivery delivery;
+            while ((delivery = channel.pending.poll()) != null) {
+                deliver(channel, delivery);
+            }
+            channel.draining.set(false);
+            // An event queued after the last poll but before the flag cleared still needs a drainer
+            if (channel.pending.isEmpty() || !channel.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(Channel channel, Delivery delivery) {
+        List<SseEmitter> targets = delivery.target != null ? List.of(delivery.target) : channel.subscribers;
+        for (SseEmitter emitter : targets) {
+            if (delivery == Delivery.COMPLETE) {
+                emitter.complete();
+            } else if (delivery == Delivery.HEARTBEAT) {
+                send(emitter, SseEmitter.event().comment("keep-alive"));
+            } else {
+                send(emitter, SseEmitter.event().name(delivery.name).data(delivery.payload, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completing triggers the removal callback
+            logger.debug("Dropping trip event stream: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void sendNow(SseEmitter emitter, String name, Map<String, Object> payload) {
+        send(emitter, SseEmitter.event().name(name).data(payload, MediaType.APPLICATION_JSON));
+    }
+
+    private void unsubscribe(Channel channel, SseEmitter emitter) {
+        if (!channel.subscribers.remove(emitter)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        channelsByBooking.computeIfPresent(channel.bookingId, (id, c) -> {
+            if (c != channel || !c.subscribers.isEmpty()) {
+                return c;
+            }
+            UUID driverId = c.driverId;
+            if (driverId != null) {
+                channelsByDriver.remove(driverId, c);
+            }
+            return null;
+        });
+    }
+
+    private void assignDriver(Channel channel, UUID driverId) {
+        if (driverId == null || driverId.equals(channel.driverId)) {
+            return;
+        }
+        UUID previous = channel.driverId;
+        channel.driverId = driverId;
+        if (previous != null) {
+            channelsByDriver.remove(previous, channel);
+        }
+        channelsByDriver.put(driverId, channel);
+    }
+
+    private static boolean isFinished(Trip.TripStatus status) {
+        return status == Trip.TripStatus.COMPLETED || status == Trip.TripStatus.CANCELLED;
+    }
+
+    private static Map<String, Object> bookingPayload(UUID bookingId, Booking.BookingStatus status) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("bookingId", bookingId);
+        m.put("status", status);
+        m.put("timestamp", System.currentTimeMillis());
+        return m;
+    }
+
+    private static Map<String, Object> statusPayload(UUID tripId, UUID driverId, Trip.TripStatus status) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("tripId", tripId);
+        m.put("driverId", driverId);
+        m.put("status", status);
+        m.put("timestamp", System.currentTimeMillis());
+        return m;
+    }
+
+    private static Map<String, Object> positionPayload(UUID driverId, double latitude, double longitude,
+                                                       double heading, double speed, long timestamp) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("driverId", driverId);
+        m.put("latitude", latitude);
+        m.put("longitude", longitude);
+        m.put("heading", heading);
+        m.put("speed", speed);
+        m.put("timestamp", timestamp);
+        return m;
+    }
+
+    /**
+     * Subscribers of one booking and the queue of events waiting to be delivered to them
+     */
+    private static final class Channel {
+        private final UUID bookingId;
+        private final CopyOnWriteArrayList<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final ConcurrentLinkedQueue<Delivery> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile UUID driverId;
+        private volatile Booking.BookingStatus lastBookingStatus;
+        private volatile Trip.TripStatus lastStatus;
+
+        private Channel(UUID bookingId) {
+            this.bookingId = bookingId;
+        }
+    }
+
+    /**
+     * One event for every subscriber of a channel, or for a single subscriber when target is set
+     */
+    private record Delivery(SseEmitter target, String name, Map<String, Object> payload) {
+        static final Delivery HEARTBEAT = new Delivery(null, "heartbeat", null);
+        static final Delivery COMPLETE = new Delivery(null, "complete", null);
+    }
+}
@@ -1,30 +1,422 @@
 package com.example.backend.oems.service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.oems.dto.TripDetail;
+import com.example.backend.oems.dto.TripStatusView;
+import com.example.backend.oems.dto.TripSummary;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Payment;
 import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.entity.TripEvent;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.event.TripFinishedEvent;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.exception.ResourceNotFoundException;
+import com.example.backend.oems.exception.ValidationException;
+import com.example.backend.oems.repository.BookingRepository;
+import com.example.backend.oems.repository.PaymentRepository;
+import com.example.backend.oems.repository.TripEventRepository;
 import com.example.backend.oems.repository.TripRepository;
+import com.example.backend.oems.util.SeekCursor;
 
+/**
+ * Booking and trip lifecycle.
+ *
+ * Status changes only happen through the transition tables on {@link Booking} and {@link Trip}.
+ * Both entities carry a version column, so when two writers race on the same booking or trip
+ * (driver accept, customer cancel, system timeout) the loser's update matches no row and fails
+ * with a {@link ConflictException} instead of overwriting the winner; no row locks are taken.
+ * Every transition is appended to the trip_events log in the same transaction.
+ */
 @Service
 public class TripService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
     private final TripRepository tripRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final TripEventRepository tripEventRepository;
+    private final FareEngine fareEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TripService(TripRepository tripRepository) {
+    public TripService(TripRepository tripRepository, BookingRepository bookingRepository,
+                       PaymentRepository paymentRepository, TripEventRepository tripEventRepository,
+                       FareEngine fareEngine, ApplicationEventPublisher eventPublisher) {
         this.tripRepository = tripRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.tripEventRepository = tripEventRepository;
+        this.fareEngine = fareEngine;
+        this.eventPublisher = eventPublisher;
     }
 
     public Trip save(Trip trip) { return tripRepository.save(trip); }
     public Optional<Trip> findById(UUID id) { return tripRepository.findById(id); }
-    public List<Trip> findByCustomerId(UUID customerId) { return tripRepository.findByCustomerIdOrderByStartedAtDesc(customerId); }
-    public List<Trip> findByDriverId(UUID driverId) { return tripRepository.findByDriverIdOrderByStartedAtDesc(driverId); }
-    public Optional<Trip> findByBookingId(UUID bookingId) { 
+    public Optional<Trip> findByBookingId(UUID bookingId) {
         List<Trip> trips = tripRepository.findByBookingId(bookingId);
         return trips.isEmpty() ? Optional.empty() : Optional.of(trips.get(0));
     }
-}
+    public Optional<Booking> findBookingById(UUID bookingId) { return bookingRepository.findById(bookingId); }
+
+    /**
+     * Bookings still PENDING that were created before the cutoff, oldest first
+     */
+    public List<UUID> findPendingBookingIds(Instant createdBefore, int limit) {
+        return bookingRepository.findIdsByStatusCreatedBefore(Booking.BookingStatus.PENDING, createdBefore,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * Status of a trip read as a DTO; nothing is loaded into the persistence context
+     */
+    @Transactional(readOnly = true)
+    public Optional<TripStatusView> findStatus(UUID tripId) {
+        return tripRepository.findStatusViewById(tripId);
+    }
+
+    /**
+     * Details of a trip read as a DTO; nothing is loaded into the persistence context
+     */
+    @Transactional(readOnly = true)
+    public Optional<TripDetail> findDetail(UUID tripId) {
+        return tripRepository.findDetailById(tripId);
+    }
+
+    /**
+     * Record a new ride request in the PENDING status
+     */
+    @Transactional
+    public Booking createBooking(Booking booking) {
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        recordBooking(saved, null, TripEvent.Actor.CUSTOMER, null);
+        return saved;
+    }
+
+    /**
+     * Assign the matched driver to a pending booking and open its trip, together with the
+     * pending payment carrying the quoted fare
+     */
+    @Transactional
+    public Trip assignDriver(UUID bookingId, Trip trip, Payment payment) {
+        Booking booking = loadBooking(bookingId);
+        Booking.BookingStatus from = booking.getStatus();
+        booking.assignDriver(trip.getDriverId(), trip.getVehicleId());
+        flush();
+        recordBooking(booking, from, TripEvent.Actor.SYSTEM, null);
+
+        trip.setBookingId(bookingId);
+        Trip saved = tripRepository.saveAndFlush(trip);
+        recordTrip(saved, null, TripEvent.Actor.SYSTEM, null);
+        if (payment != null) {
+            paymentRepository.save(payment);
+        }
+        return saved;
+    }
+
+    /**
+     * Close a pending booking that could not be matched to a driver
+     */
+    @Transactional
+    public Booking markNoDriverAvailable(UUID bookingId) {
+        Booking booking = loadBooking(bookingId);
+        Booking.BookingStatus from = booking.getStatus();
+        booking.markNoDriverAvailable();
+        flush();
+        recordBooking(booking, from, TripEvent.Actor.SYSTEM, null);
+        return booking;
+    }
+
+    /**
+     * Cancel a booking that has no trip yet
+     */
+    @Transactional
+    public Booking cancelBooking(UUID bookingId, TripEvent.Actor actor, String reason) {
+        Booking booking = loadBooking(bookingId);
+        Booking.BookingStatus from = booking.getStatus();
+        booking.cancel(reason);
+        flush();
+        recordBooking(booking, from, actor, reason);
+        return booking;
+    }
+
+    /**
+     * Driver picked the customer up
+     */
+    @Transactional
+    public Trip startTrip(UUID tripId, UUID driverId, BigDecimal latitude, BigDecimal longitude) {
+        Trip trip = loadTrip(tripId);
+        requireDriver(trip, driverId);
+        Trip.TripStatus from = trip.getStatus();
+        trip.completePickup(latitude, longitude);
+        Optional<Booking> booking = bookingRepository.findById(trip.getBookingId());
+        Booking.BookingStatus bookingFrom = booking.map(Booking::getStatus).orElse(null);
+        booking.ifPresent(Booking::startTrip);
+        flush();
+        recordTrip(trip, from, TripEvent.Actor.DRIVER, null);
+        booking.ifPresent(b -> recordBooking(b, bookingFrom, TripEvent.Actor.DRIVER, null));
+        return trip;
+    }
+
+    /**
+     * Driver dropped the customer off. The fare is metered here from the pickup and drop-off points
+     * and the time since pickup, at the tariff and surge of the booking; nothing the driver's app
+     * reports is taken as the amount to charge.
+     *
+     * @param latitude  drop-off point, or null to take the booking's destination
+     * @param longitude drop-off point, or null to take the booking's destination
+     */
+    @Transactional
+    public Trip completeTrip(UUID tripId, UUID driverId, BigDecimal latitude, BigDecimal longitude) {
+        Trip trip = loadTrip(tripId);
+        requireDriver(trip, driverId);
+        Trip.TripStatus from = trip.getStatus();
+        Optional<Booking> booking = bookingRepository.findById(trip.getBookingId());
+        FareEngine.FareQuote metered = meter(trip, booking, latitude, longitude);
+        trip.completeTrip(latitude, longitude,
+                metered != null ? BigDecimal.valueOf(metered.distanceKm()) : trip.getEstimatedDistance(),
+                metered != null ? BigDecimal.valueOf(metered.total()) : trip.getEstimatedFare());
+        Booking.BookingStatus bookingFrom = booking.map(Booking::getStatus).orElse(null);
+        booking.ifPresent(Booking::complete);
+        flush();
+        recordTrip(trip, from, TripEvent.Actor.DRIVER, null);
+        booking.ifPresent(b -> recordBooking(b, bookingFrom, TripEvent.Actor.DRIVER, null));
+        publishFinished(trip, booking, trip.getEndedAt());
+        return trip;
+    }
+
+    /**
+     * Cancel an active trip and its booking
+     */
+    @Transactional
+    public Trip cancelTrip(UUID tripId, Trip.CancelledBy cancelledBy, String reason) {
+        Trip trip = loadTrip(tripId);
+        Trip.TripStatus from = trip.getStatus();
+        trip.cancelTrip(cancelledBy, reason);
+        Optional<Booking> booking = bookingRepository.findById(trip.getBookingId());
+        Booking.BookingStatus bookingFrom = booking.map(Booking::getStatus).orElse(null);
+        booking.ifPresent(b -> b.cancel(reason));
+        flush();
+        TripEvent.Actor actor = TripEvent.Actor.valueOf(cancelledBy.name());
+        recordTrip(trip, from, actor, reason);
+        booking.ifPresent(b -> recordBooking(b, bookingFrom, actor, reason));
+        publishFinished(trip, booking, trip.getCancelledAt());
+        return trip;
+    }
+
+    /**
+     * One page of a customer's trips, newest first, as listing DTOs
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public TripPage findCustomerTrips(UUID customerId, TripFilter filter, String cursor, int limit) {
+        SeekCursor.Position after = startPosition(filter, cursor);
+        int size = pageSize(limit);
+        List<TripSummary> trips = tripRepository.findCustomerTripsBefore(customerId, filter.statuses(), filter.from(),
+                filter.to(), after.timestamp(), after.id(), PageRequest.of(0, size + 1));
+        return TripPage.of(trips, size);
+    }
+
+    /**
+     * One page of a driver's trips, newest first, as listing DTOs
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public TripPage findDriverTrips(UUID driverId, TripFilter filter, String cursor, int limit) {
+        SeekCursor.Position after = startPosition(filter, cursor);
+        int size = pageSize(limit);
+        List<TripSummary> trips = tripRepository.findDriverTripsBefore(driverId, filter.statuses(), filter.from(),
+                filter.to(), after.timestamp(), after.id(), PageRequest.of(0, size + 1));
+        return TripPage.of(trips, size);
+    }
+
+    /**
+     * Transitions of a trip's booking and the trip itself, oldest first
+     */
+    public List<TripEvent> getHistory(UUID bookingId) {
+        return tripEventRepository.findByBookingIdOrderByOccurredAtAscIdAsc(bookingId);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private SeekCursor.Position startPosition(TripFilter filter, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            // Every row in the range sorts after (to, max id)
+            return new SeekCursor.Position(filter.to(), MAX_ID);
+        }
+        return SeekCursor.decode(cursor);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private Trip loadTrip(UUID tripId) {
+        return tripRepository.findById(tripId)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip", tripId.toString()));
+    }
 
+    private Booking loadBooking(UUID bookingId) {
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking", bookingId.toString()));
+    }
+
+    private void requireDriver(Trip trip, UUID driverId) {
+        if (driverId != null && !driverId.equals(trip.getDriverId())) {
+            throw new ConflictException("Trip is not assigned to this driver", "TRIP_NOT_ASSIGNED");
+        }
+    }
+
+    /**
+     * Write pending changes now so a lost version race surfaces as a conflict
+     */
+    private void flush() {
+        try {
+            tripRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("The trip was changed by another request; reload and retry",
+                    "CONCURRENT_MODIFICATION", e);
+        }
+    }
+
+    /**
+     * Price a trip being completed, or null when the route or the tariff is unknown
+     */
+    private FareEngine.FareQuote meter(Trip trip, Optional<Booking> booking, BigDecimal dropLatitude,
+                                       BigDecimal dropLongitude) {
+        BigDecimal fromLat = trip.getActualPickupLatitude() != null ? trip.getActualPickupLatitude() : trip.getPickupLatitude();
+        BigDecimal fromLng = trip.getActualPickupLongitude() != null ? trip.getActualPickupLongitude() : trip.getPickupLongitude();
+        BigDecimal toLat = dropLatitude != null && dropLongitude != null ? dropLatitude : trip.getDestinationLatitude();
+        BigDecimal toLng = dropLatitude != null && dropLongitude != null ? dropLongitude : trip.getDestinationLongitude();
+        if (booking.isEmpty() || fromLat == null || fromLng == null || toLat == null || toLng == null) {
+            return null;
+        }
+        Vehicle.VehicleType vehicleType = Vehicle.VehicleType.valueOf(booking.get().getRequestedVehicleType().name());
+        Instant pickedUpAt = trip.getPickupCompletedAt() != null ? trip.getPickupCompletedAt() : trip.getStartedAt();
+        double minutes = pickedUpAt != null ? Duration.between(pickedUpAt, Instant.now()).toMillis() / 60000.0 : 0.0;
+        // Surge is the one quoted at booking time, carried on the pending payment
+        double surge = paymentRepository.findByBookingId(trip.getBookingId()).stream()
+                .map(Payment::getSurgeMultiplier)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(BigDecimal::doubleValue)
+                .orElse(1.0);
+        double distanceKm = fareEngine.roadDistanceKm(fromLat.doubleValue(), fromLng.doubleValue(),
+                toLat.doubleValue(), toLng.doubleValue());
+        return fareEngine.meter(vehicleType, distanceKm, minutes, surge);
+    }
 
+    private void recordTrip(Trip trip, Trip.TripStatus from, TripEvent.Actor actor, String reason) {
+        tripEventRepository.save(new TripEvent(trip.getBookingId(), trip.getId(), TripEvent.Subject.TRIP,
+                from, trip.getStatus(), actor, reason, trip.getVersion()));
+    }
+
+    private void publishFinished(Trip trip, Optional<Booking> booking, Instant finishedAt) {
+        if (trip.getDriverId() == null) {
+            return;
+        }
+        // Same fallbacks as the trip listings: the quote stands in when no metered value was reported
+        BigDecimal fare = trip.getActualFare() != null ? trip.getActualFare() : trip.getEstimatedFare();
+        BigDecimal distance = trip.getActualDistance() != null ? trip.getActualDistance() : trip.getEstimatedDistance();
+        Vehicle.VehicleType vehicleType = booking.map(Booking::getRequestedVehicleType)
+                .map(type -> Vehicle.VehicleType.valueOf(type.name()))
+                .orElse(null);
+        eventPublisher.publishEvent(new TripFinishedEvent(trip.getId(), trip.getBookingId(), trip.getDriverId(), trip.getStatus(),
+                fare, distance, trip.getCancelledBy(), vehicleType,
+                trip.getPickupLatitude() != null ? trip.getPickupLatitude().doubleValue() : null,
+                trip.getPickupLongitude() != null ? trip.getPickupLongitude().doubleValue() : null,
+                trip.getStartedAt(), finishedAt));
+    }
+
+    private void recordBooking(Booking booking, Booking.BookingStatus from, TripEvent.Actor actor, String reason) {
+        tripEventRepository.save(new TripEvent(booking.getId(), null, TripEvent.Subject.BOOKING,
+                from, booking.getStatus(), actor, reason, booking.getVersion()));
+    }
+
+    /**
+     * Trip listing filters; start dates are a half-open range [from, to)
+     */
+    public record TripFilter(Set<Trip.TripStatus> statuses, Instant from, Instant to) {
+        private static final Instant MIN_START = Instant.EPOCH;
+        private static final Instant MAX_START = Instant.parse("9999-12-31T00:00:00Z");
+
+        /**
+         * Build a filter from request parameters; any of them may be null
+         *
+         * @param status    a trip status name
+         * @param startDate first day to include, as an ISO date (UTC) or instant
+         * @param endDate   last day to include, as an ISO date (UTC), or an exclusive instant
+         */
+        public static TripFilter of(String status, String startDate, String endDate) {
+            Set<Trip.TripStatus> statuses = EnumSet.allOf(Trip.TripStatus.class);
+            if (status != null && !status.isBlank()) {
+                try {
+                    statuses = EnumSet.of(Trip.TripStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new ValidationException("Unknown trip status: " + status);
+                }
+            }
+            Instant from = startDate != null && !startDate.isBlank() ? parseDate(startDate, false) : MIN_START;
+            Instant to = endDate != null && !endDate.isBlank() ? parseDate(endDate, true) : MAX_START;
+            if (!from.isBefore(to)) {
+                throw new ValidationException("startDate must be before endDate");
+            }
+            return new TripFilter(statuses, from, to);
+        }
+
+        private static Instant parseDate(String value, boolean endOfRange) {
+            try {
+                if (value.length() == 10) {
+                    LocalDate date = LocalDate.parse(value);
+                    return (endOfRange ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
+                }
+                return Instant.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new ValidationException("Dates must be ISO dates (2024-01-31) or instants: " + value);
+            }
+        }
+    }
+
+    /**
+     * One page of trips and the cursor of the next page, null on the last page
+     */
+    public record TripPage(List<TripSummary> trips, String nextCursor) {
+
+        static TripPage of(List<TripSummary> rows, int size) {
+            if (rows.size() <= size) {
+                return new TripPage(rows, null);
+            }
+            List<TripSummary> page = rows.subList(0, size);
+            TripSummary last = page.get(size - 1);
+            return new TripPage(page, SeekCursor.encode(last.startedAt(), last.id()));
+        }
+
+        public boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
+}
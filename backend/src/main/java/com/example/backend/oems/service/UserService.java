@@ -1,24 +1,181 @@
 package com.example.backend.oems.service;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.backend.oems.config.AppProperties;
 import com.example.backend.oems.entity.User;
 import com.example.backend.oems.repository.UserRepository;
+import com.example.backend.oems.util.BoundedTtlCache;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * User lookups with a read-through cache.
+ *
+ * Users are cached by id; phone numbers and emails map to the id. An index entry is only trusted
+ * if the cached user still has that phone or email, so the three keys cannot disagree. Callers get
+ * their own detached copy and may modify it freely. Saving a user evicts it once the write has
+ * committed, and a lookup that raced with any save does not populate the cache, so a stale row is
+ * never cached. Absent users are not cached: a first login creates the user right after the miss.
+ */
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final BoundedTtlCache<UUID, User> usersById;
+    private final BoundedTtlCache<String, UUID> idsByPhone;
+    private final BoundedTtlCache<String, UUID> idsByEmail;
+
+    // Bumped by every eviction; a lookup that saw it change while loading does not cache its result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserService(UserRepository userRepository, AppProperties appProperties, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        AppProperties.UserCache config = appProperties.getUserCache();
+        this.usersById = new BoundedTtlCache<>(config.getMaxSize(), config.getTtlMs());
+        this.idsByPhone = new BoundedTtlCache<>(config.getMaxSize(), config.getTtlMs());
+        this.idsByEmail = new BoundedTtlCache<>(config.getMaxSize(), config.getTtlMs());
+
+        FunctionCounter.builder("oems.users.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("oems.users.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("oems.users.cache.size", usersById, BoundedTtlCache::size)
+                .register(meterRegistry);
+        Gauge.builder("oems.users.cache.hit.ratio", this, UserService::getCacheHitRatio)
+                .register(meterRegistry);
     }
 
-    public Optional<User> findByPhone(String phone) { return userRepository.findByPhone(phone); }
-    public Optional<User> findByEmail(String email) { return userRepository.findByEmail(email); }
-    public Optional<User> findById(java.util.UUID id) { return userRepository.findById(id); }
-    public User save(User user) { return userRepository.save(user); }
-}
+    public Optional<User> findByPhone(String phone) {
+        if (phone == null) {
+            return Optional.empty();
+        }
+        User cached = cachedVia(idsByPhone.get(phone));
+        if (cached != null && phone.equals(cached.getPhoneNumber())) {
+            return hit(cached);
+        }
+        return load(() -> userRepository.findByPhone(phone));
+    }
 
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        User cached = cachedVia(idsByEmail.get(email));
+        if (cached != null && email.equals(cached.getEmail())) {
+            return hit(cached);
+        }
+        return load(() -> userRepository.findByEmail(email));
+    }
+
+    public Optional<User> findById(UUID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User cached = usersById.get(id);
+        if (cached != null) {
+            return hit(cached);
+        }
+        return load(() -> userRepository.findById(id));
+    }
+
+    public User save(User user) {
+        if (user.getId() != null) {
+            // Readers must not keep the old version while the write is in flight
+            evict(user.getId());
+        }
+        User saved = userRepository.save(user);
+        afterCommit(() -> evict(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Fraction of lookups answered without the database
+     */
+    public double getCacheHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
 
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private User cachedVia(UUID id) {
+        return id == null ? null : usersById.get(id);
+    }
+
+    private Optional<User> hit(User cached) {
+        hits.increment();
+        return Optional.of(copyOf(cached));
+    }
+
+    private Optional<User> load(Supplier<Optional<User>> query) {
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<User> loaded = query.get();
+        if (loaded.isPresent() && invalidations.get() == stamp) {
+            User snapshot = copyOf(loaded.get());
+            usersById.put(snapshot.getId(), snapshot);
+            idsByPhone.put(snapshot.getPhoneNumber(), snapshot.getId());
+            if (snapshot.getEmail() != null) {
+                idsByEmail.put(snapshot.getEmail(), snapshot.getId());
+            }
+        }
+        return loaded;
+    }
+
+    private void evict(UUID id) {
+        invalidations.incrementAndGet();
+        // Phone and email entries of the old version become dangling and are ignored on lookup
+        usersById.invalidate(id);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Detached copy, so callers never share or modify the cached instance
+     */
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setEmail(user.getEmail());
+        copy.setFullName(user.getFullName());
+        copy.setPasswordHash(user.getPasswordHash());
+        copy.setProfileImageUrl(user.getProfileImageUrl());
+        copy.setStatus(user.getStatus());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        copy.setRoles(new HashSet<>(user.getRoles()));
+        return copy;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.backend.oems.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small concurrent cache with a hard size bound and per-entry expiry.
+ *
+ * Lookups are a single hash probe. Expired entries are dropped when they are read and by
+ * {@link #cleanUp()}; when an insert pushes the cache over its bound, expired entries are
+ * purged first and arbitrary live entries are evicted after that. This trades LRU precision
+ * for zero bookkeeping on the read path, which is the right trade for caches whose entries
+ * are cheap to reload.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return the cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Check for a live entry without touching the hit/miss counters
+     */
+    public boolean containsKey(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt() > System.currentTimeMillis();
+    }
+
+    /**
+     * Cache a value for the default TTL
+     */
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Cache a value until the given epoch millis, capped at the default TTL
+     */
+    public void put(K key, V value, long expiresAt) {
+        long cappedExpiry = Math.min(expiresAt, System.currentTimeMillis() + ttlMillis);
+        entries.put(key, new Entry<>(value, cappedExpiry));
+        if (entries.size() > maxSize) {
+            shrink();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Drop all expired entries
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt() <= now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Fraction of lookups served from the cache
+     */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private synchronized void shrink() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        cleanUp();
+        // Evict down to 90% so a full cache does not shrink on every insert
+        int target = maxSize - maxSize / 10;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
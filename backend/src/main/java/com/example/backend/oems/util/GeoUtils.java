@@ -0,0 +1,89 @@
+package com.example.backend.oems.util;
+
+/**
+ * Geographic helper functions shared by the location-based services.
+ * Distances are great-circle (haversine) distances in kilometres, and grid cells
+ * are fixed-size latitude/longitude squares addressed by a packed {@code long} key.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private GeoUtils() {
+        // Utility class
+    }
+
+    /**
+     * Great-circle distance between two coordinates in kilometres
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Kilometres covered by one degree of longitude at the given latitude
+     */
+    public static double kmPerDegreeLng(double latitude) {
+        return KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Latitude delta (degrees) that covers the given distance
+     */
+    public static double latDeltaForKm(double km) {
+        return km / KM_PER_DEGREE_LAT;
+    }
+
+    /**
+     * Longitude delta (degrees) that covers the given distance at the given latitude.
+     * Near the poles the whole longitude range is returned.
+     */
+    public static double lngDeltaForKm(double km, double latitude) {
+        double kmPerDegree = kmPerDegreeLng(latitude);
+        return kmPerDegree < 1e-6 ? 180.0 : Math.min(180.0, km / kmPerDegree);
+    }
+
+    /**
+     * Grid row for a latitude with the given cell size
+     */
+    public static int latIndex(double latitude, double cellSizeDegrees) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    /**
+     * Grid column for a longitude with the given cell size
+     */
+    public static int lngIndex(double longitude, double cellSizeDegrees) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    /**
+     * Pack a grid row and column into a single cell key
+     */
+    public static long cellKey(int latIndex, int lngIndex) {
+        return ((long) latIndex << 32) | (lngIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Cell key for a coordinate with the given cell size
+     */
+    public static long cellKey(double latitude, double longitude, double cellSizeDegrees) {
+        return cellKey(latIndex(latitude, cellSizeDegrees), lngIndex(longitude, cellSizeDegrees));
+    }
+
+    /**
+     * Check that a coordinate pair is present and within valid ranges
+     */
+    public static boolean isValidCoordinate(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90.0 && latitude <= 90.0
+                && longitude >= -180.0 && longitude <= 180.0;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.backend.oems.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of short-lived timeouts.
+ *
+ * Timeouts are hashed by deadline into a ring of buckets; a single worker thread advances
+ * one bucket per tick and expires the entries whose deadline has come round. Scheduling and
+ * cancelling are lock-free queue/CAS operations and a timeout costs one small node, so tens of
+ * thousands of outstanding timeouts need no per-timeout future and cause no extra wakeups.
+ * Delays longer than one rotation are handled by counting remaining rounds. Expiry precision
+ * is one tick, which is plenty for timeouts measured in seconds.
+ *
+ * Expired tasks are handed to the supplied executor so slow tasks never delay the wheel.
+ */
+public final class HashedTimingWheel implements AutoCloseable {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+
+    private final ConcurrentLinkedQueue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+
+    private volatile boolean running = true;
+    private long tick; // only touched by the worker
+
+    /**
+     * @param tickDuration length of one tick
+     * @param unit         unit of tickDuration
+     * @param wheelSize    number of buckets, rounded up to a power of two
+     * @param taskExecutor runs expired tasks
+     * @param threadName   name of the worker thread
+     */
+    public HashedTimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor taskExecutor, String threadName) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.taskExecutor = taskExecutor;
+        this.startNanos = System.nanoTime();
+
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task once the delay has elapsed, unless the returned timeout is cancelled first
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is stopped");
+        }
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(task, deadline);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of scheduled timeouts that have neither expired nor been cancelled
+     */
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // =====================
+    // WORKER
+    // =====================
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferAdditions();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.ST_INIT) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // A deadline already in the past goes into the current bucket
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    public final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        // Owned by the worker
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task if it has not run yet
+         *
+         * @return true if this call cancelled it
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                // The node is unlinked lazily when the worker next visits its bucket
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                pending.decrementAndGet();
+                taskExecutor.execute(task);
+            }
+        }
+    }
+
+    /**
+     * Singly linked list of the timeouts hashed to one slot; only touched by the worker
+     */
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        void expire(long deadline) {
+            Timeout previous = null;
+            Timeout current = head;
+            while (current != null) {
+                Timeout next = current.next;
+                boolean remove;
+                if (current.state.get() != Timeout.ST_INIT) {
+                    remove = true;
+                } else if (current.remainingRounds <= 0 && current.deadline <= deadline) {
+                    current.expire();
+                    remove = true;
+                } else {
+                    current.remainingRounds--;
+                    remove = false;
+                }
+                if (remove) {
+                    current.next = null;
+                    if (previous == null) {
+                        head = next;
+                    } else {
+                        previous.next = next;
+                    }
+                } else {
+                    previous = current;
+                }
+                current = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.backend.oems.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Producers claim a slot with a CAS on the tail sequence and publish it through a
+ * per-slot sequence number, so request threads never block each other or the consumer.
+ * Exactly one thread may call {@link #poll()} / {@link #drain(Consumer, int)}.
+ *
+ * @param <E> element type
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element without blocking
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Null elements are not supported");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            long diff = sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // consumer has not freed this slot yet
+            } else {
+                Thread.onSpinWait(); // another producer claimed this position
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest published element (consumer thread only)
+     *
+     * @return the element, or null if nothing is ready
+     */
+    public E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + capacity);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * Drain up to {@code limit} elements into the consumer (consumer thread only)
+     *
+     * @return number of elements drained
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements waiting in the buffer
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
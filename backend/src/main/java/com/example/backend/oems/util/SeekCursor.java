@@ -0,0 +1,56 @@
+package com.example.backend.oems.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.example.backend.oems.exception.ValidationException;
+
+/**
+ * Opaque cursors for keyset (seek) pagination over a (timestamp, id) sort key.
+ * The cursor is the sort key of the last row returned, so the next page starts strictly
+ * after it with an index range scan instead of skipping rows with OFFSET.
+ */
+public final class SeekCursor {
+
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    private SeekCursor() {
+        // Utility class
+    }
+
+    /**
+     * Sort key of the last row on a page
+     */
+    public record Position(Instant timestamp, UUID id) {
+    }
+
+    public static String encode(Instant timestamp, UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .putLong(timestamp.getEpochSecond())
+                .putInt(timestamp.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws ValidationException if the cursor was not produced by {@link #encode}
+     */
+    public static Position decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != LENGTH) {
+                throw new ValidationException("Invalid page cursor");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new Position(timestamp, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+            throw new ValidationException("Invalid page cursor", e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.backend.oems.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key token bucket rate limiter with bounded memory.
+ *
+ * Each bucket is one {@link AtomicLong} packing the token count (fixed point, 1/1024 token
+ * resolution) with the time it was last refilled, so acquiring a token is a read, some arithmetic
+ * and a CAS, with no locks. Refill is computed lazily from the elapsed time and the timestamp only
+ * advances by the time actually converted into tokens, so slow rates such as 3 per hour lose nothing
+ * to rounding.
+ *
+ * Buckets live in a fixed number of shards, each bounded to its share of {@code maxKeys}. When an
+ * insert overflows a shard, buckets that have refilled completely are dropped first (forgetting them
+ * changes nothing); only if that is not enough are arbitrary buckets evicted, which at worst hands
+ * those keys a fresh bucket. Spraying requests over millions of keys therefore costs a bounded
+ * amount of memory instead of growing the map without limit.
+ *
+ * @param <K> key type
+ */
+public class TokenBucketRateLimiter<K> {
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long UNIT = 1024; // one token in fixed point
+    private static final int MAX_CAPACITY = (int) (TOKEN_MASK / UNIT);
+    private static final int SHARDS = 16;
+
+    private final long capacityUnits;
+    private final double millisPerUnit;
+    private final int maxKeysPerShard;
+    private final Shard<K>[] shards;
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity    burst size, also the number of tokens a new key starts with
+     * @param refillEvery time in which an empty bucket refills completely
+     * @param unit        unit of refillEvery
+     * @param maxKeys     upper bound on the number of keys tracked
+     */
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(int capacity, long refillEvery, TimeUnit unit, int maxKeys) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY || refillEvery <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Capacity must be 1 to " + MAX_CAPACITY
+                    + "; refill period and key bound must be positive");
+        }
+        this.capacityUnits = capacity * UNIT;
+        this.millisPerUnit = (double) Math.max(1, unit.toMillis(refillEvery)) / capacityUnits;
+        this.maxKeysPerShard = Math.max(1, maxKeys / SHARDS);
+        this.shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    /**
+     * Take one token for the key
+     *
+     * @return 0 if a token was taken, otherwise the number of milliseconds until one is available
+     */
+    public long tryAcquire(K key) {
+        long now = nowMillis();
+        Shard<K> shard = shardFor(key);
+        AtomicLong bucket = shard.buckets.get(key);
+        if (bucket == null) {
+            bucket = shard.buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now, capacityUnits)));
+            if (shard.buckets.size() > maxKeysPerShard) {
+                shrink(shard, key);
+            }
+        }
+        while (true) {
+            long state = bucket.get();
+            long refilled = refill(state, now);
+            long units = refilled & TOKEN_MASK;
+            if (units < UNIT) {
+                long stamp = refilled >>> TOKEN_BITS;
+                long readyAt = stamp + (long) Math.ceil((UNIT - units) * millisPerUnit);
+                return Math.max(1, readyAt - now);
+            }
+            if (bucket.compareAndSet(state, refilled - UNIT)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire}, up to the bucket's capacity; does nothing if
+     * the key has been forgotten since
+     */
+    public void release(K key) {
+        AtomicLong bucket = shardFor(key).buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        long now = nowMillis();
+        while (true) {
+            long state = bucket.get();
+            long refilled = refill(state, now);
+            long units = Math.min(capacityUnits, (refilled & TOKEN_MASK) + UNIT);
+            if (bucket.compareAndSet(state, (refilled & ~TOKEN_MASK) | units)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forget the key, giving it a full bucket on its next request
+     */
+    public void reset(K key) {
+        shardFor(key).buckets.remove(key);
+    }
+
+    /**
+     * Drop buckets that have refilled completely; they carry no state worth keeping
+     */
+    public void cleanUp() {
+        long now = nowMillis();
+        for (Shard<K> shard : shards) {
+            shard.buckets.values().removeIf(bucket -> isFull(bucket.get(), now));
+        }
+    }
+
+    /**
+     * Number of keys currently tracked
+     */
+    public int size() {
+        int size = 0;
+        for (Shard<K> shard : shards) {
+            size += shard.buckets.size();
+        }
+        return size;
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * State with the tokens earned since the last refill added; the timestamp moves only by the
+     * time those tokens took, so fractions of a token keep accruing
+     */
+    private long refill(long state, long now) {
+        long stamp = state >>> TOKEN_BITS;
+        long units = state & TOKEN_MASK;
+        long elapsed = now - stamp;
+        if (elapsed <= 0) {
+            return state;
+        }
+        long earned = (long) (elapsed / millisPerUnit);
+        if (units + earned >= capacityUnits) {
+            return pack(now, capacityUnits);
+        }
+        if (earned == 0) {
+            return state;
+        }
+        return pack(stamp + (long) (earned * millisPerUnit), units + earned);
+    }
+
+    private boolean isFull(long state, long now) {
+        return (refill(state, now) & TOKEN_MASK) >= capacityUnits;
+    }
+
+    private void shrink(Shard<K> shard, K keep) {
+        synchronized (shard) {
+            if (shard.buckets.size() <= maxKeysPerShard) {
+                return;
+            }
+            long now = nowMillis();
+            // The key being inserted has not taken its token yet, so its bucket is still full
+            shard.buckets.entrySet().removeIf(e -> !e.getKey().equals(keep) && isFull(e.getValue().get(), now));
+            // Evict down to 90% so a full shard does not shrink on every insert
+            int target = maxKeysPerShard - maxKeysPerShard / 10;
+            Iterator<Map.Entry<K, AtomicLong>> it = shard.buckets.entrySet().iterator();
+            while (shard.buckets.size() > target && it.hasNext()) {
+                if (!it.next().getKey().equals(keep)) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private Shard<K> shardFor(K key) {
+        int h = key.hashCode();
+        return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+    }
+
+    private long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static long pack(long stamp, long units) {
+        return (stamp << TOKEN_BITS) | units;
+    }
+
+    private static final class Shard<K> {
+        private final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.oems.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of bearer tokens.
+ * Tokens are looked up and revoked by digest so raw JWTs never need to be kept as keys.
+ */
+public final class TokenHashing {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TokenHashing() {
+        // Utility class
+    }
+
+    /**
+     * 32-byte SHA-256 digest of the token
+     */
+    public static byte[] sha256(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest.digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hex-encoded SHA-256 digest of the token, usable as a map key
+     */
+    public static String sha256Hex(String token) {
+        return toHex(sha256(token));
+    }
+
+    /**
+     * Hex form of a stored digest, matching {@link #sha256Hex(String)}
+     */
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.backend.oems.util;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table of the allowed transitions between the values of a status enum.
+ *
+ * Built once per status type and shared; a lookup is an EnumMap probe plus an EnumSet bit
+ * test. A status with no outgoing transitions is terminal.
+ *
+ * @param <S> status enum type
+ */
+public final class TransitionTable<S extends Enum<S>> {
+
+    private final Class<S> type;
+    private final Map<S, Set<S>> allowed;
+
+    private TransitionTable(Class<S> type, Map<S, Set<S>> allowed) {
+        this.type = type;
+        this.allowed = allowed;
+    }
+
+    public static <S extends Enum<S>> Builder<S> builder(Class<S> type) {
+        return new Builder<>(type);
+    }
+
+    /**
+     * Whether a status may move from one value to another
+     */
+    public boolean isAllowed(S from, S to) {
+        return from != null && to != null && allowed.get(from).contains(to);
+    }
+
+    /**
+     * Statuses reachable in one step from the given status
+     */
+    public Set<S> targets(S from) {
+        return allowed.get(from);
+    }
+
+    public boolean isTerminal(S status) {
+        return allowed.get(status).isEmpty();
+    }
+
+    public Class<S> getType() {
+        return type;
+    }
+
+    public static final class Builder<S extends Enum<S>> {
+        private final Class<S> type;
+        private final Map<S, EnumSet<S>> allowed;
+
+        private Builder(Class<S> type) {
+            this.type = type;
+            this.allowed = new EnumMap<>(type);
+            for (S status : type.getEnumConstants()) {
+                allowed.put(status, EnumSet.noneOf(type));
+            }
+        }
+
+        @SafeVarargs
+        public final Builder<S> allow(S from, S... to) {
+            for (S target : to) {
+                allowed.get(from).add(target);
+            }
+            return this;
+        }
+
+        public TransitionTable<S> build() {
+            Map<S, Set<S>> table = new EnumMap<>(type);
+            allowed.forEach((from, to) -> table.put(from, Collections.unmodifiableSet(EnumSet.copyOf(to))));
+            return new TransitionTable<>(type, Collections.unmodifiableMap(table));
+        }
+    }
+}
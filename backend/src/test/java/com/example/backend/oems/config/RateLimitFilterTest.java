@@ -0,0 +1,76 @@
+package com.example.backend.oems.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.backend.oems.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    @Test
+    void requestRejectedByOnePolicyKeepsItsTokensInTheOthers() throws Exception {
+        Map<String, AppProperties.RateLimit.Policy> policies = new LinkedHashMap<>();
+        policies.put("api", new AppProperties.RateLimit.Policy("/api/**", "", AppProperties.RateLimit.KeyType.IP,
+                3, 3_600_000));
+        policies.put("book", new AppProperties.RateLimit.Policy("/api/rides/book", "POST",
+                AppProperties.RateLimit.KeyType.IP, 1, 3_600_000));
+        RateLimitFilter filter = filter(policies);
+
+        assertThat(send(filter, "POST", "/api/rides/book")).isEqualTo(200);
+        // Rejected by the booking policy; the API-wide token it took first is handed back
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(filter, "POST", "/api/rides/book")).isEqualTo(429);
+        }
+
+        assertThat(send(filter, "GET", "/api/rides/history")).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/rides/history")).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/rides/history")).isEqualTo(429);
+    }
+
+    @Test
+    void rejectionCarriesRetryAfter() throws Exception {
+        Map<String, AppProperties.RateLimit.Policy> policies = new LinkedHashMap<>();
+        policies.put("api", new AppProperties.RateLimit.Policy("/api/**", "", AppProperties.RateLimit.KeyType.IP,
+                1, 60_000));
+        RateLimitFilter filter = filter(policies);
+        send(filter, "GET", "/api/rides/history");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/rides/history"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(response.getHeader("Retry-After"))).isBetween(1L, 60L);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private static RateLimitFilter filter(Map<String, AppProperties.RateLimit.Policy> policies) {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getRateLimit().setPolicies(policies);
+        return new RateLimitFilter(mock(JwtService.class), appProperties, new SimpleMeterRegistry());
+    }
+
+    private static int send(RateLimitFilter filter, String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.repository.OtpCodeRepository;
+import com.example.backend.oems.repository.OtpSendLimitRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DatabaseOtpStoreTest {
+
+    @Autowired
+    private DatabaseOtpStore store;
+
+    @Autowired
+    private OtpCodeRepository otpCodeRepository;
+
+    @Autowired
+    private OtpSendLimitRepository sendLimitRepository;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Test
+    void latestCodeReplacesEarlierOnes() {
+        String phone = "+9198" + (System.nanoTime() % 100_000_000L);
+        store.save(phone, "111111", Instant.now().plusSeconds(60));
+        store.save(phone, "222222", Instant.now().plusSeconds(60));
+
+        assertThat(store.verify(phone, "111111")).isFalse();
+        assertThat(store.verify(phone, "222222")).isTrue();
+        // Verifying consumed the code and every earlier one
+        assertThat(store.verify(phone, "222222")).isFalse();
+        assertThat(store.verify(phone, "111111")).isFalse();
+    }
+
+    @Test
+    void sendLimitHoldsAcrossInstances() {
+        String phone = "+9197" + (System.nanoTime() % 100_000_000L);
+        // A second store on the same database stands in for another instance behind the load balancer
+        DatabaseOtpStore otherInstance = new DatabaseOtpStore(otpCodeRepository, sendLimitRepository, appProperties);
+        int sendLimit = appProperties.getSecurity().getOtp().getSendLimit();
+
+        int granted = 0;
+        for (int i = 0; i < sendLimit * 2; i++) {
+            DatabaseOtpStore instance = i % 2 == 0 ? store : otherInstance;
+            if (instance.acquireSendPermit(phone) == 0) {
+                granted++;
+            }
+        }
+
+        assertThat(granted).isEqualTo(sendLimit);
+        long windowMs = appProperties.getSecurity().getOtp().getSendWindowMs();
+        assertThat(store.acquireSendPermit(phone)).isBetween(1L, windowMs / sendLimit);
+        // Other phones have their own bucket
+        assertThat(otherInstance.acquireSendPermit(phone + "1")).isZero();
+    }
+}
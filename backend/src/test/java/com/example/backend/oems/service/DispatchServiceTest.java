@@ -0,0 +1,64 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.repository.BookingRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DispatchServiceTest {
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Test
+    void sweepClosesBookingsWhoseSearchOutlivedTheTimeout() {
+        AppProperties.Dispatch config = appProperties.getDispatch();
+        Duration searchWindow = Duration.ofMillis(config.getSearchTimeoutMs() + config.getOfferTimeoutMs());
+        // Left PENDING by an instance that stopped mid-search
+        UUID lost = pendingBooking(Instant.now().minus(searchWindow).minusSeconds(60));
+        // Possibly still searched for elsewhere
+        UUID recent = pendingBooking(Instant.now().minusSeconds(5));
+
+        dispatchService.sweepLostSearches();
+
+        assertThat(status(lost)).isEqualTo(Booking.BookingStatus.NO_DRIVER_AVAILABLE);
+        assertThat(status(recent)).isEqualTo(Booking.BookingStatus.PENDING);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private UUID pendingBooking(Instant createdAt) {
+        Booking booking = new Booking(UUID.randomUUID(), "Pickup", new BigDecimal("22.5726"), new BigDecimal("88.3639"),
+                "Drop", new BigDecimal("22.6026"), new BigDecimal("88.3839"), Booking.VehicleType.SEDAN);
+        booking.setCreatedAt(createdAt);
+        return tripService.createBooking(booking).getId();
+    }
+
+    private Booking.BookingStatus status(UUID bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+}
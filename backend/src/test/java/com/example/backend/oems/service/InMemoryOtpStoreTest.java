@@ -0,0 +1,50 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.oems.config.AppProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryOtpStoreTest {
+
+    private static final String PHONE = "+919876543210";
+
+    private final InMemoryOtpStore store = new InMemoryOtpStore(new AppProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void close() {
+        store.shutdown();
+    }
+
+    @Test
+    void matchingCodeIsConsumed() {
+        store.save(PHONE, "123456", Instant.now().plusSeconds(60));
+
+        assertThat(store.verify(PHONE, "654321")).isFalse();
+        assertThat(store.verify(PHONE, "123456")).isTrue();
+        assertThat(store.verify(PHONE, "123456")).isFalse();
+    }
+
+    @Test
+    void missingCodeIsRejectedWithoutConsumingTheLiveOne() {
+        store.save(PHONE, "123456", Instant.now().plusSeconds(60));
+
+        assertThat(store.verify(PHONE, null)).isFalse();
+        assertThat(store.verify(PHONE, "")).isFalse();
+        assertThat(store.verify(PHONE, "   ")).isFalse();
+        assertThat(store.verify(PHONE, "123456")).isTrue();
+    }
+
+    @Test
+    void expiredCodeIsRejected() {
+        store.save(PHONE, "123456", Instant.now().minusSeconds(1));
+
+        assertThat(store.verify(PHONE, "123456")).isFalse();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.backend.oems.entity.LogEntry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcRequestLogSinkTest {
+
+    @Autowired
+    private JdbcRequestLogSink sink;
+
+    @Test
+    void pagesWithTheExactOffsetAndLimit() {
+        String phone = "+9190" + (System.nanoTime() % 100_000_000L);
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<LogEntry> written = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LogEntry entry = new LogEntry();
+            entry.setId(UUID.randomUUID());
+            entry.setTimestamp(base.plusSeconds(i));
+            entry.setMethod("GET");
+            entry.setPath("/api/rides/" + i);
+            entry.setUserPhone(phone);
+            entry.setStatus(200);
+            written.add(entry);
+        }
+        sink.write(written);
+
+        // The audit view asks for page 1 of size 3 plus one entry to detect a further page
+        List<LogEntry> page = sink.search(new RequestLogSink.RequestLogQuery(null, null, "/api/rides", phone, 3, 4));
+
+        assertThat(page).extracting(LogEntry::getId).containsExactly(
+                written.get(6).getId(), written.get(5).getId(), written.get(4).getId(), written.get(3).getId());
+        assertThat(page.get(0).getTimestamp()).isEqualTo(written.get(6).getTimestamp());
+        assertThat(page.get(0).getUserPhone()).isEqualTo(phone);
+    }
+
+    @Test
+    void likeWildcardsInThePrefixMatchLiterally() {
+        String phone = "+9191" + (System.nanoTime() % 100_000_000L);
+        LogEntry entry = new LogEntry();
+        entry.setId(UUID.randomUUID());
+        entry.setTimestamp(Instant.now());
+        entry.setMethod("GET");
+        entry.setPath("/api/rides");
+        entry.setUserPhone(phone);
+        sink.write(List.of(entry));
+
+        assertThat(sink.search(new RequestLogSink.RequestLogQuery(null, null, "/api/r_des", phone, 0, 10))).isEmpty();
+        assertThat(sink.search(new RequestLogSink.RequestLogQuery(null, null, "/api/rides", phone, 0, 10))).hasSize(1);
+    }
+}
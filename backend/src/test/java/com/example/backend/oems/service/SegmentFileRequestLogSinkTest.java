@@ -0,0 +1,111 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.backend.oems.config.AppProperties;
+import com.example.backend.oems.entity.LogEntry;
+
+class SegmentFileRequestLogSinkTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private SegmentFileRequestLogSink sink;
+
+    @BeforeEach
+    void open() throws Exception {
+        sink = new SegmentFileRequestLogSink(properties());
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        sink.close();
+    }
+
+    @Test
+    void fieldsLongerThan64KbRoundTrip() throws Exception {
+        String metadata = "é".repeat(70_000);
+        LogEntry big = entry(0, "/api/rides", metadata);
+        sink.write(List.of(big, entry(1, "/api/rides", "small")));
+
+        List<LogEntry> found = sink.search(query(null, 0, 10));
+
+        assertThat(found).hasSize(2);
+        assertThat(found.get(1).getId()).isEqualTo(big.getId());
+        assertThat(found.get(1).getMetadata()).isEqualTo(metadata);
+        assertThat(found.get(0).getMetadata()).isEqualTo("small");
+    }
+
+    @Test
+    void pagesAcrossSegmentsNewestFirst() throws Exception {
+        // 100 KB records roll the 1 MB segments every nine or so entries
+        List<LogEntry> written = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            LogEntry entry = entry(i, i % 2 == 0 ? "/api/rides/" + i : "/api/auth/" + i, "x".repeat(100_000));
+            written.add(entry);
+            sink.write(List.of(entry));
+        }
+
+        List<LogEntry> page = sink.search(query("/api/rides", 4, 5));
+
+        // Rides are the even entries; newest first that is 28, 26, ... so skipping four starts at 20
+        assertThat(page).extracting(LogEntry::getId).containsExactly(
+                written.get(20).getId(), written.get(18).getId(), written.get(16).getId(),
+                written.get(14).getId(), written.get(12).getId());
+    }
+
+    @Test
+    void reopenedSinkReadsAndAppendsToExistingSegments() throws Exception {
+        LogEntry first = entry(0, "/api/rides", null);
+        sink.write(List.of(first));
+        sink.close();
+
+        sink = new SegmentFileRequestLogSink(properties());
+        LogEntry second = entry(1, "/api/rides", null);
+        sink.write(List.of(second));
+
+        assertThat(sink.search(query(null, 0, 10))).extracting(LogEntry::getId)
+                .containsExactly(second.getId(), first.getId());
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    private AppProperties properties() {
+        AppProperties properties = new AppProperties();
+        AppProperties.RequestLog.File file = properties.getRequestLog().getFile();
+        file.setDirectory(directory.toString());
+        file.setSegmentSizeMb(1);
+        file.setMaxSegments(8);
+        return properties;
+    }
+
+    private static LogEntry entry(int second, String path, String metadata) {
+        LogEntry entry = new LogEntry();
+        entry.setId(UUID.randomUUID());
+        entry.setTimestamp(BASE.plusSeconds(second));
+        entry.setMethod("GET");
+        entry.setPath(path);
+        entry.setStatus(200);
+        entry.setMetadata(metadata);
+        return entry;
+    }
+
+    private static RequestLogSink.RequestLogQuery query(String pathPrefix, int offset, int limit) {
+        return new RequestLogSink.RequestLogQuery(null, null, pathPrefix, null, offset, limit);
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.backend.oems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.backend.oems.entity.Booking;
+import com.example.backend.oems.entity.Payment;
+import com.example.backend.oems.entity.Showroom;
+import com.example.backend.oems.entity.Trip;
+import com.example.backend.oems.entity.Vehicle;
+import com.example.backend.oems.event.PaymentChangedEvent;
+import com.example.backend.oems.exception.ConflictException;
+import com.example.backend.oems.repository.DriverDailyStatsRepository;
+import com.example.backend.oems.repository.PaymentRepository;
+import com.example.backend.oems.repository.ShowroomHourlyStatsRepository;
+import com.example.backend.oems.repository.ShowroomRepository;
+
+/**
+ * A booking dispatched to a driver, accepted, started and completed, checked against every
+ * rollup fed by the trip finishing.
+ *
+ * The rollup repositories upsert with Postgres' ON CONFLICT, which H2 does not support, so they are
+ * replaced by mocks and the rows they would write are checked from the captured arguments.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TripLifecycleTest {
+
+    private static final double PICKUP_LAT = 22.5726;
+    private static final double PICKUP_LNG = 88.3639;
+    private static final double DROP_LAT = 22.6026;
+    private static final double DROP_LNG = 88.3839;
+
+    @MockitoBean
+    private DriverDailyStatsRepository driverDailyStatsRepository;
+
+    @MockitoBean
+    private ShowroomHourlyStatsRepository showroomHourlyStatsRepository;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    private FareEngine fareEngine;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private DriverStatsService driverStatsService;
+
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    @Autowired
+    private ShowroomAnalyticsService showroomAnalyticsService;
+
+    @Autowired
+    private ShowroomRepository showroomRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void completedTripIsCreditedToTheDriversDay() {
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        // Picking the customer up finishes nothing
+        verify(driverDailyStatsRepository, never()).increment(eq(driverId), any(), any(Integer.class),
+                any(Integer.class), any(Integer.class), any(), any(), any(), anyLong());
+
+        Trip completed = tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+
+        BigDecimal fare = completed.getActualFare();
+        ArgumentCaptor<BigDecimal> commission = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(driverDailyStatsRepository).increment(eq(driverId), eq(LocalDate.now(ZoneId.of("Asia/Kolkata"))),
+                eq(1), eq(0), eq(0), eq(fare), commission.capture(), eq(completed.getActualDistance()), eq(0L));
+        assertThat(fare).isPositive();
+        assertThat(commission.getValue())
+                .isEqualByComparingTo(fare.multiply(new BigDecimal("0.15")).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void fareIsMeteredFromTheRouteNotTheDriver() {
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+
+        Trip completed = tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+
+        double distanceKm = fareEngine.roadDistanceKm(PICKUP_LAT, PICKUP_LNG, DROP_LAT, DROP_LNG);
+        FareEngine.FareQuote metered = fareEngine.meter(Vehicle.VehicleType.SEDAN, distanceKm, 0.0, 1.0);
+        assertThat(completed.getActualFare()).isEqualByComparingTo(BigDecimal.valueOf(metered.total()));
+        assertThat(completed.getActualDistance()).isEqualByComparingTo(BigDecimal.valueOf(metered.distanceKm()));
+    }
+
+    @Test
+    void completingTheTripChargesItsPendingPayment() {
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        Payment pending = paymentRepository.findByBookingId(trip.getBookingId()).get(0);
+        assertThat(pending.getStatus()).isEqualTo(Payment.PaymentStatus.PENDING);
+
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        // Pickup leaves the payment alone
+        assertThat(paymentRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(Payment.PaymentStatus.PENDING);
+
+        Trip completed = tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+
+        Payment claimed = paymentRepository.findById(pending.getId()).orElseThrow();
+        assertThat(claimed.getStatus()).isIn(Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.COMPLETED,
+                Payment.PaymentStatus.FAILED);
+        assertThat(claimed.getIdempotencyKey()).isEqualTo("trip:" + trip.getId());
+        assertThat(claimed.getAmount()).isEqualByComparingTo(completed.getActualFare());
+
+        // The customer paying afterwards gets the same payment back, not a conflict
+        Payment charged = paymentService.charge(trip.getCustomerId(), trip.getBookingId(), null, null, null);
+        assertThat(charged.getId()).isEqualTo(pending.getId());
+        assertThat(charged.getStatus()).isNotEqualTo(Payment.PaymentStatus.CANCELLED);
+    }
+
+    @Test
+    void customerCannotPayTheEstimateDuringTheRide() {
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        Payment pending = paymentRepository.findByBookingId(trip.getBookingId()).get(0);
+
+        assertThatThrownBy(() -> paymentService.charge(trip.getCustomerId(), trip.getBookingId(), null, null, null))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("trip completes");
+        assertThat(paymentRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(Payment.PaymentStatus.PENDING);
+
+        // Completion still charges the metered fare
+        Trip completed = tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+        Payment claimed = paymentRepository.findById(pending.getId()).orElseThrow();
+        assertThat(claimed.getIdempotencyKey()).isEqualTo("trip:" + trip.getId());
+        assertThat(claimed.getAmount()).isEqualByComparingTo(completed.getActualFare());
+    }
+
+    @Test
+    void tipAfterTheRideIsChargedOnItsOwn() {
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        Payment fare = paymentRepository.findByBookingId(trip.getBookingId()).get(0);
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+
+        Payment tip = paymentService.charge(trip.getCustomerId(), trip.getBookingId(), null, new BigDecimal("50.00"), null);
+
+        assertThat(tip.getId()).isNotEqualTo(fare.getId());
+        assertThat(tip.getDriverId()).isEqualTo(driverId);
+        assertThat(tip.getAmount()).isEqualByComparingTo("50.00");
+        assertThat(tip.getTipAmount()).isEqualByComparingTo("50.00");
+        assertThat(tip.getIdempotencyKey()).isEqualTo("tip:" + trip.getBookingId());
+        assertThat(paymentRepository.findById(fare.getId()).orElseThrow().getTipAmount()).isZero();
+
+        // A second tip for the same booking is not taken
+        Payment again = paymentService.charge(trip.getCustomerId(), trip.getBookingId(), null, new BigDecimal("20.00"), null);
+        assertThat(again.getId()).isEqualTo(tip.getId());
+        assertThat(paymentRepository.findByBookingId(trip.getBookingId())).hasSize(2);
+    }
+
+    @Test
+    void settledTipsAndRefundsReachTheDriversDay() {
+        UUID driverId = UUID.randomUUID();
+        LocalDate today = LocalDate.now(ZoneId.of("Asia/Kolkata"));
+
+        // A captured tip is credited whole
+        driverStatsService.onPaymentChanged(new PaymentChangedEvent(UUID.randomUUID(), UUID.randomUUID(), driverId,
+                Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.COMPLETED,
+                new BigDecimal("50.00"), new BigDecimal("50.00"), new BigDecimal("50.00")));
+        verify(driverDailyStatsRepository).increment(eq(driverId), eq(today), eq(0), eq(0), eq(0),
+                eq(new BigDecimal("50.00")), eq(BigDecimal.ZERO), eq(BigDecimal.ZERO), eq(0L));
+
+        // Refunding 110 of a 220 payment carrying a 20 tip takes back the commission on 100 of fare
+        driverStatsService.onPaymentChanged(new PaymentChangedEvent(UUID.randomUUID(), UUID.randomUUID(), driverId,
+                Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDED,
+                new BigDecimal("-110.00"), new BigDecimal("220.00"), new BigDecimal("20.00")));
+        verify(driverDailyStatsRepository).increment(eq(driverId), eq(today), eq(0), eq(0), eq(0),
+                eq(new BigDecimal("-110.00")), eq(new BigDecimal("-15.00")), eq(BigDecimal.ZERO), eq(0L));
+
+        // A fare payment settling without a tip changes nothing; the fare came in with the trip
+        driverStatsService.onPaymentChanged(new PaymentChangedEvent(UUID.randomUUID(), UUID.randomUUID(), driverId,
+                Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.COMPLETED,
+                new BigDecimal("220.00"), new BigDecimal("220.00"), BigDecimal.ZERO));
+        verify(driverDailyStatsRepository, times(2)).increment(eq(driverId), any(),
+                any(Integer.class), any(Integer.class), any(Integer.class), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void dashboardCountsTheTripAsActiveUntilItCompletes() {
+        DashboardSnapshotService.Snapshot start = dashboardSnapshotService.snapshot();
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        assertCounters(start, 1, 0, 0);
+
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        assertCounters(start, 1, 0, 0);
+
+        tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+        assertCounters(start, 0, 1, 0);
+
+        // Reconciling against the database agrees with the event-maintained counters
+        dashboardSnapshotService.reconcile();
+        assertCounters(start, 0, 1, 0);
+    }
+
+    @Test
+    void completedTripShowsInTheShowroomReport() {
+        Showroom showroom = new Showroom("TST001", "Test Showroom", "Pickup", "Kolkata", "West Bengal");
+        showroom.setLatitude(PICKUP_LAT);
+        showroom.setLongitude(PICKUP_LNG);
+        UUID showroomId = showroomRepository.save(showroom).getId();
+
+        UUID driverId = UUID.randomUUID();
+        Trip trip = acceptRide(driverId);
+        tripService.startTrip(trip.getId(), driverId, bd(PICKUP_LAT), bd(PICKUP_LNG));
+        // Pickup is not a finished trip, so nothing is bucketed yet
+        assertThat(showroomAnalyticsService.lastDays(showroomId, 1, ShowroomAnalyticsService.Granularity.DAY)
+                .total().tripsCancelled()).isZero();
+        verify(showroomHourlyStatsRepository, never()).increment(eq(showroomId), any(), any(), any(Integer.class),
+                any(Integer.class), any(), anyLong());
+
+        Trip completed = tripService.completeTrip(trip.getId(), driverId, bd(DROP_LAT), bd(DROP_LNG));
+
+        verify(showroomHourlyStatsRepository).increment(eq(showroomId), any(), eq("SEDAN"), eq(1), eq(0),
+                eq(completed.getActualFare()), anyLong());
+        ShowroomAnalyticsService.Totals total = showroomAnalyticsService
+                .lastDays(showroomId, 1, ShowroomAnalyticsService.Granularity.DAY).total();
+        assertThat(total.tripsCompleted()).isEqualTo(1);
+        assertThat(total.tripsCancelled()).isZero();
+        assertThat(total.revenue()).isEqualByComparingTo(completed.getActualFare());
+        assertThat(total.completionRate()).isEqualTo(100.0);
+    }
+
+    // =====================
+    // HELPER METHODS
+    // =====================
+
+    /**
+     * Book a sedan ride next to an online driver and have the driver accept the offer
+     */
+    private Trip acceptRide(UUID driverId) {
+        driverLocationIndex.goOnline(driverId, UUID.randomUUID(), Vehicle.VehicleType.SEDAN, PICKUP_LAT, PICKUP_LNG);
+
+        FareEngine.FareQuote quote = fareEngine.estimate(PICKUP_LAT, PICKUP_LNG, DROP_LAT, DROP_LNG,
+                Vehicle.VehicleType.SEDAN, 1.0);
+        Booking booking = new Booking(UUID.randomUUID(), "Pickup", bd(PICKUP_LAT), bd(PICKUP_LNG),
+                "Drop", bd(DROP_LAT), bd(DROP_LNG), Booking.VehicleType.SEDAN);
+        booking.setEstimatedFare(BigDecimal.valueOf(quote.total()));
+        booking.setEstimatedDistance(BigDecimal.valueOf(quote.distanceKm()));
+        booking.setEstimatedDuration(quote.durationMinutes());
+        booking = tripService.createBooking(booking);
+
+        dispatchService.dispatch(booking, Vehicle.VehicleType.SEDAN, quote, Payment.PaymentMethod.CASH);
+        assertThat(dispatchService.findOffer(driverId)).isPresent();
+        return dispatchService.accept(booking.getId(), driverId);
+    }
+
+    private void assertCounters(DashboardSnapshotService.Snapshot start, long active, long completed, long cancelled) {
+        DashboardSnapshotService.Snapshot now = dashboardSnapshotService.snapshot();
+        assertThat(now.activeTrips() - start.activeTrips()).as("active trips").isEqualTo(active);
+        assertThat(now.completedTrips() - start.completedTrips()).as("completed trips").isEqualTo(completed);
+        assertThat(now.cancelledTrips() - start.cancelledTrips()).as("cancelled trips").isEqualTo(cancelled);
+    }
+
+    private static BigDecimal bd(double value) {
+        return BigDecimal.valueOf(value);
+    }
+}
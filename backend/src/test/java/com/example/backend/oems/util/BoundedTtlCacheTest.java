@@ -0,0 +1,84 @@
+package com.example.backend.oems.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.put("a", 1);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.containsKey("a")).isTrue();
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 50);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        Thread.sleep(80);
+
+        assertThat(cache.containsKey("a")).isFalse();
+        assertThat(cache.get("a")).isNull();
+        // Reading an expired entry drops it; cleanUp drops the rest
+        assertThat(cache.size()).isEqualTo(1);
+        cache.cleanUp();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void explicitExpiryIsCappedAtTheTtl() throws Exception {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 50);
+        cache.put("far", 1, System.currentTimeMillis() + 60_000);
+        cache.put("past", 2, System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("past")).isNull();
+        assertThat(cache.get("far")).isEqualTo(1);
+        Thread.sleep(80);
+        assertThat(cache.get("far")).isNull();
+    }
+
+    @Test
+    void sizeStaysBoundedAndExpiredEntriesGoFirst() throws Exception {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i, System.currentTimeMillis() + 20);
+        }
+        Thread.sleep(40);
+
+        // The overflowing insert is satisfied by purging the expired entries
+        cache.put(100, 100);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isZero();
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.getEvictionCount()).isPositive();
+    }
+
+    @Test
+    void invalidateRemovesEntries() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        cache.invalidate("a");
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backend.oems.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+    // 4 buckets of 5 ms: one rotation is 20 ms
+    private final HashedTimingWheel wheel = new HashedTimingWheel(5, TimeUnit.MILLISECONDS, 4, Runnable::run, "test-wheel");
+
+    @AfterEach
+    void close() {
+        wheel.close();
+    }
+
+    @Test
+    void delayOfSeveralRotationsWaitsOutItsRounds() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 110, TimeUnit.MILLISECONDS);
+
+        // The bucket comes round five times before the deadline; none of those passes may fire it
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start)).isGreaterThanOrEqualTo(110);
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(wheel.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void timeoutsFireInDeadlineOrderAcrossRounds() throws Exception {
+        CountDownLatch fired = new CountDownLatch(3);
+        StringBuffer order = new StringBuffer();
+
+        // 12 and 52 ms hash to the same bucket, 52 only on its third visit
+        wheel.schedule(() -> { order.append('c'); fired.countDown(); }, 52, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> { order.append('b'); fired.countDown(); }, 32, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> { order.append('a'); fired.countDown(); }, 12, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).hasToString("abc");
+    }
+
+    @Test
+    void cancelledTimeoutNeverRuns() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 30, TimeUnit.MILLISECONDS);
+        assertThat(wheel.pendingTimeouts()).isEqualTo(1);
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(wheel.pendingTimeouts()).isZero();
+
+        // Wait past the cancelled deadline, with a full rotation to spare
+        wheel.schedule(later::countDown, 80, TimeUnit.MILLISECONDS);
+        assertThat(later.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timeout.isExpired()).isFalse();
+    }
+
+    @Test
+    void expiredTimeoutCannotBeCancelled() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timeout.isExpired()).isTrue();
+    }
+
+    @Test
+    void closedWheelRejectsNewTimeouts() {
+        wheel.close();
+
+        assertThatThrownBy(() -> wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.backend.oems.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new MpscRingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<Integer>(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void fullBufferRejectsUntilTheConsumerFreesASlot() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+    }
+
+    @Test
+    void wrapsAroundInFifoOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        // Three elements per lap never line up with the four slots, so every slot is reused at every offset
+        int next = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+        }
+
+        assertThat(drained).hasSize(30);
+        for (int i = 0; i < drained.size(); i++) {
+            assertThat(drained.get(i)).isEqualTo(i);
+        }
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 100_000;
+        // A small buffer makes the producers wrap it thousands of times while racing each other
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                sent.add(executor.submit(() -> {
+                    start.await();
+                    for (long seq = 0; seq < perProducer; seq++) {
+                        while (!buffer.offer(producer << 32 | seq)) {
+                            // Yield rather than spin so the consumer gets a core on small machines
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            long[] nextSeq = new long[producers];
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < (long) producers * perProducer) {
+                assertThat(System.nanoTime()).as("drained before the deadline").isLessThan(deadline);
+                Long element = buffer.poll();
+                if (element == null) {
+                    Thread.yield();
+                    continue;
+                }
+                int producer = (int) (element >>> 32);
+                assertThat(element & 0xFFFFFFFFL).isEqualTo(nextSeq[producer]);
+                nextSeq[producer]++;
+                received++;
+            }
+            for (Future<?> future : sent) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(buffer.poll()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
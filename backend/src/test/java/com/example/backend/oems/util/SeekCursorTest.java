@@ -0,0 +1,46 @@
+package com.example.backend.oems.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.oems.exception.ValidationException;
+
+class SeekCursorTest {
+
+    @Test
+    void roundTripsTimestampAndId() {
+        Instant timestamp = Instant.parse("2026-03-14T09:26:53.589793238Z");
+        UUID id = UUID.randomUUID();
+
+        String cursor = SeekCursor.encode(timestamp, id);
+        SeekCursor.Position position = SeekCursor.decode(cursor);
+
+        assertThat(position).isEqualTo(new SeekCursor.Position(timestamp, id));
+        // Safe to pass as a query parameter without escaping
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void roundTripsTimestampsBeforeTheEpoch() {
+        Instant timestamp = Instant.parse("1969-12-31T23:59:59.5Z");
+        UUID id = new UUID(-1L, Long.MIN_VALUE);
+
+        assertThat(SeekCursor.decode(SeekCursor.encode(timestamp, id)))
+                .isEqualTo(new SeekCursor.Position(timestamp, id));
+    }
+
+    @Test
+    void rejectsCursorsItDidNotProduce() {
+        String valid = SeekCursor.encode(Instant.now(), UUID.randomUUID());
+
+        assertThatThrownBy(() -> SeekCursor.decode("not a cursor!")).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> SeekCursor.decode(valid.substring(0, valid.length() - 4)))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> SeekCursor.decode(valid + "AAAA")).isInstanceOf(ValidationException.class);
+    }
+}
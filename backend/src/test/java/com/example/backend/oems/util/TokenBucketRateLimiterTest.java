@@ -0,0 +1,115 @@
+package com.example.backend.oems.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsCappedAtCapacity() {
+        TokenBucketRateLimiter<String> limiter = new TokenBucketRateLimiter<>(3, 1, TimeUnit.HOURS, 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        // One token in twenty minutes
+        assertThat(limiter.tryAcquire("a")).isBetween(TimeUnit.MINUTES.toMillis(19), TimeUnit.MINUTES.toMillis(20));
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void tokensRefillWithElapsedTime() throws Exception {
+        TokenBucketRateLimiter<String> limiter = new TokenBucketRateLimiter<>(2, 200, TimeUnit.MILLISECONDS, 100);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isBetween(1L, 100L);
+
+        Thread.sleep(wait + 10);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void releaseReturnsATokenUpToCapacity() {
+        TokenBucketRateLimiter<String> limiter = new TokenBucketRateLimiter<>(2, 1, TimeUnit.HOURS, 100);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+
+        limiter.release("a");
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        // Releasing more than was taken never grows the burst
+        limiter.release("a");
+        limiter.release("a");
+        limiter.release("a");
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void resetGivesTheKeyAFullBucket() {
+        TokenBucketRateLimiter<String> limiter = new TokenBucketRateLimiter<>(1, 1, TimeUnit.HOURS, 100);
+        limiter.tryAcquire("a");
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        limiter.reset("a");
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void cleanUpDropsOnlyRefilledBuckets() throws Exception {
+        TokenBucketRateLimiter<String> limiter = new TokenBucketRateLimiter<>(1, 50, TimeUnit.MILLISECONDS, 100);
+        limiter.tryAcquire("a");
+        Thread.sleep(80);
+        TokenBucketRateLimiter<String> slow = new TokenBucketRateLimiter<>(1, 1, TimeUnit.HOURS, 100);
+        slow.tryAcquire("b");
+
+        limiter.cleanUp();
+        slow.cleanUp();
+
+        assertThat(limiter.size()).isZero();
+        assertThat(slow.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keyCountStaysBoundedUnderManyKeys() {
+        // 16 shards of 2 keys each
+        TokenBucketRateLimiter<Integer> limiter = new TokenBucketRateLimiter<>(1, 1, TimeUnit.HOURS, 32);
+
+        for (int key = 0; key < 10_000; key++) {
+            assertThat(limiter.tryAcquire(key)).isZero();
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(32);
+        // Every bucket was drained, so making room meant evicting live state
+        assertThat(limiter.getEvictionCount()).isGreaterThanOrEqualTo(10_000 - 32);
+    }
+
+    @Test
+    void refilledBucketsMakeRoomBeforeLiveOnesAreEvicted() throws Exception {
+        // One key per shard; 0 and 16 hash to the same shard
+        TokenBucketRateLimiter<Integer> fast = new TokenBucketRateLimiter<>(1, 50, TimeUnit.MILLISECONDS, 16);
+        TokenBucketRateLimiter<Integer> slow = new TokenBucketRateLimiter<>(1, 1, TimeUnit.HOURS, 16);
+        fast.tryAcquire(0);
+        slow.tryAcquire(0);
+        Thread.sleep(80);
+
+        fast.tryAcquire(16);
+        slow.tryAcquire(16);
+
+        // The refilled bucket is simply forgotten; the drained one had to be evicted
+        assertThat(fast.getEvictionCount()).isZero();
+        assertThat(slow.getEvictionCount()).isEqualTo(1);
+        assertThat(fast.size()).isEqualTo(1);
+        assertThat(slow.size()).isEqualTo(1);
+    }
+}
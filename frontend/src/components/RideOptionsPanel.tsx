@@ -80,7 +80,7 @@ const RideOptionsPanel: React.FC = () => {
                       <div className="font-semibold">{option.name}</div>
                       <div className="text-sm text-gray-600 flex items-center gap-2">
                         <Clock className="w-4 h-4" />
-                        {option.eta} min away
+                        {option.eta !== null ? `${option.eta} min away` : 'No drivers nearby'}
                         <Users className="w-4 h-4 ml-2" />
                         {option.capacity}
                       </div>
@@ -3,6 +3,7 @@ import { motion } from "framer-motion";
 import { Star, Clock, MapPin } from "lucide-react";
 import { Trip } from "../contexts/rideStore";
 import Button from "./Button";
+import { rateTrip, tipTrip } from "../services/rideService";
 
 interface TripStatusModalProps {
   trip: Trip;
@@ -14,8 +15,19 @@ const TripStatusModal: React.FC<TripStatusModalProps> = ({ trip }) => {
   const [feedback, setFeedback] = useState("");
   const [showReceipt, setShowReceipt] = useState(false);
 
-  const handleSubmitRating = () => {
-    console.log("Rating submitted:", { rating, tip, feedback });
+  const handleSubmitRating = async () => {
+    try {
+      await rateTrip(trip.id, rating, feedback);
+    } catch (error) {
+      console.error("Failed to submit rating:", error);
+    }
+    if (tip > 0) {
+      try {
+        await tipTrip(trip.bookingId, tip);
+      } catch (error) {
+        console.error("Failed to send tip:", error);
+      }
+    }
     setShowReceipt(true);
   };
 
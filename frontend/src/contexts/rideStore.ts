@@ -26,13 +26,14 @@ export interface RideOption {
   name: string;
   type: string;
   price: number;
-  eta: number;
+  eta: number | null; // null when no driver of this type is nearby
   icon: string;
   capacity: number;
 }
 
 export interface Trip {
-  id: string;
+  id: string; // empty until a driver accepts the booking
+  bookingId: string;
   pickupLocation: Location;
   destination: Location;
   driver: Driver;
@@ -1,4 +1,4 @@
-import React, { useState } from "react";
+import React, { useEffect, useState } from "react";
 import { motion, AnimatePresence } from "framer-motion";
 import { Menu, Navigation, MapPin, Car, Clock } from "lucide-react";
 import MapComponent from "../components/MapComponent";
@@ -8,14 +8,41 @@ import DriverInfoCard from "../components/DriverInfoCard";
 import MainMenu from "../components/MainMenu";
 import TripStatusModal from "../components/TripStatusModal";
 import SafetyModal from "../components/SafetyModal";
-import { useRideStore } from "../contexts/rideStore";
+import { useRideStore, Trip } from "../contexts/rideStore";
 import { useAuthStore } from "../contexts/authStore";
+import { subscribeToBooking } from "../services/rideService";
 
 const DashboardPage: React.FC = () => {
   const [showMenu, setShowMenu] = useState(false);
   const [showSafety, setShowSafety] = useState(false);
   const { currentTrip, destination, userLocation } = useRideStore();
   const { user } = useAuthStore();
+  const bookingId = currentTrip?.bookingId;
+
+  // Follow the booking and its trip over the server event stream
+  useEffect(() => {
+    if (!bookingId) return;
+    const update = (changes: (trip: Trip) => Trip) => {
+      const trip = useRideStore.getState().currentTrip;
+      if (trip && trip.bookingId === bookingId) {
+        useRideStore.getState().setCurrentTrip(changes(trip));
+      }
+    };
+    return subscribeToBooking(bookingId, {
+      onStatus: (status, tripId) =>
+        update((trip) => ({
+          ...trip,
+          id: tripId ?? trip.id,
+          status,
+          endTime: status === "completed" ? new Date() : trip.endTime,
+        })),
+      onDriverLocation: (latitude, longitude) =>
+        update((trip) => ({
+          ...trip,
+          driver: { ...trip.driver, location: { ...trip.driver.location, latitude, longitude } },
+        })),
+    });
+  }, [bookingId]);
 
   const showRideOptions = destination && !currentTrip;
   const showDriverInfo =
@@ -35,58 +35,53 @@ export const bookRide = async (request: BookRideRequest): Promise<Trip> => {
     profilePicture: "https://via.placeholder.com/64x64?text=DRV",
     vehicle: { make: "", model: "", color: "", licensePlate: "" },
     location: { ...request.pickupLocation },
-    eta: 5,
+    eta: request.rideOption.eta ?? 5,
   };
   const trip: Trip = {
-    id: String(data.id),
+    id: "",
+    bookingId: String(data.bookingId),
     pickupLocation: request.pickupLocation,
     destination: request.destination,
     driver,
     rideOption: request.rideOption,
-    status: data.status,
-    price: request.rideOption.price,
+    status: "searching",
+    price: Number(data.price ?? request.rideOption.price),
     startTime: new Date(),
   };
 
-  // Simulate status updates client-side for UX until realtime backend exists
-  setTimeout(() => {
-    trip.status = "driver_assigned";
-    trip.driver = {
-      ...driver,
-      id: "driver_123",
-      name: "Rajesh Kumar",
-      rating: 4.8,
-      profilePicture: "https://via.placeholder.com/64x64?text=RK",
-      vehicle: { make: "Maruti", model: "Swift", color: "White", licensePlate: "WB 01 AB 1234" },
-      eta: 3,
-    } as Driver;
-  }, 3000);
-
-  setTimeout(() => {
-    trip.status = "pickup";
-  }, 8000);
-
-  setTimeout(() => {
-    trip.status = "in_progress";
-  }, 12000);
-
-  setTimeout(() => {
-    trip.status = "completed";
-    trip.endTime = new Date();
-  }, 20000);
-
   return trip;
 };
 
-export const cancelRide = async (tripId: string): Promise<void> => {
+export const cancelRide = async (bookingId: string): Promise<void> => {
   const phone = (window as any).currentUser?.phone;
-  const res = await fetch(`${API_BASE}/rides/${tripId}/cancel`, {
+  const res = await fetch(`${API_BASE}/rides/bookings/${bookingId}/cancel`, {
     method: "POST",
     headers: { ...(phone ? { "X-User-Phone": phone } : {}) },
   });
   if (!res.ok) throw new Error("Failed to cancel ride");
 };
 
+export const rateTrip = async (tripId: string, rating: number, feedback?: string): Promise<void> => {
+  const phone = (window as any).currentUser?.phone;
+  const res = await fetch(`${API_BASE}/rides/${tripId}/rating`, {
+    method: "POST",
+    headers: { "Content-Type": "application/json", ...(phone ? { "X-User-Phone": phone } : {}) },
+    body: JSON.stringify({ rating, feedback }),
+  });
+  if (!res.ok) throw new Error("Failed to submit rating");
+};
+
+export const tipTrip = async (bookingId: string, tipAmount: number): Promise<void> => {
+  // Charged on its own once the fare has been; the server takes one tip per booking
+  const res = await fetch(`${API_BASE}/payments/charge`, {
+    method: "POST",
+    credentials: "include",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({ bookingId, tipAmount }),
+  });
+  if (!res.ok) throw new Error("Failed to send tip");
+};
+
 export const getRideEstimate = async (
   pickup: Location,
   destination: Location
@@ -101,3 +96,58 @@ export const getRideEstimate = async (
   const options = await res.json();
   return options as RideOption[];
 };
+
+const toTripStatus = (status: string): Trip["status"] => {
+  switch (status) {
+    case "STARTED":
+      return "driver_assigned";
+    case "IN_PROGRESS":
+      return "in_progress";
+    case "COMPLETED":
+      return "completed";
+    case "CANCELLED":
+      return "cancelled";
+    default:
+      return "searching";
+  }
+};
+
+interface TripStreamHandlers {
+  onStatus: (status: Trip["status"], tripId?: string) => void;
+  onDriverLocation: (latitude: number, longitude: number) => void;
+}
+
+/**
+ * Subscribe to server-pushed updates for a booking: the driver search, then the status
+ * changes and driver positions of the trip opened when a driver accepts.
+ * Returns a function that closes the stream.
+ */
+export const subscribeToBooking = (bookingId: string, handlers: TripStreamHandlers): (() => void) => {
+  const source = new EventSource(`${API_BASE}/rides/bookings/${bookingId}/events`);
+
+  source.addEventListener("booking", (event) => {
+    const status = JSON.parse((event as MessageEvent).data).status;
+    // Assignment is reported by the trip's own status event; only the end of a booking matters here
+    if (status === "NO_DRIVER_AVAILABLE" || status === "CANCELLED") {
+      handlers.onStatus("cancelled");
+      source.close();
+    }
+  });
+
+  source.addEventListener("status", (event) => {
+    const data = JSON.parse((event as MessageEvent).data);
+    const status = toTripStatus(data.status);
+    handlers.onStatus(status, String(data.tripId));
+    // The server closes the stream once the trip is finished; stop EventSource from reconnecting
+    if (status === "completed" || status === "cancelled") {
+      source.close();
+    }
+  });
+
+  source.addEventListener("driver-location", (event) => {
+    const position = JSON.parse((event as MessageEvent).data);
+    handlers.onDriverLocation(position.latitude, position.longitude);
+  });
+
+  return () => source.close();
+};